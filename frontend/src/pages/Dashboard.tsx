@@ -18,10 +18,9 @@ export const Dashboard = () => {
     const loadData = async () => {
         setLoading(true);
         try {
-            const artistsData = await spotifyService.getTopArtists();
-            setTopArtists(artistsData);
-            const tracksData = await spotifyService.getTopTracks();
-            setTopTracks(tracksData);
+            const dashboard = await spotifyService.getDashboard();
+            setTopArtists(dashboard.topArtists.data ?? []);
+            setTopTracks(dashboard.topTracks.data ?? []);
         } catch (error) {
             console.error('Failed to load data:', error);
         } finally {
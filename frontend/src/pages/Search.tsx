@@ -1,8 +1,9 @@
-import { useState } from 'react';
+import { useCallback, useEffect, useRef, useState } from 'react';
+import axios from 'axios';
 import { Search as SearchIcon } from 'lucide-react';
 import { TrackCard } from '../components/TrackCard';
 import { Button } from '../components/ui/Button'
-import type { SearchResults } from '../types';
+import type { SearchResults, Suggestion } from '../types';
 import { AlbumCard } from '../components/AlbumCard';
 import { ArtistCard } from '../components/ArtistCard';
 import { PlaylistCard } from '../components/PlaylistCard';
@@ -16,22 +17,72 @@ function SearchPage() {
   const [query, setQuery] = useState('');
   const [results, setResults] = useState<SearchResults | null>(null);
   const [loading, setLoading] = useState(false);
+  const [streaming, setStreaming] = useState(false);
   const [hasSearched, setHasSearched] = useState(false);
+  const [suggestions, setSuggestions] = useState<Suggestion[]>([]);
+  const suggestTimer = useRef<ReturnType<typeof setTimeout> | undefined>(undefined);
+  const suggestRequest = useRef<AbortController | null>(null);
+
+  const cancelSuggest = useCallback(() => {
+    clearTimeout(suggestTimer.current);
+    suggestRequest.current?.abort();
+  }, []);
+
+  useEffect(() => cancelSuggest, [cancelSuggest]);
+
+  // Ask once typing pauses, and drop any answer for a query that has since changed, so a slow response for "ab"
+  // can never overwrite the one for "abc".
+  const handleQueryChange = (value: string) => {
+    setQuery(value);
+    cancelSuggest();
+    if (!value.trim()) {
+      setSuggestions([]);
+      return;
+    }
+    suggestTimer.current = setTimeout(async () => {
+      const request = new AbortController();
+      suggestRequest.current = request;
+      try {
+        const found = await spotifyService.suggest(value, request.signal);
+        if (!request.signal.aborted) {
+          setSuggestions(found);
+        }
+      } catch (error) {
+        if (axios.isCancel(error) || request.signal.aborted) return;
+        console.error('Suggest failed:', error);
+        setSuggestions([]);
+      }
+    }, 150);
+  };
 
   const handleSearch = async (e: React.FormEvent) => {
     e.preventDefault();
     if (!query.trim()) return;
 
+    cancelSuggest();
+    setSuggestions([]);
     setLoading(true);
+    setStreaming(true);
     setHasSearched(true);
+    setResults(null);
     try {
-      const searchResults = await spotifyService.search(query);
-      setResults(searchResults);
+      // Render each section as soon as it arrives instead of waiting for the slowest one.
+      await spotifyService.streamSearch(query, (section) => {
+        if (section.status !== 'OK') {
+          console.warn(`Search section ${section.type} unavailable:`, section.error);
+        }
+        setResults((previous) => ({
+          ...(previous ?? { tracks: [], albums: [], artists: [], playlists: [] }),
+          [section.type]: section.items,
+        }) as SearchResults);
+        setLoading(false);
+      });
     } catch (error) {
       console.error('Search failed:', error);
       setResults(null);
     } finally {
       setLoading(false);
+      setStreaming(false);
     }
   };
 
@@ -61,10 +112,31 @@ function SearchPage() {
               <input
                 type="text"
                 value={query}
-                onChange={(e) => setQuery(e.target.value)}
+                onChange={(e) => handleQueryChange(e.target.value)}
                 placeholder="Search for tracks, albums, artists, or playlists..."
                 className="w-full pl-10 pr-4 py-3 bg-gray-800 border border-gray-700 rounded-lg text-white placeholder-gray-400 focus:outline-none focus:ring-2 focus:ring-green-500 focus:border-transparent"
               />
+              {suggestions.length > 0 && (
+                <ul className="absolute z-10 mt-1 w-full bg-gray-800 border border-gray-700 rounded-lg overflow-hidden">
+                  {suggestions.map((suggestion) => (
+                    <li
+                      key={`${suggestion.type}:${suggestion.id}`}
+                      onMouseDown={() => {
+                        cancelSuggest();
+                        setQuery(suggestion.name);
+                        setSuggestions([]);
+                      }}
+                      className="flex items-center gap-3 px-4 py-2 text-white hover:bg-gray-700 cursor-pointer"
+                    >
+                      {suggestion.imageUrl && (
+                        <img src={suggestion.imageUrl} alt="" className="w-8 h-8 rounded object-cover" />
+                      )}
+                      <span className="flex-1 truncate">{suggestion.name}</span>
+                      <span className="text-xs text-gray-400 capitalize">{suggestion.type}</span>
+                    </li>
+                  ))}
+                </ul>
+              )}
             </div>
             <Button type="submit" loading={loading} disabled={!query.trim()}>
               Search
@@ -114,7 +186,7 @@ function SearchPage() {
         )}
 
         {/* No Results */}
-        {!loading && hasSearched && results &&
+        {!loading && !streaming && hasSearched && results &&
           !results.tracks?.length && !results.albums?.length &&
           !results.artists?.length && !results.playlists?.length && (
             <div className="text-center py-12">
@@ -1,7 +1,7 @@
 import { API_CONFIG } from '../config/api';
 import axiosInstance from './AxiosInstance';
 import type { AxiosResponse } from 'axios';
-import type { Track, Artist, Album, SearchResults, ArtistPageResults } from '../types';
+import type { Track, Artist, Album, SearchResults, SearchSection, Suggestion, ArtistPageResults, DashboardResults } from '../types';
 
 class SpotifyService {
     async search(query: string): Promise<SearchResults> {
@@ -13,6 +13,47 @@ class SpotifyService {
         return response.data;
     }
 
+    async suggest(query: string, signal?: AbortSignal): Promise<Suggestion[]> {
+        const response: AxiosResponse<Suggestion[]> = await axiosInstance.get(
+            `${API_CONFIG.BASE_URL}/search/suggest`,
+            { params: { q: query }, signal }
+        );
+        return response.data;
+    }
+
+    // EventSource cannot send the Authorization header, so the event stream is read from fetch directly.
+    async streamSearch(query: string, onSection: (section: SearchSection) => void): Promise<void> {
+        const token = localStorage.getItem('spotify_token');
+        const response = await fetch(
+            `${API_CONFIG.BASE_URL}/search/stream?q=${encodeURIComponent(query)}`,
+            { headers: token ? { Authorization: `Bearer ${token}` } : {} }
+        );
+        if (!response.ok || !response.body) {
+            throw new Error(`Search stream failed with status ${response.status}`);
+        }
+
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        for (;;) {
+            const { done, value } = await reader.read();
+            if (done) return;
+            buffer += decoder.decode(value, { stream: true });
+
+            let boundary = buffer.indexOf('\n\n');
+            while (boundary >= 0) {
+                const event = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+                const lines = event.split('\n');
+                const name = lines.find((line) => line.startsWith('event:'))?.slice(6).trim();
+                const data = lines.filter((line) => line.startsWith('data:')).map((line) => line.slice(5)).join('\n');
+                if (name === 'done') return;
+                if (name === 'section' && data) onSection(JSON.parse(data));
+                boundary = buffer.indexOf('\n\n');
+            }
+        }
+    }
+
     async artistPage(id: string): Promise<ArtistPageResults> {
         const response: AxiosResponse<ArtistPageResults> = await axiosInstance.get(
             `${API_CONFIG.BASE_URL}/artists/${id}`
@@ -20,6 +61,13 @@ class SpotifyService {
         return response.data;
     }
 
+    async getDashboard(): Promise<DashboardResults> {
+        const response: AxiosResponse<DashboardResults> = await axiosInstance.get(
+          `${API_CONFIG.BASE_URL}/dashboard`,
+        );
+        return response.data;
+    }
+
     async getTopArtists(): Promise<Artist[]> {
         const response: AxiosResponse<Artist[]> = await axiosInstance.get(
           `${API_CONFIG.BASE_URL}/artists/top`,
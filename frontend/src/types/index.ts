@@ -87,6 +87,38 @@ export interface SearchResults {
     playlists: Playlist[];
 }
 
+export type DashboardSectionStatus = 'OK' | 'ERROR' | 'TIMEOUT';
+
+export interface DashboardSection<T> {
+    status: DashboardSectionStatus;
+    data: T | null;
+    error?: string | null;
+    code?: number | null;
+}
+
+export type SearchSectionType = 'tracks' | 'albums' | 'artists' | 'playlists';
+
+export interface SearchSection {
+    type: SearchSectionType;
+    status: DashboardSectionStatus;
+    items: Track[] | Album[] | Artist[] | Playlist[];
+    error?: string | null;
+    code?: number | null;
+}
+
+export interface Suggestion {
+    type: 'artist' | 'track' | 'album' | 'playlist';
+    id: string;
+    name: string;
+    imageUrl?: string | null;
+}
+
+export interface DashboardResults {
+    profile: DashboardSection<User>;
+    topArtists: DashboardSection<Artist[]>;
+    topTracks: DashboardSection<Track[]>;
+}
+
 export interface ArtistPageResults {
     artistProfile: Artist;
     topTracks: Track[];
@@ -0,0 +1,61 @@
+package com.luis.spotify;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.simulator.SyntheticCatalog;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Set;
+
+/**
+ * Full-size Spotify responses for the benchmarks, rendered from the simulator's deterministic catalog so every run
+ * (and every machine) decodes exactly the same bytes.
+ */
+public final class BenchmarkPayloads {
+
+    public static final String SEARCH_QUERY = "taylor";
+
+    private static final SyntheticCatalog CATALOG = new SyntheticCatalog(42, 2000, "https://api.spotify.com/v1");
+    private static final ObjectMapper WRITER = new ObjectMapper();
+
+    private BenchmarkPayloads() {
+    }
+
+    /** An {@code ObjectMapper} configured the way Spring Boot configures the one behind {@code RestClient}. */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    public static SyntheticCatalog catalog() {
+        return CATALOG;
+    }
+
+    /** {@code /search} for all four types, as the app requests it, with {@code limit} items per type. */
+    public static byte[] search(int limit) {
+        return json(CATALOG.search(SEARCH_QUERY, Set.of("album", "track", "playlist", "artist"), limit, 0, true));
+    }
+
+    public static byte[] album(int index) {
+        return json(CATALOG.album(CATALOG.albumId(index)));
+    }
+
+    public static byte[] artistTopTracks(int index) {
+        return json(CATALOG.artistTopTracks(CATALOG.artistId(index)));
+    }
+
+    public static byte[] userTopArtists(int limit) {
+        return json(CATALOG.userTop("benchmark-user", "artists", limit, 0));
+    }
+
+    public static byte[] userTopTracks(int limit) {
+        return json(CATALOG.userTop("benchmark-user", "tracks", limit, 0));
+    }
+
+    private static byte[] json(Object value) {
+        try {
+            return WRITER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request cost of {@link JwtAuthenticationFilter} for a signed-in user whose token is already in the
+ * verified-token cache: header parsing, the cache lookup and populating the security context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProviderServiceImpl tokenProvider = new JwtTokenProviderServiceImpl();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", Base64.getEncoder().encodeToString(new byte[48]));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxTtl", Duration.ofMinutes(5));
+        tokenProvider.init();
+
+        DefaultOAuth2User user = new DefaultOAuth2User(List.of(),
+                Map.of("id", "benchmark-user", "display_name", "Benchmark User"), "id");
+        String token = tokenProvider.generateToken(new OAuth2AuthenticationToken(user, List.of(), "spotify"));
+
+        filter = new JwtAuthenticationFilter(tokenProvider);
+        request = new MockHttpServletRequest("GET", "/spotify/api/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void authenticateRequest(Blackhole blackhole) throws ServletException, IOException {
+        FilterChain chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        filter.doFilterInternal(request, response, chain);
+        SecurityContextHolder.clearContext();
+    }
+}
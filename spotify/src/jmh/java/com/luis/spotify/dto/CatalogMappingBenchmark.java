@@ -0,0 +1,83 @@
+package com.luis.spotify.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.BenchmarkPayloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding the catalog and per-user responses into our DTOs, the way {@code RestClient} does for every call that
+ * misses the caches, and encoding the album page we send back. The album decode includes folding the nested
+ * {@code tracks} page into {@link SpotifyAlbum#getTrack()}; the top-tracks decode runs the lenient element
+ * deserializer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogMappingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private JavaType artistPageType;
+    private JavaType trackPageType;
+    private byte[] album;
+    private byte[] artistTopTracks;
+    private byte[] userTopArtists;
+    private byte[] userTopTracks;
+    private SpotifyAlbum decodedAlbum;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkPayloads.objectMapper();
+        artistPageType = objectMapper.getTypeFactory().constructType(new TypeReference<SpotifyPage<SpotifyArtist>>() {});
+        trackPageType = objectMapper.getTypeFactory().constructType(new TypeReference<SpotifyPage<SpotifyTrack>>() {});
+        album = BenchmarkPayloads.album(0);
+        artistTopTracks = BenchmarkPayloads.artistTopTracks(0);
+        userTopArtists = BenchmarkPayloads.userTopArtists(8);
+        userTopTracks = BenchmarkPayloads.userTopTracks(10);
+        decodedAlbum = objectMapper.readValue(album, SpotifyAlbum.class);
+    }
+
+    @Benchmark
+    public SpotifyAlbum decodeAlbum() throws IOException {
+        return objectMapper.readValue(album, SpotifyAlbum.class);
+    }
+
+    @Benchmark
+    public byte[] encodeAlbum() throws IOException {
+        return objectMapper.writeValueAsBytes(decodedAlbum);
+    }
+
+    @Benchmark
+    public List<SpotifyTrack> decodeArtistTopTracks() throws IOException {
+        return objectMapper.readValue(artistTopTracks, SpotifyArtistTopTracks.class).getTracks();
+    }
+
+    @Benchmark
+    public List<SpotifyArtist> decodeUserTopArtists() throws IOException {
+        SpotifyPage<SpotifyArtist> page = objectMapper.readValue(userTopArtists, artistPageType);
+        return SpotifyPage.itemsOf(page);
+    }
+
+    @Benchmark
+    public List<SpotifyTrack> decodeUserTopTracks() throws IOException {
+        SpotifyPage<SpotifyTrack> page = objectMapper.readValue(userTopTracks, trackPageType);
+        return SpotifyPage.itemsOf(page);
+    }
+}
@@ -0,0 +1,79 @@
+package com.luis.spotify.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing our JWT after login and checking it on every request. {@code validateTokenWarm} is the common case where
+ * the verified-token cache already holds the token; {@code validateTokenCold} runs with the cache disabled, so every
+ * call pays for the HMAC check and claims parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProviderServiceImpl cachingProvider;
+    private JwtTokenProviderServiceImpl uncachedProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(new byte[48]);
+        cachingProvider = provider(secret, 10_000);
+        uncachedProvider = provider(secret, 0);
+
+        DefaultOAuth2User user = new DefaultOAuth2User(List.of(),
+                Map.of("id", "benchmark-user", "display_name", "Benchmark User"), "id");
+        authentication = new OAuth2AuthenticationToken(user, List.of(), "spotify");
+        token = cachingProvider.generateToken(authentication);
+        cachingProvider.validateToken(token);
+    }
+
+    private static JwtTokenProviderServiceImpl provider(String secret, long verifiedCacheMaxSize) {
+        JwtTokenProviderServiceImpl provider = new JwtTokenProviderServiceImpl();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxTtl", Duration.ofMinutes(5));
+        provider.init();
+        return provider;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateTokenWarm() {
+        return cachingProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenCold() {
+        return uncachedProvider.validateToken(token);
+    }
+}
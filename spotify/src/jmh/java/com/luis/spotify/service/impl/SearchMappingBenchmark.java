@@ -0,0 +1,65 @@
+package com.luis.spotify.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.BenchmarkPayloads;
+import com.luis.spotify.dto.SpotifySearchResponse;
+import com.luis.spotify.dto.SpotifySearchResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search hot path: decoding a four-type Spotify search response, mapping it with
+ * {@link SpotifySearchApiServiceImpl#mapSearchResults} and encoding the result for our client.
+ * {@code limit} 8 is what the app requests; 50 is the largest page Spotify returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchMappingBenchmark {
+
+    @Param({"8", "50"})
+    public int limit;
+
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+    private SpotifySearchResponse response;
+    private SpotifySearchResults results;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkPayloads.objectMapper();
+        payload = BenchmarkPayloads.search(limit);
+        response = objectMapper.readValue(payload, SpotifySearchResponse.class);
+        results = SpotifySearchApiServiceImpl.mapSearchResults(response);
+    }
+
+    @Benchmark
+    public SpotifySearchResults mapSearchResults() {
+        return SpotifySearchApiServiceImpl.mapSearchResults(response);
+    }
+
+    @Benchmark
+    public SpotifySearchResults decodeAndMapSearchResults() throws IOException {
+        return SpotifySearchApiServiceImpl.mapSearchResults(objectMapper.readValue(payload, SpotifySearchResponse.class));
+    }
+
+    @Benchmark
+    public byte[] encodeSearchResults() throws IOException {
+        return objectMapper.writeValueAsBytes(results);
+    }
+}
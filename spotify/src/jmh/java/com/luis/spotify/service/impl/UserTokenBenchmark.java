@@ -0,0 +1,75 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.model.UserSpotifyTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SpotifyApiServiceImpl#getAndRefreshUserToken} for signed-in users whose tokens are cached and still valid,
+ * which is what every Spotify call starts with. Runs with several threads to include contention on the token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class UserTokenBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private SpotifyApiServiceImpl spotifyApiService;
+    private String[] userIds;
+
+    @Setup
+    public void setUp() {
+        // Every user is cached up front, so the repository behind the cache is never consulted.
+        UserSpotifyTokenCache tokenCache = new UserSpotifyTokenCache(null, USERS * 2L, Duration.ofHours(2));
+        userIds = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            UserSpotifyTokens tokens = new UserSpotifyTokens();
+            tokens.setSpotifyUserId("benchmark-user-" + i);
+            tokens.setAccessToken("access-token-" + i);
+            tokens.setRefreshToken("refresh-token-" + i);
+            tokens.setAccessTokenExpiresAt(Instant.now().plus(Duration.ofDays(1)));
+            tokenCache.put(tokens);
+            userIds[i] = tokens.getSpotifyUserId();
+        }
+        spotifyApiService = new SpotifyApiServiceImpl(RestClient.builder(), tokenCache,
+                new InMemoryTokenRefreshCoordinator(), new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            next = (int) Thread.currentThread().getId() * 7919;
+        }
+    }
+
+    @Benchmark
+    public UserSpotifyTokens getCachedUserToken(Cursor cursor) {
+        String userId = userIds[Math.floorMod(cursor.next++, USERS)];
+        return spotifyApiService.getAndRefreshUserToken(userId);
+    }
+}
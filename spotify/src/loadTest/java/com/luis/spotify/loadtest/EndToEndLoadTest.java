@@ -0,0 +1,336 @@
+package com.luis.spotify.loadtest;
+
+import com.luis.spotify.SpotifyApplication;
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.loadtest.LoadTestReport.EndpointResult;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import com.luis.spotify.simulator.SimulatorSettings;
+import com.luis.spotify.simulator.SpotifySimulator;
+import com.luis.spotify.simulator.SyntheticCatalog;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the whole backend, JWT filter to Spotify client, with a mix of the endpoints the frontend calls and checks
+ * the result against latency and throughput SLOs.
+ * <p>
+ * The app runs in this JVM with the {@code simulator} and {@code loadtest} profiles, talking to an embedded
+ * {@link SpotifySimulator}. Users are seeded straight into the token store with simulator-issued Spotify tokens, and
+ * each gets a JWT from the app's own provider, so no browser login is needed. {@code load.concurrency} closed-loop
+ * clients then send requests picked by the {@code load.mix} weights; catalog ids and search terms are skewed towards
+ * a popular head, so the caches see both hits and misses.
+ * <p>
+ * Results go to {@code build/reports/load-test/results.json} and {@code index.html}. With a baseline
+ * ({@code src/loadTest/baseline.json} by default) the run fails when the {@link SloGate} finds a regression; record a
+ * new baseline on the reference machine with {@code -Pload.update-baseline=true}.
+ * <p>
+ * Run with {@code gradle loadTest}; see {@link LoadTestSettings} for the {@code load.*} knobs. {@code simulator.*}
+ * properties tune the simulated Spotify API as they do for {@code gradle runSpotifySimulator}.
+ */
+public final class EndToEndLoadTest {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final long SEED = 42;
+
+    private EndToEndLoadTest() {
+    }
+
+    /** Latencies and failures of one endpoint. */
+    private static final class EndpointRecorder {
+        final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        void success(long micros) {
+            latencies.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+        }
+
+        void failure(String reason) {
+            errors.increment();
+            failures.computeIfAbsent(reason, ignored -> new LongAdder()).increment();
+        }
+
+        void reset() {
+            latencies.reset();
+            errors.reset();
+            failures.clear();
+        }
+
+        Map<String, Long> failureCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            failures.forEach((reason, count) -> counts.put(reason, count.sum()));
+            return counts;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        SimulatorSettings simulatorSettings = SimulatorSettings.fromSystemProperties().withPort(0);
+        int exitCode;
+
+        try (SpotifySimulator simulator = new SpotifySimulator(simulatorSettings).start();
+             ConfigurableApplicationContext app = startApp(simulator, settings)) {
+            String baseUrl = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            List<String> jwts = seedUsers(app, simulator, simulatorSettings, settings.users());
+            Workload workload = new Workload(simulator.catalog(), settings.mix(), baseUrl, jwts);
+            System.out.printf(Locale.ROOT, "App on %s (profiles %s), simulator on %s (latency %s), %d users, "
+                            + "%d clients, mix %s%n", baseUrl, String.join(",", app.getEnvironment().getActiveProfiles()),
+                    simulator.baseUrl(), simulatorSettings.latency(), settings.users(), settings.concurrency(),
+                    settings.mix());
+
+            Map<String, EndpointRecorder> recorders = new LinkedHashMap<>();
+            settings.mix().keySet().forEach(endpoint -> recorders.put(endpoint, new EndpointRecorder()));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(REQUEST_TIMEOUT)
+                    .build();
+            ExecutorService clients = Executors.newFixedThreadPool(settings.concurrency());
+
+            System.out.printf(Locale.ROOT, "Warming up for %d s...%n", settings.warmup().toSeconds());
+            drive(clients, client, workload, recorders, settings.concurrency(), settings.warmup());
+            recorders.values().forEach(EndpointRecorder::reset);
+            simulator.resetRequestCounts();
+
+            System.out.printf(Locale.ROOT, "Measuring for %d s...%n", settings.duration().toSeconds());
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            drive(clients, client, workload, recorders, settings.concurrency(), settings.duration());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            clients.shutdownNow();
+
+            LoadTestReport report = report(settings, app, startedAt, seconds, recorders, simulator.requestCounts());
+            exitCode = publish(report, settings);
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApp(SpotifySimulator simulator, LoadTestSettings settings) {
+        List<String> profiles = new ArrayList<>(List.of("simulator", "loadtest"));
+        profiles.addAll(settings.appProfiles());
+        return new SpringApplicationBuilder(SpotifyApplication.class)
+                .profiles(profiles.toArray(String[]::new))
+                .properties(Map.of("SPOTIFY_SIMULATOR_URL", simulator.baseUrl()))
+                .run();
+    }
+
+    private static List<String> seedUsers(ConfigurableApplicationContext app, SpotifySimulator simulator,
+                                          SimulatorSettings simulatorSettings, int users) {
+        UserSpotifyTokenCache tokenCache = app.getBean(UserSpotifyTokenCache.class);
+        JwtTokenProviderServiceImpl jwtTokenProvider = app.getBean(JwtTokenProviderServiceImpl.class);
+        List<String> jwts = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String userId = "load-user-" + i;
+            tokenCache.save(UserSpotifyTokens.builder()
+                    .spotifyUserId(userId)
+                    .accessToken(simulator.issueAccessToken(userId))
+                    .accessTokenExpiresAt(Instant.now().plus(simulatorSettings.tokenTtl()))
+                    .refreshToken(simulator.issueRefreshToken(userId))
+                    .build());
+
+            Map<String, Object> profile = simulator.catalog().userProfile(userId);
+            DefaultOAuth2User user = new DefaultOAuth2User(List.of(),
+                    Map.of("id", userId, "display_name", profile.get("display_name")), "id");
+            jwts.add(jwtTokenProvider.generateToken(new OAuth2AuthenticationToken(user, List.of(), "spotify")));
+        }
+        return jwts;
+    }
+
+    /** Runs {@code concurrency} closed-loop clients for {@code duration}. */
+    private static void drive(ExecutorService clients, HttpClient client, Workload workload,
+                              Map<String, EndpointRecorder> recorders, int concurrency, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<?>> running = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(SEED + i);
+            running.add(clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    send(client, workload.next(random), recorders);
+                }
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+    }
+
+    private static void send(HttpClient client, Workload.Call call, Map<String, EndpointRecorder> recorders) {
+        EndpointRecorder recorder = recorders.get(call.endpoint());
+        HttpRequest request = HttpRequest.newBuilder(call.uri())
+                .header("Authorization", "Bearer " + call.jwt())
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            if (response.statusCode() / 100 == 2) {
+                recorder.success(micros);
+            } else {
+                recorder.failure(String.valueOf(response.statusCode()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            recorder.failure(e.getClass().getSimpleName());
+        }
+    }
+
+    private static LoadTestReport report(LoadTestSettings settings, ConfigurableApplicationContext app,
+                                         Instant startedAt, double seconds, Map<String, EndpointRecorder> recorders,
+                                         Map<String, Long> upstreamRequests) {
+        Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        Histogram total = new Histogram(MAX_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        Map<String, Long> totalFailures = new TreeMap<>();
+        for (Map.Entry<String, EndpointRecorder> entry : recorders.entrySet()) {
+            EndpointRecorder recorder = entry.getValue();
+            Map<String, Long> failures = recorder.failureCounts();
+            endpoints.put(entry.getKey(),
+                    EndpointResult.of(recorder.latencies, recorder.errors.sum(), failures, seconds));
+            total.add(recorder.latencies);
+            totalErrors += recorder.errors.sum();
+            failures.forEach((reason, count) -> totalFailures.merge(reason, count, Long::sum));
+        }
+        return new LoadTestReport(startedAt, Runtime.version().toString(),
+                List.of(app.getEnvironment().getActiveProfiles()), settings.users(), settings.concurrency(), seconds,
+                endpoints, EndpointResult.of(total, totalErrors, totalFailures, seconds), upstreamRequests);
+    }
+
+    /** Writes the reports, applies the SLO gate and returns the process exit code. */
+    private static int publish(LoadTestReport report, LoadTestSettings settings) throws Exception {
+        System.out.printf(Locale.ROOT, "%n%-12s %9s %9s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms");
+        report.endpoints().forEach((endpoint, result) -> printRow(endpoint, result));
+        printRow("total", report.total());
+
+        report.writeJson(settings.reportDir().resolve("results.json"));
+        if (settings.updateBaseline()) {
+            report.writeJson(settings.baseline());
+            report.writeHtml(settings.reportDir().resolve("index.html"), null, null);
+            System.out.println("Baseline written to " + settings.baseline());
+            return 0;
+        }
+
+        LoadTestReport baseline = null;
+        if (settings.baseline().toFile().isFile()) {
+            baseline = LoadTestReport.read(settings.baseline());
+        } else {
+            System.out.println("No baseline at " + settings.baseline() + "; only the error rate is gated. "
+                    + "Record one with -Pload.update-baseline=true.");
+        }
+        List<SloGate.Violation> violations = SloGate.check(report, baseline, settings);
+        report.writeHtml(settings.reportDir().resolve("index.html"), baseline,
+                baseline == null && violations.isEmpty() ? null : violations);
+        System.out.println("Report written to " + settings.reportDir().resolve("index.html"));
+
+        if (violations.isEmpty()) {
+            System.out.println("SLO gate passed.");
+            return 0;
+        }
+        System.out.println("SLO gate failed:");
+        violations.forEach(violation -> System.out.println("  " + violation));
+        return 1;
+    }
+
+    private static void printRow(String endpoint, EndpointResult result) {
+        System.out.printf(Locale.ROOT, "%-12s %9d %9.1f %8d %9.1f %9.1f %9.1f %9.1f%n", endpoint, result.requests(),
+                result.throughput(), result.errors(), result.p50Ms(), result.p95Ms(), result.p99Ms(),
+                result.p999Ms());
+    }
+
+    /** Picks the next request: endpoint by weight, a random signed-in user, and popularity-skewed ids and terms. */
+    private static final class Workload {
+
+        record Call(String endpoint, URI uri, String jwt) {}
+
+        private final SyntheticCatalog catalog;
+        private final String[] endpoints;
+        private final int[] cumulativeWeights;
+        private final String baseUrl;
+        private final List<String> jwts;
+        private final String[] searchTerms;
+
+        Workload(SyntheticCatalog catalog, Map<String, Integer> mix, String baseUrl, List<String> jwts) {
+            this.catalog = catalog;
+            this.baseUrl = baseUrl;
+            this.jwts = jwts;
+            this.endpoints = mix.keySet().toArray(String[]::new);
+            this.cumulativeWeights = new int[endpoints.length];
+            int sum = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                sum += mix.get(endpoints[i]);
+                cumulativeWeights[i] = sum;
+            }
+            Set<String> terms = new LinkedHashSet<>();
+            for (int i = 0; i < catalog.artistCount(); i++) {
+                String name = (String) catalog.artist(catalog.artistId(i)).get("name");
+                for (String word : name.toLowerCase(Locale.ROOT).split("\\s+")) {
+                    if (word.length() > 2) {
+                        terms.add(word);
+                    }
+                }
+            }
+            this.searchTerms = terms.toArray(String[]::new);
+        }
+
+        Call next(SplittableRandom random) {
+            int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) {
+                index++;
+            }
+            String endpoint = endpoints[index];
+            String path = switch (endpoint) {
+                case "me" -> "/me";
+                case "dashboard" -> "/dashboard";
+                case "search" -> "/search?q="
+                        + URLEncoder.encode(searchTerms[skewed(random, searchTerms.length)], StandardCharsets.UTF_8);
+                case "artist" -> "/artists/" + catalog.artistId(skewed(random, catalog.artistCount()));
+                case "album" -> "/albums/" + catalog.albumId(skewed(random, catalog.artistCount() * 4));
+                case "top-tracks" -> "/tracks/top";
+                case "top-artists" -> "/artists/top";
+                default -> throw new IllegalStateException("Unknown endpoint " + endpoint);
+            };
+            return new Call(endpoint, URI.create(baseUrl + path), jwts.get(random.nextInt(jwts.size())));
+        }
+
+        /** An index in {@code [0, size)} where low indexes are much more likely, like popular catalog entries. */
+        private static int skewed(SplittableRandom random, int size) {
+            double u = random.nextDouble();
+            return (int) (size * u * u * u);
+        }
+    }
+}
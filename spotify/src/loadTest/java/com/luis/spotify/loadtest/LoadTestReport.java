@@ -0,0 +1,160 @@
+package com.luis.spotify.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What an {@link EndToEndLoadTest} run measured, per endpoint and in total. Written as {@code results.json}, which
+ * is also the format of the baseline the {@link SloGate} compares against, and rendered as {@code index.html}.
+ *
+ * @param upstreamRequests requests the simulator served during the measured window, by route and status
+ */
+public record LoadTestReport(Instant startedAt,
+                             String javaVersion,
+                             List<String> appProfiles,
+                             int users,
+                             int concurrency,
+                             double durationSeconds,
+                             Map<String, EndpointResult> endpoints,
+                             EndpointResult total,
+                             Map<String, Long> upstreamRequests) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * @param failures failed requests by HTTP status or exception type
+     */
+    public record EndpointResult(long requests,
+                                 long errors,
+                                 double errorRate,
+                                 double throughput,
+                                 double meanMs,
+                                 double p50Ms,
+                                 double p95Ms,
+                                 double p99Ms,
+                                 double p999Ms,
+                                 double maxMs,
+                                 Map<String, Long> failures) {
+
+        /** Summarizes successful request latencies recorded in microseconds. */
+        static EndpointResult of(Histogram latencies, long errors, Map<String, Long> failures, double seconds) {
+            long requests = latencies.getTotalCount() + errors;
+            return new EndpointResult(
+                    requests,
+                    errors,
+                    requests == 0 ? 0 : (double) errors / requests,
+                    requests / seconds,
+                    latencies.getMean() / 1000.0,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(95) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0,
+                    failures);
+        }
+
+        /** The value of a latency metric by its report name, e.g. {@code p99}. */
+        double latencyMs(String percentile) {
+            return switch (percentile) {
+                case "p50" -> p50Ms;
+                case "p95" -> p95Ms;
+                case "p99" -> p99Ms;
+                case "p999" -> p999Ms;
+                default -> throw new IllegalArgumentException("Unknown percentile " + percentile);
+            };
+        }
+    }
+
+    public static LoadTestReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadTestReport.class);
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    public void writeHtml(Path file, LoadTestReport baseline, List<SloGate.Violation> violations) throws IOException {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Load test ").append(startedAt)
+                .append("</title>\n<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}td:first-child{text-align:left}")
+                .append(".fail{color:#b00020;font-weight:bold}.ok{color:#1b5e20;font-weight:bold}")
+                .append(".base{color:#777;font-size:smaller}</style></head><body>\n");
+        html.append("<h1>Load test</h1>\n<p>").append(startedAt).append(", Java ").append(javaVersion)
+                .append(", profiles ").append(escape(String.join(", ", appProfiles)))
+                .append(", ").append(users).append(" users, ").append(concurrency).append(" clients, ")
+                .append(format(durationSeconds)).append(" s measured</p>\n");
+
+        if (violations == null) {
+            html.append("<p>No baseline; SLO gate skipped.</p>\n");
+        } else if (violations.isEmpty()) {
+            html.append("<p class=\"ok\">SLO gate passed against the baseline from ")
+                    .append(baseline.startedAt()).append(".</p>\n");
+        } else {
+            html.append("<p class=\"fail\">SLO gate failed:</p>\n<ul>\n");
+            for (SloGate.Violation violation : violations) {
+                html.append("<li class=\"fail\">").append(escape(violation.toString())).append("</li>\n");
+            }
+            html.append("</ul>\n");
+        }
+
+        html.append("<table>\n<tr><th>endpoint</th><th>requests</th><th>req/s</th><th>error rate</th>")
+                .append("<th>mean ms</th><th>p50 ms</th><th>p95 ms</th><th>p99 ms</th><th>p99.9 ms</th><th>max ms</th>")
+                .append("<th>failures</th></tr>\n");
+        endpoints.forEach((endpoint, result) -> appendRow(html, endpoint, result,
+                baseline == null ? null : baseline.endpoints().get(endpoint)));
+        appendRow(html, "total", total, baseline == null ? null : baseline.total());
+        html.append("</table>\n");
+
+        html.append("<h2>Upstream requests</h2>\n<table>\n<tr><th>route</th><th>count</th></tr>\n");
+        upstreamRequests.forEach((route, count) -> html.append("<tr><td>").append(escape(route)).append("</td><td>")
+                .append(count).append("</td></tr>\n"));
+        html.append("</table>\n</body></html>\n");
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, html);
+    }
+
+    private static void appendRow(StringBuilder html, String endpoint, EndpointResult result, EndpointResult base) {
+        html.append("<tr><td>").append(escape(endpoint)).append("</td><td>").append(result.requests()).append("</td>");
+        cell(html, result.throughput(), base == null ? null : base.throughput());
+        html.append("<td>").append(String.format(Locale.ROOT, "%.2f%%", result.errorRate() * 100)).append("</td>");
+        cell(html, result.meanMs(), base == null ? null : base.meanMs());
+        cell(html, result.p50Ms(), base == null ? null : base.p50Ms());
+        cell(html, result.p95Ms(), base == null ? null : base.p95Ms());
+        cell(html, result.p99Ms(), base == null ? null : base.p99Ms());
+        cell(html, result.p999Ms(), base == null ? null : base.p999Ms());
+        cell(html, result.maxMs(), base == null ? null : base.maxMs());
+        html.append("<td>").append(escape(result.failures().toString())).append("</td></tr>\n");
+    }
+
+    private static void cell(StringBuilder html, double value, Double base) {
+        html.append("<td>").append(format(value));
+        if (base != null) {
+            html.append(" <span class=\"base\">(").append(format(base)).append(")</span>");
+        }
+        html.append("</td>");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,96 @@
+package com.luis.spotify.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Knobs of the {@link EndToEndLoadTest}, read from {@code load.*} system properties, which
+ * {@code gradle loadTest -Pload.xxx=...} passes through.
+ *
+ * @param users               signed-in users the clients act as, each with its own JWT and Spotify tokens
+ * @param concurrency         closed-loop clients, each sending its next request as soon as the previous one returns
+ * @param warmup              how long to drive load before measuring
+ * @param duration            how long to measure
+ * @param mix                 relative weight of each endpoint in the request mix
+ * @param appProfiles         profiles activated on top of {@code simulator} and {@code loadtest}, e.g.
+ *                            {@code reactive} to measure the WebFlux stack
+ * @param reportDir           where {@code results.json} and {@code index.html} are written
+ * @param baseline            results of an earlier run to gate against; the gate is skipped if the file is missing
+ * @param updateBaseline      whether to overwrite {@code baseline} with this run's results instead of gating
+ * @param maxErrorRate        highest error rate any endpoint may have, with or without a baseline
+ * @param latencyTolerance    how much higher than in the baseline p95 and p99 may be, as a fraction
+ * @param latencySlack        absolute allowance added on top of {@code latencyTolerance}, so very fast endpoints do
+ *                            not fail on noise
+ * @param throughputTolerance how much lower than in the baseline an endpoint's throughput may be, as a fraction
+ */
+public record LoadTestSettings(int users,
+                               int concurrency,
+                               Duration warmup,
+                               Duration duration,
+                               Map<String, Integer> mix,
+                               List<String> appProfiles,
+                               Path reportDir,
+                               Path baseline,
+                               boolean updateBaseline,
+                               double maxErrorRate,
+                               double latencyTolerance,
+                               Duration latencySlack,
+                               double throughputTolerance) {
+
+    public static final List<String> ENDPOINTS =
+            List.of("me", "dashboard", "search", "artist", "album", "top-tracks", "top-artists");
+
+    public static final String DEFAULT_MIX = "me=1,dashboard=2,search=3,artist=2,album=2,top-tracks=1,top-artists=1";
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("load.users", 200),
+                Integer.getInteger("load.concurrency", 32),
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 30)),
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+                Arrays.stream(System.getProperty("load.app-profiles", "").split(","))
+                        .map(String::trim)
+                        .filter(profile -> !profile.isEmpty())
+                        .toList(),
+                Path.of(System.getProperty("load.report-dir", "build/reports/load-test")),
+                Path.of(System.getProperty("load.baseline", "src/loadTest/baseline.json")),
+                Boolean.getBoolean("load.update-baseline"),
+                doubleProperty("load.slo.max-error-rate", 0.01),
+                doubleProperty("load.slo.latency-tolerance", 0.25),
+                Duration.ofMillis(Long.getLong("load.slo.latency-slack-ms", 5)),
+                doubleProperty("load.slo.throughput-tolerance", 0.15));
+    }
+
+    /** Parses {@code name=weight,...}; endpoints left out are not requested. */
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            String endpoint = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!ENDPOINTS.contains(endpoint) || parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry '" + entry + "', expected one of "
+                        + ENDPOINTS + " followed by =weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(endpoint, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix selects no endpoint: " + spec);
+        }
+        return Collections.unmodifiableMap(mix);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
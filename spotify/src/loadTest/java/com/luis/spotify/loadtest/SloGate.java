@@ -0,0 +1,57 @@
+package com.luis.spotify.loadtest;
+
+import com.luis.spotify.loadtest.LoadTestReport.EndpointResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decides whether a load test run regressed. Every endpoint must stay under the absolute error rate limit; when a
+ * baseline is available, its p95 and p99 may not grow by more than the latency tolerance (plus a small absolute
+ * slack) and its throughput may not drop by more than the throughput tolerance. Endpoints missing from the baseline
+ * are only held to the error rate limit.
+ */
+final class SloGate {
+
+    private static final List<String> GATED_PERCENTILES = List.of("p95", "p99");
+
+    record Violation(String endpoint, String metric, double actual, double limit) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %s was %.2f, limit %.2f", endpoint, metric, actual, limit);
+        }
+    }
+
+    private SloGate() {
+    }
+
+    static List<Violation> check(LoadTestReport report, LoadTestReport baseline, LoadTestSettings settings) {
+        List<Violation> violations = new ArrayList<>();
+        for (Map.Entry<String, EndpointResult> entry : report.endpoints().entrySet()) {
+            String endpoint = entry.getKey();
+            EndpointResult result = entry.getValue();
+            if (result.errorRate() > settings.maxErrorRate()) {
+                violations.add(new Violation(endpoint, "error rate", result.errorRate(), settings.maxErrorRate()));
+            }
+
+            EndpointResult base = baseline == null ? null : baseline.endpoints().get(endpoint);
+            if (base == null) {
+                continue;
+            }
+            double slackMs = settings.latencySlack().toNanos() / 1e6;
+            for (String percentile : GATED_PERCENTILES) {
+                double limit = base.latencyMs(percentile) * (1 + settings.latencyTolerance()) + slackMs;
+                if (result.latencyMs(percentile) > limit) {
+                    violations.add(new Violation(endpoint, percentile + " ms", result.latencyMs(percentile), limit));
+                }
+            }
+            double minThroughput = base.throughput() * (1 - settings.throughputTolerance());
+            if (result.throughput() < minThroughput) {
+                violations.add(new Violation(endpoint, "req/s", result.throughput(), minThroughput));
+            }
+        }
+        return violations;
+    }
+}
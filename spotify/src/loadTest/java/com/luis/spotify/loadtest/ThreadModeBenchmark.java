@@ -0,0 +1,190 @@
+package com.luis.spotify.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many blocking Spotify-style calls per second each request execution mode sustains as concurrency grows.
+ * <p>
+ * A local stub answers every GET after a fixed latency without holding a thread. For each concurrency level, that
+ * many closed-loop clients submit "requests" to the executor under test; each request makes one blocking call
+ * through the same Reactor Netty backed {@code RestClient} the app uses. The platform mode uses a fixed pool sized
+ * like Tomcat's default worker pool, so its throughput flattens at {@code threads / latency}; the virtual mode runs a
+ * virtual thread per request and is skipped on runtimes older than Java 21.
+ * <p>
+ * Run with {@code gradle threadModeBenchmark -PjavaVersion=21}; tune it with {@code -Pbenchmark.latency-ms},
+ * {@code -Pbenchmark.platform-threads}, {@code -Pbenchmark.concurrency} (comma separated) and
+ * {@code -Pbenchmark.duration-seconds}.
+ */
+public final class ThreadModeBenchmark {
+
+    private static final byte[] BODY = "{\"id\":\"0TnOYISbd1XYRBk9myaseg\",\"name\":\"Artist\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ThreadModeBenchmark() {
+    }
+
+    private record Result(String mode, int concurrency, double throughput, long p50Micros, long p99Micros, long errors) {}
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("benchmark.latency-ms", 100);
+        int platformThreads = Integer.getInteger("benchmark.platform-threads", 200);
+        int durationSeconds = Integer.getInteger("benchmark.duration-seconds", 10);
+        int[] levels = Arrays.stream(System.getProperty("benchmark.concurrency", "50,100,200,400,800,1600").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int maxLevel = Arrays.stream(levels).max().orElse(1);
+
+        ScheduledExecutorService responder = Executors.newScheduledThreadPool(4);
+        HttpServer stub = startStub(latencyMs, responder);
+        ConnectionProvider connections = ConnectionProvider.builder("benchmark")
+                .maxConnections(maxLevel)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        RestClient restClient = RestClient.builder()
+                .requestFactory(new ReactorClientHttpRequestFactory(HttpClient.create(connections).keepAlive(true)))
+                .baseUrl("http://127.0.0.1:" + stub.getAddress().getPort())
+                .build();
+
+        System.out.printf(Locale.ROOT, "Upstream latency %d ms, platform pool %d threads, %d s per level, Java %d%n",
+                latencyMs, platformThreads, durationSeconds, Runtime.version().feature());
+        List<Result> results = new ArrayList<>();
+        try {
+            for (int concurrency : levels) {
+                ExecutorService platform = Executors.newFixedThreadPool(platformThreads);
+                results.add(run("platform", platform, restClient, concurrency, durationSeconds));
+                platform.shutdownNow();
+
+                ExecutorService virtual = virtualThreadPerTaskExecutor();
+                if (virtual != null) {
+                    results.add(run("virtual", virtual, restClient, concurrency, durationSeconds));
+                    virtual.shutdownNow();
+                }
+            }
+        } finally {
+            stub.stop(0);
+            responder.shutdownNow();
+            connections.dispose();
+        }
+
+        System.out.printf(Locale.ROOT, "%n%-9s %11s %12s %10s %10s %8s%n",
+                "mode", "concurrency", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-9s %11d %12.1f %10.1f %10.1f %8d%n", result.mode(), result.concurrency(),
+                    result.throughput(), result.p50Micros() / 1000.0, result.p99Micros() / 1000.0, result.errors());
+        }
+        if (virtualThreadPerTaskExecutor() == null) {
+            System.out.println("Virtual threads need Java 21; rerun with -PjavaVersion=21 to compare both modes.");
+        }
+    }
+
+    private static Result run(String mode, ExecutorService executor, RestClient restClient,
+                              int concurrency, int durationSeconds) {
+        // Warm up connections and threads so the measured window starts from a steady state.
+        drive(executor, restClient, concurrency, System.nanoTime() + TimeUnit.SECONDS.toNanos(2), null);
+
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        long errors = drive(executor, restClient, concurrency,
+                start + TimeUnit.SECONDS.toNanos(durationSeconds), latencies);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        Result result = new Result(mode, concurrency, sorted.length / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), errors);
+        System.out.printf(Locale.ROOT, "%s @ %d: %.1f req/s%n", mode, concurrency, result.throughput());
+        return result;
+    }
+
+    /** Runs {@code concurrency} closed-loop clients until {@code deadline} and returns the number of failed calls. */
+    private static long drive(ExecutorService executor, RestClient restClient, int concurrency, long deadline,
+                              ConcurrentLinkedQueue<Long> latencies) {
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CompletableFuture<?>[] clients = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            CompletableFuture<Void> client = new CompletableFuture<>();
+            next(executor, restClient, deadline, latencies, failures, client);
+            clients[i] = client;
+        }
+        CompletableFuture.allOf(clients).join();
+        return failures.size();
+    }
+
+    private static void next(ExecutorService executor, RestClient restClient, long deadline,
+                             ConcurrentLinkedQueue<Long> latencies, ConcurrentLinkedQueue<Throwable> failures,
+                             CompletableFuture<Void> client) {
+        if (System.nanoTime() >= deadline) {
+            client.complete(null);
+            return;
+        }
+        long submitted = System.nanoTime();
+        CompletableFuture
+                .runAsync(() -> restClient.get().uri("/v1/artists/0TnOYISbd1XYRBk9myaseg")
+                        .retrieve()
+                        .toBodilessEntity(), executor)
+                .whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        failures.add(failure);
+                    } else if (latencies != null) {
+                        latencies.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - submitted));
+                    }
+                    next(executor, restClient, deadline, latencies, failures, client);
+                });
+    }
+
+    private static HttpServer startStub(long latencyMs, ScheduledExecutorService responder) throws IOException {
+        // Headers and body go out in separate writes; without TCP_NODELAY every call waits on a delayed ACK.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.createContext("/", exchange ->
+                responder.schedule(() -> respond(exchange), latencyMs, TimeUnit.MILLISECONDS));
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange) {
+        try (exchange; OutputStream body = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            body.write(BODY);
+        } catch (IOException e) {
+            // The client gave up on this call; it is already counted as an error on its side.
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    /** {@code Executors.newVirtualThreadPerTaskExecutor()} on Java 21+, looked up reflectively to build on Java 17. */
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
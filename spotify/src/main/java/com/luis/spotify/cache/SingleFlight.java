@@ -0,0 +1,81 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight loading on top of a Caffeine {@link AsyncCache}, shared by the caches in this package. The first
+ * caller for a key installs a future and runs the loader; concurrent callers for that key wait on the same future.
+ * <p>
+ * The installed future is completed whatever the loader does, including throwing an {@link Error}, so waiters never
+ * hang on it. Caffeine drops entries whose future completes exceptionally or with {@code null}, so neither a failure
+ * nor an empty result is cached.
+ */
+final class SingleFlight {
+
+    private SingleFlight() {
+    }
+
+    /**
+     * Returns the cached value or runs {@code loader} on the calling thread, rethrowing whatever it throws.
+     * A caller that joined someone else's load gets that load's result or exception.
+     */
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Supplier<? extends V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> entry = cache.get(key, (k, executor) -> created);
+        if (entry != created) {
+            return join(entry);
+        }
+
+        try {
+            V value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #get}: returns the cached future, or starts {@code loader} and caches the future
+     * it returns. A loader that throws instead of returning a future fails the shared future with that exception.
+     * Callers get a dependent future, so cancelling their copy cannot cancel the shared entry.
+     */
+    static <K, V> CompletableFuture<V> getAsync(AsyncCache<K, V> cache, K key,
+                                                Supplier<? extends CompletableFuture<? extends V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> entry = cache.get(key, (k, executor) -> created);
+        if (entry == created) {
+            try {
+                loader.get().whenComplete((value, e) -> {
+                    if (e != null) {
+                        created.completeExceptionally(e);
+                    } else {
+                        created.complete(value);
+                    }
+                });
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            }
+        }
+        return entry.thenApply(value -> value);
+    }
+
+    private static <V> V join(CompletableFuture<V> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
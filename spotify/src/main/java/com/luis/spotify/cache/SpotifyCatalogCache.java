@@ -0,0 +1,121 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.luis.spotify.dto.SpotifyAlbum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cross-user cache for Spotify catalog data (albums, artists, artist top tracks and artist albums).
+ * Catalog responses are identical for every user, so one upstream call can serve everyone until the entry expires.
+ * Entries are weighed by the number of catalog objects they hold and evicted with W-TinyLFU once the total weight
+ * reaches the configured maximum.
+ */
+@Slf4j
+@Component
+public class SpotifyCatalogCache implements MeterBinder {
+
+    public enum EntryType { ALBUM, ARTIST, ARTIST_TOP_TRACKS, ARTIST_ALBUMS }
+
+    private record Key(EntryType type, String id) {}
+
+    private final AsyncCache<Key, Object> cache;
+    private final Map<EntryType, Duration> timeToLive = new EnumMap<>(EntryType.class);
+
+    public SpotifyCatalogCache(@Value("${app.spotify.catalog-cache.max-weight:50000}") long maxWeight,
+                               @Value("${app.spotify.catalog-cache.album-ttl:6h}") Duration albumTtl,
+                               @Value("${app.spotify.catalog-cache.artist-ttl:1h}") Duration artistTtl,
+                               @Value("${app.spotify.catalog-cache.artist-top-tracks-ttl:1h}") Duration artistTopTracksTtl,
+                               @Value("${app.spotify.catalog-cache.artist-albums-ttl:6h}") Duration artistAlbumsTtl) {
+        timeToLive.put(EntryType.ALBUM, albumTtl);
+        timeToLive.put(EntryType.ARTIST, artistTtl);
+        timeToLive.put(EntryType.ARTIST_TOP_TRACKS, artistTopTracksTtl);
+        timeToLive.put(EntryType.ARTIST_ALBUMS, artistAlbumsTtl);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Object value) -> weightOf(value))
+                .expireAfter(new Expiry<Key, Object>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Object value, long currentTime) {
+                        return timeToLive.get(key.type()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Object value, long currentTime, long currentDuration) {
+                        return timeToLive.get(key.type()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached value or runs {@code loader} on the calling thread. Concurrent callers for the same key wait
+     * for that single load instead of starting their own. A {@code null} result or an exception is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(EntryType type, String id, Supplier<T> loader) {
+        return (T) SingleFlight.get(cache, new Key(type, id), loader);
+    }
+
+    /**
+     * Non-blocking variant of {@link #get}: returns the cached value, or starts {@code loader} and caches what its
+     * future completes with. Concurrent callers for the same key share that single load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(EntryType type, String id, Supplier<CompletableFuture<T>> loader) {
+        return SingleFlight.getAsync(cache, new Key(type, id), loader).thenApply(value -> (T) value);
+    }
+
+    public void invalidate(EntryType type, String id) {
+        cache.synchronous().invalidate(new Key(type, id));
+    }
+
+    /** Publishes hit, miss, load and eviction counts as the {@code cache.*} meters tagged {@code cache=catalog}. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "catalog");
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public void cleanUp() {
+        cache.synchronous().cleanUp();
+    }
+
+    private static int weightOf(Object value) {
+        if (value instanceof SpotifyAlbum album && album.getTrack() != null) {
+            return 1 + album.getTrack().length;
+        }
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,191 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Rejects album and artist ids that cannot or do not exist before they reach Spotify.
+ * <p>
+ * Ids are first checked against the Spotify format (22 base62 characters). Ids Spotify answered with
+ * {@code 404 Not Found} are then remembered in a bounded cache for {@code ttl}. For crawlers that walk far more
+ * distinct ids than the cache holds, an optional Bloom filter remembers them in fixed memory; it is rotated
+ * in two generations once full, and, like any Bloom filter, it may occasionally reject a valid id.
+ */
+@Slf4j
+@Component
+public class SpotifyMissingIdCache {
+
+    public enum IdType { ALBUM, ARTIST }
+
+    private static final Pattern SPOTIFY_ID = Pattern.compile("[0-9A-Za-z]{22}");
+
+    private record Key(IdType type, String id) {}
+
+    private final Cache<Key, Boolean> missing;
+    private final BloomFilterGenerations bloomFilter;
+    private final Map<IdType, Counter> invalidIdRejections = new EnumMap<>(IdType.class);
+    private final Map<IdType, Counter> knownMissingRejections = new EnumMap<>(IdType.class);
+
+    public SpotifyMissingIdCache(MeterRegistry meterRegistry,
+                                 @Value("${app.spotify.missing-id-cache.max-entries:100000}") long maxEntries,
+                                 @Value("${app.spotify.missing-id-cache.ttl:1h}") Duration ttl,
+                                 @Value("${app.spotify.missing-id-cache.bloom-filter.enabled:false}") boolean bloomFilterEnabled,
+                                 @Value("${app.spotify.missing-id-cache.bloom-filter.expected-insertions:1000000}") int expectedInsertions,
+                                 @Value("${app.spotify.missing-id-cache.bloom-filter.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        this.bloomFilter = bloomFilterEnabled ? new BloomFilterGenerations(expectedInsertions, falsePositiveRate) : null;
+        for (IdType type : IdType.values()) {
+            invalidIdRejections.put(type, rejections(meterRegistry, type, "invalid_id"));
+            knownMissingRejections.put(type, rejections(meterRegistry, type, "known_missing"));
+        }
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, IdType type, String reason) {
+        return Counter.builder("spotify.ids.rejected")
+                .tag("type", type.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public static boolean isValidId(String id) {
+        return id != null && SPOTIFY_ID.matcher(id).matches();
+    }
+
+    /**
+     * Returns {@code true} if the id should be answered as not found without calling Spotify, either because it is
+     * malformed or because Spotify recently reported it missing.
+     */
+    public boolean shouldReject(IdType type, String id) {
+        if (!isValidId(id)) {
+            invalidIdRejections.get(type).increment();
+            return true;
+        }
+        if (isKnownMissing(type, id)) {
+            knownMissingRejections.get(type).increment();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isKnownMissing(IdType type, String id) {
+        return missing.getIfPresent(new Key(type, id)) != null
+                || (bloomFilter != null && bloomFilter.mightContain(type.name() + ':' + id));
+    }
+
+    public void recordMissing(IdType type, String id) {
+        log.info("Spotify reported {} {} as not found, rejecting it locally from now on", type, id);
+        missing.put(new Key(type, id), Boolean.TRUE);
+        if (bloomFilter != null) {
+            bloomFilter.put(type.name() + ':' + id);
+        }
+    }
+
+    public long estimatedSize() {
+        return missing.estimatedSize();
+    }
+
+    /**
+     * A current and a previous Bloom filter. Lookups check both; once the current one holds its expected number of
+     * insertions it becomes the previous one and a fresh filter takes its place, so old ids age out and the false
+     * positive rate stays bounded.
+     */
+    private static final class BloomFilterGenerations {
+        private final int expectedInsertions;
+        private final int bits;
+        private final int hashes;
+        private final AtomicReference<BloomFilter[]> generations;
+
+        private BloomFilterGenerations(int expectedInsertions, double falsePositiveRate) {
+            this.expectedInsertions = expectedInsertions;
+            this.bits = (int) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+            this.generations = new AtomicReference<>(new BloomFilter[] {
+                    new BloomFilter(bits, hashes), new BloomFilter(bits, hashes)});
+        }
+
+        private boolean mightContain(String value) {
+            BloomFilter[] current = generations.get();
+            return current[0].mightContain(value) || current[1].mightContain(value);
+        }
+
+        private void put(String value) {
+            BloomFilter[] current = generations.get();
+            if (current[0].put(value) >= expectedInsertions) {
+                generations.compareAndSet(current, new BloomFilter[] {new BloomFilter(bits, hashes), current[0]});
+            }
+        }
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final int bits;
+        private final int hashes;
+        private final AtomicInteger insertions = new AtomicInteger();
+
+        private BloomFilter(int bits, int hashes) {
+            this.words = new AtomicLongArray((bits + 63) / 64);
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        private int put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long previous;
+                do {
+                    previous = words.get(word);
+                } while ((previous & mask) == 0 && !words.compareAndSet(word, previous, previous | mask));
+            }
+            return insertions.incrementAndGet();
+        }
+
+        private boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** 64-bit FNV-1a followed by a murmur3 finalizer; the two halves drive double hashing. */
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
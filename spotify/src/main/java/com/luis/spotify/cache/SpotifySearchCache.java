@@ -0,0 +1,111 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Cross-user cache of search results keyed by the folded query and the requested type set. Search traffic is
+ * dominated by a small set of popular queries, so variants such as {@code "Taylor "} and {@code "TAYLOR"} are folded
+ * onto one key and share one upstream call until the entry expires.
+ * <p>
+ * Callers send Spotify the {@link #normalizedQuery(String) normalized} query, which keeps its case; only the key is
+ * lower-cased. Spotify's {@code OR} and {@code NOT} operators are case-sensitive, so they keep their case in the key
+ * too, and {@code "rock OR metal"} does not share an entry with {@code "rock or metal"}.
+ */
+@Slf4j
+@Component
+public class SpotifySearchCache implements MeterBinder {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT");
+
+    private record Key(String query, String types) {}
+
+    private final AsyncCache<Key, Object> cache;
+
+    public SpotifySearchCache(@Value("${app.spotify.search-cache.max-entries:10000}") long maxEntries,
+                              @Value("${app.spotify.search-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Normalizes a user query without changing its meaning: Unicode NFKC (full-width and composed characters),
+     * trimmed and inner whitespace collapsed to single spaces. Case is kept, so this is the form to send upstream.
+     */
+    public static String normalizedQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC).strip();
+        return WHITESPACE.matcher(normalized).replaceAll(" ");
+    }
+
+    /**
+     * The {@link #normalizedQuery(String) normalized} query, lower-cased, for matching text regardless of how it was
+     * typed. Not meant to be sent upstream, where case can change what a query means.
+     */
+    public static String canonicalQuery(String query) {
+        return normalizedQuery(query).toLowerCase(Locale.ROOT);
+    }
+
+    private static Key keyOf(String query, String types) {
+        String folded = Arrays.stream(normalizedQuery(query).split(" "))
+                .map(word -> OPERATORS.contains(word) ? word : word.toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(" "));
+        return new Key(folded, types);
+    }
+
+    /**
+     * Returns the cached results for the query and type set or runs {@code loader} on the calling thread.
+     * Concurrent callers for the same key wait for that single load. A {@code null} result or an exception is not
+     * cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, String types, Supplier<T> loader) {
+        return (T) SingleFlight.get(cache, keyOf(query, types), loader);
+    }
+
+    /**
+     * Non-blocking variant of {@link #get}: returns the cached value, or starts {@code loader} and caches what its
+     * future completes with. Concurrent callers for the same key share that single load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(String query, String types, Supplier<CompletableFuture<T>> loader) {
+        return SingleFlight.getAsync(cache, keyOf(query, types), loader).thenApply(value -> (T) value);
+    }
+
+    /** Publishes hit, miss, load and eviction counts as the {@code cache.*} meters tagged {@code cache=search}. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "search");
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,304 @@
+package com.luis.spotify.cache;
+
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyImage;
+import com.luis.spotify.dto.SpotifySearchPlaylist;
+import com.luis.spotify.dto.SpotifySearchResults;
+import com.luis.spotify.dto.SpotifySuggestion;
+import com.luis.spotify.dto.SpotifyTrack;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory typeahead index over entity names the backend has already received from Spotify (search results, top
+ * artists, top tracks, album and artist pages), so suggestions never need an upstream call.
+ * <p>
+ * Observations go into a concurrent map; a background rebuild turns it into an immutable snapshot of sorted
+ * search terms that {@link #suggest(String, int)} binary-searches for the prefix. Every entity is indexed under its
+ * whole canonical name and under each later word, so {@code "swi"} finds {@code "Taylor Swift"}. Prefixes of up to
+ * {@value #SHORT_PREFIX_LENGTH} characters match so much of the index that the rebuild ranks their top
+ * {@code max-limit} entities up front, and a lookup for them is a single map read.
+ * <p>
+ * Entities are ranked by how often they were observed, with an artist's follower count as a tie-breaker. Counts decay
+ * with {@code score-half-life}, so something popular last week does not keep a newly popular entity out for good,
+ * and an entity first observed since the previous rebuild is evicted only if nothing older is left to evict.
+ */
+@Slf4j
+@Component
+public class SpotifySuggestionIndex {
+
+    static final int SHORT_PREFIX_LENGTH = 3;
+
+    private static final Snapshot EMPTY =
+            new Snapshot(new String[0], new SpotifySuggestion[0], new double[0], Map.of());
+
+    private final int maxEntries;
+    private final int maxLimit;
+    private final long halfLifeNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Snapshot snapshot = EMPTY;
+    private long lastDecayNanos = System.nanoTime();
+
+    public SpotifySuggestionIndex(@Value("${app.spotify.suggest.max-entries:50000}") int maxEntries,
+                                  @Value("${app.spotify.suggest.max-limit:20}") int maxLimit,
+                                  @Value("${app.spotify.suggest.score-half-life:6h}") Duration scoreHalfLife) {
+        this.maxEntries = maxEntries;
+        this.maxLimit = maxLimit;
+        this.halfLifeNanos = scoreHalfLife.toNanos();
+    }
+
+    public void recordSearchResults(SpotifySearchResults results) {
+        if (results == null) {
+            return;
+        }
+        record(results.getTracks());
+        record(results.getArtists());
+        record(results.getAlbums());
+        record(results.getPlaylists());
+    }
+
+    /**
+     * Counts one observation for every artist, track, album or playlist in {@code items}; anything else is ignored.
+     */
+    public void record(Collection<?> items) {
+        if (items == null) {
+            return;
+        }
+        for (Object item : items) {
+            if (item instanceof SpotifyArtist artist) {
+                long followers = artist.getFollowers() != null && artist.getFollowers().getTotal() != null
+                        ? artist.getFollowers().getTotal() : 0;
+                // Follower count only orders artists seen equally often, so keep its weight below one observation.
+                record("artist", artist.getId(), artist.getName(), imageOf(artist.getImages()),
+                        Math.log10(1 + followers) / 10);
+            } else if (item instanceof SpotifyTrack track) {
+                String image = track.getAlbum() != null ? imageOf(track.getAlbum().getImages()) : null;
+                record("track", track.getId(), track.getName(), image, 0);
+            } else if (item instanceof SpotifyAlbum album) {
+                record("album", album.getId(), album.getName(), imageOf(album.getImages()), 0);
+            } else if (item instanceof SpotifySearchPlaylist playlist) {
+                record("playlist", playlist.getId(), playlist.getName(), imageOf(playlist.getImages()), 0);
+            }
+        }
+    }
+
+    private void record(String type, String id, String name, String imageUrl, double bonus) {
+        if (id == null || name == null || name.isBlank()) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(type + ":" + id, key -> new Entry(type, id));
+        entry.name = name;
+        if (imageUrl != null) {
+            entry.imageUrl = imageUrl;
+        }
+        entry.bonus = Math.max(entry.bonus, bonus);
+        entry.observations.increment();
+        dirty.set(true);
+    }
+
+    /**
+     * Returns up to {@code limit} entities whose name, or one of its words, starts with the canonical form of
+     * {@code prefix}, most popular first. Reads only the current snapshot, so new observations show up after the
+     * next rebuild. Short prefixes are answered from their precomputed ranking, which holds at most
+     * {@code max-limit} entities.
+     */
+    public List<SpotifySuggestion> suggest(String prefix, int limit) {
+        String key = SpotifySearchCache.canonicalQuery(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        if (key.length() <= SHORT_PREFIX_LENGTH) {
+            SpotifySuggestion[] ranked = current.topByShortPrefix.get(key);
+            return ranked == null ? List.of() : Arrays.asList(ranked).subList(0, Math.min(limit, ranked.length));
+        }
+
+        int from = lowerBound(current.terms, key);
+        int to = from;
+        while (to < current.terms.length && current.terms[to].startsWith(key)) {
+            to++;
+        }
+        return Arrays.asList(top(current.suggestions, current.scores, from, to, limit));
+    }
+
+    /**
+     * Publishes a new snapshot if anything was observed since the last one. Counts are decayed first; once the index
+     * holds more than {@code max-entries}, the lowest scored entities are dropped, those observed since the last
+     * rebuild last of all.
+     */
+    @Scheduled(fixedDelayString = "${app.spotify.suggest.rebuild-interval-ms:2000}")
+    public void rebuild() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        long now = System.nanoTime();
+        double decay = halfLifeNanos > 0 ? Math.pow(0.5, (double) (now - lastDecayNanos) / halfLifeNanos) : 1;
+        lastDecayNanos = now;
+        for (Entry entry : entries.values()) {
+            entry.fold(decay);
+        }
+
+        List<Entry> ranked = new ArrayList<>(entries.values());
+        ranked.sort(Comparator.comparing((Entry entry) -> entry.recent)
+                .thenComparingDouble(Entry::score)
+                .reversed());
+        if (ranked.size() > maxEntries) {
+            for (Entry evicted : ranked.subList(maxEntries, ranked.size())) {
+                entries.remove(evicted.type + ":" + evicted.id, evicted);
+            }
+            ranked = ranked.subList(0, maxEntries);
+        }
+
+        List<Term> terms = new ArrayList<>();
+        for (Entry entry : ranked) {
+            SpotifySuggestion suggestion = new SpotifySuggestion(entry.type, entry.id, entry.name, entry.imageUrl);
+            double score = entry.score();
+            String canonical = SpotifySearchCache.canonicalQuery(entry.name);
+            terms.add(new Term(canonical, suggestion, score));
+            for (int i = canonical.indexOf(' '); i >= 0; i = canonical.indexOf(' ', i + 1)) {
+                terms.add(new Term(canonical.substring(i + 1), suggestion, score));
+            }
+        }
+        terms.sort(Comparator.comparing(Term::term));
+
+        String[] sortedTerms = new String[terms.size()];
+        SpotifySuggestion[] suggestions = new SpotifySuggestion[terms.size()];
+        double[] scores = new double[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            sortedTerms[i] = terms.get(i).term();
+            suggestions[i] = terms.get(i).suggestion();
+            scores[i] = terms.get(i).score();
+        }
+        snapshot = new Snapshot(sortedTerms, suggestions, scores, rankShortPrefixes(sortedTerms, suggestions, scores));
+        log.debug("Rebuilt suggestion index with {} entities and {} terms", ranked.size(), sortedTerms.length);
+    }
+
+    /**
+     * Ranks the top {@code max-limit} entities for every prefix of up to {@link #SHORT_PREFIX_LENGTH} characters.
+     * Terms sharing a prefix are adjacent in sorted order, so each length is one pass over the terms.
+     */
+    private Map<String, SpotifySuggestion[]> rankShortPrefixes(String[] terms, SpotifySuggestion[] suggestions,
+                                                               double[] scores) {
+        Map<String, SpotifySuggestion[]> topByPrefix = new HashMap<>();
+        for (int length = 1; length <= SHORT_PREFIX_LENGTH; length++) {
+            int from = 0;
+            while (from < terms.length) {
+                if (terms[from].length() < length) {
+                    from++;
+                    continue;
+                }
+                String prefix = terms[from].substring(0, length);
+                int to = from + 1;
+                while (to < terms.length && terms[to].startsWith(prefix)) {
+                    to++;
+                }
+                topByPrefix.put(prefix, top(suggestions, scores, from, to, maxLimit));
+                from = to;
+            }
+        }
+        return topByPrefix;
+    }
+
+    /** The {@code limit} best scored distinct suggestions among {@code [from, to)}, best first. */
+    private static SpotifySuggestion[] top(SpotifySuggestion[] suggestions, double[] scores, int from, int to,
+                                           int limit) {
+        PriorityQueue<Integer> best =
+                new PriorityQueue<>(limit + 1, Comparator.comparingDouble((Integer i) -> scores[i]));
+        Set<SpotifySuggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = from; i < to; i++) {
+            if (!seen.add(suggestions[i])) {
+                continue;
+            }
+            best.offer(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        SpotifySuggestion[] ranked = new SpotifySuggestion[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = suggestions[best.poll()];
+        }
+        return ranked;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static int lowerBound(String[] terms, String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String imageOf(SpotifyImage[] images) {
+        return images != null && images.length > 0 && images[images.length - 1] != null
+                ? images[images.length - 1].getUrl() : null;
+    }
+
+    private static final class Entry {
+        private final String type;
+        private final String id;
+        private final LongAdder observations = new LongAdder();
+        private volatile String name;
+        private volatile String imageUrl;
+        private volatile double bonus;
+        // Only touched by rebuild().
+        private long folded;
+        private double decayedCount;
+        private boolean recent;
+
+        private Entry(String type, String id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        /** Decays the count so far and adds the observations made since the previous rebuild. */
+        private void fold(double decay) {
+            long total = observations.sum();
+            long fresh = total - folded;
+            folded = total;
+            decayedCount = decayedCount * decay + fresh;
+            recent = fresh > 0;
+        }
+
+        private double score() {
+            return decayedCount + bonus;
+        }
+    }
+
+    private record Term(String term, SpotifySuggestion suggestion, double score) {}
+
+    private record Snapshot(String[] terms, SpotifySuggestion[] suggestions, double[] scores,
+                            Map<String, SpotifySuggestion[]> topByShortPrefix) {}
+}
@@ -0,0 +1,153 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory view of {@link UserSpotifyTokenRepository} keyed by Spotify user id. Reads go through to the
+ * repository on a miss and writes go to the repository first, then to the cache. Users that stay idle longer than
+ * the configured time are evicted, as are the least used ones once the size bound is reached. Only reads and logins
+ * count as activity: tokens saved back after a refresh keep the entry's remaining idle time, so proactive refreshes
+ * alone do not keep an idle user cached.
+ * <p>
+ * Listeners registered through {@link #onTokensCached} are told whenever tokens enter the cache, whether loaded,
+ * saved after a refresh or put after a login.
+ */
+@Component
+public class UserSpotifyTokenCache implements MeterBinder {
+
+    private final UserSpotifyTokenRepository tokenRepository;
+    private final Cache<String, UserSpotifyTokens> cache;
+    private final Duration idleTimeout;
+    private final Function<String, UserSpotifyTokens> loader = this::load;
+    private final List<Consumer<UserSpotifyTokens>> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public UserSpotifyTokenCache(UserSpotifyTokenRepository tokenRepository,
+                                 @Value("${app.spotify.token-cache.max-users:10000}") long maxUsers,
+                                 @Value("${app.spotify.token-cache.idle-timeout:2h}") Duration idleTimeout) {
+        this(tokenRepository, maxUsers, idleTimeout, Ticker.systemTicker());
+    }
+
+    public UserSpotifyTokenCache(UserSpotifyTokenRepository tokenRepository, long maxUsers, Duration idleTimeout,
+                                 Ticker ticker) {
+        this.tokenRepository = tokenRepository;
+        this.idleTimeout = idleTimeout;
+        long idleNanos = idleTimeout.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new Expiry<String, UserSpotifyTokens>() {
+                    @Override
+                    public long expireAfterCreate(String key, UserSpotifyTokens value, long currentTime) {
+                        return idleNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, UserSpotifyTokens value, long currentTime,
+                                                  long currentDuration) {
+                        // A write is not activity; put() restarts the clock itself when it is a login.
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, UserSpotifyTokens value, long currentTime,
+                                                long currentDuration) {
+                        return idleNanos;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the tokens for the user, loading them from the repository on a miss, or {@code null} if the user
+     * has never logged in.
+     */
+    public UserSpotifyTokens get(String spotifyUserId) {
+        return cache.get(spotifyUserId, loader);
+    }
+
+    /**
+     * Returns the cached tokens without going to the repository, or {@code null} if they are not cached.
+     */
+    public UserSpotifyTokens getIfPresent(String spotifyUserId) {
+        return cache.getIfPresent(spotifyUserId);
+    }
+
+    /**
+     * Returns the cached tokens without loading them and without counting as activity for idle eviction.
+     */
+    public UserSpotifyTokens getIfPresentQuietly(String spotifyUserId) {
+        return cache.policy().getIfPresentQuietly(spotifyUserId);
+    }
+
+    /**
+     * Writes refreshed tokens to the repository, then to the cache. Does not count as activity for idle eviction.
+     */
+    public UserSpotifyTokens save(UserSpotifyTokens userTokens) {
+        tokenRepository.save(userTokens);
+        cache.put(userTokens.getSpotifyUserId(), userTokens);
+        notifyListeners(userTokens);
+        return userTokens;
+    }
+
+    /**
+     * Caches tokens the user just logged in with, which counts as activity.
+     */
+    public void put(UserSpotifyTokens userTokens) {
+        String spotifyUserId = userTokens.getSpotifyUserId();
+        cache.put(spotifyUserId, userTokens);
+        cache.policy().expireVariably().ifPresent(policy -> policy.setExpiresAfter(spotifyUserId, idleTimeout));
+        notifyListeners(userTokens);
+    }
+
+    public void onTokensCached(Consumer<UserSpotifyTokens> listener) {
+        listeners.add(listener);
+    }
+
+    public void invalidate(String spotifyUserId) {
+        cache.invalidate(spotifyUserId);
+    }
+
+    /** Publishes hit, miss, load and eviction counts as the {@code cache.*} meters tagged {@code cache=user-tokens}. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user-tokens");
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private UserSpotifyTokens load(String spotifyUserId) {
+        UserSpotifyTokens userTokens = tokenRepository.findById(spotifyUserId).orElse(null);
+        if (userTokens != null) {
+            notifyListeners(userTokens);
+        }
+        return userTokens;
+    }
+
+    private void notifyListeners(UserSpotifyTokens userTokens) {
+        for (Consumer<UserSpotifyTokens> listener : listeners) {
+            listener.accept(userTokens);
+        }
+    }
+}
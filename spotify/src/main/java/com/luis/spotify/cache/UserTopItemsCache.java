@@ -0,0 +1,178 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.luis.spotify.upstream.RequestPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Per-user stale-while-revalidate cache for the slowly changing {@code /me/top/*} lists.
+ * <p>
+ * Within the soft TTL an entry is served as is. Past the soft TTL it is still served immediately, while one
+ * background refresh per entry fetches a new list; a failed refresh keeps the old one. Entries are dropped at the
+ * hard TTL, after which the next request loads on the calling thread. Entries are weighed by list length and evicted
+ * once the total weight reaches the configured maximum.
+ * <p>
+ * Loaders are told the {@link RequestPriority} to call Spotify with: {@link RequestPriority#HIGH} for a load a user
+ * is waiting on, {@link RequestPriority#LOW} for a speculative background refresh, so refreshes are shed before they
+ * eat into the budget reserved for interactive calls.
+ */
+@Slf4j
+@Component
+public class UserTopItemsCache implements MeterBinder {
+
+    public enum EntryType { TOP_TRACKS, TOP_ARTISTS }
+
+    private record Key(String spotifyUserId, EntryType type) {}
+
+    private record Entry(List<?> items, long loadedAt) {}
+
+    private final AsyncCache<Key, Entry> cache;
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+    private final Executor refreshExecutor;
+    private final long softTtlNanos;
+
+    public UserTopItemsCache(@Value("${app.spotify.top-items-cache.max-weight:200000}") long maxWeight,
+                             @Value("${app.spotify.top-items-cache.soft-ttl:10m}") Duration softTtl,
+                             @Value("${app.spotify.top-items-cache.hard-ttl:6h}") Duration hardTtl,
+                             @Qualifier("applicationTaskExecutor") Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+        this.softTtlNanos = softTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, Entry entry) -> 1 + entry.items().size())
+                .expireAfterWrite(hardTtl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the user's cached list, scheduling a background refresh through {@code loader} once it is older than
+     * the soft TTL. On a miss {@code loader} runs on the calling thread and concurrent callers for the same key wait
+     * for that single load. A {@code null} result or an exception is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String spotifyUserId, EntryType type, Function<RequestPriority, List<T>> loader) {
+        Key key = new Key(spotifyUserId, type);
+        AtomicBoolean loadedHere = new AtomicBoolean();
+        Entry entry = SingleFlight.get(cache, key, () -> {
+            loadedHere.set(true);
+            List<T> items = loader.apply(RequestPriority.HIGH);
+            return items != null ? new Entry(items, System.nanoTime()) : null;
+        });
+
+        if (entry == null) {
+            // An empty result is not cached. If it came from someone else's load, fetch for this caller instead.
+            return loadedHere.get() ? null : get(spotifyUserId, type, loader);
+        }
+        if (System.nanoTime() - entry.loadedAt() >= softTtlNanos) {
+            refreshInBackground(key, loader);
+        }
+        return (List<T>) entry.items();
+    }
+
+    /**
+     * Non-blocking variant of {@link #get} for callers whose {@code loader} is itself asynchronous. A stale entry is
+     * returned at once while {@code loader} refreshes it; on a miss concurrent callers share one load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<List<T>> getAsync(String spotifyUserId, EntryType type,
+                                                   Function<RequestPriority, CompletableFuture<List<T>>> loader) {
+        Key key = new Key(spotifyUserId, type);
+        AtomicBoolean loadedHere = new AtomicBoolean();
+        CompletableFuture<Entry> shared = SingleFlight.getAsync(cache, key, () -> {
+            loadedHere.set(true);
+            return load(loader, RequestPriority.HIGH);
+        });
+
+        return shared.thenCompose(entry -> {
+            if (entry == null) {
+                return loadedHere.get()
+                        ? CompletableFuture.completedFuture(null)
+                        : getAsync(spotifyUserId, type, loader);
+            }
+            if (System.nanoTime() - entry.loadedAt() >= softTtlNanos && refreshing.add(key)) {
+                load(loader, RequestPriority.LOW).whenComplete((fresh, e) -> {
+                    if (e != null) {
+                        log.warn("Background refresh of {} for user {} failed, serving the cached list: {}",
+                                type, spotifyUserId, e.getMessage());
+                    } else if (fresh != null) {
+                        cache.put(key, CompletableFuture.completedFuture(fresh));
+                    }
+                    refreshing.remove(key);
+                });
+            }
+            return CompletableFuture.completedFuture((List<T>) entry.items());
+        });
+    }
+
+    private static <T> CompletableFuture<Entry> load(Function<RequestPriority, CompletableFuture<List<T>>> loader,
+                                                     RequestPriority priority) {
+        try {
+            return loader.apply(priority).thenApply(items -> items != null ? new Entry(items, System.nanoTime()) : null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> void refreshInBackground(Key key, Function<RequestPriority, List<T>> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    List<T> items = loader.apply(RequestPriority.LOW);
+                    if (items != null) {
+                        cache.put(key, CompletableFuture.completedFuture(new Entry(items, System.nanoTime())));
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of {} for user {} failed, serving the cached list: {}",
+                            key.type(), key.spotifyUserId(), e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("Background refresh of {} for user {} rejected", key.type(), key.spotifyUserId());
+        }
+    }
+
+    public void invalidate(String spotifyUserId) {
+        for (EntryType type : EntryType.values()) {
+            cache.synchronous().invalidate(new Key(spotifyUserId, type));
+        }
+    }
+
+    /** Publishes hit, miss, load and eviction counts as the {@code cache.*} meters tagged {@code cache=top-items}. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "top-items");
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+}
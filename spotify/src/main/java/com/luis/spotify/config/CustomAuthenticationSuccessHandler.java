@@ -1,5 +1,6 @@
 package com.luis.spotify.config;
 
+import com.luis.spotify.cache.UserSpotifyTokenCache;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -21,10 +23,12 @@ import java.io.IOException;
 
 @Slf4j
 @Component
+@Profile("!reactive")
 public class CustomAuthenticationSuccessHandler implements AuthenticationSuccessHandler {
     private final JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl;
     private final OAuth2AuthorizedClientRepository authorizedClientRepository;
     private final UserSpotifyTokenRepository userSpotifyTokenRepository;
+    private final UserSpotifyTokenCache userSpotifyTokenCache;
 
     @Value("${app.frontend.redirectUrl}")
     private String frontendRedirectUrl;
@@ -32,11 +36,13 @@ public class CustomAuthenticationSuccessHandler implements AuthenticationSuccess
     public CustomAuthenticationSuccessHandler(
             JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl,
             OAuth2AuthorizedClientRepository authorizedClientRepository,
-            UserSpotifyTokenRepository userSpotifyTokenRepository
+            UserSpotifyTokenRepository userSpotifyTokenRepository,
+            UserSpotifyTokenCache userSpotifyTokenCache
     ){
         this.jwtTokenProviderServiceImpl = jwtTokenProviderServiceImpl;
         this.authorizedClientRepository = authorizedClientRepository;
         this.userSpotifyTokenRepository = userSpotifyTokenRepository;
+        this.userSpotifyTokenCache = userSpotifyTokenCache;
     }
 
     @Override
@@ -72,6 +78,7 @@ public class CustomAuthenticationSuccessHandler implements AuthenticationSuccess
                 }
 
                 userSpotifyTokenRepository.save(userTokens);
+                userSpotifyTokenCache.put(userTokens);
 
                 log.info("User {} saved tokens", userTokens.getSpotifyUserId());
             }
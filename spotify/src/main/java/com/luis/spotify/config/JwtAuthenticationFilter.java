@@ -1,10 +1,12 @@
 package com.luis.spotify.config;
 
 import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -14,6 +16,7 @@ import java.io.IOException;
 import java.util.List;
 
 @Component
+@Profile("!reactive")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl;
@@ -33,8 +36,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            if (jwtTokenProviderServiceImpl.validateToken(token)) {
-                String userId = jwtTokenProviderServiceImpl.getUserIdFromJWT(token);
+            Claims claims = jwtTokenProviderServiceImpl.verifyAndGetClaims(token);
+            if (claims != null) {
+                String userId = claims.get("userId").toString();
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userId, null, List.of());
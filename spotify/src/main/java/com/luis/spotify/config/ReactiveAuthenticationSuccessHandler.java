@@ -0,0 +1,96 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.web.server.ServerOAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.server.DefaultServerRedirectStrategy;
+import org.springframework.security.web.server.ServerRedirectStrategy;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+
+/**
+ * WebFlux version of {@link CustomAuthenticationSuccessHandler}: stores the user's Spotify tokens and redirects to
+ * the frontend with an app JWT. The JPA save is blocking, so it runs on the bounded elastic scheduler.
+ */
+@Slf4j
+@Component
+@Profile("reactive")
+public class ReactiveAuthenticationSuccessHandler implements ServerAuthenticationSuccessHandler {
+    private final JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl;
+    private final ServerOAuth2AuthorizedClientRepository authorizedClientRepository;
+    private final UserSpotifyTokenRepository userSpotifyTokenRepository;
+    private final UserSpotifyTokenCache userSpotifyTokenCache;
+    private final ServerRedirectStrategy redirectStrategy = new DefaultServerRedirectStrategy();
+
+    @Value("${app.frontend.redirectUrl}")
+    private String frontendRedirectUrl;
+
+    public ReactiveAuthenticationSuccessHandler(
+            JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl,
+            ServerOAuth2AuthorizedClientRepository authorizedClientRepository,
+            UserSpotifyTokenRepository userSpotifyTokenRepository,
+            UserSpotifyTokenCache userSpotifyTokenCache
+    ) {
+        this.jwtTokenProviderServiceImpl = jwtTokenProviderServiceImpl;
+        this.authorizedClientRepository = authorizedClientRepository;
+        this.userSpotifyTokenRepository = userSpotifyTokenRepository;
+        this.userSpotifyTokenCache = userSpotifyTokenCache;
+    }
+
+    @Override
+    public Mono<Void> onAuthenticationSuccess(WebFilterExchange webFilterExchange, Authentication authentication) {
+        if (!(authentication instanceof OAuth2AuthenticationToken oauth2Token)) {
+            log.info("Authentication different from OAuth");
+            return Mono.empty();
+        }
+        String appJwt = jwtTokenProviderServiceImpl.generateToken(authentication);
+
+        return authorizedClientRepository
+                .loadAuthorizedClient(oauth2Token.getAuthorizedClientRegistrationId(), authentication,
+                        webFilterExchange.getExchange())
+                .flatMap(authorizedClient -> Mono.fromRunnable(() -> saveTokens(authorizedClient, authentication))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then(redirectStrategy.sendRedirect(webFilterExchange.getExchange(),
+                        URI.create(frontendRedirectUrl + "?token=" + appJwt)));
+    }
+
+    private void saveTokens(OAuth2AuthorizedClient authorizedClient, Authentication authentication) {
+        OAuth2AccessToken accessToken = authorizedClient.getAccessToken();
+        OAuth2RefreshToken refreshToken = authorizedClient.getRefreshToken();
+        OAuth2User oauth2User = (OAuth2User) authentication.getPrincipal();
+
+        String spotifyUserId = oauth2User.getName();
+        UserSpotifyTokens userTokens = userSpotifyTokenRepository
+                .findById(spotifyUserId)
+                .orElse(new UserSpotifyTokens());
+
+        userTokens.setSpotifyUserId(spotifyUserId);
+        userTokens.setAccessToken(accessToken.getTokenValue());
+        userTokens.setAccessTokenExpiresAt(accessToken.getExpiresAt());
+
+        if (refreshToken != null) {
+            userTokens.setRefreshToken(refreshToken.getTokenValue());
+        }
+
+        userSpotifyTokenRepository.save(userTokens);
+        userSpotifyTokenCache.put(userTokens);
+
+        log.info("User {} saved tokens", userTokens.getSpotifyUserId());
+    }
+}
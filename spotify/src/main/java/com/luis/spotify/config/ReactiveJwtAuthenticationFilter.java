@@ -0,0 +1,49 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link JwtAuthenticationFilter}. It is added to the security filter chain by
+ * {@link ReactiveSecurityConfig} rather than declared as a bean, because WebFlux would otherwise also run every
+ * {@link WebFilter} bean outside the chain.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private final JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl;
+
+    public ReactiveJwtAuthenticationFilter(JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl) {
+        this.jwtTokenProviderServiceImpl = jwtTokenProviderServiceImpl;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+
+            Claims claims = jwtTokenProviderServiceImpl.verifyAndGetClaims(token);
+            if (claims != null) {
+                String userId = claims.get("userId").toString();
+
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userId, null, List.of());
+
+                return chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            }
+        }
+
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,78 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * WebFlux version of {@link SecurityConfig} for the {@code reactive} profile: same public paths, Spotify login and
+ * app JWTs.
+ */
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    private final ReactiveAuthenticationSuccessHandler reactiveAuthenticationSuccessHandler;
+
+    private final JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl;
+
+    /** See {@link SecurityConfig}: Prometheus scrapes without credentials only on the management port. */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    public ReactiveSecurityConfig(
+            ReactiveAuthenticationSuccessHandler reactiveAuthenticationSuccessHandler,
+            JwtTokenProviderServiceImpl jwtTokenProviderServiceImpl
+    ) {
+        this.reactiveAuthenticationSuccessHandler = reactiveAuthenticationSuccessHandler;
+        this.jwtTokenProviderServiceImpl = jwtTokenProviderServiceImpl;
+    }
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        RedirectServerLogoutSuccessHandler logoutSuccessHandler = new RedirectServerLogoutSuccessHandler();
+        logoutSuccessHandler.setLogoutSuccessUrl(URI.create("/"));
+
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(auth -> auth
+                        .pathMatchers("/me", "/dashboard", "/search", "/search/**", "/artists/**", "/tracks/**",
+                                "/albums/**").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .matchers(prometheusScrape()).permitAll()
+                        .anyExchange().authenticated()
+                )
+                .oauth2Login(oauth2 -> oauth2
+                        .authenticationSuccessHandler(reactiveAuthenticationSuccessHandler)
+                )
+                .logout(logout -> logout
+                        .logoutSuccessHandler(logoutSuccessHandler)
+                )
+                .addFilterAt(new ReactiveJwtAuthenticationFilter(jwtTokenProviderServiceImpl),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    private ServerWebExchangeMatcher prometheusScrape() {
+        return exchange -> isPrometheusScrape(exchange) ? MatchResult.match() : MatchResult.notMatch();
+    }
+
+    private boolean isPrometheusScrape(ServerWebExchange exchange) {
+        InetSocketAddress localAddress = exchange.getRequest().getLocalAddress();
+        return managementPort > 0 && localAddress != null && localAddress.getPort() == managementPort
+                && "/actuator/prometheus".equals(exchange.getRequest().getPath().value());
+    }
+}
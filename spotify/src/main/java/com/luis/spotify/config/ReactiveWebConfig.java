@@ -0,0 +1,68 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.metrics.SpotifyApiMetricsInterceptor;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
+import com.luis.spotify.upstream.SpotifyRequestCoalescer;
+import com.luis.spotify.upstream.SpotifyResilienceInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.Scope;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * Server and clients for the {@code reactive} profile, where the app runs on WebFlux. Spring Boot would pick Tomcat
+ * for WebFlux too while it is on the classpath, so Reactor Netty is chosen explicitly.
+ * <p>
+ * The {@code WebClient} shares the Spotify connection pool with the blocking clients and applies the same
+ * resilience, rate-limit and metrics components as filters. Spring Boot only provides a {@code RestClient.Builder}
+ * to servlet applications, so one is declared here for the services that still block, such as the token refresh.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig {
+
+    @Value("${app.spotify.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public WebClient spotifyWebClient(WebClient.Builder webClientBuilder,
+                                      HttpClient spotifyHttpClient,
+                                      SpotifyRequestCoalescer spotifyRequestCoalescer,
+                                      SpotifyApiMetricsInterceptor spotifyApiMetricsInterceptor,
+                                      SpotifyResilienceInterceptor spotifyResilienceInterceptor,
+                                      SpotifyRateLimitInterceptor spotifyRateLimitInterceptor) {
+        // Same order as on the RestClient, coalescer first, except that metrics come last: a retried request is a new
+        // ClientRequest, so each attempt is timed on its own with its retry tag.
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(
+                        spotifyHttpClient.responseTimeout(Duration.ofMillis(readTimeoutMs))))
+                .filter(spotifyRequestCoalescer)
+                .filter(spotifyRateLimitInterceptor)
+                .filter(spotifyResilienceInterceptor)
+                .filter(spotifyApiMetricsInterceptor)
+                .build();
+    }
+
+    @Bean
+    @Scope("prototype")
+    public RestClient.Builder restClientBuilder(ObjectProvider<RestClientCustomizer> customizers) {
+        RestClient.Builder builder = RestClient.builder();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+}
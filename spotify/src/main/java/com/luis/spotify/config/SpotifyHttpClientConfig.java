@@ -0,0 +1,177 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.metrics.SpotifyApiMetricsInterceptor;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
+import com.luis.spotify.upstream.SpotifyRequestCoalescer;
+import com.luis.spotify.upstream.SpotifyResilienceInterceptor;
+import com.luis.spotify.upstream.SpotifyRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Single HTTP transport shared by every {@code RestClient} (and, under the {@code reactive} profile, the
+ * {@code WebClient}) that talks to the Spotify API and accounts hosts.
+ * Connections are pooled per remote host and kept alive between requests, so TLS handshakes are paid once per
+ * connection instead of once per call.
+ */
+@Slf4j
+@Configuration
+public class SpotifyHttpClientConfig {
+
+    @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
+    private String apiUri;
+
+    @Value("${spring.security.oauth2.client.provider.spotify.token-uri}")
+    private String tokenUri;
+
+    @Value("${app.spotify.http.max-connections-per-host:100}")
+    private int maxConnectionsPerHost;
+
+    @Value("${app.spotify.http.accounts-max-connections:20}")
+    private int accountsMaxConnections;
+
+    @Value("${app.spotify.http.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${app.spotify.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${app.spotify.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.spotify.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${app.spotify.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${app.spotify.http.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${app.spotify.http.coalesce-identical-requests:true}")
+    private boolean coalesceIdenticalRequests;
+
+    @Value("${app.spotify.rate-limit.requests-per-second:10}")
+    private double rateLimitRequestsPerSecond;
+
+    @Value("${app.spotify.rate-limit.burst:20}")
+    private int rateLimitBurst;
+
+    @Value("${app.spotify.rate-limit.reserved-for-high:4}")
+    private int rateLimitReservedForHigh;
+
+    @Value("${app.spotify.rate-limit.high-max-wait:2s}")
+    private Duration rateLimitHighMaxWait;
+
+    @Value("${app.spotify.rate-limit.normal-max-wait:1s}")
+    private Duration rateLimitNormalMaxWait;
+
+    @Value("${app.spotify.rate-limit.low-max-wait:0ms}")
+    private Duration rateLimitLowMaxWait;
+
+    @Value("${app.spotify.rate-limit.max-retries:1}")
+    private int rateLimitMaxRetries;
+
+    @Value("${app.spotify.rate-limit.max-retry-after:3s}")
+    private Duration rateLimitMaxRetryAfter;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider spotifyConnectionProvider() {
+        URI accounts = URI.create(tokenUri);
+        return ConnectionProvider.builder("spotify")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .forRemoteHost(InetSocketAddress.createUnresolved(accounts.getHost(), portOf(accounts)),
+                        spec -> spec.maxConnections(accountsMaxConnections))
+                .build();
+    }
+
+    @Bean
+    public HttpClient spotifyHttpClient(ConnectionProvider spotifyConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(spotifyConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .keepAlive(true)
+                .compress(compressionEnabled);
+
+        // HTTP/2 is negotiated through ALPN, so it only applies to TLS hosts; plain http hosts stay on HTTP/1.1.
+        if (http2Enabled) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        log.info("Spotify HTTP transport: {} connections per host ({} for {}), http2={}, gzip={}, api={}",
+                maxConnectionsPerHost, accountsMaxConnections, URI.create(tokenUri).getHost(),
+                http2Enabled, compressionEnabled, apiUri);
+        return httpClient;
+    }
+
+    @Bean
+    public ClientHttpRequestFactory spotifyClientHttpRequestFactory(HttpClient spotifyHttpClient) {
+        ReactorClientHttpRequestFactory requestFactory = new ReactorClientHttpRequestFactory(spotifyHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return requestFactory;
+    }
+
+    @Bean
+    public SpotifyApiMetricsInterceptor spotifyApiMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new SpotifyApiMetricsInterceptor(meterRegistry, apiUri, tokenUri);
+    }
+
+    @Bean
+    public SpotifyRequestCoalescer spotifyRequestCoalescer(MeterRegistry meterRegistry) {
+        return new SpotifyRequestCoalescer(meterRegistry, apiUri, coalesceIdenticalRequests,
+                Duration.ofMillis(readTimeoutMs));
+    }
+
+    @Bean
+    public SpotifyRateLimiter spotifyRateLimiter(MeterRegistry meterRegistry) {
+        return new SpotifyRateLimiter(rateLimitRequestsPerSecond, rateLimitBurst, rateLimitReservedForHigh,
+                rateLimitHighMaxWait, rateLimitNormalMaxWait, rateLimitLowMaxWait, meterRegistry);
+    }
+
+    @Bean
+    public SpotifyRateLimitInterceptor spotifyRateLimitInterceptor(SpotifyRateLimiter spotifyRateLimiter) {
+        return new SpotifyRateLimitInterceptor(spotifyRateLimiter, apiUri, rateLimitMaxRetries, rateLimitMaxRetryAfter);
+    }
+
+    @Bean
+    public RestClientCustomizer spotifyRestClientCustomizer(ClientHttpRequestFactory spotifyClientHttpRequestFactory,
+                                                            SpotifyRequestCoalescer spotifyRequestCoalescer,
+                                                            SpotifyApiMetricsInterceptor spotifyApiMetricsInterceptor,
+                                                            SpotifyResilienceInterceptor spotifyResilienceInterceptor,
+                                                            SpotifyRateLimitInterceptor spotifyRateLimitInterceptor) {
+        // Order matters: the rate-limit interceptor retries by re-executing, which only re-runs the interceptors
+        // after it. The resilience interceptor sits there, so every attempt goes through the breaker and bulkhead
+        // on its own, and permit waits and Retry-After pauses neither count as slow calls nor hold a bulkhead slot.
+        // The metrics interceptor times the call including its retries. The coalescer goes first so that requests
+        // sharing an in-flight call take no permit or bulkhead slot and are not timed as upstream calls.
+        return builder -> builder
+                .requestFactory(spotifyClientHttpRequestFactory)
+                .requestInterceptor(spotifyRequestCoalescer)
+                .requestInterceptor(spotifyApiMetricsInterceptor)
+                .requestInterceptor(spotifyRateLimitInterceptor)
+                .requestInterceptor(spotifyResilienceInterceptor);
+    }
+
+    private static int portOf(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+}
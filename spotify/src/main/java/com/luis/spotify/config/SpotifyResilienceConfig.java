@@ -0,0 +1,130 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.upstream.EndpointFamily;
+import com.luis.spotify.upstream.SpotifyRateLimitedException;
+import com.luis.spotify.upstream.SpotifyResilienceInterceptor;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One bulkhead and one circuit breaker per {@link EndpointFamily}. Breaker state, call outcomes and bulkhead
+ * usage are published through the resilience4j Micrometer bindings; state transitions are also counted as
+ * {@code spotify.circuitbreaker.transitions} and logged.
+ */
+@Slf4j
+@Configuration
+public class SpotifyResilienceConfig {
+
+    @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
+    private String apiUri;
+
+    @Value("${spring.security.oauth2.client.provider.spotify.token-uri}")
+    private String tokenUri;
+
+    @Value("${app.spotify.resilience.search.max-concurrent:16}")
+    private int searchMaxConcurrent;
+
+    @Value("${app.spotify.resilience.catalog.max-concurrent:32}")
+    private int catalogMaxConcurrent;
+
+    @Value("${app.spotify.resilience.user-top.max-concurrent:16}")
+    private int userTopMaxConcurrent;
+
+    @Value("${app.spotify.resilience.auth.max-concurrent:8}")
+    private int authMaxConcurrent;
+
+    @Value("${app.spotify.resilience.bulkhead-max-wait:50ms}")
+    private Duration bulkheadMaxWait;
+
+    @Value("${app.spotify.resilience.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${app.spotify.resilience.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${app.spotify.resilience.slow-call-duration:2s}")
+    private Duration slowCallDuration;
+
+    @Value("${app.spotify.resilience.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${app.spotify.resilience.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${app.spotify.resilience.wait-in-open:10s}")
+    private Duration waitInOpen;
+
+    @Bean
+    public CircuitBreakerRegistry spotifyCircuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(waitInOpen)
+                .permittedNumberOfCallsInHalfOpenState(Math.max(1, minimumCalls / 2))
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .ignoreExceptions(SpotifyRateLimitedException.class)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry spotifyBulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxWaitDuration(bulkheadMaxWait)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public SpotifyResilienceInterceptor spotifyResilienceInterceptor(CircuitBreakerRegistry spotifyCircuitBreakerRegistry,
+                                                                     BulkheadRegistry spotifyBulkheadRegistry,
+                                                                     MeterRegistry meterRegistry) {
+        Map<EndpointFamily, Bulkhead> bulkheads = new EnumMap<>(EndpointFamily.class);
+        Map<EndpointFamily, CircuitBreaker> circuitBreakers = new EnumMap<>(EndpointFamily.class);
+        for (EndpointFamily family : EndpointFamily.values()) {
+            String name = "spotify-" + family.tag();
+            bulkheads.put(family, spotifyBulkheadRegistry.bulkhead(name, BulkheadConfig.from(
+                    spotifyBulkheadRegistry.getDefaultConfig()).maxConcurrentCalls(maxConcurrent(family)).build()));
+
+            CircuitBreaker circuitBreaker = spotifyCircuitBreakerRegistry.circuitBreaker(name);
+            circuitBreaker.getEventPublisher().onStateTransition(event -> {
+                log.warn("Circuit breaker {} moved {}", event.getCircuitBreakerName(), event.getStateTransition());
+                meterRegistry.counter("spotify.circuitbreaker.transitions",
+                        "family", family.tag(),
+                        "from", event.getStateTransition().getFromState().name(),
+                        "to", event.getStateTransition().getToState().name()).increment();
+            });
+            circuitBreakers.put(family, circuitBreaker);
+        }
+        return new SpotifyResilienceInterceptor(bulkheads, circuitBreakers, apiUri, tokenUri);
+    }
+
+    private int maxConcurrent(EndpointFamily family) {
+        return switch (family) {
+            case SEARCH -> searchMaxConcurrent;
+            case CATALOG -> catalogMaxConcurrent;
+            case USER_TOP -> userTopMaxConcurrent;
+            case AUTH -> authMaxConcurrent;
+        };
+    }
+}
@@ -3,18 +3,23 @@ package com.luis.spotify.controller;
 import com.luis.spotify.dto.SpotifyAlbum;
 import com.luis.spotify.service.SpotifyAlbumApiService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.util.List;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/albums")
 @CrossOrigin
 public class SpotifyAlbumApiController {
 
+    static final int MAX_IDS = 50;
+
     private final SpotifyAlbumApiService spotifyAlbumApiService;
 
     public SpotifyAlbumApiController(SpotifyAlbumApiService spotifyAlbumApiService) {
@@ -33,5 +38,16 @@ public class SpotifyAlbumApiController {
         }
         return ResponseEntity.ok(album);
     }
-}
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<SpotifyAlbum>> getAlbums(
+            Principal principal,
+            @RequestParam List<String> ids
+    ) {
+        log.info("Controller: Request for {} albums received for user {}", ids.size(), principal.getName());
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(spotifyAlbumApiService.getAlbums(principal, ids));
+    }
+}
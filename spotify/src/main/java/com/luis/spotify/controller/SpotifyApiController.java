@@ -3,6 +3,7 @@ package com.luis.spotify.controller;
 import com.luis.spotify.dto.SpotifyUserProfile;
 import com.luis.spotify.service.impl.SpotifyApiServiceImpl;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.security.Principal;
 
 @RestController
+@Profile("!reactive")
 @Slf4j
 @CrossOrigin
 public class SpotifyApiController {
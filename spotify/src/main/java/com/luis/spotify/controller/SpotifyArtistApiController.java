@@ -4,6 +4,7 @@ import com.luis.spotify.dto.SpotifyArtist;
 import com.luis.spotify.dto.SpotifyArtistPage;
 import com.luis.spotify.service.SpotifyArtistApiService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -12,16 +13,28 @@ import java.security.Principal;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/artists")
 @Slf4j
 @CrossOrigin
 public class SpotifyArtistApiController {
+    static final int MAX_IDS = 50;
+
     private final SpotifyArtistApiService spotifyArtistApiService;
 
     public SpotifyArtistApiController(SpotifyArtistApiService spotifyArtistApiService) {
         this.spotifyArtistApiService = spotifyArtistApiService;
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<SpotifyArtist>> getArtists(Principal principal, @RequestParam List<String> ids) {
+        log.info("Request for {} artists received for user {}", ids.size(), principal.getName());
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(spotifyArtistApiService.getArtists(principal, ids));
+    }
+
     @GetMapping("/top")
     public ResponseEntity<List<SpotifyArtist>> getTopArtists(Principal principal) {
         log.info("Request for top artists received for user {}", principal.getName());
@@ -36,6 +49,9 @@ public class SpotifyArtistApiController {
     ) {
         log.info("Request for artist page info received for user {} and artist ID {}", principal.getName(), artistId);
         SpotifyArtistPage artistPageInfo = spotifyArtistApiService.getArtistPageInfo(principal, artistId);
+        if (artistPageInfo == null) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok(artistPageInfo);
     }
 }
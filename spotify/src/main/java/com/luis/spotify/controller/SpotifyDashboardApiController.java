@@ -0,0 +1,32 @@
+package com.luis.spotify.controller;
+
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.service.SpotifyDashboardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+
+@Slf4j
+@RestController
+@Profile("!reactive")
+@CrossOrigin
+public class SpotifyDashboardApiController {
+
+    private final SpotifyDashboardService spotifyDashboardService;
+
+    public SpotifyDashboardApiController(SpotifyDashboardService spotifyDashboardService) {
+        this.spotifyDashboardService = spotifyDashboardService;
+    }
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<SpotifyDashboard> getDashboard(Principal principal) {
+        log.info("Request for dashboard received for user {}", principal.getName());
+        SpotifyDashboard dashboard = spotifyDashboardService.getDashboard(principal);
+        return ResponseEntity.ok(dashboard);
+    }
+}
@@ -0,0 +1,98 @@
+package com.luis.spotify.controller;
+
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifySearchResults;
+import com.luis.spotify.dto.SpotifySuggestion;
+import com.luis.spotify.dto.SpotifyTrack;
+import com.luis.spotify.dto.SpotifyUserProfile;
+import com.luis.spotify.service.SpotifyReactiveApiService;
+import com.luis.spotify.service.SpotifySearchApiService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The API served by the {@code reactive} profile: the same paths and payloads as the servlet controllers, answered
+ * without blocking a request thread. Only the SSE search stream is not available in this mode.
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@CrossOrigin
+public class SpotifyReactiveApiController {
+
+    private final SpotifyReactiveApiService spotifyReactiveApiService;
+    private final SpotifySearchApiService spotifySearchApiService;
+
+    public SpotifyReactiveApiController(SpotifyReactiveApiService spotifyReactiveApiService,
+                                        SpotifySearchApiService spotifySearchApiService) {
+        this.spotifyReactiveApiService = spotifyReactiveApiService;
+        this.spotifySearchApiService = spotifySearchApiService;
+    }
+
+    @GetMapping("/me")
+    public Mono<ResponseEntity<SpotifyUserProfile>> getUserInfo(Principal user) {
+        log.info("Get user {} details", user.getName());
+        return spotifyReactiveApiService.getUserInfo(user).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/dashboard")
+    public Mono<ResponseEntity<SpotifyDashboard>> getDashboard(Principal principal) {
+        log.info("Request for dashboard received for user {}", principal.getName());
+        return spotifyReactiveApiService.getDashboard(principal).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<SpotifySearchResults>> search(Principal user, @RequestParam String q) {
+        log.info("Search request received with query '{}' ", q);
+        return spotifyReactiveApiService.search(user, q).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<SpotifySuggestion>> suggest(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "8") int limit) {
+        // Answered from the in-memory index, so there is nothing to wait for.
+        return ResponseEntity.ok(spotifySearchApiService.suggest(q, limit));
+    }
+
+    @GetMapping("/artists/top")
+    public Mono<ResponseEntity<List<SpotifyArtist>>> getTopArtists(Principal principal) {
+        log.info("Request for top artists received for user {}", principal.getName());
+        return spotifyReactiveApiService.getTopArtists(principal).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/artists/{artistId}")
+    public Mono<ResponseEntity<SpotifyArtistPage>> getArtistPageInfo(Principal principal,
+                                                                     @PathVariable String artistId) {
+        log.info("Request for artist page info received for user {} and artist ID {}", principal.getName(), artistId);
+        return spotifyReactiveApiService.getArtistPageInfo(principal, artistId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/albums/{albumId}")
+    public Mono<ResponseEntity<SpotifyAlbum>> getAlbumInfo(Principal principal, @PathVariable String albumId) {
+        log.info("Controller: Request for album info received for user {} and album ID {}", principal.getName(), albumId);
+        return spotifyReactiveApiService.getAlbumInfo(principal, albumId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/tracks/top")
+    public Mono<ResponseEntity<List<SpotifyTrack>>> getTopTracks(Principal principal) {
+        log.info("Request for top tracks received for user {}", principal.getName());
+        return spotifyReactiveApiService.getTopTracks(principal).map(ResponseEntity::ok);
+    }
+}
@@ -1,22 +1,34 @@
 package com.luis.spotify.controller;
 
 import com.luis.spotify.dto.SpotifySearchResults;
-import com.luis.spotify.dto.SpotifyUserProfile;
+import com.luis.spotify.dto.SpotifySearchSection;
+import com.luis.spotify.dto.SpotifySuggestion;
 import com.luis.spotify.service.SpotifySearchApiService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/search")
 @CrossOrigin
 public class SpotifySearchApiController {
 
     private final SpotifySearchApiService spotifySearchApiService;
 
+    @Value("${app.spotify.search.stream-timeout-ms:5000}")
+    private long streamTimeoutMs;
+
     public SpotifySearchApiController(SpotifySearchApiService spotifySearchApiService) {
         this.spotifySearchApiService = spotifySearchApiService;
     }
@@ -30,4 +42,52 @@ public class SpotifySearchApiController {
         SpotifySearchResults results = spotifySearchApiService.search(user, q);
         return ResponseEntity.ok(results);
     }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SpotifySuggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit
+    ){
+        return ResponseEntity.ok(spotifySearchApiService.suggest(q, limit));
+    }
+
+    /**
+     * Streams the search as Server-Sent Events: one {@code section} event per result type in the order the Spotify
+     * calls finish, followed by a single {@code done} event.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSearch(
+            Principal user,
+            @RequestParam String q
+    ){
+        log.info("Streaming search request received with query '{}' ", q);
+        List<CompletableFuture<SpotifySearchSection>> sections = spotifySearchApiService.searchSections(user, q);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        // Wait on the pushes rather than the sections themselves, so "done" can never overtake the last section.
+        CompletableFuture<?>[] pushed = sections.stream()
+                .map(section -> section.thenAccept(result -> send(emitter, SseEmitter.event()
+                        .name("section")
+                        .data(result, MediaType.APPLICATION_JSON))))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(pushed)
+                .whenComplete((ignored, e) -> {
+                    if (send(emitter, SseEmitter.event().name("done").data(""))) {
+                        emitter.complete();
+                    }
+                });
+        return emitter;
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter timed out; the remaining sections have nowhere to go.
+            log.debug("Could not push search event: {}", e.getMessage());
+            return false;
+        }
+    }
 }
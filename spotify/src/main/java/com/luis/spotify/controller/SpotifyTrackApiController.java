@@ -3,6 +3,7 @@ package com.luis.spotify.controller;
 import com.luis.spotify.dto.SpotifyTrack;
 import com.luis.spotify.service.SpotifyTrackApiService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +15,7 @@ import java.util.List;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/tracks")
 @CrossOrigin
 public class SpotifyTrackApiController {
@@ -0,0 +1,71 @@
+package com.luis.spotify.controller;
+
+import com.luis.spotify.upstream.SpotifyRateLimitedException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Turns Spotify throttling and fail-fast rejections (open circuit breaker, full bulkhead) into a
+ * {@code 503 Service Unavailable} with a {@code Retry-After} header, so clients back off instead of seeing a
+ * generic server error.
+ */
+@Slf4j
+@RestControllerAdvice
+public class SpotifyUpstreamExceptionHandler {
+
+    @ExceptionHandler(SpotifyRateLimitedException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimited(SpotifyRateLimitedException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return unavailable("Spotify rate limit reached, request was not sent", retryAfterSeconds);
+    }
+
+    @ExceptionHandler(HttpClientErrorException.TooManyRequests.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(HttpClientErrorException.TooManyRequests e) {
+        return unavailable("Spotify rate limit reached", retryAfterSecondsOf(e.getResponseHeaders()));
+    }
+
+    @ExceptionHandler(WebClientResponseException.TooManyRequests.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(WebClientResponseException.TooManyRequests e) {
+        return unavailable("Spotify rate limit reached", retryAfterSecondsOf(e.getHeaders()));
+    }
+
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<ProblemDetail> handleCircuitOpen(CallNotPermittedException e) {
+        return unavailable("Spotify " + e.getCausingCircuitBreakerName() + " is failing, request was not sent", 10);
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(BulkheadFullException e) {
+        return unavailable("Too many concurrent Spotify calls, request was not sent", 1);
+    }
+
+    private static long retryAfterSecondsOf(HttpHeaders headers) {
+        String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        long retryAfterSeconds = 1;
+        if (retryAfter != null) {
+            try {
+                retryAfterSeconds = Math.max(1, Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form; fall back to the default
+            }
+        }
+        return retryAfterSeconds;
+    }
+
+    private ResponseEntity<ProblemDetail> unavailable(String detail, long retryAfterSeconds) {
+        log.warn("{}, asking client to retry after {} s", detail, retryAfterSeconds);
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, detail);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(problem);
+    }
+}
@@ -19,4 +19,9 @@ public class SpotifyAlbum {
     private SpotifyArtist[] artists;
     @JsonProperty("total_tracks") private Integer totalTracks;
     private SpotifyTrack[] track;
+
+    @JsonProperty("tracks")
+    private void setTracksPage(SpotifyPage<SpotifyTrack> tracksPage) {
+        this.track = SpotifyPage.itemsOf(tracksPage).toArray(new SpotifyTrack[0]);
+    }
 }
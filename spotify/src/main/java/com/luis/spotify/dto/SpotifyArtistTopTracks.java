@@ -0,0 +1,19 @@
+package com.luis.spotify.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.luis.spotify.dto.deserializer.SkipInvalidElementsDeserializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpotifyArtistTopTracks {
+    @JsonDeserialize(using = SkipInvalidElementsDeserializer.class)
+    private List<SpotifyTrack> tracks;
+}
@@ -0,0 +1,16 @@
+package com.luis.spotify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpotifyDashboard {
+    private SpotifyDashboardSection<SpotifyUserProfile> profile;
+    private SpotifyDashboardSection<List<SpotifyArtist>> topArtists;
+    private SpotifyDashboardSection<List<SpotifyTrack>> topTracks;
+}
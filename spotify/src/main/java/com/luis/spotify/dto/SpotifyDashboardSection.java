@@ -0,0 +1,34 @@
+package com.luis.spotify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One section of the dashboard payload. A section that failed or missed its deadline carries no data, but the
+ * rest of the dashboard is still returned. Its {@code error} is a fixed message and its {@code code} the HTTP status
+ * the section would have failed with on its own; the underlying exception is only logged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpotifyDashboardSection<T> {
+    private Status status;
+    private T data;
+    private String error;
+    private Integer code;
+
+    public enum Status {
+        OK,
+        ERROR,
+        TIMEOUT
+    }
+
+    public static <T> SpotifyDashboardSection<T> ok(T data) {
+        return new SpotifyDashboardSection<>(Status.OK, data, null, null);
+    }
+
+    public static <T> SpotifyDashboardSection<T> failed(Status status, String error, int code) {
+        return new SpotifyDashboardSection<>(status, null, error, code);
+    }
+}
@@ -0,0 +1,26 @@
+package com.luis.spotify.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.luis.spotify.dto.deserializer.SkipInvalidElementsDeserializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response of a Spotify multi-get ({@code /artists?ids=}, {@code /albums?ids=}). Unknown ids come back as
+ * {@code null} and entities that fail to map are dropped, so {@code items} only holds valid entities and callers
+ * match them back to their ids. {@code items} stays {@code null} when the response has no list at all.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpotifyMultiGet<T> {
+    @JsonAlias({"artists", "albums"})
+    @JsonDeserialize(using = SkipInvalidElementsDeserializer.class)
+    private List<T> items;
+}
@@ -0,0 +1,30 @@
+package com.luis.spotify.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.luis.spotify.dto.deserializer.SkipInvalidElementsDeserializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Spotify paging object. {@code items} is left {@code null} when the response has no list at all, so callers can
+ * tell a malformed page from an empty one; {@link #itemsOf} reads both as empty.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpotifyPage<T> {
+    @JsonDeserialize(using = SkipInvalidElementsDeserializer.class)
+    private List<T> items;
+    private Integer total;
+    private String next;
+
+    public static <T> List<T> itemsOf(SpotifyPage<T> page) {
+        return page == null || page.getItems() == null ? new ArrayList<>() : page.getItems();
+    }
+}
@@ -0,0 +1,17 @@
+package com.luis.spotify.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpotifySearchResponse {
+    private SpotifyPage<SpotifyTrack> tracks;
+    private SpotifyPage<SpotifyAlbum> albums;
+    private SpotifyPage<SpotifyArtist> artists;
+    private SpotifyPage<SpotifySearchPlaylist> playlists;
+}
@@ -0,0 +1,32 @@
+package com.luis.spotify.dto;
+
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One result type of a streamed search ({@code tracks}, {@code albums}, {@code artists} or {@code playlists}).
+ * Sections are pushed to the client as soon as their own Spotify call returns; a failed or late section carries
+ * no items, a fixed {@code error} and the HTTP status it would have failed with on its own as {@code code}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpotifySearchSection {
+    private String type;
+    private Status status;
+    private List<?> items;
+    private String error;
+    private Integer code;
+
+    public static SpotifySearchSection ok(String type, List<?> items) {
+        return new SpotifySearchSection(type, Status.OK, items, null, null);
+    }
+
+    public static SpotifySearchSection failed(String type, Status status, String error, int code) {
+        return new SpotifySearchSection(type, status, List.of(), error, code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.luis.spotify.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One typeahead entry: an artist, track, album or playlist the backend has already seen in a Spotify response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpotifySuggestion {
+    private String type;
+    private String id;
+    private String name;
+    private String imageUrl;
+}
@@ -0,0 +1,23 @@
+package com.luis.spotify.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Response of the Spotify accounts service token endpoint. The access token is left out of {@code toString} so a
+ * logged or rethrown response never carries it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpotifyTokenResponse {
+    @ToString.Exclude
+    @JsonProperty("access_token") private String accessToken;
+    @JsonProperty("token_type") private String tokenType;
+    @JsonProperty("expires_in") private Integer expiresIn;
+}
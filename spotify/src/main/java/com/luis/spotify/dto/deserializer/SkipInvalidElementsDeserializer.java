@@ -0,0 +1,93 @@
+package com.luis.spotify.dto.deserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a JSON array straight into a typed list, dropping {@code null} entries and entries that fail to map
+ * instead of failing the whole response. Each element is buffered as a token stream (not a tree) so a failed
+ * element can be discarded without losing the parser position. A {@code null} or missing array stays {@code null},
+ * so callers can tell a malformed response from an empty list.
+ * <p>
+ * Mappers built by Spring create it through their {@code SpringHandlerInstantiator}, which injects the
+ * {@link MeterRegistry} that counts dropped elements in {@code spotify.mapping.failures}. A plain
+ * {@code ObjectMapper} uses the no-argument constructor and only logs them.
+ */
+@Slf4j
+public class SkipInvalidElementsDeserializer extends StdDeserializer<List<Object>> implements ContextualDeserializer {
+
+    private final MeterRegistry meterRegistry;
+    private final JavaType elementType;
+    private final Counter failures;
+
+    public SkipInvalidElementsDeserializer() {
+        this((MeterRegistry) null);
+    }
+
+    @Autowired
+    public SkipInvalidElementsDeserializer(MeterRegistry meterRegistry) {
+        super(List.class);
+        this.meterRegistry = meterRegistry;
+        this.elementType = null;
+        this.failures = null;
+    }
+
+    private SkipInvalidElementsDeserializer(MeterRegistry meterRegistry, JavaType elementType) {
+        super(List.class);
+        this.meterRegistry = meterRegistry;
+        this.elementType = elementType;
+        this.failures = meterRegistry != null
+                ? meterRegistry.counter("spotify.mapping.failures", "type", elementType.getRawClass().getSimpleName())
+                : null;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+        JavaType listType = property != null ? property.getType() : ctxt.getContextualType();
+        return new SkipInvalidElementsDeserializer(meterRegistry, listType.getContentType());
+    }
+
+    @Override
+    public List<Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            ctxt.handleUnexpectedToken(List.class, p);
+            return new ArrayList<>();
+        }
+
+        JsonDeserializer<Object> elementDeserializer = ctxt.findRootValueDeserializer(elementType);
+        List<Object> elements = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            TokenBuffer element = ctxt.bufferAsCopyOfValue(p);
+            try (JsonParser elementParser = element.asParserOnFirstToken()) {
+                Object value = elementDeserializer.deserialize(elementParser, ctxt);
+                if (value != null) {
+                    elements.add(value);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Error mapping {}: {}", elementType.getRawClass().getSimpleName(), element, e);
+                if (failures != null) {
+                    failures.increment();
+                }
+            }
+        }
+        return elements;
+    }
+}
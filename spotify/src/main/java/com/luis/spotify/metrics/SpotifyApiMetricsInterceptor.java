@@ -0,0 +1,128 @@
+package com.luis.spotify.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Times every call made through the Spotify {@code RestClient}s and {@code WebClient} as
+ * {@code spotify.api.requests}, tagged with a normalized endpoint, the HTTP method, the status code, the outcome and
+ * the retry attempt.
+ * <p>
+ * Ids in the path are replaced by {@code {id}} so the endpoint tag stays low-cardinality, e.g.
+ * {@code /artists/0TnOYISbd1XYRBk9myaseg/top-tracks} becomes {@code /artists/{id}/top-tracks}.
+ */
+public class SpotifyApiMetricsInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    public static final String METRIC_NAME = "spotify.api.requests";
+
+    /** Request attribute holding the zero-based retry attempt of the call, set by whoever retries it. */
+    public static final String RETRY_ATTRIBUTE = "spotify.retry";
+
+    private static final Set<String> COLLECTIONS =
+            Set.of("artists", "albums", "tracks", "playlists", "users", "shows", "episodes", "audiobooks");
+
+    private final MeterRegistry meterRegistry;
+    private final String apiBasePath;
+    private final String accountsHost;
+
+    public SpotifyApiMetricsInterceptor(MeterRegistry meterRegistry, String apiUri, String tokenUri) {
+        this.meterRegistry = meterRegistry;
+        this.apiBasePath = trimTrailingSlash(URI.create(apiUri).getPath());
+        this.accountsHost = URI.create(tokenUri).getHost();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
+        String outcome = Outcome.UNKNOWN.name();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int code = response.getStatusCode().value();
+            status = String.valueOf(code);
+            outcome = Outcome.forStatus(code).name();
+            return response;
+        } finally {
+            stop(sample, request.getURI(), request.getMethod(), status, outcome,
+                    request.getAttributes().getOrDefault(RETRY_ATTRIBUTE, 0));
+        }
+    }
+
+    /**
+     * The same timing for the reactive {@code WebClient}. Request attributes cannot be changed once a
+     * {@link ClientRequest} is built, so this filter sits after the rate-limit filter there and times every attempt.
+     */
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Object retry = request.attribute(RETRY_ATTRIBUTE).orElse(0);
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        int code = response.statusCode().value();
+                        stop(sample, request.url(), request.method(), String.valueOf(code),
+                                Outcome.forStatus(code).name(), retry);
+                    })
+                    .doOnError(e -> stop(sample, request.url(), request.method(), "IO_ERROR",
+                            Outcome.UNKNOWN.name(), retry));
+        });
+    }
+
+    private void stop(Timer.Sample sample, URI uri, HttpMethod method, String status, String outcome, Object retry) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Calls to the Spotify Web API and accounts service")
+                .tag("endpoint", endpointOf(uri))
+                .tag("method", method.name())
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .tag("retry", String.valueOf(retry))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    String endpointOf(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        // Matching the host alone is not enough when the accounts service and the Web API share one (the simulator).
+        if (accountsHost != null && accountsHost.equalsIgnoreCase(uri.getHost())
+                && (apiBasePath.isEmpty() || !path.startsWith(apiBasePath + "/"))) {
+            return "accounts:" + uri.getPath();
+        }
+        if (!apiBasePath.isEmpty() && path.startsWith(apiBasePath)) {
+            path = path.substring(apiBasePath.length());
+        }
+
+        StringBuilder endpoint = new StringBuilder();
+        String previous = null;
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            endpoint.append('/').append(previous != null && COLLECTIONS.contains(previous) ? "{id}" : segment);
+            previous = segment;
+        }
+        return endpoint.isEmpty() ? "/" : endpoint.toString();
+    }
+
+    private static String trimTrailingSlash(String path) {
+        if (path == null) {
+            return "";
+        }
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
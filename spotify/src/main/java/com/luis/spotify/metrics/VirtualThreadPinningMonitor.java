@@ -0,0 +1,181 @@
+package com.luis.spotify.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches for virtual threads pinned to their carrier while blocking, e.g. inside a {@code synchronized} block or a
+ * JDBC driver call, when the app runs with {@code spring.threads.virtual.enabled=true}.
+ * <p>
+ * Pinned periods longer than {@code threshold} are read from the {@code jdk.VirtualThreadPinned} JFR event, timed as
+ * {@code jvm.threads.virtual.pinned} and grouped by the first frame outside the JDK, which is usually the code that
+ * holds the monitor. The latest events are kept for the {@code virtualthreads} actuator endpoint. On a runtime without
+ * virtual threads the monitor stays idle and says so at startup, since Spring then keeps platform threads.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    public static final String METRIC_NAME = "jvm.threads.virtual.pinned";
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_FRAMES = 12;
+    private static final int MAX_SITES = 100;
+
+    public record PinnedEvent(Instant at, Duration duration, String thread, List<String> stackTrace) {}
+
+    public record PinningReport(boolean virtualThreadsRequested, boolean monitoring, int javaVersion,
+                                long pinnedCount, Duration totalPinned, Map<String, Long> pinnedBySite,
+                                List<PinnedEvent> recent) {}
+
+    private final Timer pinnedTimer;
+    private final boolean virtualThreadsEnabled;
+    private final Duration threshold;
+    private final int maxRecent;
+
+    private final Deque<PinnedEvent> recent = new ConcurrentLinkedDeque<>();
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+
+    private volatile RecordingStream stream;
+    private volatile boolean running;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                                       @Value("${app.virtual-threads.pinning.threshold:20ms}") Duration threshold,
+                                       @Value("${app.virtual-threads.pinning.max-recent:50}") int maxRecent) {
+        this.pinnedTimer = Timer.builder(METRIC_NAME)
+                .description("Time virtual threads spent pinned to their carrier thread while blocked")
+                .register(meterRegistry);
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.threshold = threshold;
+        this.maxRecent = maxRecent;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "requests keep running on platform threads", javaVersion);
+            return;
+        }
+        if (!isPinnedEventAvailable()) {
+            log.warn("JFR event {} is not available, virtual thread pinning will not be reported", PINNED_EVENT);
+            return;
+        }
+        try {
+            RecordingStream recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinnedEvent);
+            recordingStream.startAsync();
+            stream = recordingStream;
+            log.info("Reporting virtual threads pinned for longer than {}", threshold);
+        } catch (RuntimeException e) {
+            log.warn("Could not start the virtual thread pinning recording: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recordingStream = stream;
+        stream = null;
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public PinningReport report() {
+        Map<String, Long> bySite = new LinkedHashMap<>();
+        pinnedBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue(Comparator.comparingLong(LongAdder::sum))
+                        .reversed())
+                .forEach(entry -> bySite.put(entry.getKey(), entry.getValue().sum()));
+        return new PinningReport(virtualThreadsEnabled, stream != null, Runtime.version().feature(),
+                pinnedTimer.count(), Duration.ofNanos((long) pinnedTimer.totalTime(TimeUnit.NANOSECONDS)),
+                bySite, List.copyOf(recent));
+    }
+
+    private void onPinnedEvent(RecordedEvent event) {
+        List<String> frames = new ArrayList<>();
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                if (frames.size() == MAX_FRAMES) {
+                    break;
+                }
+                frames.add(frame.getMethod().getType().getName() + '.' + frame.getMethod().getName()
+                        + ':' + frame.getLineNumber());
+            }
+        }
+        String thread = event.getThread() != null ? event.getThread().getJavaName() : "unknown";
+        record(new PinnedEvent(event.getStartTime(), event.getDuration(), thread, frames));
+    }
+
+    void record(PinnedEvent event) {
+        pinnedTimer.record(event.duration());
+        String site = pinningSite(event.stackTrace());
+        LongAdder counter = pinnedBySite.get(site);
+        if (counter == null && pinnedBySite.size() < MAX_SITES) {
+            counter = pinnedBySite.computeIfAbsent(site, s -> new LongAdder());
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+        recent.addFirst(event);
+        while (recent.size() > maxRecent) {
+            recent.pollLast();
+        }
+        log.debug("Virtual thread {} pinned for {} at {}", event.thread(), event.duration(), site);
+    }
+
+    static String pinningSite(List<String> stackTrace) {
+        for (String frame : stackTrace) {
+            if (!frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return stackTrace.isEmpty() ? "unknown" : stackTrace.get(0);
+    }
+
+    private static boolean isPinnedEventAvailable() {
+        try {
+            return FlightRecorder.getFlightRecorder().getEventTypes().stream()
+                    .map(EventType::getName)
+                    .anyMatch(PINNED_EVENT::equals);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
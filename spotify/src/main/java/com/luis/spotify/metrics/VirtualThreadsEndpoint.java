@@ -0,0 +1,25 @@
+package com.luis.spotify.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/virtualthreads}: whether virtual threads were requested and are being monitored, plus the pinning
+ * recorded so far, grouped by the code that pinned the carrier.
+ */
+@Component
+@Endpoint(id = "virtualthreads")
+public class VirtualThreadsEndpoint {
+
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    public VirtualThreadsEndpoint(VirtualThreadPinningMonitor pinningMonitor) {
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    @ReadOperation
+    public VirtualThreadPinningMonitor.PinningReport virtualThreads() {
+        return pinningMonitor.report();
+    }
+}
@@ -25,6 +25,10 @@ public class UserSpotifyTokens {
     private String refreshToken;
 
     public boolean isAccessTokenExpired() {
-        return accessTokenExpiresAt != null && accessTokenExpiresAt.isBefore(Instant.now());
+        return isAccessTokenExpiringBefore(Instant.now());
+    }
+
+    public boolean isAccessTokenExpiringBefore(Instant instant) {
+        return accessTokenExpiresAt != null && accessTokenExpiresAt.isBefore(instant);
     }
 }
@@ -8,6 +8,8 @@ public interface JwtTokenProviderService {
 
     boolean validateToken(String authToken);
 
+    Claims verifyAndGetClaims(String authToken);
+
     String getUserIdFromJWT(String token);
 
     Claims getAllClaimsFromJWT(String token);
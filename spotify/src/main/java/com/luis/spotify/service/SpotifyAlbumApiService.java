@@ -3,7 +3,10 @@ package com.luis.spotify.service;
 import com.luis.spotify.dto.SpotifyAlbum;
 
 import java.security.Principal;
+import java.util.List;
 
 public interface SpotifyAlbumApiService {
     SpotifyAlbum getAlbumInfo(Principal principal, String albumId);
+
+    List<SpotifyAlbum> getAlbums(Principal principal, List<String> albumIds);
 }
@@ -4,9 +4,14 @@ import com.luis.spotify.dto.SpotifyUserProfile;
 import com.luis.spotify.model.UserSpotifyTokens;
 
 import java.security.Principal;
+import java.time.Instant;
 
 public interface SpotifyApiService {
     SpotifyUserProfile getUserInfo(Principal principal);
 
+    SpotifyUserProfile getUserInfo(UserSpotifyTokens user);
+
     UserSpotifyTokens getAndRefreshUserToken(String spotifyUserId);
+
+    UserSpotifyTokens refreshUserTokenIfExpiringBefore(String spotifyUserId, Instant deadline);
 }
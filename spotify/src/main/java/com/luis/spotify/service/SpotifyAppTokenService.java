@@ -0,0 +1,15 @@
+package com.luis.spotify.service;
+
+/**
+ * Access token of the app itself, from the client-credentials grant. Catalog reads (albums, artists, their top tracks
+ * and albums) need no user scope, so they use this token instead of the signed-in user's, which keeps them independent
+ * of per-user token state. It cannot read user data under {@code /me}.
+ */
+public interface SpotifyAppTokenService {
+
+    /** Returns a valid app token, fetching one first if there is none or the current one has expired. */
+    String getAccessToken();
+
+    /** Returns the current app token if it is valid and not due for renewal, {@code null} otherwise. Never blocks. */
+    String getAccessTokenIfFresh();
+}
@@ -2,6 +2,7 @@ package com.luis.spotify.service;
 
 import com.luis.spotify.dto.SpotifyArtist;
 import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.model.UserSpotifyTokens;
 
 import java.security.Principal;
 import java.util.List;
@@ -9,5 +10,9 @@ import java.util.List;
 public interface SpotifyArtistApiService {
     List<SpotifyArtist> getTopArtists(Principal principal);
 
+    List<SpotifyArtist> getTopArtists(UserSpotifyTokens user);
+
     SpotifyArtistPage getArtistPageInfo(Principal principal, String artistId);
+
+    List<SpotifyArtist> getArtists(Principal principal, List<String> artistIds);
 }
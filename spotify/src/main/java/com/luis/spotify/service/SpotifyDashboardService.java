@@ -0,0 +1,9 @@
+package com.luis.spotify.service;
+
+import com.luis.spotify.dto.SpotifyDashboard;
+
+import java.security.Principal;
+
+public interface SpotifyDashboardService {
+    SpotifyDashboard getDashboard(Principal principal);
+}
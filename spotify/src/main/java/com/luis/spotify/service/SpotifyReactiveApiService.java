@@ -0,0 +1,33 @@
+package com.luis.spotify.service;
+
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifySearchResults;
+import com.luis.spotify.dto.SpotifyTrack;
+import com.luis.spotify.dto.SpotifyUserProfile;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of the Spotify API services, used by the {@code reactive} profile. Lookups of albums or
+ * artists that do not exist complete empty.
+ */
+public interface SpotifyReactiveApiService {
+    Mono<SpotifyUserProfile> getUserInfo(Principal principal);
+
+    Mono<SpotifySearchResults> search(Principal principal, String query);
+
+    Mono<List<SpotifyArtist>> getTopArtists(Principal principal);
+
+    Mono<SpotifyArtistPage> getArtistPageInfo(Principal principal, String artistId);
+
+    Mono<SpotifyAlbum> getAlbumInfo(Principal principal, String albumId);
+
+    Mono<List<SpotifyTrack>> getTopTracks(Principal principal);
+
+    Mono<SpotifyDashboard> getDashboard(Principal principal);
+}
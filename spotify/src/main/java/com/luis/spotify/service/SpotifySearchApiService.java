@@ -1,9 +1,25 @@
 package com.luis.spotify.service;
 
 import com.luis.spotify.dto.SpotifySearchResults;
+import com.luis.spotify.dto.SpotifySearchSection;
+import com.luis.spotify.dto.SpotifySuggestion;
 
 import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface SpotifySearchApiService {
     SpotifySearchResults search(Principal principal, String query);
+
+    /**
+     * Starts one Spotify search per result type in parallel. Each future completes with its section as soon as that
+     * call returns; failures and timeouts complete it with a failed section rather than exceptionally.
+     */
+    List<CompletableFuture<SpotifySearchSection>> searchSections(Principal principal, String query);
+
+    /**
+     * Typeahead suggestions for a partial query, answered from entities already seen in Spotify responses without an
+     * upstream call.
+     */
+    List<SpotifySuggestion> suggest(String query, int limit);
 }
@@ -1,10 +1,13 @@
 package com.luis.spotify.service;
 
 import com.luis.spotify.dto.SpotifyTrack;
+import com.luis.spotify.model.UserSpotifyTokens;
 
 import java.security.Principal;
 import java.util.List;
 
 public interface SpotifyTrackApiService {
     List<SpotifyTrack> getTopTracks(Principal principal);
+
+    List<SpotifyTrack> getTopTracks(UserSpotifyTokens user);
 }
@@ -0,0 +1,17 @@
+package com.luis.spotify.service;
+
+import com.luis.spotify.model.UserSpotifyTokens;
+
+import java.util.function.Supplier;
+
+/**
+ * Guarantees that at most one access-token refresh per Spotify user is in flight at a time. Callers that arrive
+ * while a refresh is running wait for it and receive its result instead of starting their own.
+ * <p>
+ * The scope of "at a time" is up to the implementation: the in-memory one coordinates threads of this instance,
+ * while a deployment with several nodes can provide one backed by a shared lock without changing callers.
+ */
+public interface TokenRefreshCoordinator {
+
+    UserSpotifyTokens refresh(String spotifyUserId, Supplier<UserSpotifyTokens> refresher);
+}
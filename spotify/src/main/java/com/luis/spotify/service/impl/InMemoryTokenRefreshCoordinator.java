@@ -0,0 +1,55 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.TokenRefreshCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class InMemoryTokenRefreshCoordinator implements TokenRefreshCoordinator {
+
+    private final ConcurrentMap<String, CompletableFuture<UserSpotifyTokens>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public UserSpotifyTokens refresh(String spotifyUserId, Supplier<UserSpotifyTokens> refresher) {
+        CompletableFuture<UserSpotifyTokens> created = new CompletableFuture<>();
+        CompletableFuture<UserSpotifyTokens> running = inFlight.putIfAbsent(spotifyUserId, created);
+        if (running != null) {
+            log.debug("Token refresh for user {} already in flight, waiting for it", spotifyUserId);
+            return await(running);
+        }
+
+        // Complete the shared future whatever the refresher throws, Errors included, or waiters would hang on it.
+        try {
+            UserSpotifyTokens refreshed = refresher.get();
+            created.complete(refreshed);
+            return refreshed;
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(spotifyUserId, created);
+        }
+    }
+
+    private static UserSpotifyTokens await(CompletableFuture<UserSpotifyTokens> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.luis.spotify.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.luis.spotify.service.JwtTokenProviderService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -12,9 +17,11 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -25,9 +32,26 @@ public class JwtTokenProviderServiceImpl implements JwtTokenProviderService {
     @Value("${app.jwtExpirationMs}")
     private long jwtExpirationMs;
 
-    private SecretKey getSigningKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${app.jwt.verified-cache.max-ttl:5m}")
+    private Duration verifiedCacheMaxTtl;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = verifiedCacheMaxSize > 0 && verifiedCacheMaxTtl != null
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .expireAfter(new UntilTokenExpiry(verifiedCacheMaxTtl))
+                        .build()
+                : null;
     }
 
     public String generateToken(Authentication authentication){
@@ -47,14 +71,27 @@ public class JwtTokenProviderServiceImpl implements JwtTokenProviderService {
                 .subject(userName)
                 .issuedAt(new Date())
                 .expiration(expiryDate).and()
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verifies the token and returns its claims in a single parse, or {@code null} if it is not valid.
+     * Recently verified tokens are served from a bounded cache until their own expiry.
+     */
+    public Claims verifyAndGetClaims(String authToken) {
+        if (verifiedTokens != null && authToken != null) {
+            Claims cached = verifiedTokens.getIfPresent(authToken);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
-            Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(authToken);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            if (verifiedTokens != null) {
+                verifiedTokens.put(authToken, claims);
+            }
+            return claims;
         } catch (io.jsonwebtoken.security.SignatureException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (io.jsonwebtoken.ExpiredJwtException ex) {
@@ -64,19 +101,45 @@ public class JwtTokenProviderServiceImpl implements JwtTokenProviderService {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty: {}", ex.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public boolean validateToken(String authToken) {
+        return verifyAndGetClaims(authToken) != null;
     }
 
     public String getUserIdFromJWT(String token){
-        return Jwts.parser().verifyWith(getSigningKey()).build()
-                .parseSignedClaims(token).getPayload().get("userId").toString();
+        return jwtParser.parseSignedClaims(token).getPayload().get("userId").toString();
     }
 
     public Claims getAllClaimsFromJWT(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Keeps a verified token no longer than its {@code exp} claim and never longer than {@code maxTtl}.
+     */
+    private record UntilTokenExpiry(Duration maxTtl) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long maxNanos = maxTtl.toNanos();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -1,41 +1,47 @@
 package com.luis.spotify.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifyCatalogCache;
+import com.luis.spotify.cache.SpotifyCatalogCache.EntryType;
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache.IdType;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
 import com.luis.spotify.dto.SpotifyAlbum;
 import com.luis.spotify.dto.SpotifyTrack;
-import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
 import com.luis.spotify.service.SpotifyAlbumApiService;
-import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.SpotifyAppTokenService;
+import com.luis.spotify.upstream.SpotifyCatalogBatchLoader;
+import com.luis.spotify.upstream.SpotifyUpstreamErrors;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
 import java.security.Principal;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
 public class SpotifyAlbumApiServiceImpl implements SpotifyAlbumApiService {
 
-    private final RestClient spotifyApiRestClient;
-    private final SpotifyApiService spotifyApiService;
-    private final ObjectMapper objectMapper;
+    private final SpotifyCatalogBatchLoader batchLoader;
+    private final SpotifyAppTokenService appTokenService;
+    private final SpotifyCatalogCache catalogCache;
+    private final SpotifySuggestionIndex suggestionIndex;
+    private final SpotifyMissingIdCache missingIdCache;
 
-    @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
-    private String apiUri;
-
-    public SpotifyAlbumApiServiceImpl(RestClient.Builder restClientBuilder,
+    public SpotifyAlbumApiServiceImpl(SpotifyCatalogBatchLoader batchLoader,
                                       UserSpotifyTokenRepository tokenRepository,
-                                      SpotifyApiService spotifyApiService) {
-        this.spotifyApiRestClient = restClientBuilder.build();
-        this.spotifyApiService = spotifyApiService;
-        this.objectMapper = new ObjectMapper();
+                                      SpotifyAppTokenService appTokenService,
+                                      SpotifyCatalogCache catalogCache,
+                                      SpotifySuggestionIndex suggestionIndex,
+                                      SpotifyMissingIdCache missingIdCache) {
+        this.batchLoader = batchLoader;
+        this.appTokenService = appTokenService;
+        this.catalogCache = catalogCache;
+        this.suggestionIndex = suggestionIndex;
+        this.missingIdCache = missingIdCache;
     }
 
     @Override
@@ -43,45 +49,81 @@ public class SpotifyAlbumApiServiceImpl implements SpotifyAlbumApiService {
         String spotifyUserId = principal.getName();
         log.info("Service: Request for album info for user {} and album ID {}", spotifyUserId, albumId);
 
-        UserSpotifyTokens user = spotifyApiService.getAndRefreshUserToken(spotifyUserId);
-        String accessToken = user.getAccessToken();
+        if (missingIdCache.shouldReject(IdType.ALBUM, albumId)) {
+            log.info("Album ID {} is malformed or unknown to Spotify, not calling the API", albumId);
+            return null;
+        }
 
-        String albumUri = String.format("%s/albums/%s", apiUri, albumId);
+        // Albums are the same for every user, so they are read with the app token rather than the user's.
+        SpotifyAlbum album = catalogCache.get(EntryType.ALBUM, albumId,
+                () -> fetchAlbum(appTokenService.getAccessToken(), albumId));
+        if (album != null) {
+            suggestionIndex.record(List.of(album));
+        }
+        return album;
+    }
 
-        try {
-            Map<String, Object> responseMap = spotifyApiRestClient.get()
-                    .uri(albumUri)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
-                    .retrieve()
-                    .body(Map.class);
-
-            if (responseMap == null) {
-                log.warn("Empty response received from Spotify album API for ID {}", albumId);
-                return null;
-            }
+    @Override
+    public List<SpotifyAlbum> getAlbums(Principal principal, List<String> albumIds) {
+        String spotifyUserId = principal.getName();
+        log.info("Service: Request for {} albums for user {}", albumIds.size(), spotifyUserId);
+
+        List<String> knownIds = albumIds.stream()
+                .distinct()
+                .filter(albumId -> !missingIdCache.shouldReject(IdType.ALBUM, albumId))
+                .toList();
+        if (knownIds.isEmpty()) {
+            return List.of();
+        }
 
-            SpotifyAlbum album = objectMapper.convertValue(responseMap, SpotifyAlbum.class);
+        String accessToken = appTokenService.getAccessToken();
+
+        // Start every lookup before waiting on any, so the cache misses end up in the same multi-get.
+        List<CompletableFuture<SpotifyAlbum>> lookups = knownIds.stream()
+                .map(albumId -> catalogCache.<SpotifyAlbum>getAsync(EntryType.ALBUM, albumId,
+                        () -> batchLoader.load(SpotifyCatalogBatchLoader.ALBUMS, albumId, accessToken)
+                                .thenApply(SpotifyAlbumApiServiceImpl::withTrackArray)))
+                .toList();
+        List<SpotifyAlbum> albums = lookups.stream()
+                .map(SpotifyAlbumApiServiceImpl::joinOrNull)
+                .filter(Objects::nonNull)
+                .toList();
+        suggestionIndex.record(albums);
+        return albums;
+    }
 
-            JsonNode rootNode = objectMapper.valueToTree(responseMap);
-            JsonNode tracksNode = rootNode.path("tracks").path("items");
+    private SpotifyAlbum fetchAlbum(String accessToken, String albumId) {
+        try {
+            SpotifyAlbum album = batchLoader.load(SpotifyCatalogBatchLoader.ALBUMS, albumId, accessToken).join();
 
-            List<SpotifyTrack> albumTracks = new ArrayList<>();
-            if (tracksNode.isArray()) {
-                for (JsonNode node : tracksNode) {
-                    try {
-                        albumTracks.add(objectMapper.treeToValue(node, SpotifyTrack.class));
-                    } catch (Exception e) {
-                        log.error("Error mapping track for album {}: {}", albumId, node.toString(), e);
-                    }
-                }
+            if (album == null) {
+                log.warn("No album returned by Spotify for ID {}", albumId);
+                return null;
             }
-            album.setTrack(albumTracks.toArray(new SpotifyTrack[0]));
+            return withTrackArray(album);
 
-            return album;
+        } catch (CompletionException e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
+            log.error("Error fetching album info for ID {}: {}", albumId, e.getCause().getMessage());
+            return null;
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Error fetching album info for ID {}: {}", albumId, e.getMessage());
+    /** Waits for a list lookup; a failed one is left out, unless Spotify is unavailable. */
+    private static SpotifyAlbum joinOrNull(CompletableFuture<SpotifyAlbum> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
+            log.error("Error fetching album in list: {}", e.getCause().getMessage());
             return null;
         }
     }
+
+    private static SpotifyAlbum withTrackArray(SpotifyAlbum album) {
+        if (album != null && album.getTrack() == null) {
+            album.setTrack(new SpotifyTrack[0]);
+        }
+        return album;
+    }
 }
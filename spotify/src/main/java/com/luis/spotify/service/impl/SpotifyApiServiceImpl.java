@@ -1,9 +1,12 @@
 package com.luis.spotify.service.impl;
 
-import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.cache.UserSpotifyTokenCache;
 import com.luis.spotify.dto.SpotifyUserProfile;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.TokenRefreshCoordinator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -14,14 +17,16 @@ import org.springframework.web.client.RestClient;
 import java.security.Principal;
 import java.time.Instant;
 import java.util.Map;
-import java.util.Optional;
 
 @Slf4j
 @Service
 public class SpotifyApiServiceImpl implements SpotifyApiService {
     private final RestClient spotifyApiRestClient;
     private final RestClient spotifyAuthRestClient;
-    private final UserSpotifyTokenRepository tokenRepository;
+    private final UserSpotifyTokenCache tokenCache;
+    private final TokenRefreshCoordinator refreshCoordinator;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
 
     @Value("${spring.security.oauth2.client.registration.spotify.client-id}")
     private String clientId;
@@ -35,12 +40,22 @@ public class SpotifyApiServiceImpl implements SpotifyApiService {
     @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
     private String apiUri;
 
-    public SpotifyApiServiceImpl(RestClient.Builder restClientBuilder, UserSpotifyTokenRepository tokenRepository){
+    public SpotifyApiServiceImpl(RestClient.Builder restClientBuilder,
+                                 UserSpotifyTokenCache tokenCache,
+                                 TokenRefreshCoordinator refreshCoordinator,
+                                 MeterRegistry meterRegistry){
         this.spotifyApiRestClient = restClientBuilder.build();
         this.spotifyAuthRestClient = restClientBuilder.build();
-        this.tokenRepository = tokenRepository;
+        this.tokenCache = tokenCache;
+        this.refreshCoordinator = refreshCoordinator;
+        this.refreshSuccesses = meterRegistry.counter("spotify.token.refreshes", "outcome", "success");
+        this.refreshFailures = meterRegistry.counter("spotify.token.refreshes", "outcome", "failure");
     }
 
+    /**
+     * Exchanges the user's refresh token for a new access token. Returns a new entity and leaves {@code user}, which
+     * may be the instance other requests are reading from the cache, untouched.
+     */
     protected UserSpotifyTokens refreshSpotifyAccessToken(UserSpotifyTokens user){
         log.info("Received token update action for {}", user.getSpotifyUserId());
         String refreshToken = user.getRefreshToken();
@@ -61,10 +76,12 @@ public class SpotifyApiServiceImpl implements SpotifyApiService {
             Integer expiresIn = ((Number) response.get("expires_in")).intValue();
             String newRefreshToken = (String) response.getOrDefault("refresh_token", refreshToken);
 
-            user.setAccessToken(newAccessToken);
-            user.setAccessTokenExpiresAt(Instant.now().plusSeconds(expiresIn));
-            user.setRefreshToken(newRefreshToken);
-            return user;
+            return UserSpotifyTokens.builder()
+                    .spotifyUserId(user.getSpotifyUserId())
+                    .accessToken(newAccessToken)
+                    .accessTokenExpiresAt(Instant.now().plusSeconds(expiresIn))
+                    .refreshToken(newRefreshToken)
+                    .build();
         }else{
             log.info("Token refreshing for user {} failed", user.getSpotifyUserId());
             throw new RuntimeException("Failed to refresh Spotify Access Token. "+response);
@@ -72,25 +89,71 @@ public class SpotifyApiServiceImpl implements SpotifyApiService {
     }
 
     public UserSpotifyTokens getAndRefreshUserToken(String spotifyUserId) {
-        Optional<UserSpotifyTokens> optionalUser = tokenRepository.findById(spotifyUserId);
-        UserSpotifyTokens user = optionalUser.orElseThrow(() ->
-                new RuntimeException("No tokens found for user: " + spotifyUserId)
-        );
+        UserSpotifyTokens user = tokenCache.get(spotifyUserId);
+        if (user == null) {
+            throw new RuntimeException("No tokens found for user: " + spotifyUserId);
+        }
 
         if (user.isAccessTokenExpired()) {
-            log.info("Access token expired for user {}. Refreshing...", spotifyUserId);
-            refreshSpotifyAccessToken(user);
-            tokenRepository.save(user);
-            log.info("Token refreshed and saved for user {}", spotifyUserId);
+            UserSpotifyTokens refreshed =
+                    refreshCoordinator.refresh(spotifyUserId, () -> refreshAndSave(spotifyUserId, Instant.now()));
+            // Joined a proactive refresh that found the user evicted; the lookup above has cached them again.
+            user = refreshed != null ? refreshed
+                    : refreshCoordinator.refresh(spotifyUserId, () -> refreshAndSave(spotifyUserId, Instant.now()));
         }
         return user;
     }
 
+    /**
+     * Proactive refresh for a cached user. Reads the cache quietly, so it does not count as activity, and returns
+     * {@code null} without refreshing if the user is no longer cached.
+     */
+    public UserSpotifyTokens refreshUserTokenIfExpiringBefore(String spotifyUserId, Instant deadline) {
+        return refreshCoordinator.refresh(spotifyUserId, () -> {
+            UserSpotifyTokens user = tokenCache.getIfPresentQuietly(spotifyUserId);
+            return user != null ? refreshAndSave(user, deadline) : null;
+        });
+    }
+
+    private UserSpotifyTokens refreshAndSave(String spotifyUserId, Instant deadline) {
+        UserSpotifyTokens user = tokenCache.get(spotifyUserId);
+        if (user == null) {
+            throw new RuntimeException("No tokens found for user: " + spotifyUserId);
+        }
+        return refreshAndSave(user, deadline);
+    }
+
+    private UserSpotifyTokens refreshAndSave(UserSpotifyTokens user, Instant deadline) {
+        String spotifyUserId = user.getSpotifyUserId();
+        // A refresh that finished between our expiry check and acquiring the slot has already done the work.
+        if (!user.isAccessTokenExpiringBefore(deadline)) {
+            return user;
+        }
+
+        log.info("Access token expiring for user {}. Refreshing...", spotifyUserId);
+        UserSpotifyTokens refreshed;
+        try {
+            refreshed = refreshSpotifyAccessToken(user);
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            throw e;
+        }
+        refreshSuccesses.increment();
+        // Only swapped into the cache once it is stored, so a failed save leaves the cached tokens as they were.
+        tokenCache.save(refreshed);
+        log.info("Token refreshed and saved for user {}", spotifyUserId);
+        return refreshed;
+    }
+
     public SpotifyUserProfile getUserInfo(Principal principal){
         String spotifyUserId = principal.getName();
 
         UserSpotifyTokens user = getAndRefreshUserToken(spotifyUserId);
 
+        return getUserInfo(user);
+    }
+
+    public SpotifyUserProfile getUserInfo(UserSpotifyTokens user){
         return spotifyApiRestClient.get()
                 .uri(apiUri+"/me")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer "+user.getAccessToken())
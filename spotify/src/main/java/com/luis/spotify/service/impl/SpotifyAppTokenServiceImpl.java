@@ -0,0 +1,158 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.dto.SpotifyTokenResponse;
+import com.luis.spotify.service.SpotifyAppTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps one client-credentials token for the whole app. Callers get the cached token while it is valid. Once it is
+ * within {@code refresh-ahead} of expiring it is still handed out while a new one is fetched in the background, so
+ * requests only wait on the accounts service when there is no valid token at all. At most one fetch runs at a time;
+ * callers that need a token while it runs wait for its result.
+ */
+@Slf4j
+@Service
+public class SpotifyAppTokenServiceImpl implements SpotifyAppTokenService {
+
+    private record AppToken(String accessToken, Instant expiresAt) {
+
+        boolean isValidAt(Instant instant) {
+            return expiresAt.isAfter(instant);
+        }
+    }
+
+    private final RestClient spotifyAuthRestClient;
+    private final Executor refreshExecutor;
+    private final String clientId;
+    private final String clientSecret;
+    private final String tokenUri;
+    private final Duration refreshAhead;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+
+    private volatile AppToken token;
+    private final AtomicReference<CompletableFuture<AppToken>> inFlight = new AtomicReference<>();
+
+    public SpotifyAppTokenServiceImpl(RestClient.Builder restClientBuilder,
+                                      @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${spring.security.oauth2.client.registration.spotify.client-id}") String clientId,
+                                      @Value("${spring.security.oauth2.client.registration.spotify.client-secret}") String clientSecret,
+                                      @Value("${spring.security.oauth2.client.provider.spotify.token-uri}") String tokenUri,
+                                      @Value("${app.spotify.app-token.refresh-ahead:5m}") Duration refreshAhead) {
+        this.spotifyAuthRestClient = restClientBuilder.build();
+        this.refreshExecutor = refreshExecutor;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.tokenUri = tokenUri;
+        this.refreshAhead = refreshAhead;
+        this.refreshSuccesses = meterRegistry.counter("spotify.app-token.refreshes", "outcome", "success");
+        this.refreshFailures = meterRegistry.counter("spotify.app-token.refreshes", "outcome", "failure");
+    }
+
+    @Override
+    public String getAccessToken() {
+        AppToken current = token;
+        Instant now = Instant.now();
+        if (current != null && current.isValidAt(now)) {
+            if (!current.isValidAt(now.plus(refreshAhead))) {
+                startFetch(true);
+            }
+            return current.accessToken();
+        }
+        return await(startFetch(false)).accessToken();
+    }
+
+    @Override
+    public String getAccessTokenIfFresh() {
+        AppToken current = token;
+        return current != null && current.isValidAt(Instant.now().plus(refreshAhead)) ? current.accessToken() : null;
+    }
+
+    private CompletableFuture<AppToken> startFetch(boolean background) {
+        CompletableFuture<AppToken> created = new CompletableFuture<>();
+        CompletableFuture<AppToken> running = inFlight.compareAndExchange(null, created);
+        if (running != null) {
+            return running;
+        }
+
+        Runnable fetch = () -> {
+            try {
+                // A fetch that finished between our expiry check and claiming the slot has already done the work.
+                AppToken current = token;
+                if (current != null && current.isValidAt(Instant.now().plus(refreshAhead))) {
+                    created.complete(current);
+                    return;
+                }
+                AppToken fetched = fetchToken();
+                token = fetched;
+                refreshSuccesses.increment();
+                created.complete(fetched);
+            } catch (RuntimeException e) {
+                refreshFailures.increment();
+                log.warn("Fetching the Spotify app token failed: {}", e.getMessage());
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.compareAndSet(created, null);
+            }
+        };
+
+        if (!background) {
+            fetch.run();
+            return created;
+        }
+        try {
+            refreshExecutor.execute(fetch);
+        } catch (RejectedExecutionException e) {
+            // The current token is still valid; the next caller tries again.
+            inFlight.compareAndSet(created, null);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private AppToken fetchToken() {
+        log.info("Fetching a Spotify app token with the client credentials grant");
+        String authHeader = "Basic " + HttpHeaders.encodeBasicAuth(clientId, clientSecret, null);
+
+        SpotifyTokenResponse response = spotifyAuthRestClient.post()
+                .uri(tokenUri)
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body("grant_type=client_credentials")
+                .retrieve()
+                .body(SpotifyTokenResponse.class);
+
+        if (response == null || response.getAccessToken() == null || response.getExpiresIn() == null) {
+            throw new RuntimeException("Failed to get a Spotify app token. " + response);
+        }
+        return new AppToken(response.getAccessToken(), Instant.now().plusSeconds(response.getExpiresIn()));
+    }
+
+    private static AppToken await(CompletableFuture<AppToken> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,17 +1,30 @@
 package com.luis.spotify.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifyCatalogCache;
+import com.luis.spotify.cache.SpotifyCatalogCache.EntryType;
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache.IdType;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.cache.UserTopItemsCache;
 import com.luis.spotify.dto.SpotifyAlbum;
 import com.luis.spotify.dto.SpotifyArtist;
 import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.dto.SpotifyArtistTopTracks;
+import com.luis.spotify.dto.SpotifyPage;
 import com.luis.spotify.dto.SpotifyTrack;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
 import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.SpotifyAppTokenService;
 import com.luis.spotify.service.SpotifyArtistApiService;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyCatalogBatchLoader;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
+import com.luis.spotify.upstream.SpotifyUpstreamErrors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
@@ -19,24 +32,54 @@ import org.springframework.web.client.RestClient;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class SpotifyArtistApiServiceImpl implements SpotifyArtistApiService {
+    private static final ParameterizedTypeReference<SpotifyPage<SpotifyArtist>> ARTIST_PAGE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyPage<SpotifyAlbum>> ALBUM_PAGE =
+            new ParameterizedTypeReference<>() {};
+
     private final RestClient spotifyApiRestClient;
+    private final SpotifyCatalogBatchLoader batchLoader;
     private final SpotifyApiServiceImpl spotifyApiService;
-    private final ObjectMapper objectMapper;
+    private final SpotifyAppTokenService appTokenService;
+    private final Executor spotifyApiExecutor;
+    private final SpotifyCatalogCache catalogCache;
+    private final SpotifySuggestionIndex suggestionIndex;
+    private final UserTopItemsCache topItemsCache;
+    private final SpotifyMissingIdCache missingIdCache;
 
     @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
     private String apiUri;
 
+    @Value("${app.spotify.artist-page.timeout-ms:3000}")
+    private long artistPageTimeoutMs;
+
     public SpotifyArtistApiServiceImpl(RestClient.Builder restClientBuilder,
-                                       SpotifyApiServiceImpl spotifyApiService) {
+                                       SpotifyCatalogBatchLoader batchLoader,
+                                       SpotifyApiServiceImpl spotifyApiService,
+                                       SpotifyAppTokenService appTokenService,
+                                       @Qualifier("applicationTaskExecutor") Executor spotifyApiExecutor,
+                                       SpotifyCatalogCache catalogCache,
+                                       SpotifySuggestionIndex suggestionIndex,
+                                       UserTopItemsCache topItemsCache,
+                                       SpotifyMissingIdCache missingIdCache) {
         this.spotifyApiRestClient = restClientBuilder.build();
+        this.batchLoader = batchLoader;
         this.spotifyApiService = spotifyApiService;
-        this.objectMapper = new ObjectMapper();
+        this.appTokenService = appTokenService;
+        this.spotifyApiExecutor = spotifyApiExecutor;
+        this.catalogCache = catalogCache;
+        this.suggestionIndex = suggestionIndex;
+        this.topItemsCache = topItemsCache;
+        this.missingIdCache = missingIdCache;
     }
 
 
@@ -47,129 +90,205 @@ public class SpotifyArtistApiServiceImpl implements SpotifyArtistApiService {
 
         UserSpotifyTokens user = spotifyApiService.getAndRefreshUserToken(spotifyUserId);
 
+        return getTopArtists(user);
+    }
+
+    @Override
+    public List<SpotifyArtist> getTopArtists(UserSpotifyTokens user) {
+        List<SpotifyArtist> topArtists = topItemsCache.get(user.getSpotifyUserId(),
+                UserTopItemsCache.EntryType.TOP_ARTISTS, priority -> fetchTopArtists(user, priority));
+        return topArtists != null ? topArtists : new ArrayList<>();
+    }
+
+    private List<SpotifyArtist> fetchTopArtists(UserSpotifyTokens user, RequestPriority priority) {
+        String spotifyUserId = user.getSpotifyUserId();
+
         String topArtistsUri = String.format("%s/me/top/artists?limit=8", apiUri);
 
-        Map<String, Object> responseMap = spotifyApiRestClient.get()
+        SpotifyPage<SpotifyArtist> response = spotifyApiRestClient.get()
                 .uri(topArtistsUri)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getAccessToken())
+                .attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, priority)
                 .retrieve()
-                .body(Map.class);
+                .body(ARTIST_PAGE);
 
-        if (responseMap == null || !responseMap.containsKey("items")) {
+        if (response == null || response.getItems() == null) {
             log.warn("Empty or invalid response received from Spotify top artists API for user {}", spotifyUserId);
-            return new ArrayList<>();
+            return null;
         }
+        suggestionIndex.record(response.getItems());
+        return response.getItems();
+    }
 
-        JsonNode rootNode = objectMapper.valueToTree(responseMap);
-        JsonNode itemsNode = rootNode.path("items");
-
-        List<SpotifyArtist> topArtists = new ArrayList<>();
-        if (itemsNode.isArray()) {
-            for (JsonNode node : itemsNode) {
-                try {
-                    topArtists.add(objectMapper.treeToValue(node, SpotifyArtist.class));
-                } catch (Exception e) {
-                    log.error("Error mapping top artist: {}", node.toString(), e);
-                }
-            }
+    @Override
+    public SpotifyArtistPage getArtistPageInfo(Principal principal, String artistId) {
+        String spotifyUserId = principal.getName();
+        log.info("Request for artist page {} received for user {}", artistId, spotifyUserId);
+
+        if (missingIdCache.shouldReject(IdType.ARTIST, artistId)) {
+            log.info("Artist ID {} is malformed or unknown to Spotify, not calling the API", artistId);
+            return null;
+        }
+
+        // Artist pages are the same for every user, so they are read with the app token rather than the user's.
+        String accessToken = appTokenService.getAccessToken();
+
+        // The three calls are independent, so run them side by side and give each one its own deadline.
+        // A leg that misses the deadline or fails degrades to an empty section instead of failing the whole page,
+        // unless Spotify is unavailable (throttled, shed or circuit open): then the page fails with that error.
+        CompletableFuture<SpotifyArtist> artistProfile = withDeadline(
+                CompletableFuture.supplyAsync(() -> catalogCache.get(EntryType.ARTIST, artistId,
+                        () -> fetchArtistProfile(accessToken, artistId)), spotifyApiExecutor),
+                null, "artist profile", artistId);
+        CompletableFuture<List<SpotifyTrack>> topTracks = withDeadline(
+                CompletableFuture.supplyAsync(() -> catalogCache.get(EntryType.ARTIST_TOP_TRACKS, artistId,
+                        () -> fetchArtistTopTracks(accessToken, artistId)), spotifyApiExecutor),
+                new ArrayList<>(), "top tracks", artistId);
+        CompletableFuture<List<SpotifyAlbum>> albums = withDeadline(
+                CompletableFuture.supplyAsync(() -> catalogCache.get(EntryType.ARTIST_ALBUMS, artistId,
+                        () -> fetchArtistAlbums(accessToken, artistId)), spotifyApiExecutor),
+                new ArrayList<>(), "albums", artistId);
+
+        SpotifyArtistPage page;
+        try {
+            page = new SpotifyArtistPage(artistProfile.join(), topTracks.join(), albums.join());
+        } catch (CompletionException e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
+            throw e;
+        }
+        if (page.getArtistProfile() == null && missingIdCache.isKnownMissing(IdType.ARTIST, artistId)) {
+            return null;
         }
-        return topArtists;
+        if (page.getArtistProfile() != null) {
+            suggestionIndex.record(List.of(page.getArtistProfile()));
+        }
+        suggestionIndex.record(page.getTopTracks());
+        suggestionIndex.record(page.getAlbums());
+        return page;
+    }
+
+    /**
+     * Completes with {@code fallback} if {@code call} has not finished within the artist page deadline.
+     * <p>
+     * {@link CompletableFuture#orTimeout} only completes the returned future; it does not interrupt the executor
+     * task behind {@code call}. A leg that misses the deadline keeps its thread and its upstream connection until the
+     * RestClient read timeout ({@code app.spotify.http.read-timeout-ms}) ends the request, and whatever it returns
+     * still fills the catalog cache for the next page view.
+     */
+    private <T> CompletableFuture<T> withDeadline(CompletableFuture<T> call, T fallback, String section, String artistId) {
+        return call
+                .orTimeout(artistPageTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((value, e) -> {
+                    if (e != null) {
+                        SpotifyUpstreamErrors.rethrowIfUnavailable(e);
+                        log.warn("Artist page section '{}' for artist ID {} not available in {} ms: {}",
+                                section, artistId, artistPageTimeoutMs, e.toString());
+                        return fallback;
+                    }
+                    return value != null ? value : fallback;
+                });
     }
 
     @Override
-    public SpotifyArtistPage getArtistPageInfo(Principal principal, String artistId) {
+    public List<SpotifyArtist> getArtists(Principal principal, List<String> artistIds) {
         String spotifyUserId = principal.getName();
+        log.info("Request for {} artists received for user {}", artistIds.size(), spotifyUserId);
 
-        UserSpotifyTokens user = spotifyApiService.getAndRefreshUserToken(spotifyUserId);
-        String accessToken = user.getAccessToken();
+        List<String> knownIds = artistIds.stream()
+                .distinct()
+                .filter(artistId -> !missingIdCache.shouldReject(IdType.ARTIST, artistId))
+                .toList();
+        if (knownIds.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        SpotifyArtist artistProfile = fetchArtistProfile(accessToken, artistId);
-        List<SpotifyTrack> topTracks = fetchArtistTopTracks(accessToken, artistId);
-        List<SpotifyAlbum> albums = fetchArtistAlbums(accessToken, artistId);
+        String accessToken = appTokenService.getAccessToken();
 
-        return new SpotifyArtistPage(artistProfile, topTracks, albums);
+        // Start every lookup before waiting on any, so the cache misses end up in the same multi-get.
+        List<CompletableFuture<SpotifyArtist>> lookups = knownIds.stream()
+                .map(artistId -> catalogCache.<SpotifyArtist>getAsync(EntryType.ARTIST, artistId,
+                        () -> batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, artistId, accessToken)))
+                .toList();
+        List<SpotifyArtist> artists = lookups.stream()
+                .map(SpotifyArtistApiServiceImpl::joinOrNull)
+                .filter(Objects::nonNull)
+                .toList();
+        suggestionIndex.record(artists);
+        return artists;
     }
 
     private SpotifyArtist fetchArtistProfile(String accessToken, String artistId) {
         log.info("Fetching artist profile for ID {}", artistId);
         try {
-            String artistProfileUri = String.format("%s/artists/%s", apiUri, artistId);
-            Map<String, Object> artistProfileResponse = spotifyApiRestClient.get()
-                    .uri(artistProfileUri)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
-                    .retrieve()
-                    .body(Map.class);
-            if (artistProfileResponse != null) {
-                return objectMapper.convertValue(artistProfileResponse, SpotifyArtist.class);
+            SpotifyArtist artistProfile =
+                    batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, artistId, accessToken).join();
+            if (artistProfile != null) {
+                return artistProfile;
             } else {
-                log.warn("Empty response for artist profile for ID {}", artistId);
+                log.warn("No artist profile returned by Spotify for ID {}", artistId);
                 return null;
             }
-        } catch (Exception e) {
-            log.error("Error fetching artist profile for ID {}: {}", artistId, e.getMessage());
+        } catch (CompletionException e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
+            log.error("Error fetching artist profile for ID {}: {}", artistId, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /** Waits for a list lookup; a failed one is left out, unless Spotify is unavailable. */
+    private static SpotifyArtist joinOrNull(CompletableFuture<SpotifyArtist> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
+            log.error("Error fetching artist in list: {}", e.getCause().getMessage());
             return null;
         }
     }
 
     private List<SpotifyTrack> fetchArtistTopTracks(String accessToken, String artistId) {
         log.info("Fetching top tracks for artist ID {}", artistId);
-        List<SpotifyTrack> topTracks = new ArrayList<>();
         try {
             String topTracksUri = String.format("%s/artists/%s/top-tracks", apiUri, artistId);
-            Map<String, Object> topTracksResponse = spotifyApiRestClient.get()
+            SpotifyArtistTopTracks topTracksResponse = spotifyApiRestClient.get()
                     .uri(topTracksUri)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                     .retrieve()
-                    .body(Map.class);
-
-            if (topTracksResponse != null && topTracksResponse.containsKey("tracks")) {
-                JsonNode tracksNode = objectMapper.valueToTree(topTracksResponse).path("tracks");
-                if (tracksNode.isArray()) {
-                    for (JsonNode node : tracksNode) {
-                        try {
-                            topTracks.add(objectMapper.treeToValue(node, SpotifyTrack.class));
-                        } catch (Exception e) {
-                            log.error("Error mapping top track for artist {}: {}", artistId, node.toString(), e);
-                        }
-                    }
-                }
+                    .body(SpotifyArtistTopTracks.class);
+
+            if (topTracksResponse != null && topTracksResponse.getTracks() != null) {
+                return topTracksResponse.getTracks();
             } else {
                 log.warn("Empty or invalid response for top tracks for artist ID {}", artistId);
+                return null;
             }
         } catch (Exception e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
             log.error("Error fetching top tracks for artist ID {}: {}", artistId, e.getMessage());
+            return null;
         }
-        return topTracks;
     }
 
     private List<SpotifyAlbum> fetchArtistAlbums(String accessToken, String artistId) {
         log.info("Fetching albums for artist ID {}", artistId);
-        List<SpotifyAlbum> albums = new ArrayList<>();
         try {
             String albumsUri = String.format("%s/artists/%s/albums?limit=8", apiUri, artistId);
-            Map<String, Object> albumsResponse = spotifyApiRestClient.get()
+            SpotifyPage<SpotifyAlbum> albumsResponse = spotifyApiRestClient.get()
                     .uri(albumsUri)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                     .retrieve()
-                    .body(Map.class);
-
-            if (albumsResponse != null && albumsResponse.containsKey("items")) {
-                JsonNode itemsNode = objectMapper.valueToTree(albumsResponse).path("items");
-                if (itemsNode.isArray()) {
-                    for (JsonNode node : itemsNode) {
-                        try {
-                            albums.add(objectMapper.treeToValue(node, SpotifyAlbum.class));
-                        } catch (Exception e) {
-                            log.error("Error mapping album for artist {}: {}", artistId, node.toString(), e);
-                        }
-                    }
-                }
+                    .body(ALBUM_PAGE);
+
+            if (albumsResponse != null && albumsResponse.getItems() != null) {
+                return albumsResponse.getItems();
             } else {
                 log.warn("Empty or invalid response for albums for artist ID {}", artistId);
+                return null;
             }
         } catch (Exception e) {
+            SpotifyUpstreamErrors.rethrowIfUnavailable(e);
             log.error("Error fetching albums for artist ID {}: {}", artistId, e.getMessage());
+            return null;
         }
-        return albums;
     }
 }
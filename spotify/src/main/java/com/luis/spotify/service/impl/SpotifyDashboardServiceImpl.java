@@ -0,0 +1,80 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifyDashboardSection;
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.SpotifyArtistApiService;
+import com.luis.spotify.service.SpotifyDashboardService;
+import com.luis.spotify.service.SpotifyTrackApiService;
+import com.luis.spotify.upstream.SpotifyUpstreamErrors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class SpotifyDashboardServiceImpl implements SpotifyDashboardService {
+    private final SpotifyApiService spotifyApiService;
+    private final SpotifyArtistApiService spotifyArtistApiService;
+    private final SpotifyTrackApiService spotifyTrackApiService;
+    private final Executor spotifyApiExecutor;
+
+    @Value("${app.spotify.dashboard.timeout-ms:3000}")
+    private long dashboardTimeoutMs;
+
+    public SpotifyDashboardServiceImpl(SpotifyApiService spotifyApiService,
+                                       SpotifyArtistApiService spotifyArtistApiService,
+                                       SpotifyTrackApiService spotifyTrackApiService,
+                                       @Qualifier("applicationTaskExecutor") Executor spotifyApiExecutor) {
+        this.spotifyApiService = spotifyApiService;
+        this.spotifyArtistApiService = spotifyArtistApiService;
+        this.spotifyTrackApiService = spotifyTrackApiService;
+        this.spotifyApiExecutor = spotifyApiExecutor;
+    }
+
+    @Override
+    public SpotifyDashboard getDashboard(Principal principal) {
+        String spotifyUserId = principal.getName();
+
+        // Resolve (and if needed refresh) the token once and share it between the three sections.
+        UserSpotifyTokens user = spotifyApiService.getAndRefreshUserToken(spotifyUserId);
+
+        var profile = section("profile", spotifyUserId, () -> spotifyApiService.getUserInfo(user));
+        var topArtists = section("top artists", spotifyUserId, () -> spotifyArtistApiService.getTopArtists(user));
+        var topTracks = section("top tracks", spotifyUserId, () -> spotifyTrackApiService.getTopTracks(user));
+
+        return new SpotifyDashboard(profile.join(), topArtists.join(), topTracks.join());
+    }
+
+    private <T> CompletableFuture<SpotifyDashboardSection<T>> section(String name, String spotifyUserId, Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, spotifyApiExecutor)
+                .orTimeout(dashboardTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((value, e) -> {
+                    if (e == null) {
+                        return SpotifyDashboardSection.ok(value);
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Dashboard section '{}' for user {} not available in {} ms",
+                                name, spotifyUserId, dashboardTimeoutMs);
+                        return SpotifyDashboardSection.failed(Status.TIMEOUT,
+                                "No response within " + dashboardTimeoutMs + " ms",
+                                SpotifyUpstreamErrors.statusOf(cause).value());
+                    }
+                    log.error("Dashboard section '{}' for user {} failed", name, spotifyUserId, cause);
+                    return SpotifyDashboardSection.failed(Status.ERROR, name + " unavailable",
+                            SpotifyUpstreamErrors.statusOf(cause).value());
+                });
+    }
+}
@@ -0,0 +1,391 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.cache.SpotifyCatalogCache;
+import com.luis.spotify.cache.SpotifyCatalogCache.EntryType;
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache.IdType;
+import com.luis.spotify.cache.SpotifySearchCache;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.cache.UserTopItemsCache;
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.dto.SpotifyArtistTopTracks;
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifyDashboardSection;
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
+import com.luis.spotify.dto.SpotifyPage;
+import com.luis.spotify.dto.SpotifySearchResponse;
+import com.luis.spotify.dto.SpotifySearchResults;
+import com.luis.spotify.dto.SpotifyTrack;
+import com.luis.spotify.dto.SpotifyUserProfile;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.SpotifyAppTokenService;
+import com.luis.spotify.service.SpotifyReactiveApiService;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
+import com.luis.spotify.upstream.SpotifyUpstreamErrors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * {@code WebClient} implementation of the Spotify endpoints for the {@code reactive} profile. It shares the caches,
+ * suggestion index and missing-id filter with the blocking services, so both modes do the same upstream work.
+ * <p>
+ * Tokens come from {@link UserSpotifyTokenCache} without blocking when cached; a cache miss (a JPA lookup) and an
+ * expired token (a refresh through {@link SpotifyApiService}) are rare, and run on the bounded elastic scheduler.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class SpotifyReactiveApiServiceImpl implements SpotifyReactiveApiService {
+    private static final String ALL_TYPES = "album,track,playlist,artist";
+
+    private static final ParameterizedTypeReference<SpotifyUserProfile> USER_PROFILE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifySearchResponse> SEARCH_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyAlbum> ALBUM =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyArtist> ARTIST =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyArtistTopTracks> ARTIST_TOP_TRACKS =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyPage<SpotifyArtist>> ARTIST_PAGE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyPage<SpotifyAlbum>> ALBUM_PAGE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<SpotifyPage<SpotifyTrack>> TRACK_PAGE =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient spotifyWebClient;
+    private final UserSpotifyTokenCache tokenCache;
+    private final SpotifyApiService spotifyApiService;
+    private final SpotifyAppTokenService appTokenService;
+    private final SpotifyCatalogCache catalogCache;
+    private final SpotifySearchCache searchCache;
+    private final UserTopItemsCache topItemsCache;
+    private final SpotifySuggestionIndex suggestionIndex;
+    private final SpotifyMissingIdCache missingIdCache;
+
+    @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
+    private String apiUri;
+
+    @Value("${app.spotify.artist-page.timeout-ms:3000}")
+    private long artistPageTimeoutMs;
+
+    @Value("${app.spotify.dashboard.timeout-ms:3000}")
+    private long dashboardTimeoutMs;
+
+    public SpotifyReactiveApiServiceImpl(WebClient spotifyWebClient,
+                                         UserSpotifyTokenCache tokenCache,
+                                         SpotifyApiService spotifyApiService,
+                                         SpotifyAppTokenService appTokenService,
+                                         SpotifyCatalogCache catalogCache,
+                                         SpotifySearchCache searchCache,
+                                         UserTopItemsCache topItemsCache,
+                                         SpotifySuggestionIndex suggestionIndex,
+                                         SpotifyMissingIdCache missingIdCache) {
+        this.spotifyWebClient = spotifyWebClient;
+        this.tokenCache = tokenCache;
+        this.spotifyApiService = spotifyApiService;
+        this.appTokenService = appTokenService;
+        this.catalogCache = catalogCache;
+        this.searchCache = searchCache;
+        this.topItemsCache = topItemsCache;
+        this.suggestionIndex = suggestionIndex;
+        this.missingIdCache = missingIdCache;
+    }
+
+    Mono<UserSpotifyTokens> userTokens(String spotifyUserId) {
+        UserSpotifyTokens cached = tokenCache.getIfPresent(spotifyUserId);
+        Mono<UserSpotifyTokens> tokens = cached != null
+                ? Mono.just(cached)
+                : Mono.fromCallable(() -> tokenCache.get(spotifyUserId)).subscribeOn(Schedulers.boundedElastic());
+
+        return tokens
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("No tokens found for user: " + spotifyUserId)))
+                .flatMap(user -> user.isAccessTokenExpired()
+                        ? Mono.fromCallable(() -> spotifyApiService.getAndRefreshUserToken(spotifyUserId))
+                                .subscribeOn(Schedulers.boundedElastic())
+                        : Mono.just(user));
+    }
+
+    /** The app token for catalog reads; only goes to a worker thread when it has to be fetched or renewed. */
+    Mono<String> appToken() {
+        return Mono.defer(() -> {
+            String fresh = appTokenService.getAccessTokenIfFresh();
+            return fresh != null
+                    ? Mono.just(fresh)
+                    : Mono.fromCallable(appTokenService::getAccessToken).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    @Override
+    public Mono<SpotifyUserProfile> getUserInfo(Principal principal) {
+        return userTokens(principal.getName()).flatMap(this::fetchUserInfo);
+    }
+
+    private Mono<SpotifyUserProfile> fetchUserInfo(UserSpotifyTokens user) {
+        return get(URI.create(apiUri + "/me"), user.getAccessToken(), USER_PROFILE);
+    }
+
+    @Override
+    public Mono<SpotifySearchResults> search(Principal principal, String query) {
+        String spotifyUserId = principal.getName();
+        String normalizedQuery = SpotifySearchCache.normalizedQuery(query);
+
+        return Mono.fromFuture(() -> searchCache.getAsync(normalizedQuery, ALL_TYPES,
+                () -> appToken()
+                        .flatMap(accessToken -> fetchSearchResponse(accessToken, normalizedQuery))
+                        .map(SpotifySearchApiServiceImpl::mapSearchResults)
+                        .toFuture()))
+                .doOnNext(suggestionIndex::recordSearchResults)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("Empty response received from Spotify search API for user {}", spotifyUserId);
+                    return new SpotifySearchResults(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+                            new ArrayList<>());
+                }));
+    }
+
+    private Mono<SpotifySearchResponse> fetchSearchResponse(String accessToken, String normalizedQuery) {
+        // The query goes in as a URI variable so it is strictly encoded: '&', '+' and '#' stay part of the query.
+        URI searchUri = UriComponentsBuilder.fromUriString(apiUri)
+                .path("/search")
+                .queryParam("q", "{q}")
+                .queryParam("type", ALL_TYPES)
+                .queryParam("limit", 8)
+                .encode()
+                .buildAndExpand(normalizedQuery)
+                .toUri();
+        return get(searchUri, accessToken, SEARCH_RESPONSE);
+    }
+
+    @Override
+    public Mono<List<SpotifyArtist>> getTopArtists(Principal principal) {
+        return userTokens(principal.getName()).flatMap(this::topArtists);
+    }
+
+    private Mono<List<SpotifyArtist>> topArtists(UserSpotifyTokens user) {
+        return Mono.fromFuture(() -> topItemsCache.getAsync(user.getSpotifyUserId(),
+                        UserTopItemsCache.EntryType.TOP_ARTISTS,
+                        priority -> fetchTopItems(user, "/me/top/artists?limit=8", ARTIST_PAGE, priority).toFuture()))
+                .defaultIfEmpty(new ArrayList<>());
+    }
+
+    @Override
+    public Mono<List<SpotifyTrack>> getTopTracks(Principal principal) {
+        return userTokens(principal.getName()).flatMap(this::topTracks);
+    }
+
+    private Mono<List<SpotifyTrack>> topTracks(UserSpotifyTokens user) {
+        return Mono.fromFuture(() -> topItemsCache.getAsync(user.getSpotifyUserId(),
+                        UserTopItemsCache.EntryType.TOP_TRACKS,
+                        priority -> fetchTopItems(user, "/me/top/tracks?limit=10", TRACK_PAGE, priority).toFuture()))
+                .defaultIfEmpty(new ArrayList<>());
+    }
+
+    private <T> Mono<List<T>> fetchTopItems(UserSpotifyTokens user, String path,
+                                            ParameterizedTypeReference<SpotifyPage<T>> pageType,
+                                            RequestPriority priority) {
+        return get(URI.create(apiUri + path), user.getAccessToken(), pageType, priority)
+                .flatMap(page -> {
+                    if (page.getItems() == null) {
+                        log.warn("Empty or invalid response received from Spotify {} for user {}",
+                                path, user.getSpotifyUserId());
+                        return Mono.empty();
+                    }
+                    suggestionIndex.record(page.getItems());
+                    return Mono.just(page.getItems());
+                });
+    }
+
+    @Override
+    public Mono<SpotifyAlbum> getAlbumInfo(Principal principal, String albumId) {
+        String spotifyUserId = principal.getName();
+        log.info("Service: Request for album info for user {} and album ID {}", spotifyUserId, albumId);
+
+        if (missingIdCache.shouldReject(IdType.ALBUM, albumId)) {
+            log.info("Album ID {} is malformed or unknown to Spotify, not calling the API", albumId);
+            return Mono.empty();
+        }
+
+        return cached(EntryType.ALBUM, albumId,
+                () -> appToken().flatMap(accessToken -> fetchAlbum(accessToken, albumId)))
+                .doOnNext(album -> suggestionIndex.record(List.of(album)));
+    }
+
+    private Mono<SpotifyAlbum> fetchAlbum(String accessToken, String albumId) {
+        return get(URI.create(String.format("%s/albums/%s", apiUri, albumId)), accessToken, ALBUM)
+                .map(album -> {
+                    if (album.getTrack() == null) {
+                        album.setTrack(new SpotifyTrack[0]);
+                    }
+                    return album;
+                })
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    missingIdCache.recordMissing(IdType.ALBUM, albumId);
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> !SpotifyUpstreamErrors.isUnavailable(e), e -> {
+                    log.error("Error fetching album info for ID {}: {}", albumId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<SpotifyArtistPage> getArtistPageInfo(Principal principal, String artistId) {
+        if (missingIdCache.shouldReject(IdType.ARTIST, artistId)) {
+            log.info("Artist ID {} is malformed or unknown to Spotify, not calling the API", artistId);
+            return Mono.empty();
+        }
+
+        return appToken().flatMap(accessToken -> {
+            // The three calls are independent, so run them side by side and give each one its own deadline.
+            // A leg that misses the deadline or fails degrades to an empty section instead of failing the whole
+            // page, unless Spotify is unavailable (throttled, shed or circuit open): then the page fails with it.
+            Mono<Optional<SpotifyArtist>> artistProfile = withDeadline(
+                    cached(EntryType.ARTIST, artistId, () -> fetchArtistProfile(accessToken, artistId))
+                            .map(Optional::of),
+                    Optional.empty(), "artist profile", artistId);
+            Mono<List<SpotifyTrack>> topTracks = withDeadline(
+                    cached(EntryType.ARTIST_TOP_TRACKS, artistId, () -> fetchArtistTopTracks(accessToken, artistId)),
+                    new ArrayList<>(), "top tracks", artistId);
+            Mono<List<SpotifyAlbum>> albums = withDeadline(
+                    cached(EntryType.ARTIST_ALBUMS, artistId, () -> fetchArtistAlbums(accessToken, artistId)),
+                    new ArrayList<>(), "albums", artistId);
+
+            return Mono.zip(artistProfile, topTracks, albums).flatMap(sections -> {
+                SpotifyArtistPage page = new SpotifyArtistPage(sections.getT1().orElse(null),
+                        sections.getT2(), sections.getT3());
+                if (page.getArtistProfile() == null && missingIdCache.isKnownMissing(IdType.ARTIST, artistId)) {
+                    return Mono.empty();
+                }
+                if (page.getArtistProfile() != null) {
+                    suggestionIndex.record(List.of(page.getArtistProfile()));
+                }
+                suggestionIndex.record(page.getTopTracks());
+                suggestionIndex.record(page.getAlbums());
+                return Mono.just(page);
+            });
+        });
+    }
+
+    private <T> Mono<T> withDeadline(Mono<T> call, T fallback, String section, String artistId) {
+        return call
+                .timeout(Duration.ofMillis(artistPageTimeoutMs))
+                .onErrorResume(e -> !SpotifyUpstreamErrors.isUnavailable(e), e -> {
+                    log.warn("Artist page section '{}' for artist ID {} not available in {} ms: {}",
+                            section, artistId, artistPageTimeoutMs, e.toString());
+                    return Mono.just(fallback);
+                })
+                .defaultIfEmpty(fallback);
+    }
+
+    private Mono<SpotifyArtist> fetchArtistProfile(String accessToken, String artistId) {
+        log.info("Fetching artist profile for ID {}", artistId);
+        return get(URI.create(String.format("%s/artists/%s", apiUri, artistId)), accessToken, ARTIST)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    missingIdCache.recordMissing(IdType.ARTIST, artistId);
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> !SpotifyUpstreamErrors.isUnavailable(e), e -> {
+                    log.error("Error fetching artist profile for ID {}: {}", artistId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<List<SpotifyTrack>> fetchArtistTopTracks(String accessToken, String artistId) {
+        log.info("Fetching top tracks for artist ID {}", artistId);
+        return get(URI.create(String.format("%s/artists/%s/top-tracks", apiUri, artistId)), accessToken,
+                ARTIST_TOP_TRACKS)
+                .mapNotNull(SpotifyArtistTopTracks::getTracks)
+                .onErrorResume(e -> !SpotifyUpstreamErrors.isUnavailable(e), e -> {
+                    log.error("Error fetching top tracks for artist ID {}: {}", artistId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<List<SpotifyAlbum>> fetchArtistAlbums(String accessToken, String artistId) {
+        log.info("Fetching albums for artist ID {}", artistId);
+        return get(URI.create(String.format("%s/artists/%s/albums?limit=8", apiUri, artistId)), accessToken,
+                ALBUM_PAGE)
+                .mapNotNull(SpotifyPage::getItems)
+                .onErrorResume(e -> !SpotifyUpstreamErrors.isUnavailable(e), e -> {
+                    log.error("Error fetching albums for artist ID {}: {}", artistId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<SpotifyDashboard> getDashboard(Principal principal) {
+        String spotifyUserId = principal.getName();
+
+        // Resolve (and if needed refresh) the token once and share it between the three sections.
+        return userTokens(spotifyUserId).flatMap(user -> Mono.zip(
+                        section("profile", spotifyUserId, fetchUserInfo(user)),
+                        section("top artists", spotifyUserId, topArtists(user)),
+                        section("top tracks", spotifyUserId, topTracks(user)))
+                .map(sections -> new SpotifyDashboard(sections.getT1(), sections.getT2(), sections.getT3())));
+    }
+
+    private <T> Mono<SpotifyDashboardSection<T>> section(String name, String spotifyUserId, Mono<T> call) {
+        return call
+                .map(SpotifyDashboardSection::ok)
+                .defaultIfEmpty(SpotifyDashboardSection.ok(null))
+                .timeout(Duration.ofMillis(dashboardTimeoutMs))
+                .onErrorResume(e -> {
+                    if (e instanceof TimeoutException) {
+                        log.warn("Dashboard section '{}' for user {} not available in {} ms",
+                                name, spotifyUserId, dashboardTimeoutMs);
+                        return Mono.just(SpotifyDashboardSection.failed(Status.TIMEOUT,
+                                "No response within " + dashboardTimeoutMs + " ms",
+                                SpotifyUpstreamErrors.statusOf(e).value()));
+                    }
+                    log.error("Dashboard section '{}' for user {} failed", name, spotifyUserId, e);
+                    return Mono.just(SpotifyDashboardSection.failed(Status.ERROR, name + " unavailable",
+                            SpotifyUpstreamErrors.statusOf(e).value()));
+                });
+    }
+
+    private <T> Mono<T> cached(EntryType type, String id, Supplier<Mono<T>> fetch) {
+        return Mono.fromFuture(() -> catalogCache.getAsync(type, id, () -> fetch.get().toFuture()));
+    }
+
+    private <T> Mono<T> get(URI uri, String accessToken, ParameterizedTypeReference<T> type) {
+        return spotifyWebClient.get()
+                .uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .retrieve()
+                .bodyToMono(type);
+    }
+
+    private <T> Mono<T> get(URI uri, String accessToken, ParameterizedTypeReference<T> type, RequestPriority priority) {
+        return spotifyWebClient.get()
+                .uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, priority)
+                .retrieve()
+                .bodyToMono(type);
+    }
+}
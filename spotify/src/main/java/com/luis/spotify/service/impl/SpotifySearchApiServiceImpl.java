@@ -1,116 +1,164 @@
 package com.luis.spotify.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifySearchCache;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
 import com.luis.spotify.dto.*;
-import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.service.SpotifyAppTokenService;
 import com.luis.spotify.service.SpotifySearchApiService;
+import com.luis.spotify.upstream.SpotifyUpstreamErrors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 public class SpotifySearchApiServiceImpl implements SpotifySearchApiService {
+    private static final String ALL_TYPES = "album,track,playlist,artist";
+
+    /** Per-type searches in the order the Search page renders them. */
+    private static final List<SectionType> SECTION_TYPES = List.of(
+            new SectionType("track", "tracks", response -> SpotifyPage.itemsOf(response.getTracks())),
+            new SectionType("artist", "artists", response -> SpotifyPage.itemsOf(response.getArtists())),
+            new SectionType("album", "albums", response -> SpotifyPage.itemsOf(response.getAlbums())),
+            new SectionType("playlist", "playlists", response -> SpotifyPage.itemsOf(response.getPlaylists()))
+    );
+
+    private record SectionType(String type, String section, Function<SpotifySearchResponse, List<?>> items) {}
+
     private final RestClient spotifyApiRestClient;
-    private final SpotifyApiServiceImpl spotifyApiService;
-    private final ObjectMapper objectMapper;
+    private final SpotifyAppTokenService appTokenService;
+    private final SpotifySearchCache searchCache;
+    private final Executor spotifyApiExecutor;
+    private final SpotifySuggestionIndex suggestionIndex;
 
     @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
     private String apiUri;
 
+    @Value("${app.spotify.search.section-timeout-ms:3000}")
+    private long sectionTimeoutMs;
+
+    @Value("${app.spotify.suggest.max-limit:20}")
+    private int maxSuggestLimit;
+
     public SpotifySearchApiServiceImpl(RestClient.Builder restClientBuilder,
                                        UserSpotifyTokenRepository tokenRepository,
-                                       SpotifyApiServiceImpl spotifyApiService) {
+                                       SpotifyAppTokenService appTokenService,
+                                       SpotifySearchCache searchCache,
+                                       @Qualifier("applicationTaskExecutor") Executor spotifyApiExecutor,
+                                       SpotifySuggestionIndex suggestionIndex) {
         this.spotifyApiRestClient = restClientBuilder.build();
-        this.spotifyApiService = spotifyApiService;
-        this.objectMapper = new ObjectMapper();
+        this.appTokenService = appTokenService;
+        this.searchCache = searchCache;
+        this.spotifyApiExecutor = spotifyApiExecutor;
+        this.suggestionIndex = suggestionIndex;
     }
 
-    private SpotifySearchResults mapSearchResults(Map<String, Object> responseMap) {
-        JsonNode rootNode = objectMapper.valueToTree(responseMap);
-
-        List<SpotifyTrack> tracks = new ArrayList<>();
-        List<SpotifyAlbum> albums = new ArrayList<>();
-        List<SpotifyArtist> artists = new ArrayList<>();
-        List<SpotifySearchPlaylist> playlists = new ArrayList<>();
-
-        JsonNode tracksNode = rootNode.path("tracks").path("items");
-        if (tracksNode.isArray()) {
-            for (JsonNode node : tracksNode) {
-                try {
-                    tracks.add(objectMapper.treeToValue(node, SpotifyTrack.class));
-                } catch (Exception e) {
-                    log.error("Error mapping track: {}", node.toString(), e);
-                }
-            }
-        }
+    static SpotifySearchResults mapSearchResults(SpotifySearchResponse response) {
+        return new SpotifySearchResults(
+                SpotifyPage.itemsOf(response.getTracks()),
+                SpotifyPage.itemsOf(response.getAlbums()),
+                SpotifyPage.itemsOf(response.getArtists()),
+                SpotifyPage.itemsOf(response.getPlaylists())
+        );
+    }
 
-        JsonNode albumsNode = rootNode.path("albums").path("items");
-        if (albumsNode.isArray()) {
-            for (JsonNode node : albumsNode) {
-                try {
-                    albums.add(objectMapper.treeToValue(node, SpotifyAlbum.class));
-                } catch (Exception e) {
-                    log.error("Error mapping album: {}", node.toString(), e);
-                }
-            }
-        }
+    @Override
+    public SpotifySearchResults search(Principal principal, String query) {
+        String spotifyUserId = principal.getName();
 
-        JsonNode artistsNode = rootNode.path("artists").path("items");
-        if (artistsNode.isArray()) {
-            for (JsonNode node : artistsNode) {
-                try {
-                    artists.add(objectMapper.treeToValue(node, SpotifyArtist.class));
-                } catch (Exception e) {
-                    log.error("Error mapping artist: {}", node.toString(), e);
-                }
-            }
-        }
+        // Search results are the same for every user, so they are read with the app token rather than the user's.
+        String normalizedQuery = SpotifySearchCache.normalizedQuery(query);
+        SpotifySearchResults results = searchCache.get(normalizedQuery, ALL_TYPES, () -> {
+            SpotifySearchResponse response =
+                    fetchSearchResponse(appTokenService.getAccessToken(), normalizedQuery, ALL_TYPES);
+            return response != null ? mapSearchResults(response) : null;
+        });
 
-        JsonNode playlistsNode = rootNode.path("playlists").path("items");
-        if (playlistsNode.isArray()) {
-            for (JsonNode playlistNode : playlistsNode) {
-                try {
-                    SpotifySearchPlaylist playlist = objectMapper.treeToValue(playlistNode, SpotifySearchPlaylist.class);
-                    if(playlist != null) playlists.add(playlist);
-                } catch (Exception e) {
-                    log.error("Error mapping playlist: {}", playlistNode.toString(), e);
-                }
-            }
+        if (results == null) {
+            log.warn("Empty response received from Spotify search API for user {}", spotifyUserId);
+            return new SpotifySearchResults(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
         }
-
-        return new SpotifySearchResults(tracks, albums, artists, playlists);
+        suggestionIndex.recordSearchResults(results);
+        return results;
     }
 
     @Override
-    public SpotifySearchResults search(Principal principal, String query) {
+    public List<CompletableFuture<SpotifySearchSection>> searchSections(Principal principal, String query) {
         String spotifyUserId = principal.getName();
-        String types = "album,track,playlist,artist";
 
-        UserSpotifyTokens user = spotifyApiService.getAndRefreshUserToken(spotifyUserId);
+        // Resolve (and if needed renew) the app token once and share it between the per-type searches.
+        String accessToken = appTokenService.getAccessToken();
+        String normalizedQuery = SpotifySearchCache.normalizedQuery(query);
 
-        String searchUri = String.format("%s/search?q=%s&type=%s&limit=8", apiUri, query, types);
+        return SECTION_TYPES.stream()
+                .map(sectionType -> searchSection(sectionType, accessToken, spotifyUserId, normalizedQuery))
+                .toList();
+    }
+
+    @Override
+    public List<SpotifySuggestion> suggest(String query, int limit) {
+        return suggestionIndex.suggest(query, Math.min(limit, maxSuggestLimit));
+    }
 
-        Map<String, Object> responseMap = spotifyApiRestClient.get()
+    private CompletableFuture<SpotifySearchSection> searchSection(SectionType sectionType, String accessToken,
+                                                                  String spotifyUserId, String normalizedQuery) {
+        return CompletableFuture.supplyAsync(() -> searchCache.get(normalizedQuery, sectionType.type(), () -> {
+                    SpotifySearchResponse response =
+                            fetchSearchResponse(accessToken, normalizedQuery, sectionType.type());
+                    return response != null ? sectionType.items().apply(response) : null;
+                }), spotifyApiExecutor)
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((items, e) -> {
+                    if (e == null) {
+                        suggestionIndex.record(items);
+                        return SpotifySearchSection.ok(sectionType.section(), items != null ? items : List.of());
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Search section '{}' for user {} not available in {} ms",
+                                sectionType.section(), spotifyUserId, sectionTimeoutMs);
+                        return SpotifySearchSection.failed(sectionType.section(), Status.TIMEOUT,
+                                "No response within " + sectionTimeoutMs + " ms",
+                                SpotifyUpstreamErrors.statusOf(cause).value());
+                    }
+                    log.error("Search section '{}' for user {} failed", sectionType.section(), spotifyUserId, cause);
+                    return SpotifySearchSection.failed(sectionType.section(), Status.ERROR,
+                            sectionType.section() + " unavailable", SpotifyUpstreamErrors.statusOf(cause).value());
+                });
+    }
+
+    private SpotifySearchResponse fetchSearchResponse(String accessToken, String normalizedQuery, String types) {
+        // The query goes in as a URI variable so it is strictly encoded: '&', '+' and '#' stay part of the query.
+        URI searchUri = UriComponentsBuilder.fromUriString(apiUri)
+                .path("/search")
+                .queryParam("q", "{q}")
+                .queryParam("type", types)
+                .queryParam("limit", 8)
+                .encode()
+                .buildAndExpand(normalizedQuery)
+                .toUri();
+
+        return spotifyApiRestClient.get()
                 .uri(searchUri)
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getAccessToken())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
                 .retrieve()
-                .body(Map.class);
-
-        if (responseMap == null) {
-            log.warn("Empty response received from Spotify search API for user {}", spotifyUserId);
-            return new SpotifySearchResults(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
-        }
-        return mapSearchResults(responseMap);
+                .body(SpotifySearchResponse.class);
     }
 }
@@ -1,14 +1,18 @@
 package com.luis.spotify.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.cache.UserTopItemsCache;
+import com.luis.spotify.dto.SpotifyPage;
 import com.luis.spotify.dto.SpotifyTrack;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
 import com.luis.spotify.service.SpotifyApiService;
 import com.luis.spotify.service.SpotifyTrackApiService;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
@@ -16,24 +20,30 @@ import org.springframework.web.client.RestClient;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 @Service
 @Slf4j
 public class SpotifyTrackApiServiceImpl implements SpotifyTrackApiService {
+    private static final ParameterizedTypeReference<SpotifyPage<SpotifyTrack>> TRACK_PAGE =
+            new ParameterizedTypeReference<>() {};
+
     private final RestClient spotifyApiRestClient;
     private final SpotifyApiServiceImpl spotifyApiService;
-    private final ObjectMapper objectMapper;
+    private final SpotifySuggestionIndex suggestionIndex;
+    private final UserTopItemsCache topItemsCache;
 
     @Value("${spring.security.oauth2.client.provider.spotify.api-uri}")
     private String apiUri;
 
     public SpotifyTrackApiServiceImpl(RestClient.Builder restClientBuilder,
                                       UserSpotifyTokenRepository tokenRepository,
-                                      SpotifyApiServiceImpl spotifyApiService) {
+                                      SpotifyApiServiceImpl spotifyApiService,
+                                      SpotifySuggestionIndex suggestionIndex,
+                                      UserTopItemsCache topItemsCache) {
         this.spotifyApiRestClient = restClientBuilder.build();
         this.spotifyApiService = spotifyApiService;
-        this.objectMapper = new ObjectMapper();
+        this.suggestionIndex = suggestionIndex;
+        this.topItemsCache = topItemsCache;
     }
 
     @Override
@@ -41,34 +51,35 @@ public class SpotifyTrackApiServiceImpl implements SpotifyTrackApiService {
         String spotifyUserId = principal.getName();
 
         UserSpotifyTokens user = spotifyApiService.getAndRefreshUserToken(spotifyUserId);
+
+        return getTopTracks(user);
+    }
+
+    @Override
+    public List<SpotifyTrack> getTopTracks(UserSpotifyTokens user) {
+        List<SpotifyTrack> topTracks = topItemsCache.get(user.getSpotifyUserId(),
+                UserTopItemsCache.EntryType.TOP_TRACKS, priority -> fetchTopTracks(user, priority));
+        return topTracks != null ? topTracks : new ArrayList<>();
+    }
+
+    private List<SpotifyTrack> fetchTopTracks(UserSpotifyTokens user, RequestPriority priority) {
+        String spotifyUserId = user.getSpotifyUserId();
         String accessToken = user.getAccessToken();
 
         String topTracksUri = String.format("%s/me/top/tracks?limit=10", apiUri);
 
-        Map<String, Object> responseMap = spotifyApiRestClient.get()
+        SpotifyPage<SpotifyTrack> response = spotifyApiRestClient.get()
                 .uri(topTracksUri)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, priority)
                 .retrieve()
-                .body(Map.class);
+                .body(TRACK_PAGE);
 
-        if (responseMap == null || !responseMap.containsKey("items")) {
+        if (response == null || response.getItems() == null) {
             log.warn("Empty or invalid response received from Spotify top tracks API for user {}", spotifyUserId);
-            return new ArrayList<>();
-        }
-
-        JsonNode rootNode = objectMapper.valueToTree(responseMap);
-        JsonNode itemsNode = rootNode.path("items");
-
-        List<SpotifyTrack> topTracks = new ArrayList<>();
-        if (itemsNode.isArray()) {
-            for (JsonNode node : itemsNode) {
-                try {
-                    topTracks.add(objectMapper.treeToValue(node, SpotifyTrack.class));
-                } catch (Exception e) {
-                    log.error("Error mapping top track: {}", node.toString(), e);
-                }
-            }
+            return null;
         }
-        return topTracks;
+        suggestionIndex.record(response.getItems());
+        return response.getItems();
     }
 }
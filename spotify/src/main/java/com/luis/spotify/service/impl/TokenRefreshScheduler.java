@@ -0,0 +1,148 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.SpotifyApiService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes access tokens of recently active users shortly before they expire, so the request path rarely has to
+ * wait on the accounts service.
+ * <p>
+ * Every time tokens enter {@link UserSpotifyTokenCache} a refresh is queued for {@code lead-time} (minus a random
+ * jitter) before they expire. A user counts as recently active for as long as the cache keeps them; once idle
+ * eviction drops a user, their pending refresh is skipped. A successful refresh saves through the cache, which
+ * queues the next one but does not count as activity, so a user who stops making requests stops being refreshed
+ * once the idle timeout passes.
+ */
+@Slf4j
+@Component
+public class TokenRefreshScheduler {
+
+    private final SpotifyApiService spotifyApiService;
+    private final UserSpotifyTokenCache tokenCache;
+    private final Executor refreshExecutor;
+    private final boolean enabled;
+    private final Duration leadTime;
+    private final Duration jitter;
+    private final Semaphore permits;
+
+    private final DelayQueue<ScheduledRefresh> queue = new DelayQueue<>();
+    private final ConcurrentMap<String, ScheduledRefresh> scheduled = new ConcurrentHashMap<>();
+
+    public TokenRefreshScheduler(SpotifyApiService spotifyApiService,
+                                 UserSpotifyTokenCache tokenCache,
+                                 @Qualifier("applicationTaskExecutor") Executor refreshExecutor,
+                                 @Value("${app.spotify.token-refresh.enabled:true}") boolean enabled,
+                                 @Value("${app.spotify.token-refresh.lead-time:5m}") Duration leadTime,
+                                 @Value("${app.spotify.token-refresh.jitter:30s}") Duration jitter,
+                                 @Value("${app.spotify.token-refresh.max-concurrent:4}") int maxConcurrent) {
+        this.spotifyApiService = spotifyApiService;
+        this.tokenCache = tokenCache;
+        this.refreshExecutor = refreshExecutor;
+        this.enabled = enabled;
+        this.leadTime = leadTime;
+        this.jitter = jitter;
+        this.permits = new Semaphore(maxConcurrent);
+        if (enabled) {
+            tokenCache.onTokensCached(this::schedule);
+        }
+    }
+
+    void schedule(UserSpotifyTokens userTokens) {
+        Instant expiresAt = userTokens.getAccessTokenExpiresAt();
+        if (expiresAt == null || userTokens.getRefreshToken() == null) {
+            return;
+        }
+        long jitterMs = jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        Instant dueAt = expiresAt.minus(leadTime).minusMillis(jitterMs);
+        enqueue(new ScheduledRefresh(userTokens.getSpotifyUserId(), dueAt));
+    }
+
+    @Scheduled(fixedDelayString = "${app.spotify.token-refresh.poll-interval-ms:1000}")
+    public void refreshDueTokens() {
+        if (!enabled) {
+            return;
+        }
+        // Stop draining once all permits are taken; whatever is left stays due for the next poll.
+        while (permits.tryAcquire()) {
+            ScheduledRefresh due = queue.poll();
+            if (due == null) {
+                permits.release();
+                return;
+            }
+            if (!scheduled.remove(due.spotifyUserId(), due)) {
+                // Superseded by a newer schedule for the same user.
+                permits.release();
+                continue;
+            }
+            submit(due.spotifyUserId());
+        }
+    }
+
+    private void submit(String spotifyUserId) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(spotifyUserId);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            log.warn("Proactive token refresh for user {} rejected, leaving it to the request path", spotifyUserId);
+        }
+    }
+
+    private void refresh(String spotifyUserId) {
+        UserSpotifyTokens cached = tokenCache.getIfPresentQuietly(spotifyUserId);
+        if (cached == null) {
+            log.debug("User {} is no longer active, skipping proactive token refresh", spotifyUserId);
+            return;
+        }
+        try {
+            spotifyApiService.refreshUserTokenIfExpiringBefore(spotifyUserId, Instant.now().plus(leadTime));
+        } catch (RuntimeException e) {
+            log.warn("Proactive token refresh for user {} failed: {}", spotifyUserId, e.getMessage());
+        }
+    }
+
+    private void enqueue(ScheduledRefresh refresh) {
+        scheduled.put(refresh.spotifyUserId(), refresh);
+        queue.add(refresh);
+    }
+
+    int pendingCount() {
+        return scheduled.size();
+    }
+
+    record ScheduledRefresh(String spotifyUserId, Instant dueAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), dueAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return dueAt.compareTo(((ScheduledRefresh) other).dueAt);
+        }
+    }
+}
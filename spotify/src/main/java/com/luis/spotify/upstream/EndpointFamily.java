@@ -0,0 +1,22 @@
+package com.luis.spotify.upstream;
+
+/**
+ * Groups of Spotify endpoints that get their own bulkhead and circuit breaker, so trouble in one group does not
+ * take the others down with it.
+ */
+public enum EndpointFamily {
+    SEARCH("search"),
+    CATALOG("catalog"),
+    USER_TOP("user-top"),
+    AUTH("auth");
+
+    private final String tag;
+
+    EndpointFamily(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,11 @@
+package com.luis.spotify.upstream;
+
+/**
+ * How much an upstream Spotify call matters when the rate budget is tight. Higher priorities may dip into the
+ * reserved part of the budget and wait longer for it; {@link #LOW} is shed as soon as the budget runs out.
+ */
+public enum RequestPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
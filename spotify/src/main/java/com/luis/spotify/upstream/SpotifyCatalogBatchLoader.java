@@ -0,0 +1,289 @@
+package com.luis.spotify.upstream;
+
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache.IdType;
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyMultiGet;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Collects single-entity catalog lookups from concurrent requests and sends them to Spotify as one multi-get
+ * ({@code /artists?ids=}, {@code /albums?ids=}), DataLoader style.
+ * <p>
+ * The first lookup of a resource opens a batch; it is sent once {@code max-wait} has passed or it holds as many
+ * distinct ids as Spotify accepts in one call (50, or 20 for albums), whichever comes first. The response is decoded
+ * leniently: entities that fail to map are dropped rather than failing the whole batch, and each caller gets the
+ * entity whose id matches its own. An id the response does not account for, because Spotify does not know it or its
+ * entity did not map, is fetched on its own: a 404 there is recorded in the {@link SpotifyMissingIdCache}, and a
+ * failure only reaches the lookups for that id. A batch that ends up with a single id uses the single-entity
+ * endpoint instead, so a lone lookup behaves exactly as it did before batching. If Spotify rejects a multi-get with a
+ * client error, one bad id should not fail everyone else in the batch, so its ids are retried one by one and only the
+ * lookups whose own call fails see the error.
+ * <p>
+ * Multi-gets are bulk work and go out at {@link RequestPriority#LOW}, so a tight rate budget sheds them before any
+ * single lookup. A shed or throttled batch fails all of its lookups, which then surface as Spotify being unavailable.
+ * <p>
+ * Batches are kept per resource and access token, and sent with that token, so a lookup never rides on another
+ * caller's credentials. Catalog reads normally all carry the app token and still share one batch.
+ * Batches are sent from a small pool of their own: callers block on their lookups, often on the shared task executor,
+ * so sending from that executor could leave a batch queued behind the very threads waiting for it.
+ * With batching disabled every lookup is sent on its own, on the caller's thread.
+ */
+@Slf4j
+@Component
+public class SpotifyCatalogBatchLoader {
+
+    /**
+     * A catalog resource that has a multi-get endpoint.
+     *
+     * @param path          path segment under the API base, also the name of the list in the multi-get response
+     * @param maxIds        most ids Spotify accepts in one multi-get
+     * @param missingIdType type under which unknown ids are recorded, {@code null} to not record them
+     * @param idOf          reads the id of a returned entity, to match it back to its lookups
+     */
+    public record Resource<T>(String path,
+                              int maxIds,
+                              IdType missingIdType,
+                              Class<T> entityType,
+                              ParameterizedTypeReference<SpotifyMultiGet<T>> responseType,
+                              Function<T, String> idOf) {}
+
+    public static final Resource<SpotifyArtist> ARTISTS = new Resource<>("artists", 50, IdType.ARTIST,
+            SpotifyArtist.class, new ParameterizedTypeReference<SpotifyMultiGet<SpotifyArtist>>() {},
+            SpotifyArtist::getId);
+    public static final Resource<SpotifyAlbum> ALBUMS = new Resource<>("albums", 20, IdType.ALBUM,
+            SpotifyAlbum.class, new ParameterizedTypeReference<SpotifyMultiGet<SpotifyAlbum>>() {},
+            SpotifyAlbum::getId);
+
+    private record BatchKey(Resource<?> resource, String accessToken) {}
+
+    private static final class Batch<T> {
+        private final BatchKey key;
+        private final Resource<T> resource;
+        private final String accessToken;
+        private final Map<String, List<CompletableFuture<T>>> waiters = new LinkedHashMap<>();
+        private ScheduledFuture<?> timer;
+
+        private Batch(Resource<T> resource, String accessToken) {
+            this.key = new BatchKey(resource, accessToken);
+            this.resource = resource;
+            this.accessToken = accessToken;
+        }
+    }
+
+    private final RestClient spotifyApiRestClient;
+    private final SpotifyMissingIdCache missingIdCache;
+    private final ExecutorService sender;
+    private final DistributionSummary batchSize;
+    private final String apiUri;
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final int maxIds;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by openLock; held only to add a waiter or hand a batch over, never during a call.
+    private final Map<BatchKey, Batch<?>> open = new HashMap<>();
+    private final ReentrantLock openLock = new ReentrantLock();
+
+    public SpotifyCatalogBatchLoader(RestClient.Builder restClientBuilder,
+                                     SpotifyMissingIdCache missingIdCache,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${spring.security.oauth2.client.provider.spotify.api-uri}") String apiUri,
+                                     @Value("${app.spotify.batch.enabled:true}") boolean enabled,
+                                     @Value("${app.spotify.batch.max-wait:2ms}") Duration maxWait,
+                                     @Value("${app.spotify.batch.max-ids:50}") int maxIds,
+                                     @Value("${app.spotify.batch.max-concurrent:16}") int maxConcurrent) {
+        this.spotifyApiRestClient = restClientBuilder.build();
+        this.missingIdCache = missingIdCache;
+        this.batchSize = DistributionSummary.builder("spotify.api.batch.size")
+                .description("Ids sent per Spotify catalog lookup")
+                .register(meterRegistry);
+        this.apiUri = apiUri;
+        this.enabled = enabled && maxIds > 1;
+        this.maxWait = maxWait;
+        this.maxIds = maxIds;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "spotify-batch-timer"));
+        AtomicInteger senders = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> daemon(runnable, "spotify-batch-sender-" + senders.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        this.sender = pool;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Returns a future for the entity with the given id. It completes with {@code null} if Spotify does not know the
+     * id and exceptionally if the call carrying it failed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> load(Resource<T> resource, String id, String accessToken) {
+        if (!enabled) {
+            Batch<T> single = new Batch<>(resource, accessToken);
+            CompletableFuture<T> result = new CompletableFuture<>();
+            single.waiters.put(id, new ArrayList<>(List.of(result)));
+            send(single);
+            return result;
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Batch<T> full = null;
+        openLock.lock();
+        try {
+            Batch<T> batch = (Batch<T>) open.computeIfAbsent(new BatchKey(resource, accessToken),
+                    key -> new Batch<>(resource, accessToken));
+            batch.waiters.computeIfAbsent(id, key -> new ArrayList<>(1)).add(result);
+            if (batch.waiters.size() >= Math.min(maxIds, resource.maxIds())) {
+                open.remove(batch.key);
+                if (batch.timer != null) {
+                    batch.timer.cancel(false);
+                }
+                full = batch;
+            } else if (batch.timer == null) {
+                batch.timer = timer.schedule(() -> flush(batch), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            openLock.unlock();
+        }
+        if (full != null) {
+            Batch<T> ready = full;
+            sender.execute(() -> send(ready));
+        }
+        return result;
+    }
+
+    private void flush(Batch<?> batch) {
+        openLock.lock();
+        try {
+            // Already handed over if it filled up before the window closed.
+            if (!open.remove(batch.key, batch)) {
+                return;
+            }
+        } finally {
+            openLock.unlock();
+        }
+        sender.execute(() -> send(batch));
+    }
+
+    private <T> void send(Batch<T> batch) {
+        Resource<T> resource = batch.resource;
+        List<String> ids = new ArrayList<>(batch.waiters.keySet());
+        batchSize.record(ids.size());
+        try {
+            if (ids.size() == 1) {
+                complete(batch, ids.get(0), fetchOne(resource, ids.get(0), batch.accessToken));
+                return;
+            }
+
+            log.debug("Fetching {} {} in one call", ids.size(), resource.path());
+            SpotifyMultiGet<T> response = spotifyApiRestClient.get()
+                    .uri(String.format("%s/%s?ids=%s", apiUri, resource.path(), String.join(",", ids)))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + batch.accessToken)
+                    .attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.LOW)
+                    .retrieve()
+                    .body(resource.responseType());
+            List<T> items = response != null ? response.getItems() : null;
+            if (items == null) {
+                throw new IllegalStateException("Empty response from Spotify " + resource.path() + " multi-get");
+            }
+            List<String> unmatched = new ArrayList<>(ids);
+            for (T item : items) {
+                String id = resource.idOf().apply(item);
+                if (unmatched.remove(id)) {
+                    complete(batch, id, item);
+                }
+            }
+            if (!unmatched.isEmpty()) {
+                log.debug("Spotify {} multi-get returned no entity for {} of {} ids, fetching them one by one",
+                        resource.path(), unmatched.size(), ids.size());
+                sendOneByOne(batch, unmatched);
+            }
+        } catch (HttpClientErrorException e) {
+            // A 429 or 401 would come back for every id alike, so only other client errors are worth splitting up.
+            if (ids.size() == 1 || e instanceof HttpClientErrorException.TooManyRequests
+                    || e instanceof HttpClientErrorException.Unauthorized) {
+                fail(batch, ids, e);
+                return;
+            }
+            log.warn("Spotify rejected {} {} in one call ({}), fetching them one by one",
+                    ids.size(), resource.path(), e.getStatusCode());
+            sendOneByOne(batch, ids);
+        } catch (RuntimeException e) {
+            fail(batch, ids, e);
+        }
+    }
+
+    private <T> void sendOneByOne(Batch<T> batch, List<String> ids) {
+        for (String id : ids) {
+            try {
+                complete(batch, id, fetchOne(batch.resource, id, batch.accessToken));
+            } catch (RuntimeException e) {
+                log.error("Error fetching {} {} from Spotify: {}", batch.resource.path(), id, e.getMessage());
+                batch.waiters.get(id).forEach(waiter -> waiter.completeExceptionally(e));
+            }
+        }
+    }
+
+    private static <T> void fail(Batch<T> batch, List<String> ids, RuntimeException e) {
+        log.error("Error fetching {} {} from Spotify: {}", ids.size(), batch.resource.path(), e.getMessage());
+        batch.waiters.values().forEach(waiters -> waiters.forEach(waiter -> waiter.completeExceptionally(e)));
+    }
+
+    private <T> T fetchOne(Resource<T> resource, String id, String accessToken) {
+        try {
+            return spotifyApiRestClient.get()
+                    .uri(String.format("%s/%s/%s", apiUri, resource.path(), id))
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                    .retrieve()
+                    .body(resource.entityType());
+        } catch (HttpClientErrorException.NotFound e) {
+            if (resource.missingIdType() != null) {
+                missingIdCache.recordMissing(resource.missingIdType(), id);
+            }
+            return null;
+        }
+    }
+
+    private static <T> void complete(Batch<T> batch, String id, T item) {
+        batch.waiters.get(id).forEach(waiter -> waiter.complete(item));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,175 @@
+package com.luis.spotify.upstream;
+
+import com.luis.spotify.metrics.SpotifyApiMetricsInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Routes every Spotify Web API call through the shared {@link SpotifyRateLimiter} and handles
+ * {@code 429 Too Many Requests}: the {@code Retry-After} window is applied app-wide, and the call is retried once
+ * the window has passed if it is short enough, the call is not low priority and its priority may wait that long for a
+ * permit. Otherwise the 429 is handed back to the caller straight away instead of being retried into a certain
+ * {@link SpotifyRateLimitedException}.
+ * <p>
+ * Calls to the accounts service are not part of the Web API budget and pass straight through.
+ * <p>
+ * Re-executing the request only reaches the interceptors registered after this one, so only per-attempt concerns
+ * (the {@link SpotifyResilienceInterceptor}) may follow it. As a {@code WebClient} filter it waits for permits on a
+ * timer instead of a thread.
+ */
+@Slf4j
+public class SpotifyRateLimitInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    /**
+     * Request attribute a caller can set to a {@link RequestPriority} to override the per-endpoint default. Background
+     * and bulk work sets {@link RequestPriority#LOW} so it is shed before anything a user is waiting on.
+     */
+    public static final String PRIORITY_ATTRIBUTE = "spotify.priority";
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final SpotifyRateLimiter rateLimiter;
+    private final String apiHost;
+    private final String apiBasePath;
+    private final String mePath;
+    private final int maxRetries;
+    private final Duration maxRetryAfter;
+
+    public SpotifyRateLimitInterceptor(SpotifyRateLimiter rateLimiter, String apiUri, int maxRetries, Duration maxRetryAfter) {
+        this.rateLimiter = rateLimiter;
+        URI api = URI.create(apiUri);
+        this.apiHost = api.getHost();
+        this.apiBasePath = api.getPath() == null ? "" : api.getPath().replaceAll("/+$", "");
+        this.mePath = apiBasePath + "/me";
+        this.maxRetries = maxRetries;
+        this.maxRetryAfter = maxRetryAfter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!isApiCall(request.getURI())) {
+            return execution.execute(request, body);
+        }
+
+        RequestPriority priority = priorityOf(request);
+        int attempt = 0;
+        while (true) {
+            rateLimiter.acquire(priority);
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return response;
+            }
+
+            Duration retryAfter = retryAfterOf(response.getHeaders());
+            rateLimiter.onRetryAfter(retryAfter);
+            if (!shouldRetry(attempt, priority, retryAfter)) {
+                return response;
+            }
+
+            log.info("Retrying {} after 429 (attempt {}, Retry-After {} ms)",
+                    request.getURI().getPath(), attempt + 1, retryAfter.toMillis());
+            response.close();
+            attempt++;
+            request.getAttributes().put(SpotifyApiMetricsInterceptor.RETRY_ATTRIBUTE, attempt);
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!isApiCall(request.url())) {
+            return next.exchange(request);
+        }
+        RequestPriority priority = priorityOf(request.url(), request.attribute(PRIORITY_ATTRIBUTE).orElse(null));
+        return exchange(request, next, priority, 0);
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, RequestPriority priority,
+                                          int attempt) {
+        return rateLimiter.acquireAsync(priority)
+                .then(Mono.defer(() -> next.exchange(request)))
+                .flatMap(response -> {
+                    if (response.statusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                        return Mono.just(response);
+                    }
+
+                    Duration retryAfter = retryAfterOf(response.headers().asHttpHeaders());
+                    rateLimiter.onRetryAfter(retryAfter);
+                    if (!shouldRetry(attempt, priority, retryAfter)) {
+                        return Mono.just(response);
+                    }
+
+                    log.info("Retrying {} after 429 (attempt {}, Retry-After {} ms)",
+                            request.url().getPath(), attempt + 1, retryAfter.toMillis());
+                    ClientRequest retry = ClientRequest.from(request)
+                            .attribute(SpotifyApiMetricsInterceptor.RETRY_ATTRIBUTE, attempt + 1)
+                            .build();
+                    return response.releaseBody().then(exchange(retry, next, priority, attempt + 1));
+                });
+    }
+
+    private boolean shouldRetry(int attempt, RequestPriority priority, Duration retryAfter) {
+        return attempt < maxRetries
+                && priority != RequestPriority.LOW
+                && retryAfter.compareTo(maxRetryAfter) <= 0
+                && rateLimiter.canWait(priority, retryAfter);
+    }
+
+    private boolean isApiCall(URI uri) {
+        if (apiHost == null || !apiHost.equalsIgnoreCase(uri.getHost())) {
+            return false;
+        }
+        // The simulator serves the accounts endpoints from the API host too; only paths under the API base count.
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        return apiBasePath.isEmpty() || path.startsWith(apiBasePath + "/");
+    }
+
+    RequestPriority priorityOf(HttpRequest request) {
+        return priorityOf(request.getURI(), request.getAttributes().get(PRIORITY_ATTRIBUTE));
+    }
+
+    private RequestPriority priorityOf(URI uri, Object requested) {
+        if (requested instanceof RequestPriority priority) {
+            return priority;
+        }
+        // The signed-in user's own data drives the first screen they see, so it gets the reserved budget.
+        String path = uri.getPath();
+        boolean ownData = path != null && (path.equals(mePath) || path.startsWith(mePath + "/"));
+        return ownData ? RequestPriority.HIGH : RequestPriority.NORMAL;
+    }
+
+    static Duration retryAfterOf(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException ignored) {
+                return DEFAULT_RETRY_AFTER;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.luis.spotify.upstream;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling Spotify when the app-wide rate budget cannot serve a request in time, either because
+ * Spotify answered an earlier call with {@code 429 Retry-After} or because the token bucket is empty.
+ */
+@Getter
+public class SpotifyRateLimitedException extends RuntimeException {
+    private final Duration retryAfter;
+    private final RequestPriority priority;
+
+    public SpotifyRateLimitedException(Duration retryAfter, RequestPriority priority) {
+        super("Spotify rate budget exhausted for " + priority + " request, retry after " + retryAfter.toMillis() + " ms");
+        this.retryAfter = retryAfter;
+        this.priority = priority;
+    }
+}
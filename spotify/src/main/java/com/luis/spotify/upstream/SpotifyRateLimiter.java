@@ -0,0 +1,153 @@
+package com.luis.spotify.upstream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * App-wide request budget for our Spotify client id: a token bucket refilled at a fixed rate, plus a penalty
+ * window opened whenever Spotify answers with {@code 429 Retry-After}.
+ * <p>
+ * Part of the bucket is reserved for {@link RequestPriority#HIGH} calls, so user-facing requests still get through
+ * while background or bulk work is being shed. Each priority waits at most its configured time for a token and is
+ * rejected with {@link SpotifyRateLimitedException} after that.
+ */
+@Slf4j
+public class SpotifyRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final double reservedForHigh;
+    private final long highMaxWaitNanos;
+    private final long normalMaxWaitNanos;
+    private final long lowMaxWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+
+    public SpotifyRateLimiter(double requestsPerSecond, int burst, int reservedForHigh,
+                              Duration highMaxWait, Duration normalMaxWait, Duration lowMaxWait,
+                              MeterRegistry meterRegistry) {
+        this.permitsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.reservedForHigh = Math.min(reservedForHigh, burst - 1);
+        this.highMaxWaitNanos = highMaxWait.toNanos();
+        this.normalMaxWaitNanos = normalMaxWait.toNanos();
+        this.lowMaxWaitNanos = lowMaxWait.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.blockedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Takes one permit for a call of the given priority, waiting up to that priority's limit for it.
+     *
+     * @throws SpotifyRateLimitedException if no permit becomes available in time
+     */
+    public void acquire(RequestPriority priority) {
+        long deadline = System.nanoTime() + maxWaitNanos(priority);
+        while (true) {
+            long now = System.nanoTime();
+            long waitNanos = tryAcquire(priority, now);
+            if (waitNanos == 0) {
+                return;
+            }
+            if (now + waitNanos > deadline) {
+                meterRegistry.counter("spotify.ratelimit.shed", "priority", priority.name()).increment();
+                throw new SpotifyRateLimitedException(Duration.ofNanos(waitNanos), priority);
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SpotifyRateLimitedException(Duration.ofNanos(waitNanos), priority);
+            }
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #acquire} for reactive callers: waits on a timer rather than on the calling
+     * thread and fails with {@link SpotifyRateLimitedException} under the same rules.
+     */
+    public Mono<Void> acquireAsync(RequestPriority priority) {
+        return Mono.defer(() -> acquireBefore(priority, System.nanoTime() + maxWaitNanos(priority)));
+    }
+
+    private Mono<Void> acquireBefore(RequestPriority priority, long deadline) {
+        long now = System.nanoTime();
+        long waitNanos = tryAcquire(priority, now);
+        if (waitNanos == 0) {
+            return Mono.empty();
+        }
+        if (now + waitNanos > deadline) {
+            meterRegistry.counter("spotify.ratelimit.shed", "priority", priority.name()).increment();
+            return Mono.error(new SpotifyRateLimitedException(Duration.ofNanos(waitNanos), priority));
+        }
+        return Mono.delay(Duration.ofNanos(waitNanos)).then(Mono.defer(() -> acquireBefore(priority, deadline)));
+    }
+
+    /**
+     * Whether a call of the given priority would wait {@code wait} for a permit rather than being shed. A retry after
+     * a 429 is only worth sending if its priority can sit out the {@code Retry-After} window.
+     */
+    public boolean canWait(RequestPriority priority, Duration wait) {
+        return wait.toNanos() <= maxWaitNanos(priority);
+    }
+
+    /**
+     * Stops handing out permits until {@code retryAfter} has passed, as requested by a 429 from Spotify.
+     */
+    public void onRetryAfter(Duration retryAfter) {
+        meterRegistry.counter("spotify.ratelimit.throttled").increment();
+        lock.lock();
+        try {
+            long until = System.nanoTime() + retryAfter.toNanos();
+            if (until - blockedUntilNanos > 0) {
+                blockedUntilNanos = until;
+                log.warn("Spotify rate limit hit, pausing upstream calls for {} ms", retryAfter.toMillis());
+            }
+            tokens = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns 0 after taking a permit, or the nanoseconds until one could be available for this priority.
+     */
+    private long tryAcquire(RequestPriority priority, long now) {
+        lock.lock();
+        try {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+
+            if (blockedUntilNanos - now > 0) {
+                return blockedUntilNanos - now;
+            }
+            double floor = priority == RequestPriority.HIGH ? 0 : reservedForHigh;
+            if (tokens - 1 >= floor) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((floor + 1 - tokens) / permitsPerNano));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long maxWaitNanos(RequestPriority priority) {
+        return switch (priority) {
+            case HIGH -> highMaxWaitNanos;
+            case NORMAL -> normalMaxWaitNanos;
+            case LOW -> lowMaxWaitNanos;
+        };
+    }
+}
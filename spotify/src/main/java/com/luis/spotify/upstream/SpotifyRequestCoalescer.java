@@ -0,0 +1,241 @@
+package com.luis.spotify.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lets concurrent identical Spotify GETs share one upstream call. The first request for a key is sent; requests for
+ * the same key that arrive while it is in flight wait for it, up to the read timeout, and each get their own copy of
+ * its buffered response. Working below the caches, it also flattens herds on keys they have not seen yet, or when
+ * they are disabled.
+ * <p>
+ * The key is the method, the API path and the query parameters sorted by name, with {@code market} upper-cased, plus
+ * the {@code Authorization} header, so a response is only ever shared between callers presenting the same token and
+ * one caller's {@code 401} never reaches another. Catalog and search reads all carry the app token, so requests from
+ * different users still share a call. Calls for the signed-in user's own data under {@code /me} and anything sent to
+ * other hosts are never coalesced.
+ * <p>
+ * It must be the outermost interceptor: followers then take no rate-limit permit or bulkhead slot and are not
+ * counted as upstream calls by the metrics interceptor; they show up as {@code spotify.api.coalesced} instead.
+ */
+public class SpotifyRequestCoalescer implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+                                  ExchangeStrategies strategies) {
+
+        ClientHttpResponse toClientHttpResponse() {
+            return new BufferedClientHttpResponse(status, headers, body);
+        }
+
+        ClientResponse toClientResponse() {
+            return ClientResponse.create(status, strategies == null ? ExchangeStrategies.withDefaults() : strategies)
+                    .headers(target -> target.addAll(headers))
+                    .body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))))
+                    .build();
+        }
+    }
+
+    private final ConcurrentMap<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+    private final String apiHost;
+    private final String apiBasePath;
+    private final boolean enabled;
+    private final Duration maxWait;
+
+    public SpotifyRequestCoalescer(MeterRegistry meterRegistry, String apiUri, boolean enabled, Duration maxWait) {
+        this.coalesced = Counter.builder("spotify.api.coalesced")
+                .description("Spotify GETs answered by an identical call already in flight")
+                .register(meterRegistry);
+        URI api = URI.create(apiUri);
+        this.apiHost = api.getHost();
+        this.apiBasePath = api.getPath() == null ? "" : api.getPath().replaceAll("/+$", "");
+        this.enabled = enabled;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String key = keyOf(request.getMethod(), request.getURI(), request.getHeaders());
+        if (key == null) {
+            return execution.execute(request, body);
+        }
+
+        CompletableFuture<SharedResponse> created = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            coalesced.increment();
+            return await(running, maxWait).toClientHttpResponse();
+        }
+
+        try (ClientHttpResponse response = execution.execute(request, body)) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(response.getHeaders());
+            created.complete(new SharedResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers),
+                    response.getBody().readAllBytes(), null));
+        } catch (Throwable e) {
+            // Whatever went wrong, the requests waiting on this call must not be left hanging.
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+        return created.join().toClientHttpResponse();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String key = keyOf(request.method(), request.url(), request.headers());
+        if (key == null) {
+            return next.exchange(request);
+        }
+
+        return Mono.defer(() -> {
+            CompletableFuture<SharedResponse> created = new CompletableFuture<>();
+            CompletableFuture<SharedResponse> running = inFlight.putIfAbsent(key, created);
+            if (running != null) {
+                coalesced.increment();
+            } else {
+                // Detached from the caller so that one subscriber cancelling does not fail the others waiting on it.
+                next.exchange(request)
+                        .flatMap(response -> response.bodyToMono(byte[].class)
+                                .defaultIfEmpty(new byte[0])
+                                .map(bytes -> new SharedResponse(response.statusCode(),
+                                        HttpHeaders.readOnlyHttpHeaders(response.headers().asHttpHeaders()), bytes,
+                                        response.strategies())))
+                        .doFinally(signal -> inFlight.remove(key, created))
+                        .subscribe(created::complete, created::completeExceptionally);
+            }
+            Mono<SharedResponse> shared = running != null
+                    ? Mono.fromFuture(running, true).timeout(maxWait)
+                    : Mono.fromFuture(created, true);
+            return shared.map(SharedResponse::toClientResponse);
+        });
+    }
+
+    String keyOf(HttpMethod method, URI uri, HttpHeaders headers) {
+        if (!enabled || !HttpMethod.GET.equals(method)
+                || apiHost == null || !apiHost.equalsIgnoreCase(uri.getHost())) {
+            return null;
+        }
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath().replaceAll("/{2,}", "/").replaceAll("/$", "");
+        String relative = path.startsWith(apiBasePath + "/") ? path.substring(apiBasePath.length()) : null;
+        if (relative == null || relative.equals("/me") || relative.startsWith("/me/")) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder("GET ").append(path);
+        List<String[]> params = new ArrayList<>();
+        if (uri.getRawQuery() != null) {
+            for (String pair : uri.getRawQuery().split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "" : pair.substring(equals + 1);
+                if (name.equals("market")) {
+                    value = value.toUpperCase(Locale.ROOT);
+                }
+                params.add(new String[]{name, value});
+            }
+        }
+        // A stable sort, so repeated parameters keep their relative order.
+        params.sort(Comparator.comparing(param -> param[0]));
+        char separator = '?';
+        for (String[] param : params) {
+            key.append(separator).append(param[0]).append('=').append(param[1]);
+            separator = '&';
+        }
+
+        String language = headers.getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+        if (language != null) {
+            key.append(" lang=").append(language);
+        }
+        key.append(" auth=").append(headers.getFirst(HttpHeaders.AUTHORIZATION));
+        return key.toString();
+    }
+
+    private static SharedResponse await(CompletableFuture<SharedResponse> future, Duration maxWait)
+            throws IOException {
+        try {
+            return future.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException(
+                    "No response within " + maxWait.toMillis() + " ms from an identical Spotify call");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical Spotify call");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private record BufferedClientHttpResponse(HttpStatusCode status, HttpHeaders headers, byte[] body)
+            implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return status instanceof HttpStatus known ? known.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
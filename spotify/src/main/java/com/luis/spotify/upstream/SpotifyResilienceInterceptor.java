@@ -0,0 +1,132 @@
+package com.luis.spotify.upstream;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Puts every Spotify call behind the bulkhead and circuit breaker of its {@link EndpointFamily}. The bulkhead caps
+ * how many request threads can be tied up in one family at once; the circuit breaker rejects calls outright while
+ * a family is failing or too slow.
+ * <p>
+ * Server errors, I/O errors and slow calls count against the breaker. Client errors such as 404 are ordinary
+ * answers, and rate-limit rejections are the limiter's business, so neither does. It runs inside the
+ * {@link SpotifyRateLimitInterceptor}, so time spent waiting for a permit or a {@code Retry-After} window is not
+ * part of a call's duration and does not hold a bulkhead slot.
+ * <p>
+ * On the reactive {@code WebClient} a permit is only tried, never waited for, since waiting would block an event
+ * loop; the {@code reactive} profile sets the bulkhead wait to zero accordingly.
+ */
+public class SpotifyResilienceInterceptor implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private final Map<EndpointFamily, Bulkhead> bulkheads;
+    private final Map<EndpointFamily, CircuitBreaker> circuitBreakers;
+    private final String apiBasePath;
+    private final String accountsHost;
+
+    public SpotifyResilienceInterceptor(Map<EndpointFamily, Bulkhead> bulkheads,
+                                        Map<EndpointFamily, CircuitBreaker> circuitBreakers,
+                                        String apiUri, String tokenUri) {
+        this.bulkheads = bulkheads;
+        this.circuitBreakers = circuitBreakers;
+        String basePath = URI.create(apiUri).getPath();
+        this.apiBasePath = basePath == null ? "" : basePath.replaceAll("/+$", "");
+        this.accountsHost = URI.create(tokenUri).getHost();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        EndpointFamily family = familyOf(request.getURI());
+        Bulkhead bulkhead = bulkheads.get(family);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+
+        bulkhead.acquirePermission();
+        try {
+            circuitBreaker.acquirePermission();
+            long start = circuitBreaker.getCurrentTimestamp();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                long duration = circuitBreaker.getCurrentTimestamp() - start;
+                if (response.getStatusCode().is5xxServerError()) {
+                    circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                            new HttpServerErrorException(response.getStatusCode()));
+                } else {
+                    circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                }
+                return response;
+            } catch (IOException | RuntimeException e) {
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+                throw e;
+            }
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        EndpointFamily family = familyOf(request.url());
+        Bulkhead bulkhead = bulkheads.get(family);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(family);
+
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquirePermission()) {
+                return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.onComplete();
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+            long start = circuitBreaker.getCurrentTimestamp();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        long duration = circuitBreaker.getCurrentTimestamp() - start;
+                        if (response.statusCode().is5xxServerError()) {
+                            circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                                    new HttpServerErrorException(response.statusCode()));
+                        } else {
+                            circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                        }
+                    })
+                    .doOnError(e -> circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start,
+                            circuitBreaker.getTimestampUnit(), e))
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> bulkhead.onComplete());
+        });
+    }
+
+    EndpointFamily familyOf(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        // Matching the host alone is not enough when the accounts service and the Web API share one (the simulator).
+        if (accountsHost != null && accountsHost.equalsIgnoreCase(uri.getHost())
+                && (apiBasePath.isEmpty() || !path.startsWith(apiBasePath + "/"))) {
+            return EndpointFamily.AUTH;
+        }
+        if (path.startsWith(apiBasePath)) {
+            path = path.substring(apiBasePath.length());
+        }
+        if (path.equals("/search") || path.startsWith("/search/")) {
+            return EndpointFamily.SEARCH;
+        }
+        if (path.equals("/me") || path.startsWith("/me/")) {
+            return EndpointFamily.USER_TOP;
+        }
+        return EndpointFamily.CATALOG;
+    }
+}
@@ -0,0 +1,70 @@
+package com.luis.spotify.upstream;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tells Spotify being unavailable to us (throttled, shed by a bulkhead, or cut off by an open circuit breaker) apart
+ * from a call that simply failed. Lookups may turn a failed call into an empty result, but these errors have to reach
+ * {@code SpotifyUpstreamExceptionHandler}, which answers {@code 503} with {@code Retry-After}; otherwise a throttled
+ * lookup reads as "not found".
+ */
+public final class SpotifyUpstreamErrors {
+
+    private SpotifyUpstreamErrors() {
+    }
+
+    public static boolean isUnavailable(Throwable e) {
+        Throwable cause = unwrap(e);
+        return cause instanceof SpotifyRateLimitedException
+                || cause instanceof HttpClientErrorException.TooManyRequests
+                || cause instanceof WebClientResponseException.TooManyRequests
+                || cause instanceof BulkheadFullException
+                || cause instanceof CallNotPermittedException;
+    }
+
+    /**
+     * Throws the underlying exception, without its {@link CompletionException} wrappers, if it means Spotify is
+     * unavailable. Returns normally otherwise.
+     */
+    public static void rethrowIfUnavailable(Throwable e) {
+        if (isUnavailable(e)) {
+            throw (RuntimeException) unwrap(e);
+        }
+    }
+
+    /**
+     * The HTTP status a failed call would have answered with had it been the whole response. Used where a response
+     * reports failures per part (dashboard and search sections), so clients get a stable code instead of the
+     * exception message.
+     */
+    public static HttpStatus statusOf(Throwable e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof TimeoutException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (isUnavailable(cause)) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        if (cause instanceof RestClientResponseException || cause instanceof WebClientResponseException) {
+            return HttpStatus.BAD_GATEWAY;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
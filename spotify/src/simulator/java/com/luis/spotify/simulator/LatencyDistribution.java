@@ -0,0 +1,101 @@
+package com.luis.spotify.simulator;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * How long the simulator waits before answering a request, parsed from a short spec:
+ * <ul>
+ *     <li>{@code 0}, {@code none} or {@code fixed:80}: always the same number of milliseconds,</li>
+ *     <li>{@code uniform:20-200}: evenly spread between the two bounds,</li>
+ *     <li>{@code lognormal:80,400}: a long-tailed distribution with the given median and p99, which is how real
+ *     upstream latencies tend to look.</li>
+ * </ul>
+ */
+public final class LatencyDistribution {
+
+    /** The 99th percentile of the standard normal distribution. */
+    private static final double Z_99 = 2.326348;
+
+    private enum Kind { FIXED, UNIFORM, LOGNORMAL }
+
+    private final Kind kind;
+    private final double a;
+    private final double b;
+    private final String spec;
+
+    private LatencyDistribution(Kind kind, double a, double b, String spec) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+        this.spec = spec;
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        String trimmed = spec.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.isEmpty() || trimmed.equals("none")) {
+            return new LatencyDistribution(Kind.FIXED, 0, 0, "none");
+        }
+        int colon = trimmed.indexOf(':');
+        String kind = colon < 0 ? "fixed" : trimmed.substring(0, colon);
+        String args = colon < 0 ? trimmed : trimmed.substring(colon + 1);
+        try {
+            switch (kind) {
+                case "fixed" -> {
+                    return new LatencyDistribution(Kind.FIXED, nonNegative(Double.parseDouble(args)), 0, trimmed);
+                }
+                case "uniform" -> {
+                    String[] bounds = args.split("-");
+                    double min = nonNegative(Double.parseDouble(bounds[0]));
+                    double max = Double.parseDouble(bounds[1]);
+                    if (max < min) {
+                        throw new IllegalArgumentException("upper bound below lower bound");
+                    }
+                    return new LatencyDistribution(Kind.UNIFORM, min, max, trimmed);
+                }
+                case "lognormal" -> {
+                    String[] params = args.split(",");
+                    double median = Double.parseDouble(params[0]);
+                    double p99 = Double.parseDouble(params[1]);
+                    if (median <= 0 || p99 < median) {
+                        throw new IllegalArgumentException("need 0 < median <= p99");
+                    }
+                    return new LatencyDistribution(Kind.LOGNORMAL, Math.log(median), Math.log(p99 / median) / Z_99,
+                            trimmed);
+                }
+                default -> throw new IllegalArgumentException("unknown distribution '" + kind + "'");
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid latency spec '" + spec + "' (expected fixed:MS, "
+                    + "uniform:MIN-MAX or lognormal:MEDIAN,P99): " + e.getMessage(), e);
+        }
+    }
+
+    /** Draws one latency in milliseconds. */
+    public long sampleMillis(SplittableRandom random) {
+        return switch (kind) {
+            case FIXED -> Math.round(a);
+            case UNIFORM -> Math.round(a + random.nextDouble() * (b - a));
+            case LOGNORMAL -> Math.round(Math.exp(a + b * gaussian(random)));
+        };
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17.
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    private static double nonNegative(double value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("latency cannot be negative");
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
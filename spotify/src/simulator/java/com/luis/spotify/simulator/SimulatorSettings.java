@@ -0,0 +1,84 @@
+package com.luis.spotify.simulator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Knobs of the {@link SpotifySimulator}. {@link #fromSystemProperties()} reads them from {@code simulator.*} system
+ * properties, which {@code gradle runSpotifySimulator -Psimulator.xxx=...} passes through.
+ *
+ * @param port                 port to listen on, {@code 0} for any free port
+ * @param seed                 seed of the synthetic catalog and of the latency and fault draws
+ * @param artists              number of artists in the catalog; each brings 4 albums of 10 tracks
+ * @param latency              default response latency
+ * @param familyLatency        latency overrides for the {@code search}, {@code catalog}, {@code me} and
+ *                             {@code token} endpoint families
+ * @param rateLimitPerSecond   requests per second the simulator accepts before answering {@code 429};
+ *                             {@code 0} disables the limit
+ * @param tooManyRequestsRate  share of requests answered with an injected {@code 429}
+ * @param retryAfter           {@code Retry-After} sent with every {@code 429}
+ * @param serverErrorRate      share of requests answered with an injected {@code 500}, {@code 502} or {@code 503}
+ * @param tokenTtl             lifetime of issued access tokens
+ * @param nullSearchPlaylists  whether search results contain the {@code null} playlist entries the real API returns
+ * @param loginUser            user id {@code /authorize} logs in without asking
+ */
+public record SimulatorSettings(int port,
+                                long seed,
+                                int artists,
+                                LatencyDistribution latency,
+                                Map<String, LatencyDistribution> familyLatency,
+                                double rateLimitPerSecond,
+                                double tooManyRequestsRate,
+                                Duration retryAfter,
+                                double serverErrorRate,
+                                Duration tokenTtl,
+                                boolean nullSearchPlaylists,
+                                String loginUser) {
+
+    public static final String[] FAMILIES = {"search", "catalog", "me", "token"};
+
+    public static SimulatorSettings defaults() {
+        return new SimulatorSettings(8090, 42, 2000, LatencyDistribution.parse("lognormal:60,400"), Map.of(),
+                0, 0, Duration.ofSeconds(1), 0, Duration.ofHours(1), true, "sim-user-1");
+    }
+
+    public static SimulatorSettings fromSystemProperties() {
+        SimulatorSettings defaults = defaults();
+        Map<String, LatencyDistribution> familyLatency = new HashMap<>();
+        for (String family : FAMILIES) {
+            String spec = System.getProperty("simulator.latency." + family);
+            if (spec != null) {
+                familyLatency.put(family, LatencyDistribution.parse(spec));
+            }
+        }
+        return new SimulatorSettings(
+                Integer.getInteger("simulator.port", defaults.port()),
+                Long.getLong("simulator.seed", defaults.seed()),
+                Integer.getInteger("simulator.artists", defaults.artists()),
+                LatencyDistribution.parse(System.getProperty("simulator.latency", defaults.latency().toString())),
+                Map.copyOf(familyLatency),
+                doubleProperty("simulator.rate-limit.requests-per-second", defaults.rateLimitPerSecond()),
+                doubleProperty("simulator.errors.too-many-requests-rate", defaults.tooManyRequestsRate()),
+                Duration.ofSeconds(Long.getLong("simulator.errors.retry-after-seconds", defaults.retryAfter().toSeconds())),
+                doubleProperty("simulator.errors.server-error-rate", defaults.serverErrorRate()),
+                Duration.ofSeconds(Long.getLong("simulator.token.ttl-seconds", defaults.tokenTtl().toSeconds())),
+                Boolean.parseBoolean(System.getProperty("simulator.search.null-playlists",
+                        String.valueOf(defaults.nullSearchPlaylists()))),
+                System.getProperty("simulator.login-user", defaults.loginUser()));
+    }
+
+    public LatencyDistribution latencyOf(String family) {
+        return familyLatency.getOrDefault(family, latency);
+    }
+
+    public SimulatorSettings withPort(int port) {
+        return new SimulatorSettings(port, seed, artists, latency, familyLatency, rateLimitPerSecond,
+                tooManyRequestsRate, retryAfter, serverErrorRate, tokenTtl, nullSearchPlaylists, loginUser);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,505 @@
+package com.luis.spotify.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.luis.spotify.simulator.SyntheticCatalog.obj;
+
+/**
+ * An offline stand-in for the Spotify Web API and accounts service, for load and latency tests that must not (and
+ * cannot) hit the real API.
+ * <p>
+ * It serves {@code /v1/me}, {@code /v1/me/top/{artists,tracks}}, {@code /v1/search}, {@code /v1/artists/...},
+ * {@code /v1/albums/...} and {@code /v1/tracks/...} from a {@link SyntheticCatalog}, and issues and checks access
+ * tokens on {@code /api/token} ({@code authorization_code}, {@code refresh_token} and {@code client_credentials}
+ * grants) with a configurable lifetime. {@code /authorize} logs a fixed user in without asking, so the OAuth login
+ * works offline too. Responses are held back by a latency drawn per endpoint family, and requests can be answered
+ * with {@code 429} (with {@code Retry-After}) or {@code 5xx} at configurable rates or above a request rate.
+ * <p>
+ * {@code GET /__simulator/stats} returns request counts per route and status, and {@code POST /__simulator/reset}
+ * clears them, so a test can check how many upstream calls the app made.
+ * <p>
+ * Run it with {@code gradle runSpotifySimulator} and start the app with the {@code simulator} profile, or embed it
+ * in a load test through {@link #start()} and {@link #close()}.
+ */
+public final class SpotifySimulator implements AutoCloseable {
+
+    private static final String ACCESS_TOKEN_PREFIX = "sim-at.";
+    private static final String REFRESH_TOKEN_PREFIX = "sim-rt.";
+    private static final String APP_SUBJECT = "~app";
+    private static final String SCOPES = "playlist-read-private user-read-currently-playing user-follow-read user-top-read";
+
+    private record Response(int status, Map<String, String> headers, Object body) {
+        static Response json(int status, Object body) {
+            return new Response(status, Map.of(), body);
+        }
+    }
+
+    private record Route(String family, String template) {}
+
+    private final SimulatorSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final ThreadLocal<SplittableRandom> random;
+    private final Object rateLimitLock = new Object();
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ScheduledExecutorService responder;
+    private SyntheticCatalog catalog;
+    private double rateLimitTokens;
+    private long rateLimitRefilledAt;
+
+    public SpotifySimulator(SimulatorSettings settings) {
+        this.settings = settings;
+        SplittableRandom seeded = new SplittableRandom(settings.seed());
+        this.random = ThreadLocal.withInitial(() -> {
+            synchronized (seeded) {
+                return seeded.split();
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        SpotifySimulator simulator = new SpotifySimulator(SimulatorSettings.fromSystemProperties()).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close));
+        SimulatorSettings settings = simulator.settings;
+        System.out.printf(Locale.ROOT, "Spotify simulator listening on %s%n", simulator.baseUrl());
+        System.out.printf(Locale.ROOT, "  catalog: %d artists (seed %d), e.g. artist %s, album %s%n",
+                settings.artists(), settings.seed(), simulator.catalog().artistId(0), simulator.catalog().albumId(0));
+        System.out.printf(Locale.ROOT, "  latency: %s %s, token ttl %ds%n", settings.latency(),
+                settings.familyLatency(), settings.tokenTtl().toSeconds());
+        System.out.printf(Locale.ROOT, "  faults: 429 rate %.3f, 5xx rate %.3f, rate limit %s req/s, Retry-After %ds%n",
+                settings.tooManyRequestsRate(), settings.serverErrorRate(),
+                settings.rateLimitPerSecond() > 0 ? settings.rateLimitPerSecond() : "no",
+                settings.retryAfter().toSeconds());
+        System.out.println("Start the app with SPRING_PROFILES_ACTIVE=simulator (SPOTIFY_SIMULATOR_URL="
+                + simulator.baseUrl() + ") to use it.");
+    }
+
+    public SpotifySimulator start() throws IOException {
+        // Headers and body go out in separate writes; without TCP_NODELAY every call waits on a delayed ACK.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port()), 4096);
+        catalog = new SyntheticCatalog(settings.seed(), settings.artists(),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1");
+        handlers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        responder = Executors.newScheduledThreadPool(4);
+        rateLimitTokens = settings.rateLimitPerSecond();
+        rateLimitRefilledAt = System.nanoTime();
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            responder.shutdownNow();
+            handlers.shutdownNow();
+            server = null;
+        }
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    public SyntheticCatalog catalog() {
+        return catalog;
+    }
+
+    /** Issues an access token for {@code userId} as the token endpoint would, e.g. to seed a load test. */
+    public String issueAccessToken(String userId) {
+        return accessToken(userId);
+    }
+
+    public String issueRefreshToken(String userId) {
+        return REFRESH_TOKEN_PREFIX + encode(userId);
+    }
+
+    /** Request counts keyed by {@code "METHOD /route/template STATUS"}. */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    public void resetRequestCounts() {
+        requestCounts.clear();
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseForm(exchange.getRequestURI().getRawQuery());
+
+            if (path.startsWith("/__simulator/")) {
+                Response response = admin(method, path);
+                send(exchange, response);
+                return;
+            }
+            if (path.equals("/authorize")) {
+                send(exchange, authorize(query));
+                return;
+            }
+
+            Route route = routeOf(method, path);
+            Response response = route == null
+                    ? apiError(404, "Service not found")
+                    : respond(exchange, route, path, query);
+            String template = route == null ? "unknown" : route.template();
+            requestCounts.computeIfAbsent(method + " " + template + " " + response.status(), key -> new LongAdder())
+                    .increment();
+
+            long latencyMs = route == null ? 0 : settings.latencyOf(route.family()).sampleMillis(random.get());
+            if (latencyMs <= 0) {
+                send(exchange, response);
+            } else {
+                responder.schedule(() -> send(exchange, response), latencyMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException | IOException e) {
+            send(exchange, apiError(500, "Simulator failure: " + e));
+        }
+    }
+
+    private Response respond(HttpExchange exchange, Route route, String path, Map<String, String> query)
+            throws IOException {
+        Response fault = injectedFault();
+        if (fault != null) {
+            return fault;
+        }
+        if (route.family().equals("token")) {
+            return token(exchange);
+        }
+
+        String subject = subjectOf(exchange.getRequestHeaders().getFirst("Authorization"));
+        if (subject == null || subject.startsWith("!")) {
+            return apiError(401, subject == null ? "No token provided" : subject.substring(1));
+        }
+        if (route.family().equals("me") && subject.equals(APP_SUBJECT)) {
+            return apiError(403, "Client credentials tokens cannot access user data");
+        }
+
+        String[] segments = path.substring(1).split("/");
+        int limit = intParameter(query, "limit", 20);
+        int offset = intParameter(query, "offset", 0);
+        if (limit < 1 || limit > 50 || offset < 0) {
+            return apiError(400, "Invalid limit or offset");
+        }
+        return switch (route.template()) {
+            case "/v1/me" -> Response.json(200, catalog.userProfile(subject));
+            case "/v1/me/top/artists" -> Response.json(200, catalog.userTop(subject, "artists", limit, offset));
+            case "/v1/me/top/tracks" -> Response.json(200, catalog.userTop(subject, "tracks", limit, offset));
+            case "/v1/search" -> search(query, limit, offset);
+            case "/v1/artists", "/v1/albums", "/v1/tracks" -> multiGet(segments[1], query.get("ids"));
+            case "/v1/artists/{id}" -> entity("artist", segments[2], catalog.artist(segments[2]));
+            case "/v1/artists/{id}/top-tracks" -> entity("artist", segments[2], catalog.artistTopTracks(segments[2]));
+            case "/v1/artists/{id}/albums" ->
+                    entity("artist", segments[2], catalog.artistAlbums(segments[2], limit, offset));
+            case "/v1/albums/{id}" -> entity("album", segments[2], catalog.album(segments[2]));
+            case "/v1/tracks/{id}" -> entity("track", segments[2], catalog.track(segments[2]));
+            default -> apiError(404, "Service not found");
+        };
+    }
+
+    private static Route routeOf(String method, String path) {
+        String[] segments = path.substring(1).split("/");
+        if (method.equals("POST") && path.equals("/api/token")) {
+            return new Route("token", "/api/token");
+        }
+        if (!method.equals("GET") || segments.length < 2 || !segments[0].equals("v1")) {
+            return null;
+        }
+        String resource = segments[1];
+        return switch (segments.length) {
+            case 2 -> switch (resource) {
+                case "me" -> new Route("me", "/v1/me");
+                case "search" -> new Route("search", "/v1/search");
+                case "artists", "albums", "tracks" -> new Route("catalog", "/v1/" + resource);
+                default -> null;
+            };
+            case 3 -> switch (resource) {
+                case "artists", "albums", "tracks" -> new Route("catalog", "/v1/" + resource + "/{id}");
+                default -> null;
+            };
+            case 4 -> {
+                if (resource.equals("me") && segments[2].equals("top")
+                        && (segments[3].equals("artists") || segments[3].equals("tracks"))) {
+                    yield new Route("me", "/v1/me/top/" + segments[3]);
+                }
+                if (resource.equals("artists") && (segments[3].equals("top-tracks") || segments[3].equals("albums"))) {
+                    yield new Route("catalog", "/v1/artists/{id}/" + segments[3]);
+                }
+                yield null;
+            }
+            default -> null;
+        };
+    }
+
+    /** A rate-limit or randomly injected error response, or {@code null} to serve the request normally. */
+    private Response injectedFault() {
+        if (settings.rateLimitPerSecond() > 0 && !takeRateLimitToken()) {
+            return tooManyRequests();
+        }
+        SplittableRandom draw = random.get();
+        if (settings.tooManyRequestsRate() > 0 && draw.nextDouble() < settings.tooManyRequestsRate()) {
+            return tooManyRequests();
+        }
+        if (settings.serverErrorRate() > 0 && draw.nextDouble() < settings.serverErrorRate()) {
+            int status = new int[] {500, 502, 503}[draw.nextInt(3)];
+            return apiError(status, status == 503 ? "Service unavailable" : "Server error");
+        }
+        return null;
+    }
+
+    private boolean takeRateLimitToken() {
+        synchronized (rateLimitLock) {
+            long now = System.nanoTime();
+            double perSecond = settings.rateLimitPerSecond();
+            rateLimitTokens = Math.min(perSecond, rateLimitTokens + (now - rateLimitRefilledAt) / 1e9 * perSecond);
+            rateLimitRefilledAt = now;
+            if (rateLimitTokens >= 1) {
+                rateLimitTokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private Response tooManyRequests() {
+        return new Response(429, Map.of("Retry-After", String.valueOf(settings.retryAfter().toSeconds())),
+                obj("error", obj("status", 429, "message", "API rate limit exceeded")));
+    }
+
+    private Response search(Map<String, String> query, int limit, int offset) {
+        String q = query.get("q");
+        if (q == null || q.isBlank()) {
+            return apiError(400, "No search query");
+        }
+        if (query.get("type") == null) {
+            return apiError(400, "Missing parameter type");
+        }
+        return Response.json(200, catalog.search(q, SyntheticCatalog.types(query.get("type")), limit, offset,
+                settings.nullSearchPlaylists()));
+    }
+
+    private Response multiGet(String resource, String ids) {
+        if (ids == null || ids.isBlank()) {
+            return apiError(400, "Missing parameter ids");
+        }
+        String[] requested = ids.split(",");
+        if (requested.length > (resource.equals("albums") ? 20 : 50)) {
+            return apiError(400, "Too many ids requested");
+        }
+        List<Object> items = new ArrayList<>();
+        for (String id : requested) {
+            items.add(switch (resource) {
+                case "artists" -> catalog.artist(id);
+                case "albums" -> catalog.album(id);
+                default -> catalog.track(id);
+            });
+        }
+        return Response.json(200, obj(resource, items));
+    }
+
+    private static Response entity(String type, String id, Object entity) {
+        if (!id.matches("[0-9A-Za-z]{22}")) {
+            return apiError(400, "Invalid base62 id");
+        }
+        return entity == null
+                ? apiError(404, "Non existing id: 'spotify:" + type + ":" + id + "'")
+                : Response.json(200, entity);
+    }
+
+    private Response token(HttpExchange exchange) throws IOException {
+        Map<String, String> form;
+        try (InputStream body = exchange.getRequestBody()) {
+            form = parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if ((authorization == null || !authorization.startsWith("Basic ")) && form.get("client_id") == null) {
+            return accountsError(400, "invalid_client", "Invalid client");
+        }
+
+        String grantType = form.getOrDefault("grant_type", "");
+        return switch (grantType) {
+            case "authorization_code" -> {
+                String code = form.get("code");
+                if (code == null || code.isBlank()) {
+                    yield accountsError(400, "invalid_grant", "Invalid authorization code");
+                }
+                yield tokenResponse(code, true);
+            }
+            case "refresh_token" -> {
+                String refreshToken = form.getOrDefault("refresh_token", "");
+                String userId = refreshToken.startsWith(REFRESH_TOKEN_PREFIX)
+                        ? decode(refreshToken.substring(REFRESH_TOKEN_PREFIX.length()))
+                        : null;
+                // Like Spotify, a refresh usually does not rotate the refresh token.
+                yield userId == null
+                        ? accountsError(400, "invalid_grant", "Invalid refresh token")
+                        : tokenResponse(userId, false);
+            }
+            case "client_credentials" -> tokenResponse(APP_SUBJECT, false);
+            default -> accountsError(400, "unsupported_grant_type",
+                    "grant_type parameter is missing or not supported");
+        };
+    }
+
+    private Response tokenResponse(String subject, boolean withRefreshToken) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", accessToken(subject));
+        body.put("token_type", "Bearer");
+        body.put("expires_in", settings.tokenTtl().toSeconds());
+        if (withRefreshToken) {
+            body.put("refresh_token", issueRefreshToken(subject));
+        }
+        if (!subject.equals(APP_SUBJECT)) {
+            body.put("scope", SCOPES);
+        }
+        return Response.json(200, body);
+    }
+
+    private String accessToken(String subject) {
+        long expiresAt = Instant.now().plus(settings.tokenTtl()).getEpochSecond();
+        return ACCESS_TOKEN_PREFIX + encode(subject) + "." + expiresAt;
+    }
+
+    /**
+     * The user (or app) an access token was issued to, {@code null} without a bearer token, or {@code "!"} followed
+     * by the error message for a token the real API would reject.
+     */
+    private static String subjectOf(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String token = authorization.substring(7);
+        int dot = token.lastIndexOf('.');
+        if (!token.startsWith(ACCESS_TOKEN_PREFIX) || dot <= ACCESS_TOKEN_PREFIX.length()) {
+            return "!Invalid access token";
+        }
+        try {
+            long expiresAt = Long.parseLong(token.substring(dot + 1));
+            if (Instant.now().getEpochSecond() >= expiresAt) {
+                return "!The access token expired";
+            }
+            return decode(token.substring(ACCESS_TOKEN_PREFIX.length(), dot));
+        } catch (IllegalArgumentException e) {
+            return "!Invalid access token";
+        }
+    }
+
+    private Response authorize(Map<String, String> query) {
+        String redirectUri = query.get("redirect_uri");
+        if (redirectUri == null) {
+            return accountsError(400, "invalid_request", "Missing redirect_uri");
+        }
+        String location = redirectUri + (redirectUri.contains("?") ? "&" : "?")
+                + "code=" + URLEncoder.encode(settings.loginUser(), StandardCharsets.UTF_8)
+                + (query.get("state") != null ? "&state=" + URLEncoder.encode(query.get("state"), StandardCharsets.UTF_8) : "");
+        requestCounts.computeIfAbsent("GET /authorize 302", key -> new LongAdder()).increment();
+        return new Response(302, Map.of("Location", location), null);
+    }
+
+    private Response admin(String method, String path) {
+        if (method.equals("GET") && path.equals("/__simulator/stats")) {
+            Map<String, Long> counts = requestCounts();
+            long total = counts.values().stream().mapToLong(Long::longValue).sum();
+            return Response.json(200, obj("total", total, "requests", counts));
+        }
+        if (method.equals("POST") && path.equals("/__simulator/reset")) {
+            resetRequestCounts();
+            return new Response(204, Map.of(), null);
+        }
+        return apiError(404, "Service not found");
+    }
+
+    private static Response apiError(int status, String message) {
+        return Response.json(status, obj("error", obj("status", status, "message", message)));
+    }
+
+    private static Response accountsError(int status, String error, String description) {
+        return Response.json(status, obj("error", error, "error_description", description));
+    }
+
+    private void send(HttpExchange exchange, Response response) {
+        try (exchange) {
+            response.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+            if (response.body() == null) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            byte[] body = objectMapper.writeValueAsBytes(response.body());
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // The client gave up on this call; nothing left to answer.
+        }
+    }
+
+    private static Map<String, String> parseForm(String raw) {
+        Map<String, String> parameters = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(name, value);
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        try {
+            return query.containsKey(name) ? Integer.parseInt(query.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,433 @@
+package com.luis.spotify.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * A deterministic, made-up Spotify catalog: the same seed always yields the same artists, albums and tracks with
+ * the same ids, so recorded runs can be replayed. Every artist has {@value #ALBUMS_PER_ARTIST} albums of
+ * {@value #TRACKS_PER_ALBUM} tracks. Objects are returned as JSON-ready maps in the shape and, including the long
+ * {@code available_markets} lists, roughly the size of real Spotify Web API responses.
+ */
+public final class SyntheticCatalog {
+
+    static final int ALBUMS_PER_ARTIST = 4;
+    static final int TRACKS_PER_ALBUM = 10;
+
+    private static final char[] BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final List<String> MARKETS = List.of(
+            "AD", "AE", "AR", "AT", "AU", "BE", "BG", "BO", "BR", "CA", "CH", "CL", "CO", "CR", "CY", "CZ", "DE",
+            "DK", "DO", "EC", "EE", "ES", "FI", "FR", "GB", "GR", "GT", "HK", "HN", "HU", "ID", "IE", "IL", "IN",
+            "IS", "IT", "JP", "KR", "LI", "LT", "LU", "LV", "MC", "MT", "MX", "MY", "NI", "NL", "NO", "NZ", "PA",
+            "PE", "PH", "PL", "PT", "PY", "RO", "SE", "SG", "SK", "SV", "TH", "TR", "TW", "US", "UY", "VN", "ZA");
+
+    private static final String[] ARTIST_FIRST = {
+            "The", "Velvet", "Neon", "Silver", "Midnight", "Golden", "Electric", "Crimson", "Lunar", "Paper",
+            "Static", "Wild", "Hollow", "Northern", "Glass", "Echo", "Radio", "Analog", "Taylor", "Arctic"};
+    private static final String[] ARTIST_SECOND = {
+            "Echoes", "Foxes", "Harbor", "Lights", "Parade", "Tides", "Wolves", "Avenue", "Garden", "Signals",
+            "Swift", "Hearts", "Monkeys", "Rivers", "Machines", "Ghosts", "Kings", "Satellites", "Dreamers", "Union"};
+    private static final String[] TITLE_WORDS = {
+            "Blue", "Summer", "Night", "Drive", "Fire", "Ocean", "Heart", "City", "Love", "Shadow", "Gold", "Rain",
+            "Stars", "Morning", "Dance", "Home", "Wire", "Storm", "Echo", "Light", "Youth", "Highway", "Mirror",
+            "Forever"};
+    private static final String[] PLAYLIST_SUFFIXES = {
+            "Mix", "Radio", "Essentials", "Hits", "Deep Cuts", "Workout", "Chill", "Live", "Acoustic", "Covers"};
+    private static final String[] GENRES = {
+            "indie rock", "synthpop", "alt z", "dance pop", "dream pop", "modern rock", "electropop", "indie folk"};
+    private static final String[] COUNTRIES = {"US", "GB", "DE", "ES", "MX", "BR", "SE", "JP"};
+
+    private final long seed;
+    private final String apiBaseUrl;
+    private final String[] artistIds;
+    private final String[] albumIds;
+    private final String[] trackIds;
+    private final String[] artistNames;
+    private final String[] albumNames;
+    private final Map<String, Integer> artistIndex = new HashMap<>();
+    private final Map<String, Integer> albumIndex = new HashMap<>();
+    private final Map<String, Integer> trackIndex = new HashMap<>();
+
+    public SyntheticCatalog(long seed, int artistCount, String apiBaseUrl) {
+        this.seed = seed;
+        this.apiBaseUrl = apiBaseUrl;
+        this.artistIds = new String[artistCount];
+        this.albumIds = new String[artistCount * ALBUMS_PER_ARTIST];
+        this.trackIds = new String[albumIds.length * TRACKS_PER_ALBUM];
+        this.artistNames = new String[artistCount];
+        this.albumNames = new String[albumIds.length];
+        for (int i = 0; i < artistIds.length; i++) {
+            artistIds[i] = spotifyId("artist", i);
+            artistIndex.put(artistIds[i], i);
+            artistNames[i] = ARTIST_FIRST[i % ARTIST_FIRST.length] + " "
+                    + ARTIST_SECOND[(i / ARTIST_FIRST.length + i) % ARTIST_SECOND.length]
+                    + (i >= ARTIST_FIRST.length * ARTIST_SECOND.length ? " " + (i / 400 + 1) : "");
+        }
+        for (int i = 0; i < albumIds.length; i++) {
+            albumIds[i] = spotifyId("album", i);
+            albumIndex.put(albumIds[i], i);
+            albumNames[i] = title(random("album-name", i), 2);
+        }
+        for (int i = 0; i < trackIds.length; i++) {
+            trackIds[i] = spotifyId("track", i);
+            trackIndex.put(trackIds[i], i);
+        }
+    }
+
+    public int artistCount() {
+        return artistIds.length;
+    }
+
+    public String artistId(int index) {
+        return artistIds[Math.floorMod(index, artistIds.length)];
+    }
+
+    public String albumId(int index) {
+        return albumIds[Math.floorMod(index, albumIds.length)];
+    }
+
+    public String trackId(int index) {
+        return trackIds[Math.floorMod(index, trackIds.length)];
+    }
+
+    public Map<String, Object> artist(String id) {
+        Integer index = artistIndex.get(id);
+        return index == null ? null : fullArtist(index);
+    }
+
+    public Map<String, Object> album(String id) {
+        Integer index = albumIndex.get(id);
+        return index == null ? null : fullAlbum(index);
+    }
+
+    public Map<String, Object> track(String id) {
+        Integer index = trackIndex.get(id);
+        return index == null ? null : fullTrack(index);
+    }
+
+    /** An artist's ten most popular tracks, as returned by {@code /artists/{id}/top-tracks}. */
+    public Map<String, Object> artistTopTracks(String artistId) {
+        Integer index = artistIndex.get(artistId);
+        if (index == null) {
+            return null;
+        }
+        List<Object> tracks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int album = index * ALBUMS_PER_ARTIST + i % ALBUMS_PER_ARTIST;
+            tracks.add(fullTrack(album * TRACKS_PER_ALBUM + i / ALBUMS_PER_ARTIST * 3));
+        }
+        return obj("tracks", tracks);
+    }
+
+    /** A page of an artist's albums, as returned by {@code /artists/{id}/albums}. */
+    public Map<String, Object> artistAlbums(String artistId, int limit, int offset) {
+        Integer index = artistIndex.get(artistId);
+        if (index == null) {
+            return null;
+        }
+        List<Object> albums = new ArrayList<>();
+        for (int i = offset; i < Math.min(ALBUMS_PER_ARTIST, offset + limit); i++) {
+            albums.add(simplifiedAlbum(index * ALBUMS_PER_ARTIST + i));
+        }
+        return page(apiBaseUrl + "/artists/" + artistId + "/albums", albums, limit, offset, ALBUMS_PER_ARTIST);
+    }
+
+    public Map<String, Object> userProfile(String userId) {
+        int hash = Math.floorMod(userId.hashCode(), 1_000_000);
+        return obj(
+                "country", COUNTRIES[hash % COUNTRIES.length],
+                "display_name", "Simulated User " + userId,
+                "email", userId + "@simulator.local",
+                "explicit_content", obj("filter_enabled", false, "filter_locked", false),
+                "external_urls", obj("spotify", "https://open.spotify.com/user/" + userId),
+                "followers", obj("href", null, "total", hash % 500),
+                "href", apiBaseUrl + "/users/" + userId,
+                "id", userId,
+                "images", images("user", hash),
+                "product", hash % 4 == 0 ? "free" : "premium",
+                "type", "user",
+                "uri", "spotify:user:" + userId);
+    }
+
+    /** A user's top artists or tracks; each user gets a stable selection of their own. */
+    public Map<String, Object> userTop(String userId, String type, int limit, int offset) {
+        SplittableRandom random = random("top-" + type + ":" + userId, 0);
+        int start = random.nextInt(artistIds.length);
+        List<Object> items = new ArrayList<>();
+        for (int i = offset; i < offset + limit && i < 50; i++) {
+            int artist = Math.floorMod(start + i * 7, artistIds.length);
+            items.add(type.equals("artists")
+                    ? fullArtist(artist)
+                    : fullTrack((artist * ALBUMS_PER_ARTIST + i % ALBUMS_PER_ARTIST) * TRACKS_PER_ALBUM + i % 3));
+        }
+        return page(apiBaseUrl + "/me/top/" + type, items, limit, offset, 50);
+    }
+
+    /**
+     * Search by a case-insensitive substring of artist and album names. Tracks come from the matching albums and
+     * artists; queries that match nothing still get a stable set of loosely related results, as Spotify's fuzzy
+     * search would. When {@code nullPlaylists} is set, every fifth playlist slot is {@code null}, which the real API
+     * is known to return.
+     */
+    public Map<String, Object> search(String query, Set<String> types, int limit, int offset, boolean nullPlaylists) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<Integer> artists = new ArrayList<>();
+        List<Integer> albums = new ArrayList<>();
+        if (!needle.isEmpty()) {
+            for (int i = 0; i < artistNames.length; i++) {
+                if (artistNames[i].toLowerCase(Locale.ROOT).contains(needle)) {
+                    artists.add(i);
+                }
+            }
+            for (int i = 0; i < albumNames.length; i++) {
+                if (albumNames[i].toLowerCase(Locale.ROOT).contains(needle)) {
+                    albums.add(i);
+                }
+            }
+        }
+        if (artists.isEmpty() && albums.isEmpty()) {
+            SplittableRandom random = random("search:" + needle, 0);
+            for (int i = 0; i < 50; i++) {
+                artists.add(random.nextInt(artistIds.length));
+                albums.add(random.nextInt(albumIds.length));
+            }
+        }
+        Set<Integer> tracks = new LinkedHashSet<>();
+        for (int album : albums) {
+            if (tracks.size() >= 100) {
+                break;
+            }
+            tracks.add(album * TRACKS_PER_ALBUM);
+            tracks.add(album * TRACKS_PER_ALBUM + 1);
+        }
+        for (int artist : artists) {
+            if (tracks.size() >= 200) {
+                break;
+            }
+            tracks.add(artist * ALBUMS_PER_ARTIST * TRACKS_PER_ALBUM);
+        }
+
+        String href = apiBaseUrl + "/search?q=" + needle.replace(' ', '+');
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (types.contains("album")) {
+            response.put("albums", page(href + "&type=album",
+                    slice(albums, limit, offset, this::simplifiedAlbum), limit, offset, albums.size()));
+        }
+        if (types.contains("artist")) {
+            response.put("artists", page(href + "&type=artist",
+                    slice(artists, limit, offset, this::fullArtist), limit, offset, artists.size()));
+        }
+        if (types.contains("playlist")) {
+            List<Object> playlists = new ArrayList<>();
+            for (int i = offset; i < offset + limit; i++) {
+                playlists.add(nullPlaylists && i % 5 == 4 ? null : playlist(needle, i));
+            }
+            response.put("playlists", page(href + "&type=playlist", playlists, limit, offset, 1000));
+        }
+        if (types.contains("track")) {
+            List<Integer> trackList = new ArrayList<>(tracks);
+            response.put("tracks", page(href + "&type=track",
+                    slice(trackList, limit, offset, this::fullTrack), limit, offset, trackList.size()));
+        }
+        return response;
+    }
+
+    private static List<Object> slice(List<Integer> indexes, int limit, int offset,
+                                      IntFunction<Object> render) {
+        List<Object> items = new ArrayList<>();
+        for (int i = offset; i < Math.min(indexes.size(), offset + limit); i++) {
+            items.add(render.apply(indexes.get(i)));
+        }
+        return items;
+    }
+
+    private Map<String, Object> fullArtist(int index) {
+        SplittableRandom random = random("artist", index);
+        Map<String, Object> artist = simplifiedArtist(index);
+        artist.put("followers", obj("href", null, "total", random.nextInt(5_000_000)));
+        artist.put("genres", List.of(GENRES[random.nextInt(GENRES.length)], GENRES[random.nextInt(GENRES.length)]));
+        artist.put("images", images("artist", index));
+        artist.put("popularity", 20 + random.nextInt(80));
+        return artist;
+    }
+
+    private Map<String, Object> simplifiedArtist(int index) {
+        String id = artistIds[index];
+        return obj(
+                "external_urls", obj("spotify", "https://open.spotify.com/artist/" + id),
+                "href", apiBaseUrl + "/artists/" + id,
+                "id", id,
+                "name", artistNames[index],
+                "type", "artist",
+                "uri", "spotify:artist:" + id);
+    }
+
+    private Map<String, Object> fullAlbum(int index) {
+        Map<String, Object> album = simplifiedAlbum(index);
+        List<Object> tracks = new ArrayList<>();
+        for (int i = 0; i < TRACKS_PER_ALBUM; i++) {
+            tracks.add(simplifiedTrack(index * TRACKS_PER_ALBUM + i));
+        }
+        String id = albumIds[index];
+        album.put("tracks", page(apiBaseUrl + "/albums/" + id + "/tracks", tracks, 50, 0, TRACKS_PER_ALBUM));
+        album.put("copyrights", List.of(
+                obj("text", "(C) " + releaseYear(index) + " Simulated Records", "type", "C"),
+                obj("text", "(P) " + releaseYear(index) + " Simulated Records", "type", "P")));
+        album.put("external_ids", obj("upc", String.format(Locale.ROOT, "%012d", (long) index * 7919 + 100_000)));
+        album.put("genres", List.of());
+        album.put("label", "Simulated Records");
+        album.put("popularity", 10 + random("album", index).nextInt(90));
+        return album;
+    }
+
+    private Map<String, Object> simplifiedAlbum(int index) {
+        String id = albumIds[index];
+        return obj(
+                "album_type", index % ALBUMS_PER_ARTIST == 3 ? "single" : "album",
+                "total_tracks", TRACKS_PER_ALBUM,
+                "available_markets", MARKETS,
+                "external_urls", obj("spotify", "https://open.spotify.com/album/" + id),
+                "href", apiBaseUrl + "/albums/" + id,
+                "id", id,
+                "images", images("album", index),
+                "name", albumNames[index],
+                "release_date", releaseYear(index) + "-" + String.format(Locale.ROOT, "%02d-%02d",
+                        index % 12 + 1, index % 28 + 1),
+                "release_date_precision", "day",
+                "type", "album",
+                "uri", "spotify:album:" + id,
+                "artists", List.of(simplifiedArtist(index / ALBUMS_PER_ARTIST)));
+    }
+
+    private Map<String, Object> fullTrack(int index) {
+        Map<String, Object> track = simplifiedTrack(index);
+        track.put("album", simplifiedAlbum(index / TRACKS_PER_ALBUM));
+        track.put("external_ids", obj("isrc", String.format(Locale.ROOT, "QZSIM%07d", index)));
+        track.put("popularity", random("track", index).nextInt(100));
+        return track;
+    }
+
+    private Map<String, Object> simplifiedTrack(int index) {
+        String id = trackIds[index];
+        SplittableRandom random = random("track", index);
+        return obj(
+                "artists", List.of(simplifiedArtist(index / TRACKS_PER_ALBUM / ALBUMS_PER_ARTIST)),
+                "available_markets", MARKETS,
+                "disc_number", 1,
+                "duration_ms", 120_000 + random.nextInt(240_000),
+                "explicit", random.nextInt(5) == 0,
+                "external_urls", obj("spotify", "https://open.spotify.com/track/" + id),
+                "href", apiBaseUrl + "/tracks/" + id,
+                "id", id,
+                "is_local", false,
+                "name", title(random("track-name", index), 1 + index % 3),
+                "preview_url", null,
+                "track_number", index % TRACKS_PER_ALBUM + 1,
+                "type", "track",
+                "uri", "spotify:track:" + id);
+    }
+
+    private Map<String, Object> playlist(String query, int position) {
+        String id = spotifyId("playlist:" + query, position);
+        String ownerId = "sim-curator-" + Math.floorMod(id.hashCode(), 100);
+        String name = (query.isEmpty() ? "Simulated" : capitalize(query)) + " "
+                + PLAYLIST_SUFFIXES[position % PLAYLIST_SUFFIXES.length];
+        return obj(
+                "collaborative", false,
+                "description", "The best of " + name + ", updated weekly.",
+                "external_urls", obj("spotify", "https://open.spotify.com/playlist/" + id),
+                "href", apiBaseUrl + "/playlists/" + id,
+                "id", id,
+                "images", List.of(obj("height", null, "url", "https://simulator.local/image/playlist/" + id,
+                        "width", null)),
+                "name", name,
+                "owner", obj(
+                        "display_name", "Curator " + ownerId.substring(12),
+                        "external_urls", obj("spotify", "https://open.spotify.com/user/" + ownerId),
+                        "href", apiBaseUrl + "/users/" + ownerId,
+                        "id", ownerId,
+                        "type", "user",
+                        "uri", "spotify:user:" + ownerId),
+                "public", true,
+                "snapshot_id", spotifyId("snapshot:" + id, 0),
+                "tracks", obj("href", apiBaseUrl + "/playlists/" + id + "/tracks", "total", 20 + position * 3),
+                "type", "playlist",
+                "uri", "spotify:playlist:" + id);
+    }
+
+    private static List<Object> images(String kind, int index) {
+        String base = "https://simulator.local/image/" + kind + "/" + index + "/";
+        return List.of(
+                obj("height", 640, "url", base + "640", "width", 640),
+                obj("height", 300, "url", base + "300", "width", 300),
+                obj("height", 64, "url", base + "64", "width", 64));
+    }
+
+    private Map<String, Object> page(String href, List<Object> items, int limit, int offset, int total) {
+        return obj(
+                "href", href + (href.contains("?") ? "&" : "?") + "offset=" + offset + "&limit=" + limit,
+                "items", items,
+                "limit", limit,
+                "next", offset + limit < total
+                        ? href + (href.contains("?") ? "&" : "?") + "offset=" + (offset + limit) + "&limit=" + limit
+                        : null,
+                "offset", offset,
+                "previous", null,
+                "total", total);
+    }
+
+    private int releaseYear(int albumIndex) {
+        return 1990 + Math.floorMod(albumIndex * 31, 35);
+    }
+
+    private static String title(SplittableRandom random, int words) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private SplittableRandom random(String kind, int index) {
+        return new SplittableRandom(seed * 31 + kind.hashCode() * 1_000_003L + index);
+    }
+
+    private String spotifyId(String kind, int index) {
+        SplittableRandom random = random("id:" + kind, index);
+        char[] id = new char[22];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = BASE62[random.nextInt(BASE62.length)];
+        }
+        return new String(id);
+    }
+
+    /** Builds an ordered JSON object from alternating keys and values; {@code null} values are kept. */
+    static Map<String, Object> obj(Object... keysAndValues) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            object.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return object;
+    }
+
+    static Set<String> types(String typeParameter) {
+        return new LinkedHashSet<>(Arrays.asList(typeParameter == null ? new String[0] : typeParameter.split(",")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.luis.spotify.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private AsyncCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = Caffeine.newBuilder().buildAsync();
+    }
+
+    @Test
+    void givenLoaderThrowsError_whenGet_thenFailSharedFutureAndLoadAgainNextTime() {
+        // given
+        AtomicReference<CompletableFuture<String>> shared = new AtomicReference<>();
+
+        // when
+        assertThrows(StackOverflowError.class, () -> SingleFlight.get(cache, "key", () -> {
+            shared.set(cache.getIfPresent("key"));
+            throw new StackOverflowError();
+        }));
+
+        // then
+        assertTrue(shared.get().isCompletedExceptionally());
+        ExecutionException waiterFailure =
+                assertThrows(ExecutionException.class, () -> shared.get().get(1, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, waiterFailure.getCause());
+        assertEquals("loaded", SingleFlight.get(cache, "key", () -> "loaded"));
+    }
+
+    @Test
+    void givenLoaderThrowsErrorInsteadOfReturningFuture_whenGetAsync_thenFailReturnedFutureAndLoadAgainNextTime()
+            throws Exception {
+        // when
+        CompletableFuture<String> result = SingleFlight.getAsync(cache, "key", () -> {
+            throw new StackOverflowError();
+        });
+
+        // then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+        assertEquals("loaded", SingleFlight.getAsync(cache, "key",
+                () -> CompletableFuture.completedFuture("loaded")).get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,214 @@
+package com.luis.spotify.cache;
+
+import com.luis.spotify.cache.SpotifyCatalogCache.EntryType;
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyTrack;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifyCatalogCacheTest {
+
+    private SpotifyCatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        Duration ttl = Duration.ofMinutes(5);
+        catalogCache = new SpotifyCatalogCache(100, ttl, ttl, ttl, ttl);
+    }
+
+    @Test
+    void givenCachedArtist_whenGet_thenReturnCachedValueAndRecordHit() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        catalogCache.get(EntryType.ARTIST, "artist1", () -> {
+            loads.incrementAndGet();
+            return new SpotifyArtist("artist1", "Artist", null, null, null);
+        });
+
+        // when
+        SpotifyArtist artist = catalogCache.get(EntryType.ARTIST, "artist1", () -> {
+            loads.incrementAndGet();
+            return new SpotifyArtist("artist1", "Other", null, null, null);
+        });
+
+        // then
+        assertEquals("Artist", artist.getName());
+        assertEquals(1, loads.get());
+        assertEquals(1, catalogCache.stats().hitCount());
+        assertEquals(1, catalogCache.stats().missCount());
+    }
+
+    @Test
+    void givenSameIdForDifferentEntryTypes_whenGet_thenKeepEntriesApart() {
+        // when
+        catalogCache.get(EntryType.ARTIST, "id1", () -> new SpotifyArtist("id1", "Artist", null, null, null));
+        List<SpotifyTrack> topTracks = catalogCache.get(EntryType.ARTIST_TOP_TRACKS, "id1", () -> List.of());
+
+        // then
+        assertTrue(topTracks.isEmpty());
+        assertEquals(2, catalogCache.stats().missCount());
+    }
+
+    @Test
+    void givenLoaderReturnsNull_whenGet_thenDoNotCacheResult() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        catalogCache.get(EntryType.ALBUM, "missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        SpotifyAlbum album = catalogCache.get(EntryType.ALBUM, "missing", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        // then
+        assertNull(album);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenLoaderThrows_whenGet_thenPropagateAndDoNotCache() {
+        // when / then
+        RuntimeException thrown = assertThrows(RuntimeException.class, () ->
+                catalogCache.get(EntryType.ALBUM, "album1", () -> {
+                    throw new RuntimeException("upstream error");
+                }));
+        assertEquals("upstream error", thrown.getMessage());
+
+        SpotifyAlbum album = catalogCache.get(EntryType.ALBUM, "album1",
+                () -> new SpotifyAlbum("album1", "Album", null, null, null, null, 0, new SpotifyTrack[0]));
+        assertEquals("Album", album.getName());
+    }
+
+    @Test
+    void givenEntriesAboveMaxWeight_whenCleanUp_thenEvictAndRecordEvictions() {
+        // given
+        SpotifyTrack[] tracks = new SpotifyTrack[30];
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            String id = "album" + i;
+            catalogCache.get(EntryType.ALBUM, id, () -> new SpotifyAlbum(id, "Album", null, null, null, null, 30, tracks));
+        }
+        catalogCache.cleanUp();
+
+        // then
+        assertTrue(catalogCache.stats().evictionCount() > 0);
+        assertTrue(catalogCache.estimatedSize() <= 3);
+    }
+
+    @Test
+    void givenConcurrentRequestsForSameAlbum_whenGet_thenLoadOnce() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<SpotifyAlbum> leader = executor.submit(() -> catalogCache.get(EntryType.ALBUM, "hot", () -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            await(releaseLoader);
+            return new SpotifyAlbum("hot", "Hot Album", null, null, null, null, 0, new SpotifyTrack[0]);
+        }));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+        // when
+        List<Future<SpotifyAlbum>> followers = new java.util.ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            followers.add(executor.submit(() -> catalogCache.get(EntryType.ALBUM, "hot", () -> {
+                loads.incrementAndGet();
+                return null;
+            })));
+        }
+        releaseLoader.countDown();
+
+        // then
+        assertEquals("Hot Album", leader.get(5, TimeUnit.SECONDS).getName());
+        for (Future<SpotifyAlbum> follower : followers) {
+            assertEquals("Hot Album", follower.get(5, TimeUnit.SECONDS).getName());
+        }
+        assertEquals(1, loads.get());
+        executor.shutdownNow();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void givenPendingAsyncLoad_whenGetAsyncForSameAlbum_thenShareOneUpstreamCall() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<SpotifyAlbum> upstream = new CompletableFuture<>();
+        CompletableFuture<SpotifyAlbum> first = catalogCache.getAsync(EntryType.ALBUM, "album1", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+
+        // when
+        CompletableFuture<SpotifyAlbum> second = catalogCache.getAsync(EntryType.ALBUM, "album1", () -> {
+            loads.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        second.cancel(true);
+        upstream.complete(new SpotifyAlbum("album1", "Album", null, null, null, null, 0, new SpotifyTrack[0]));
+
+        // then
+        assertEquals(1, loads.get());
+        assertEquals("Album", first.join().getName());
+        SpotifyAlbum cached = catalogCache.get(EntryType.ALBUM, "album1", () -> null);
+        assertEquals("Album", cached.getName());
+    }
+
+    @Test
+    void givenAsyncLoaderFails_whenGetAsync_thenPropagateAndDoNotCache() {
+        // when
+        CompletableFuture<SpotifyAlbum> failed = catalogCache.getAsync(EntryType.ALBUM, "album1",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("upstream error")));
+
+        // then
+        assertThrows(Exception.class, failed::join);
+        SpotifyAlbum album = catalogCache.getAsync(EntryType.ALBUM, "album1",
+                () -> CompletableFuture.completedFuture(
+                        new SpotifyAlbum("album1", "Album", null, null, null, null, 0, new SpotifyTrack[0]))).join();
+        assertEquals("Album", album.getName());
+    }
+
+    @Test
+    void givenBoundToMeterRegistry_whenMissThenHit_thenPublishCacheMeters() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        catalogCache.bindTo(meterRegistry);
+
+        // when
+        catalogCache.get(EntryType.ARTIST, "artist1", () -> new SpotifyArtist("artist1", "Artist", null, null, null));
+        catalogCache.get(EntryType.ARTIST, "artist1", () -> new SpotifyArtist("artist1", "Other", null, null, null));
+
+        // then
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "catalog", "result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "catalog", "result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "catalog").functionCounter());
+    }
+}
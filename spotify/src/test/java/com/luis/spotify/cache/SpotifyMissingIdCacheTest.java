@@ -0,0 +1,91 @@
+package com.luis.spotify.cache;
+
+import com.luis.spotify.cache.SpotifyMissingIdCache.IdType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifyMissingIdCacheTest {
+
+    private static final String VALID_ID = "4aawyAB9vmqN3uQ7FjRGTy";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void givenIdsOfDifferentShapes_whenIsValidId_thenAcceptOnlyTwentyTwoBase62Characters() {
+        // when / then
+        assertTrue(SpotifyMissingIdCache.isValidId(VALID_ID));
+        assertFalse(SpotifyMissingIdCache.isValidId(null));
+        assertFalse(SpotifyMissingIdCache.isValidId(""));
+        assertFalse(SpotifyMissingIdCache.isValidId("4aawyAB9vmqN3uQ7FjRGT"));
+        assertFalse(SpotifyMissingIdCache.isValidId("4aawyAB9vmqN3uQ7FjRGTyy"));
+        assertFalse(SpotifyMissingIdCache.isValidId("4aawyAB9vmqN3uQ7FjRG-y"));
+        assertFalse(SpotifyMissingIdCache.isValidId("../../../../../me/top12"));
+    }
+
+    @Test
+    void givenIdReportedMissing_whenShouldReject_thenRejectOnlyForThatType() {
+        // given
+        SpotifyMissingIdCache cache = new SpotifyMissingIdCache(meterRegistry, 100, Duration.ofHours(1), false, 0, 0.01);
+
+        // when
+        cache.recordMissing(IdType.ALBUM, VALID_ID);
+
+        // then
+        assertTrue(cache.shouldReject(IdType.ALBUM, VALID_ID));
+        assertFalse(cache.shouldReject(IdType.ARTIST, VALID_ID));
+        assertTrue(cache.shouldReject(IdType.ARTIST, "bogus"));
+        assertEquals(1, meterRegistry.counter("spotify.ids.rejected", "type", "album", "reason", "known_missing").count());
+        assertEquals(1, meterRegistry.counter("spotify.ids.rejected", "type", "artist", "reason", "invalid_id").count());
+        assertEquals(0, meterRegistry.counter("spotify.ids.rejected", "type", "artist", "reason", "known_missing").count());
+    }
+
+    @Test
+    void givenIdReportedMissing_whenTtlPasses_thenStopRejecting() throws InterruptedException {
+        // given
+        SpotifyMissingIdCache cache = new SpotifyMissingIdCache(meterRegistry, 100, Duration.ofMillis(50), false, 0, 0.01);
+        cache.recordMissing(IdType.ARTIST, VALID_ID);
+
+        // when
+        Thread.sleep(100);
+
+        // then
+        assertFalse(cache.shouldReject(IdType.ARTIST, VALID_ID));
+    }
+
+    @Test
+    void givenBloomFilterEnabledAndExactCacheOverflowing_whenShouldReject_thenStillRejectEvictedIds() {
+        // given
+        SpotifyMissingIdCache cache =
+                new SpotifyMissingIdCache(meterRegistry, 10, Duration.ofHours(1), true, 10_000, 0.001);
+        for (int i = 0; i < 1_000; i++) {
+            cache.recordMissing(IdType.ALBUM, idOf(i));
+        }
+
+        // when
+        int rejected = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (cache.shouldReject(IdType.ALBUM, idOf(i))) {
+                rejected++;
+            }
+        }
+        int falsePositives = 0;
+        for (int i = 1_000; i < 11_000; i++) {
+            if (cache.shouldReject(IdType.ALBUM, idOf(i))) {
+                falsePositives++;
+            }
+        }
+
+        // then
+        assertEquals(1_000, rejected);
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+    }
+
+    private static String idOf(int i) {
+        String digits = Integer.toString(i, 36);
+        return "0".repeat(22 - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,149 @@
+package com.luis.spotify.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifySearchCacheTest {
+
+    private static final String TYPES = "album,track,playlist,artist";
+
+    private SpotifySearchCache searchCache;
+
+    @BeforeEach
+    void setUp() {
+        searchCache = new SpotifySearchCache(100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void givenQueryVariants_whenCanonicalQuery_thenFoldThemOntoOneForm() {
+        // when / then
+        assertEquals("taylor swift", SpotifySearchCache.canonicalQuery("Taylor Swift"));
+        assertEquals("taylor swift", SpotifySearchCache.canonicalQuery("  TAYLOR \t swift\n"));
+        assertEquals("taylor swift", SpotifySearchCache.canonicalQuery("Ｔaylor　swift"));
+        assertEquals("beyoncé", SpotifySearchCache.canonicalQuery("Beyoncé"));
+        assertEquals("", SpotifySearchCache.canonicalQuery(null));
+    }
+
+    @Test
+    void givenQueryVariants_whenNormalizedQuery_thenFoldSpacingAndWidthButKeepCase() {
+        // when / then
+        assertEquals("Taylor Swift", SpotifySearchCache.normalizedQuery("  Taylor \t Swift\n"));
+        assertEquals("Taylor swift", SpotifySearchCache.normalizedQuery("Ｔaylor　swift"));
+        assertEquals("rock OR metal", SpotifySearchCache.normalizedQuery("rock  OR metal"));
+        assertEquals("", SpotifySearchCache.normalizedQuery(null));
+    }
+
+    @Test
+    void givenQueriesDifferingInCase_whenGet_thenShareEntryUnlessAnOperatorDiffers() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        searchCache.get("Taylor Swift", TYPES, () -> "taylor" + loads.incrementAndGet());
+        searchCache.get("rock OR metal", TYPES, () -> "either" + loads.incrementAndGet());
+
+        // when
+        String sameQuery = searchCache.get("TAYLOR  swift", TYPES, () -> "again" + loads.incrementAndGet());
+        String sameOperator = searchCache.get("Rock OR Metal", TYPES, () -> "again" + loads.incrementAndGet());
+        String plainWords = searchCache.get("rock or metal", TYPES, () -> "words" + loads.incrementAndGet());
+
+        // then
+        assertEquals("taylor1", sameQuery);
+        assertEquals("either2", sameOperator);
+        assertEquals("words3", plainWords);
+    }
+
+    @Test
+    void givenCachedQuery_whenGetWithSameTypes_thenReturnCachedValueWithoutLoading() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        searchCache.get("taylor", TYPES, () -> "first" + loads.incrementAndGet());
+
+        // when
+        String result = searchCache.get("taylor", TYPES, () -> "second" + loads.incrementAndGet());
+
+        // then
+        assertEquals("first1", result);
+        assertEquals(1, loads.get());
+        assertEquals(1, searchCache.stats().hitCount());
+    }
+
+    @Test
+    void givenCachedQuery_whenGetWithOtherTypes_thenLoadSeparately() {
+        // given
+        searchCache.get("taylor", TYPES, () -> "all");
+
+        // when
+        String result = searchCache.get("taylor", "artist", () -> "artists");
+
+        // then
+        assertEquals("artists", result);
+        assertEquals(2, searchCache.estimatedSize());
+    }
+
+    @Test
+    void givenLoaderReturnsNull_whenGetAgain_thenLoadAgain() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        searchCache.get("taylor", TYPES, () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        // when
+        String result = searchCache.get("taylor", TYPES, () -> "loaded" + loads.incrementAndGet());
+
+        // then
+        assertEquals("loaded2", result);
+    }
+
+    @Test
+    void givenLoaderThrows_whenGet_thenPropagateAndDoNotCache() {
+        // given
+        assertThrows(IllegalStateException.class, () -> searchCache.get("taylor", TYPES, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // when
+        String result = searchCache.get("taylor", TYPES, () -> "recovered");
+
+        // then
+        assertEquals("recovered", result);
+    }
+
+    @Test
+    void givenCachedQuery_whenGetAsync_thenCompleteWithCachedValueWithoutLoading() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        searchCache.get("taylor", TYPES, () -> "first" + loads.incrementAndGet());
+
+        // when
+        CompletableFuture<String> result = searchCache.getAsync("taylor", TYPES,
+                () -> CompletableFuture.completedFuture("second" + loads.incrementAndGet()));
+
+        // then
+        assertEquals("first1", result.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenBoundToMeterRegistry_whenMissThenHit_thenPublishCacheMeters() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        searchCache.bindTo(meterRegistry);
+
+        // when
+        searchCache.get("taylor", TYPES, () -> "first");
+        searchCache.get("taylor", TYPES, () -> "second");
+
+        // then
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "search", "result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "search", "result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "search").functionCounter());
+    }
+}
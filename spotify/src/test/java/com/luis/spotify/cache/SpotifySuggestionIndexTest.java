@@ -0,0 +1,175 @@
+package com.luis.spotify.cache;
+
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyFollowers;
+import com.luis.spotify.dto.SpotifySuggestion;
+import com.luis.spotify.dto.SpotifyTrack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifySuggestionIndexTest {
+
+    private SpotifySuggestionIndex suggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        suggestionIndex = new SpotifySuggestionIndex(100, 20, Duration.ofHours(6));
+    }
+
+    private static SpotifyArtist artist(String id, String name) {
+        return new SpotifyArtist(id, name, null, null, null);
+    }
+
+    private static List<String> names(List<SpotifySuggestion> suggestions) {
+        return suggestions.stream().map(SpotifySuggestion::getName).toList();
+    }
+
+    @Test
+    void givenObservedArtist_whenSuggestWithPrefixOfAnyWord_thenReturnIt() {
+        // given
+        suggestionIndex.record(List.of(artist("a1", "Taylor Swift")));
+        suggestionIndex.rebuild();
+
+        // when / then
+        assertEquals(List.of("Taylor Swift"), names(suggestionIndex.suggest("tay", 5)));
+        assertEquals(List.of("Taylor Swift"), names(suggestionIndex.suggest("  SWI", 5)));
+        assertEquals(List.of("Taylor Swift"), names(suggestionIndex.suggest("taylor  s", 5)));
+        assertTrue(suggestionIndex.suggest("wift", 5).isEmpty());
+        assertTrue(suggestionIndex.suggest("", 5).isEmpty());
+    }
+
+    @Test
+    void givenEntitiesObservedDifferentNumberOfTimes_whenSuggest_thenRankMostObservedFirstAndHonorLimit() {
+        // given
+        suggestionIndex.record(List.of(artist("a1", "Sabrina Carpenter")));
+        suggestionIndex.record(List.of(artist("a2", "Sam Smith"), artist("a2", "Sam Smith"), artist("a2", "Sam Smith")));
+        suggestionIndex.record(List.of(new SpotifyTrack("t1", "Say So", null, null, 1, null, 1),
+                new SpotifyTrack("t1", "Say So", null, null, 1, null, 1)));
+        suggestionIndex.rebuild();
+
+        // when
+        List<SpotifySuggestion> suggestions = suggestionIndex.suggest("s", 2);
+
+        // then
+        assertEquals(List.of("Sam Smith", "Say So"), names(suggestions));
+        assertEquals("artist", suggestions.get(0).getType());
+        assertEquals("track", suggestions.get(1).getType());
+    }
+
+    @Test
+    void givenNameMatchingOnSeveralWords_whenSuggest_thenReturnEntityOnce() {
+        // given
+        suggestionIndex.record(List.of(artist("a1", "Sam Smith")));
+        suggestionIndex.rebuild();
+
+        // when
+        List<SpotifySuggestion> suggestions = suggestionIndex.suggest("s", 10);
+
+        // then
+        assertEquals(1, suggestions.size());
+    }
+
+    @Test
+    void givenEquallyObservedArtists_whenSuggest_thenFollowersBreakTheTie() {
+        // given
+        SpotifyArtist small = new SpotifyArtist("a1", "Band Small", null, null, new SpotifyFollowers(null, 10L));
+        SpotifyArtist big = new SpotifyArtist("a2", "Band Big", null, null, new SpotifyFollowers(null, 5_000_000L));
+        suggestionIndex.record(List.of(small, big));
+        suggestionIndex.record(List.of(new SpotifyAlbum("al1", "Band Album", null, null, null, null, null, null),
+                new SpotifyAlbum("al1", "Band Album", null, null, null, null, null, null)));
+        suggestionIndex.rebuild();
+
+        // when / then
+        assertEquals(List.of("Band Album", "Band Big", "Band Small"), names(suggestionIndex.suggest("band", 5)));
+    }
+
+    @Test
+    void givenNewObservation_whenSuggestBeforeRebuild_thenServePreviousSnapshot() {
+        // given
+        suggestionIndex.record(List.of(artist("a1", "Adele")));
+        suggestionIndex.rebuild();
+        suggestionIndex.record(List.of(artist("a2", "Ado")));
+
+        // when / then
+        assertEquals(List.of("Adele"), names(suggestionIndex.suggest("ad", 5)));
+        suggestionIndex.rebuild();
+        assertEquals(2, suggestionIndex.suggest("ad", 5).size());
+    }
+
+    @Test
+    void givenMoreEntitiesThanMaxEntries_whenRebuild_thenDropLeastObserved() {
+        // given
+        suggestionIndex = new SpotifySuggestionIndex(2, 20, Duration.ofHours(6));
+        suggestionIndex.record(List.of(artist("a1", "Alpha"), artist("a1", "Alpha")));
+        suggestionIndex.record(List.of(artist("a2", "Alpine"), artist("a2", "Alpine")));
+        suggestionIndex.record(List.of(artist("a3", "Altar")));
+
+        // when
+        suggestionIndex.rebuild();
+
+        // then
+        assertEquals(2, suggestionIndex.size());
+        assertEquals(List.of("Alpha", "Alpine"), names(suggestionIndex.suggest("al", 5)).stream().sorted().toList());
+    }
+
+    @Test
+    void givenFullIndex_whenRebuildAfterNewEntityObserved_thenKeepTheNewEntity() {
+        // given
+        suggestionIndex = new SpotifySuggestionIndex(2, 20, Duration.ofHours(6));
+        suggestionIndex.record(List.of(artist("a1", "Alpha"), artist("a1", "Alpha"), artist("a1", "Alpha")));
+        suggestionIndex.record(List.of(artist("a2", "Alpine"), artist("a2", "Alpine")));
+        suggestionIndex.rebuild();
+        suggestionIndex.record(List.of(artist("a3", "Altar")));
+
+        // when
+        suggestionIndex.rebuild();
+
+        // then
+        assertEquals(2, suggestionIndex.size());
+        assertEquals(List.of("Alpha", "Altar"), names(suggestionIndex.suggest("al", 5)));
+    }
+
+    @Test
+    void givenOldObservations_whenRebuildAfterScoreHalfLife_thenRecentObservationsOutrankThem() {
+        // given
+        suggestionIndex = new SpotifySuggestionIndex(100, 20, Duration.ofNanos(1));
+        suggestionIndex.record(List.of(artist("a1", "Alpha"), artist("a1", "Alpha"), artist("a1", "Alpha")));
+        suggestionIndex.rebuild();
+        suggestionIndex.record(List.of(artist("a2", "Alpine")));
+
+        // when
+        suggestionIndex.rebuild();
+
+        // then
+        assertEquals(List.of("Alpine", "Alpha"), names(suggestionIndex.suggest("alp", 5)));
+    }
+
+    @Test
+    void givenMoreMatchesThanMaxLimit_whenSuggestShortAndLongPrefix_thenRankTheSameWay() {
+        // given
+        suggestionIndex = new SpotifySuggestionIndex(100, 3, Duration.ofHours(6));
+        List<SpotifyArtist> observed = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            for (int times = 0; times < i; times++) {
+                observed.add(artist("s" + i, "Sound " + i));
+            }
+        }
+        suggestionIndex.record(observed);
+
+        // when
+        suggestionIndex.rebuild();
+
+        // then
+        assertEquals(List.of("Sound 6", "Sound 5", "Sound 4"), names(suggestionIndex.suggest("s", 10)));
+        assertEquals(List.of("Sound 6", "Sound 5"), names(suggestionIndex.suggest("so", 2)));
+        assertEquals(List.of("Sound 6", "Sound 5", "Sound 4"), names(suggestionIndex.suggest("soun", 3)));
+        assertEquals(List.of("Sound 6"), names(suggestionIndex.suggest("6", 5)));
+    }
+}
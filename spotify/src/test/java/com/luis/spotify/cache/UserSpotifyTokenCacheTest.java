@@ -0,0 +1,44 @@
+package com.luis.spotify.cache;
+
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSpotifyTokenCacheTest {
+
+    private static final String SPOTIFY_USER_ID = "testUser";
+
+    @Mock
+    private UserSpotifyTokenRepository tokenRepository;
+
+    @Test
+    void givenBoundToMeterRegistry_whenMissThenHit_thenPublishCacheMeters() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserSpotifyTokenCache tokenCache = new UserSpotifyTokenCache(tokenRepository, 100, Duration.ofHours(1));
+        tokenCache.bindTo(meterRegistry);
+        UserSpotifyTokens userTokens = UserSpotifyTokens.builder().spotifyUserId(SPOTIFY_USER_ID).build();
+        when(tokenRepository.findById(SPOTIFY_USER_ID)).thenReturn(Optional.of(userTokens));
+
+        // when
+        tokenCache.get(SPOTIFY_USER_ID);
+        tokenCache.get(SPOTIFY_USER_ID);
+
+        // then
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "user-tokens", "result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "user-tokens", "result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "user-tokens").functionCounter());
+        verify(tokenRepository, times(1)).findById(SPOTIFY_USER_ID);
+    }
+}
@@ -0,0 +1,183 @@
+package com.luis.spotify.cache;
+
+import com.luis.spotify.cache.UserTopItemsCache.EntryType;
+import com.luis.spotify.upstream.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserTopItemsCacheTest {
+
+    private static final String USER_ID = "user1";
+
+    @Test
+    void givenFreshEntry_whenGet_thenServeFromCacheWithoutLoading() {
+        // given
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ofMinutes(10), Duration.ofHours(1), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v" + loads.incrementAndGet()));
+
+        // when
+        List<String> items = cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v" + loads.incrementAndGet()));
+
+        // then
+        assertEquals(List.of("v1"), items);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenEntryPastSoftTtl_whenGet_thenServeStaleAndRefreshInBackground() {
+        // given
+        List<Runnable> background = new ArrayList<>();
+        Executor executor = background::add;
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ZERO, Duration.ofHours(1), executor);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(USER_ID, EntryType.TOP_ARTISTS, priority -> List.of("v" + loads.incrementAndGet()));
+
+        // when
+        List<String> stale = cache.get(USER_ID, EntryType.TOP_ARTISTS, priority -> List.of("v" + loads.incrementAndGet()));
+        List<String> stillStale = cache.get(USER_ID, EntryType.TOP_ARTISTS, priority -> List.of("v" + loads.incrementAndGet()));
+        int scheduledRefreshes = background.size();
+        background.forEach(Runnable::run);
+        List<String> refreshed = cache.get(USER_ID, EntryType.TOP_ARTISTS, priority -> List.of("unused"));
+
+        // then
+        assertEquals(List.of("v1"), stale);
+        assertEquals(List.of("v1"), stillStale);
+        assertEquals(1, scheduledRefreshes, "only one refresh per entry may be in flight");
+        assertEquals(List.of("v2"), refreshed);
+    }
+
+    @Test
+    void givenStaleEntry_whenGet_thenLoadAtHighPriorityAndRefreshAtLowPriority() {
+        // given
+        List<Runnable> background = new ArrayList<>();
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ZERO, Duration.ofHours(1), background::add);
+        List<RequestPriority> priorities = new ArrayList<>();
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> {
+            priorities.add(priority);
+            return List.of("v1");
+        });
+
+        // when
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> {
+            priorities.add(priority);
+            return List.of("v2");
+        });
+        background.forEach(Runnable::run);
+
+        // then
+        assertEquals(List.of(RequestPriority.HIGH, RequestPriority.LOW), priorities);
+    }
+
+    @Test
+    void givenBackgroundRefreshFails_whenGet_thenKeepServingCachedList() {
+        // given
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ZERO, Duration.ofHours(1), Runnable::run);
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v1"));
+
+        // when
+        List<String> served = cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> {
+            throw new IllegalStateException("Spotify down");
+        });
+
+        // then
+        assertEquals(List.of("v1"), served);
+        assertEquals(List.of("v1"), cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> null));
+    }
+
+    @Test
+    void givenEntryPastHardTtl_whenGet_thenLoadOnCallingThread() throws InterruptedException {
+        // given
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ofMillis(10), Duration.ofMillis(50), Runnable::run);
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v1"));
+        Thread.sleep(100);
+
+        // when
+        List<String> items = cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v2"));
+
+        // then
+        assertEquals(List.of("v2"), items);
+    }
+
+    @Test
+    void givenLoaderReturnsNull_whenGetAgain_thenLoadAgain() {
+        // given
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ofMinutes(10), Duration.ofHours(1), Runnable::run);
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> null);
+
+        // when
+        List<String> items = cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v1"));
+
+        // then
+        assertEquals(List.of("v1"), items);
+    }
+
+    @Test
+    void givenDifferentUsersAndTypes_whenGet_thenKeepEntriesApart() {
+        // given
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ofMinutes(10), Duration.ofHours(1), Runnable::run);
+
+        // when
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("tracks"));
+        cache.get(USER_ID, EntryType.TOP_ARTISTS, priority -> List.of("artists"));
+        cache.get("user2", EntryType.TOP_TRACKS, priority -> List.of("other"));
+
+        // then
+        assertEquals(3, cache.estimatedSize());
+        cache.invalidate(USER_ID);
+        assertEquals(1, cache.estimatedSize());
+    }
+
+    @Test
+    void givenEntryPastSoftTtl_whenGetAsync_thenServeStaleAndRefreshOnce() {
+        // given
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ZERO, Duration.ofHours(1), Runnable::run);
+        CompletableFuture<List<String>> refresh = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        cache.getAsync(USER_ID, EntryType.TOP_TRACKS, priority -> CompletableFuture.completedFuture(List.of("v1"))).join();
+
+        // when
+        List<String> stale = cache.getAsync(USER_ID, EntryType.TOP_TRACKS, priority -> {
+            loads.incrementAndGet();
+            return refresh;
+        }).join();
+        List<String> stillStale = cache.getAsync(USER_ID, EntryType.TOP_TRACKS, priority -> {
+            loads.incrementAndGet();
+            return refresh;
+        }).join();
+        refresh.complete(List.of("v2"));
+        List<String> refreshed = cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("unused"));
+
+        // then
+        assertEquals(List.of("v1"), stale);
+        assertEquals(List.of("v1"), stillStale);
+        assertEquals(1, loads.get(), "only one refresh per entry may be in flight");
+        assertEquals(List.of("v2"), refreshed);
+    }
+
+    @Test
+    void givenBoundToMeterRegistry_whenMissThenHit_thenPublishCacheMeters() {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserTopItemsCache cache = new UserTopItemsCache(1000, Duration.ofMinutes(10), Duration.ofHours(1), Runnable::run);
+        cache.bindTo(meterRegistry);
+
+        // when
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v1"));
+        cache.get(USER_ID, EntryType.TOP_TRACKS, priority -> List.of("v2"));
+
+        // then
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "top-items", "result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "top-items", "result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "top-items").functionCounter());
+    }
+}
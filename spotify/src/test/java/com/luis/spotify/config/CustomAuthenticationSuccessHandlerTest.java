@@ -1,5 +1,6 @@
 package com.luis.spotify.config;
 
+import com.luis.spotify.cache.UserSpotifyTokenCache;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
 import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
@@ -43,6 +44,9 @@ public class CustomAuthenticationSuccessHandlerTest {
     @Mock
     private UserSpotifyTokenRepository userSpotifyTokenRepository;
 
+    @Mock
+    private UserSpotifyTokenCache userSpotifyTokenCache;
+
     @Mock
     private HttpServletRequest request;
 
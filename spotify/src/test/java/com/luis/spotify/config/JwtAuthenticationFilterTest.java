@@ -1,6 +1,7 @@
 package com.luis.spotify.config;
 
 import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -75,14 +76,14 @@ public class JwtAuthenticationFilterTest {
         // given
         String invalidToken = "some.invalid.jwt";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + invalidToken);
-        when(jwtTokenProviderService.validateToken(invalidToken)).thenReturn(false);
+        when(jwtTokenProviderService.verifyAndGetClaims(invalidToken)).thenReturn(null);
 
         // when
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // then
         assertNull(SecurityContextHolder.getContext().getAuthentication());
-        verify(jwtTokenProviderService).validateToken(invalidToken);
+        verify(jwtTokenProviderService).verifyAndGetClaims(invalidToken);
         verify(filterChain).doFilter(request, response);
         verifyNoMoreInteractions(jwtTokenProviderService);
     }
@@ -93,8 +94,8 @@ public class JwtAuthenticationFilterTest {
         String validToken = "some.valid.jwt";
         String userId = "testUserId123";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(jwtTokenProviderService.validateToken(validToken)).thenReturn(true);
-        when(jwtTokenProviderService.getUserIdFromJWT(validToken)).thenReturn(userId);
+        when(jwtTokenProviderService.verifyAndGetClaims(validToken))
+                .thenReturn(Jwts.claims().add("userId", userId).build());
 
         // when
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -107,8 +108,8 @@ public class JwtAuthenticationFilterTest {
         assertNull(authentication.getCredentials());
         assertEquals(Collections.emptyList(), authentication.getAuthorities());
 
-        verify(jwtTokenProviderService).validateToken(validToken);
-        verify(jwtTokenProviderService).getUserIdFromJWT(validToken);
+        verify(jwtTokenProviderService).verifyAndGetClaims(validToken);
+        verifyNoMoreInteractions(jwtTokenProviderService);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -118,8 +119,8 @@ public class JwtAuthenticationFilterTest {
         String validToken = "some.valid.jwt";
         String emptyUserId = "";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(jwtTokenProviderService.validateToken(validToken)).thenReturn(true);
-        when(jwtTokenProviderService.getUserIdFromJWT(validToken)).thenReturn(emptyUserId);
+        when(jwtTokenProviderService.verifyAndGetClaims(validToken))
+                .thenReturn(Jwts.claims().add("userId", emptyUserId).build());
 
         // when
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -128,8 +129,8 @@ public class JwtAuthenticationFilterTest {
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         UsernamePasswordAuthenticationToken authentication = (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         assertEquals(emptyUserId, authentication.getPrincipal());
-        verify(jwtTokenProviderService).validateToken(validToken);
-        verify(jwtTokenProviderService).getUserIdFromJWT(validToken);
+        verify(jwtTokenProviderService).verifyAndGetClaims(validToken);
+        verifyNoMoreInteractions(jwtTokenProviderService);
         verify(filterChain).doFilter(request, response);
     }
 }
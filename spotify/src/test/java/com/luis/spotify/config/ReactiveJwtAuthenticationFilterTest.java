@@ -0,0 +1,85 @@
+package com.luis.spotify.config;
+
+import com.luis.spotify.service.impl.JwtTokenProviderServiceImpl;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveJwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtTokenProviderServiceImpl jwtTokenProviderService;
+
+    @InjectMocks
+    private ReactiveJwtAuthenticationFilter reactiveJwtAuthenticationFilter;
+
+    private final AtomicReference<Authentication> seen = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .doOnNext(seen::set)
+            .then();
+
+    private static MockServerWebExchange exchangeWith(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/me");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void givenNoAuthorizationHeader_whenFilter_thenContinueWithoutAuthentication() {
+        // when
+        reactiveJwtAuthenticationFilter.filter(exchangeWith(null), chain).block();
+
+        // then
+        assertNull(seen.get());
+        verifyNoInteractions(jwtTokenProviderService);
+    }
+
+    @Test
+    void givenInvalidJwtToken_whenFilter_thenContinueWithoutAuthentication() {
+        // given
+        when(jwtTokenProviderService.verifyAndGetClaims("some.invalid.jwt")).thenReturn(null);
+
+        // when
+        reactiveJwtAuthenticationFilter.filter(exchangeWith("Bearer some.invalid.jwt"), chain).block();
+
+        // then
+        assertNull(seen.get());
+    }
+
+    @Test
+    void givenValidJwtToken_whenFilter_thenExposeAuthenticationToTheChain() {
+        // given
+        when(jwtTokenProviderService.verifyAndGetClaims("some.valid.jwt"))
+                .thenReturn(Jwts.claims().add("userId", "testUserId123").build());
+
+        // when
+        Mono<Void> filtered = reactiveJwtAuthenticationFilter.filter(exchangeWith("Bearer some.valid.jwt"), chain);
+        filtered.block();
+
+        // then
+        assertNotNull(seen.get());
+        assertEquals("testUserId123", seen.get().getPrincipal());
+        assertTrue(seen.get().getAuthorities().isEmpty());
+    }
+}
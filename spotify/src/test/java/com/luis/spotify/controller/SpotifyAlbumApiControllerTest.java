@@ -2,6 +2,8 @@ package com.luis.spotify.controller;
 
 import com.luis.spotify.dto.SpotifyAlbum;
 import com.luis.spotify.service.SpotifyAlbumApiService;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyRateLimitedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,11 +12,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.security.Principal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class SpotifyAlbumApiControllerTest {
@@ -80,4 +90,48 @@ class SpotifyAlbumApiControllerTest {
         assertEquals("Error fetching album info", thrown.getMessage());
         verify(spotifyAlbumApiService, times(1)).getAlbumInfo(principal, TEST_ALBUM_ID);
     }
+
+    @Test
+    void givenSpotifyRateLimited_whenGetAlbumInfo_thenReturnServiceUnavailableWithRetryAfter() throws Exception {
+        // given
+        when(spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID))
+                .thenThrow(new SpotifyRateLimitedException(Duration.ofMillis(2500), RequestPriority.HIGH));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(spotifyAlbumApiController)
+                .setControllerAdvice(new SpotifyUpstreamExceptionHandler())
+                .build();
+
+        // when / then
+        mockMvc.perform(get("/albums/{albumId}", TEST_ALBUM_ID).principal(principal))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+        verify(spotifyAlbumApiService, times(1)).getAlbumInfo(principal, TEST_ALBUM_ID);
+    }
+
+    @Test
+    void givenIdList_whenGetAlbums_thenReturnOkAndAlbums() {
+        // given
+        List<String> ids = List.of("album1", "album2");
+        List<SpotifyAlbum> expected = List.of(new SpotifyAlbum("album1", "Grid Album", null, null, null, null, 10, null));
+        when(spotifyAlbumApiService.getAlbums(principal, ids)).thenReturn(expected);
+
+        // when
+        ResponseEntity<List<SpotifyAlbum>> response = spotifyAlbumApiController.getAlbums(principal, ids);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    void givenMoreIdsThanAllowed_whenGetAlbums_thenReturnBadRequest() {
+        // given
+        List<String> ids = Collections.nCopies(SpotifyAlbumApiController.MAX_IDS + 1, "album1");
+
+        // when
+        ResponseEntity<List<SpotifyAlbum>> response = spotifyAlbumApiController.getAlbums(principal, ids);
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(spotifyAlbumApiService);
+    }
 }
@@ -1,5 +1,6 @@
 package com.luis.spotify.controller;
 
+import com.luis.spotify.cache.UserSpotifyTokenCache;
 import com.luis.spotify.config.CustomAuthenticationSuccessHandler;
 import com.luis.spotify.config.SecurityConfig;
 import com.luis.spotify.dto.SpotifyUserProfile;
@@ -41,6 +42,8 @@ public class SpotifyApiControllerTest {
     private OAuth2AuthorizedClientRepository authorizedClientRepository;
     @MockitoBean
     private UserSpotifyTokenRepository userSpotifyTokenRepository;
+    @MockitoBean
+    private UserSpotifyTokenCache userSpotifyTokenCache;
 
     @Test
     @WithMockUser(username = "testUser")
@@ -119,5 +119,45 @@ class SpotifyArtistApiControllerTest {
         assertEquals("Error fetching artist page info", thrown.getMessage());
         verify(spotifyArtistApiService, times(1)).getArtistPageInfo(principal, TEST_ARTIST_ID);
     }
-}
 
+    @Test
+    void givenUnknownArtist_whenGetArtistPageInfo_thenReturnNotFound() {
+        // given
+        when(spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID)).thenReturn(null);
+
+        // when
+        ResponseEntity<SpotifyArtistPage> response = spotifyArtistApiController.getArtistPageInfo(principal, TEST_ARTIST_ID);
+
+        // then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void givenIdList_whenGetArtists_thenReturnOkAndArtists() {
+        // given
+        List<String> ids = List.of("artist1", "artist2");
+        List<SpotifyArtist> expected = List.of(new SpotifyArtist("artist1", "Grid Artist", null, null, null));
+        when(spotifyArtistApiService.getArtists(principal, ids)).thenReturn(expected);
+
+        // when
+        ResponseEntity<List<SpotifyArtist>> response = spotifyArtistApiController.getArtists(principal, ids);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    void givenMoreIdsThanAllowed_whenGetArtists_thenReturnBadRequest() {
+        // given
+        List<String> ids = Collections.nCopies(SpotifyArtistApiController.MAX_IDS + 1, "artist1");
+
+        // when
+        ResponseEntity<List<SpotifyArtist>> response = spotifyArtistApiController.getArtists(principal, ids);
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(spotifyArtistApiService);
+    }
+}
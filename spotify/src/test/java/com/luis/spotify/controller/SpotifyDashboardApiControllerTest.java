@@ -0,0 +1,71 @@
+package com.luis.spotify.controller;
+
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifyDashboardSection;
+import com.luis.spotify.dto.SpotifyUserProfile;
+import com.luis.spotify.service.SpotifyDashboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyDashboardApiControllerTest {
+
+    @Mock
+    private SpotifyDashboardService spotifyDashboardService;
+
+    @Mock
+    private Principal principal;
+
+    @InjectMocks
+    private SpotifyDashboardApiController spotifyDashboardApiController;
+
+    private static final String TEST_USER_ID = "testUser";
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(principal.getName()).thenReturn(TEST_USER_ID);
+    }
+
+    @Test
+    void givenAuthenticatedUser_whenGetDashboard_thenReturnOkAndDashboard() {
+        // given
+        SpotifyDashboard expectedDashboard = new SpotifyDashboard(
+                SpotifyDashboardSection.ok(new SpotifyUserProfile()),
+                SpotifyDashboardSection.ok(List.of()),
+                SpotifyDashboardSection.ok(List.of()));
+        when(spotifyDashboardService.getDashboard(principal)).thenReturn(expectedDashboard);
+
+        // when
+        ResponseEntity<SpotifyDashboard> response = spotifyDashboardApiController.getDashboard(principal);
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expectedDashboard, response.getBody());
+        verify(spotifyDashboardService, times(1)).getDashboard(principal);
+    }
+
+    @Test
+    void givenServiceThrowsException_whenGetDashboard_thenPropagateException() {
+        // given
+        RuntimeException serviceException = new RuntimeException("No tokens found for user: " + TEST_USER_ID);
+        when(spotifyDashboardService.getDashboard(principal)).thenThrow(serviceException);
+
+        // when / then
+        RuntimeException thrown = assertThrows(RuntimeException.class, () ->
+                spotifyDashboardApiController.getDashboard(principal));
+        assertEquals(serviceException.getMessage(), thrown.getMessage());
+    }
+}
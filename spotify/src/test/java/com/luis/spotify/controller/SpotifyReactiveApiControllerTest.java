@@ -0,0 +1,122 @@
+package com.luis.spotify.controller;
+
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.dto.SpotifySuggestion;
+import com.luis.spotify.dto.SpotifyTrack;
+import com.luis.spotify.service.SpotifyReactiveApiService;
+import com.luis.spotify.service.SpotifySearchApiService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyReactiveApiControllerTest {
+
+    @Mock
+    private SpotifyReactiveApiService spotifyReactiveApiService;
+
+    @Mock
+    private SpotifySearchApiService spotifySearchApiService;
+
+    @Mock
+    private Principal principal;
+
+    @InjectMocks
+    private SpotifyReactiveApiController spotifyReactiveApiController;
+
+    private static final String TEST_USER_ID = "testUser";
+    private static final String TEST_ALBUM_ID = "4aawyAB9vmqN3uQ7FjRGTy";
+    private static final String TEST_ARTIST_ID = "0TnOYISbd1XYRBk9myaseg";
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(principal.getName()).thenReturn(TEST_USER_ID);
+    }
+
+    @Test
+    void givenAlbum_whenGetAlbumInfo_thenReturnOkAndAlbum() {
+        // given
+        SpotifyAlbum album = new SpotifyAlbum(TEST_ALBUM_ID, "Test Album", null, "2023-01-01", null, null, 10, null);
+        when(spotifyReactiveApiService.getAlbumInfo(principal, TEST_ALBUM_ID)).thenReturn(Mono.just(album));
+
+        // when
+        ResponseEntity<SpotifyAlbum> response = spotifyReactiveApiController.getAlbumInfo(principal, TEST_ALBUM_ID).block();
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(album, response.getBody());
+    }
+
+    @Test
+    void givenAlbumNotFound_whenGetAlbumInfo_thenReturnNotFound() {
+        // given
+        when(spotifyReactiveApiService.getAlbumInfo(principal, TEST_ALBUM_ID)).thenReturn(Mono.empty());
+
+        // when
+        ResponseEntity<SpotifyAlbum> response = spotifyReactiveApiController.getAlbumInfo(principal, TEST_ALBUM_ID).block();
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void givenArtistNotFound_whenGetArtistPageInfo_thenReturnNotFound() {
+        // given
+        when(spotifyReactiveApiService.getArtistPageInfo(principal, TEST_ARTIST_ID)).thenReturn(Mono.empty());
+
+        // when
+        ResponseEntity<SpotifyArtistPage> response =
+                spotifyReactiveApiController.getArtistPageInfo(principal, TEST_ARTIST_ID).block();
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void givenTopTracks_whenGetTopTracks_thenReturnOkAndTracks() {
+        // given
+        List<SpotifyTrack> tracks = new ArrayList<>();
+        when(spotifyReactiveApiService.getTopTracks(principal)).thenReturn(Mono.just(tracks));
+
+        // when
+        ResponseEntity<List<SpotifyTrack>> response = spotifyReactiveApiController.getTopTracks(principal).block();
+
+        // then
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(tracks, response.getBody());
+    }
+
+    @Test
+    void givenPrefix_whenSuggest_thenAnswerFromSuggestionIndex() {
+        // given
+        List<SpotifySuggestion> suggestions = List.of(new SpotifySuggestion("artist", TEST_ARTIST_ID, "ABBA", null));
+        when(spotifySearchApiService.suggest("ab", 8)).thenReturn(suggestions);
+
+        // when
+        ResponseEntity<List<SpotifySuggestion>> response = spotifyReactiveApiController.suggest("ab", 8);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+        verifyNoInteractions(spotifyReactiveApiService);
+    }
+}
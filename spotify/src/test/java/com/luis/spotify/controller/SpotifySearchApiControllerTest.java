@@ -1,6 +1,9 @@
 package com.luis.spotify.controller;
 
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
 import com.luis.spotify.dto.SpotifySearchResults;
+import com.luis.spotify.dto.SpotifySearchSection;
+import com.luis.spotify.dto.SpotifySuggestion;
 import com.luis.spotify.service.SpotifySearchApiService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,13 +13,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @ExtendWith(MockitoExtension.class)
 public class SpotifySearchApiControllerTest {
@@ -83,4 +96,46 @@ public class SpotifySearchApiControllerTest {
         assertEquals("Spotify API error", thrown.getMessage());
         verify(spotifySearchApiService, times(1)).search(principal, TEST_QUERY);
     }
+
+    @Test
+    void givenSectionsCompleteOutOfOrder_whenStreamSearch_thenPushEachSectionAsItCompletesAndThenDone() throws Exception {
+        // given
+        CompletableFuture<SpotifySearchSection> tracks = new CompletableFuture<>();
+        CompletableFuture<SpotifySearchSection> albums = new CompletableFuture<>();
+        when(spotifySearchApiService.searchSections(principal, TEST_QUERY)).thenReturn(List.of(tracks, albums));
+        ReflectionTestUtils.setField(spotifySearchApiController, "streamTimeoutMs", 5000L);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(spotifySearchApiController).build();
+
+        // when
+        MvcResult result = mockMvc.perform(get("/search/stream").param("q", TEST_QUERY).principal(principal))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        albums.complete(SpotifySearchSection.failed("albums", Status.TIMEOUT, "No response within 3000 ms", 504));
+        String afterFirstSection = result.getResponse().getContentAsString();
+        tracks.complete(SpotifySearchSection.ok("tracks", List.of()));
+
+        // then
+        assertTrue(afterFirstSection.contains("\"type\":\"albums\""));
+        assertFalse(afterFirstSection.contains("\"type\":\"tracks\""));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.indexOf("\"type\":\"albums\"") < body.indexOf("\"type\":\"tracks\""));
+        assertTrue(body.contains("\"status\":\"TIMEOUT\""));
+        assertTrue(body.trim().endsWith("event:done\ndata:"));
+        verify(spotifySearchApiService, times(1)).searchSections(principal, TEST_QUERY);
+    }
+
+    @Test
+    void givenPrefix_whenSuggest_thenReturnOkAndSuggestions() {
+        // given
+        List<SpotifySuggestion> suggestions = List.of(new SpotifySuggestion("artist", "a1", "Taylor Swift", null));
+        when(spotifySearchApiService.suggest("tay", 5)).thenReturn(suggestions);
+
+        // when
+        ResponseEntity<List<SpotifySuggestion>> response = spotifySearchApiController.suggest("tay", 5);
+
+        // then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+        verify(spotifySearchApiService, times(1)).suggest("tay", 5);
+    }
 }
@@ -0,0 +1,73 @@
+package com.luis.spotify.dto.deserializer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkipInvalidElementsDeserializerTest {
+
+    private static final String PAGE_WITH_INVALID_ELEMENTS = "{\"items\": ["
+            + "{\"id\": \"0TnOYISbd1XYRBk9myaseg\", \"name\": \"Pitbull\"},"
+            + " null,"
+            + " {\"id\": \"1dfeR4HaWDbWqFHLkxsg1d\", \"followers\": \"lots\"},"
+            + " {\"id\": \"4aawyAB9vmqN3uQ7FjRGTy\", \"name\": \"Armin van Buuren\"}]}";
+
+    private static final TypeReference<SpotifyPage<SpotifyArtist>> ARTIST_PAGE = new TypeReference<>() {};
+
+    @Test
+    void givenSpringBuiltMapper_whenDeserializeListWithInvalidElements_thenDropThemAndCountInInjectedRegistry()
+            throws Exception {
+        // given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SpotifyPage<SpotifyArtist> page;
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(MeterRegistry.class, () -> meterRegistry);
+            context.refresh();
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().applicationContext(context).build();
+
+            // when
+            page = objectMapper.readValue(PAGE_WITH_INVALID_ELEMENTS, ARTIST_PAGE);
+        }
+
+        // then
+        assertEquals(List.of("Pitbull", "Armin van Buuren"), page.getItems().stream().map(SpotifyArtist::getName).toList());
+        assertEquals(1, meterRegistry.counter("spotify.mapping.failures", "type", "SpotifyArtist").count());
+    }
+
+    @Test
+    void givenPlainMapper_whenDeserializeListWithInvalidElements_thenStillDropThem() throws Exception {
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // when
+        SpotifyPage<SpotifyArtist> page = objectMapper.readValue(PAGE_WITH_INVALID_ELEMENTS, ARTIST_PAGE);
+
+        // then
+        assertEquals(2, page.getItems().size());
+    }
+
+    @Test
+    void givenMissingOrNullList_whenDeserialize_thenLeaveItNull() throws Exception {
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // when
+        SpotifyPage<SpotifyArtist> missing = objectMapper.readValue("{\"total\": 0}", ARTIST_PAGE);
+        SpotifyPage<SpotifyArtist> explicitNull = objectMapper.readValue("{\"items\": null}", ARTIST_PAGE);
+
+        // then
+        assertNull(missing.getItems());
+        assertNull(explicitNull.getItems());
+        assertTrue(SpotifyPage.itemsOf(missing).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package com.luis.spotify.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyApiMetricsInterceptorTest {
+
+    private static final String API_URI = "https://api.spotify.com/v1";
+    private static final String TOKEN_URI = "https://accounts.spotify.com/api/token";
+
+    @Mock
+    private HttpRequest request;
+    @Mock
+    private ClientHttpRequestExecution execution;
+    @Mock
+    private ClientHttpResponse response;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpotifyApiMetricsInterceptor interceptor;
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new SpotifyApiMetricsInterceptor(meterRegistry, API_URI, TOKEN_URI);
+    }
+
+    @Test
+    void givenPathsWithIds_whenEndpointOf_thenIdsAreNormalized() {
+        assertEquals("/me", interceptor.endpointOf(URI.create(API_URI + "/me")));
+        assertEquals("/me/top/artists", interceptor.endpointOf(URI.create(API_URI + "/me/top/artists?limit=8")));
+        assertEquals("/artists/{id}", interceptor.endpointOf(URI.create(API_URI + "/artists/0TnOYISbd1XYRBk9myaseg")));
+        assertEquals("/artists/{id}/top-tracks",
+                interceptor.endpointOf(URI.create(API_URI + "/artists/0TnOYISbd1XYRBk9myaseg/top-tracks")));
+        assertEquals("/albums/{id}", interceptor.endpointOf(URI.create(API_URI + "/albums/4aawyAB9vmqN3uQ7FjRGTy")));
+        assertEquals("/search", interceptor.endpointOf(URI.create(API_URI + "/search?q=abba&type=artist")));
+        assertEquals("accounts:/api/token", interceptor.endpointOf(URI.create(TOKEN_URI)));
+    }
+
+    @Test
+    void givenAccountsAndApiOnOneHost_whenEndpointOf_thenClassifyByPath() {
+        // given
+        SpotifyApiMetricsInterceptor sharedHost = new SpotifyApiMetricsInterceptor(meterRegistry,
+                "http://127.0.0.1:8090/v1", "http://127.0.0.1:8090/api/token");
+
+        // when / then
+        assertEquals("accounts:/api/token", sharedHost.endpointOf(URI.create("http://127.0.0.1:8090/api/token")));
+        assertEquals("/albums/{id}",
+                sharedHost.endpointOf(URI.create("http://127.0.0.1:8090/v1/albums/4aawyAB9vmqN3uQ7FjRGTy")));
+    }
+
+    @Test
+    void givenSuccessfulCall_whenIntercept_thenRecordTimerWithTags() throws IOException {
+        // given
+        when(request.getURI()).thenReturn(URI.create(API_URI + "/artists/0TnOYISbd1XYRBk9myaseg"));
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        when(request.getAttributes()).thenReturn(attributes);
+        when(execution.execute(request, new byte[0])).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        // when
+        interceptor.intercept(request, new byte[0], execution);
+
+        // then
+        Timer timer = meterRegistry.find(SpotifyApiMetricsInterceptor.METRIC_NAME)
+                .tags("endpoint", "/artists/{id}", "method", "GET", "status", "200", "outcome", "SUCCESS", "retry", "0")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void givenIoErrorOnRetry_whenIntercept_thenRecordTimerAndRethrow() throws IOException {
+        // given
+        attributes.put(SpotifyApiMetricsInterceptor.RETRY_ATTRIBUTE, 2);
+        when(request.getURI()).thenReturn(URI.create(TOKEN_URI));
+        when(request.getMethod()).thenReturn(HttpMethod.POST);
+        when(request.getAttributes()).thenReturn(attributes);
+        when(execution.execute(request, new byte[0])).thenThrow(new IOException("connection reset"));
+
+        // when / then
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+        Timer timer = meterRegistry.find(SpotifyApiMetricsInterceptor.METRIC_NAME)
+                .tags("endpoint", "accounts:/api/token", "status", "IO_ERROR", "outcome", "UNKNOWN", "retry", "2")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void givenRetriedWebClientRequest_whenFilter_thenRecordTimerWithRetryTag() {
+        // given
+        ClientRequest clientRequest = ClientRequest.create(HttpMethod.GET,
+                        URI.create(API_URI + "/albums/4aawyAB9vmqN3uQ7FjRGTy"))
+                .attribute(SpotifyApiMetricsInterceptor.RETRY_ATTRIBUTE, 1)
+                .build();
+
+        // when
+        interceptor.filter(clientRequest, r -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build())).block();
+
+        // then
+        Timer timer = meterRegistry.find(SpotifyApiMetricsInterceptor.METRIC_NAME)
+                .tags("endpoint", "/albums/{id}", "status", "404", "outcome", "CLIENT_ERROR", "retry", "1")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+}
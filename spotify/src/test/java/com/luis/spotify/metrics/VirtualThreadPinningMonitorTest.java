@@ -0,0 +1,107 @@
+package com.luis.spotify.metrics;
+
+import com.luis.spotify.metrics.VirtualThreadPinningMonitor.PinnedEvent;
+import com.luis.spotify.metrics.VirtualThreadPinningMonitor.PinningReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final List<String> H2_STACK = List.of(
+            "java.lang.Object.wait:-1",
+            "org.h2.mvstore.FileStore.readFully:120",
+            "com.luis.spotify.repository.UserSpotifyTokenRepository.findBySpotifyUserId:-1");
+
+    private static final List<String> APP_STACK = List.of(
+            "jdk.internal.misc.Unsafe.park:-1",
+            "com.luis.spotify.cache.SomeCache.load:42");
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, true, Duration.ofMillis(20), 2);
+    }
+
+    private static PinnedEvent pinned(long millis, List<String> stackTrace) {
+        return new PinnedEvent(Instant.now(), Duration.ofMillis(millis), "tomcat-handler-1", stackTrace);
+    }
+
+    @Test
+    void givenPinnedEvents_whenReport_thenTimeThemAndGroupBySiteMostFrequentFirst() {
+        // given
+        monitor.record(pinned(30, APP_STACK));
+        monitor.record(pinned(50, H2_STACK));
+        monitor.record(pinned(20, H2_STACK));
+
+        // when
+        PinningReport report = monitor.report();
+
+        // then
+        assertEquals(3, report.pinnedCount());
+        assertEquals(Duration.ofMillis(100), report.totalPinned());
+        assertEquals(List.of("org.h2.mvstore.FileStore.readFully:120", "com.luis.spotify.cache.SomeCache.load:42"),
+                List.copyOf(report.pinnedBySite().keySet()));
+        assertEquals(2L, report.pinnedBySite().get("org.h2.mvstore.FileStore.readFully:120"));
+        assertEquals(3, meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME).timer().count());
+    }
+
+    @Test
+    void givenMoreEventsThanMaxRecent_whenReport_thenKeepOnlyTheLatest() {
+        // given
+        monitor.record(pinned(21, APP_STACK));
+        monitor.record(pinned(22, APP_STACK));
+        monitor.record(pinned(23, APP_STACK));
+
+        // when
+        List<PinnedEvent> recent = monitor.report().recent();
+
+        // then
+        assertEquals(List.of(Duration.ofMillis(23), Duration.ofMillis(22)),
+                recent.stream().map(PinnedEvent::duration).toList());
+    }
+
+    @Test
+    void givenStackWithOnlyJdkFrames_whenPinningSite_thenFallBackToTopFrame() {
+        assertEquals("java.lang.Object.wait:-1", VirtualThreadPinningMonitor.pinningSite(List.of("java.lang.Object.wait:-1")));
+        assertEquals("unknown", VirtualThreadPinningMonitor.pinningSite(List.of()));
+    }
+
+    @Test
+    void givenVirtualThreadsDisabled_whenStart_thenDoNotMonitor() {
+        // given
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, false, Duration.ofMillis(20), 2);
+
+        // when
+        monitor.start();
+
+        // then
+        assertTrue(monitor.isRunning());
+        assertFalse(monitor.report().monitoring());
+        assertFalse(monitor.report().virtualThreadsRequested());
+        monitor.stop();
+        assertFalse(monitor.isRunning());
+    }
+
+    @Test
+    void givenVirtualThreadsRequested_whenStart_thenMonitorOnlyWhereTheRuntimeSupportsIt() {
+        // when
+        monitor.start();
+
+        // then
+        try {
+            assertEquals(Runtime.version().feature() >= 21, monitor.report().monitoring());
+        } finally {
+            monitor.stop();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.model.UserSpotifyTokens;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTokenRefreshCoordinatorTest {
+
+    private static final String SPOTIFY_USER_ID = "testUser";
+
+    private final InMemoryTokenRefreshCoordinator coordinator = new InMemoryTokenRefreshCoordinator();
+
+    @Test
+    void givenRefresherThrowsErrorWhileAnotherCallerWaits_whenRefresh_thenBothCallersGetTheError() throws Exception {
+        // given
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<UserSpotifyTokens> leader = pool.submit(() -> coordinator.refresh(SPOTIFY_USER_ID, () -> {
+                refreshStarted.countDown();
+                awaitParked(followerThread);
+                throw new AssertionError("refresher blew up");
+            }));
+            assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+            Future<UserSpotifyTokens> follower = pool.submit(() -> {
+                followerThread.set(Thread.currentThread());
+                return coordinator.refresh(SPOTIFY_USER_ID, () -> {
+                    throw new IllegalStateException("follower should join the running refresh");
+                });
+            });
+
+            // then
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, leaderFailure.getCause());
+            ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, followerFailure.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenPreviousRefreshThrewError_whenRefreshAgain_thenRunTheNewRefresher() {
+        // given
+        UserSpotifyTokens refreshed = UserSpotifyTokens.builder().spotifyUserId(SPOTIFY_USER_ID).accessToken("new").build();
+        assertThrows(StackOverflowError.class, () -> coordinator.refresh(SPOTIFY_USER_ID, () -> {
+            throw new StackOverflowError();
+        }));
+
+        // when
+        UserSpotifyTokens result = coordinator.refresh(SPOTIFY_USER_ID, () -> refreshed);
+
+        // then
+        assertSame(refreshed, result);
+    }
+
+    /** Spins until the follower is parked waiting on the refresh the leader is running. */
+    private static void awaitParked(AtomicReference<Thread> thread) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline
+                && (thread.get() == null || thread.get().getState() != Thread.State.WAITING)) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.util.Date;
 
 import static org.mockito.Mockito.mock;
@@ -28,6 +29,9 @@ public class JwtProviderServiceImplTest {
     void setup(){
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "thisisalongsecretkeyforjwttokenproviderthatisatleast256bitslong");
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 3600000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxTtl", Duration.ofMinutes(5));
+        jwtTokenProvider.init();
     }
 
     @Test
@@ -162,6 +166,49 @@ public class JwtProviderServiceImplTest {
         assertNotNull(claims.getExpiration());
     }
 
+    @Test
+    void givenVerifiedJwtToken_whenVerifyAndGetClaimsAgain_thenReturnCachedClaims() {
+        // given
+        OAuth2User oAuth2User = mock(OAuth2User.class);
+        when(oAuth2User.getName()).thenReturn("cachedUser");
+        when(oAuth2User.getAttribute("display_name")).thenReturn("Cached User");
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(oAuth2User);
+
+        String token = jwtTokenProvider.generateToken(authentication);
+        Claims first = jwtTokenProvider.verifyAndGetClaims(token);
+
+        // when
+        Claims second = jwtTokenProvider.verifyAndGetClaims(token);
+
+        // then
+        assertNotNull(first);
+        assertEquals("cachedUser", first.get("userId"));
+        assertSame(first, second);
+    }
+
+    @Test
+    void givenVerifiedJwtTokenThatExpires_whenVerifyAndGetClaims_thenCacheDoesNotOutliveToken() throws InterruptedException {
+        // given
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 1000L);
+        OAuth2User oAuth2User = mock(OAuth2User.class);
+        when(oAuth2User.getName()).thenReturn("shortLivedUser");
+        when(oAuth2User.getAttribute("display_name")).thenReturn("Short Lived User");
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(oAuth2User);
+
+        String token = jwtTokenProvider.generateToken(authentication);
+        assertNotNull(jwtTokenProvider.verifyAndGetClaims(token));
+
+        Thread.sleep(1100);
+
+        // when
+        Claims claims = jwtTokenProvider.verifyAndGetClaims(token);
+
+        // then
+        assertNull(claims);
+    }
+
     @Test
     void givenUnsupportedJwtToken_whenValidateToken_thenReturnFalse() {
         // given
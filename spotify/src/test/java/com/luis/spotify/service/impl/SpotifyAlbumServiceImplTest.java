@@ -1,26 +1,36 @@
 package com.luis.spotify.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifyCatalogCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
 import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyMultiGet;
 import com.luis.spotify.dto.SpotifyTrack;
-import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.service.SpotifyAppTokenService;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyCatalogBatchLoader;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
+import com.luis.spotify.upstream.SpotifyRateLimitedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
 import java.security.Principal;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,43 +43,35 @@ class SpotifyAlbumApiServiceImplTest {
     private UserSpotifyTokenRepository tokenRepository;
 
     @Mock
-    private SpotifyApiServiceImpl spotifyApiService;
+    private SpotifyAppTokenService appTokenService;
 
     @Mock
     private RestClient mockSpotifyApiRestClient;
 
-    @Spy
-    private ObjectMapper objectMapper;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SpotifyMissingIdCache missingIdCache =
+            new SpotifyMissingIdCache(new SimpleMeterRegistry(), 1000, Duration.ofHours(1), false, 0, 0.01);
 
     private SpotifyAlbumApiServiceImpl spotifyAlbumApiService;
 
     private static final String API_URI = "https://api.spotify.com/v1";
     private static final String SPOTIFY_USER_ID = "testUser";
-    private static final String INITIAL_ACCESS_TOKEN = "initialAccessToken";
-    private static final String NEW_ACCESS_TOKEN = "newAccessToken";
-    private static final String TEST_ALBUM_ID = "testAlbumId123";
+    private static final String APP_ACCESS_TOKEN = "appAccessToken";
+    private static final String TEST_ALBUM_ID = "4aawyAB9vmqN3uQ7FjRGTy";
 
     @BeforeEach
     void setUp() {
         when(restClientBuilder.build()).thenReturn(mockSpotifyApiRestClient);
 
         spotifyAlbumApiService = new SpotifyAlbumApiServiceImpl(
-                restClientBuilder,
+                new SpotifyCatalogBatchLoader(restClientBuilder, missingIdCache, new SimpleMeterRegistry(),
+                        API_URI, true, Duration.ofMillis(50), 50, 4),
                 tokenRepository,
-                spotifyApiService
+                appTokenService,
+                new SpotifyCatalogCache(1000, Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofMinutes(5)),
+                new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6)),
+                missingIdCache
         );
-
-        ReflectionTestUtils.setField(spotifyAlbumApiService, "apiUri", API_URI);
-        ReflectionTestUtils.setField(spotifyAlbumApiService, "objectMapper", objectMapper);
-    }
-
-    private UserSpotifyTokens createUserTokens(boolean expired) {
-        UserSpotifyTokens userTokens = new UserSpotifyTokens();
-        userTokens.setSpotifyUserId(SPOTIFY_USER_ID);
-        userTokens.setAccessToken(INITIAL_ACCESS_TOKEN);
-        userTokens.setAccessTokenExpiresAt(expired ? Instant.now().minus(1, ChronoUnit.HOURS) : Instant.now().plus(1, ChronoUnit.HOURS));
-        userTokens.setRefreshToken("someRefreshToken");
-        return userTokens;
     }
 
     private Map<String, Object> createSpotifyAlbumApiResponse(
@@ -102,8 +104,7 @@ class SpotifyAlbumApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -111,7 +112,7 @@ class SpotifyAlbumApiServiceImplTest {
 
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
-        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         SpotifyTrack mockTrack = new SpotifyTrack("track1", "Album Song", null, null, 12345, null, 1);
@@ -119,7 +120,7 @@ class SpotifyAlbumApiServiceImplTest {
                 TEST_ALBUM_ID, "My Awesome Album", 1, Collections.singletonList(mockTrack)
         );
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(SpotifyAlbum.class)).thenReturn(objectMapper.convertValue(apiResponse, SpotifyAlbum.class));
 
         // when
         SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
@@ -133,20 +134,18 @@ class SpotifyAlbumApiServiceImplTest {
         assertEquals("Album Song", album.getTrack()[0].getName());
         assertEquals(1, album.getTotalTracks());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
-        verify(localRequestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN);
+        verify(localRequestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN);
     }
 
     @Test
-    void givenUserWithExpiredToken_whenGetAlbumInfo_thenUseRefreshedTokenAndReturnAlbum() {
+    void givenUserWithExpiredToken_whenGetAlbumInfo_thenReadAlbumWithAppTokenWithoutTouchingUserTokens() {
         // given
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens refreshedUserTokens = createUserTokens(false);
-        refreshedUserTokens.setAccessToken(NEW_ACCESS_TOKEN);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(refreshedUserTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -154,7 +153,7 @@ class SpotifyAlbumApiServiceImplTest {
 
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
-        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         SpotifyTrack mockTrack = new SpotifyTrack("track2", "Refreshed Album Song", null, null, 45678, null, 2);
@@ -162,7 +161,7 @@ class SpotifyAlbumApiServiceImplTest {
                 TEST_ALBUM_ID, "Refreshed Album", 1, Collections.singletonList(mockTrack)
         );
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(SpotifyAlbum.class)).thenReturn(objectMapper.convertValue(apiResponse, SpotifyAlbum.class));
 
         // when
         SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
@@ -173,26 +172,27 @@ class SpotifyAlbumApiServiceImplTest {
         assertEquals(1, album.getTrack().length);
         assertEquals("Refreshed Album Song", album.getTrack()[0].getName());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
-        verify(localRequestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN);
+        verify(localRequestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN);
+        verifyNoInteractions(tokenRepository);
     }
 
     @Test
-    void givenNoTokensFoundForUser_whenGetAlbumInfo_thenThrowRuntimeException() {
+    void givenAppTokenUnavailable_whenGetAlbumInfo_thenThrowRuntimeException() {
         // given
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenThrow(new RuntimeException("No tokens found for user: " + SPOTIFY_USER_ID));
+        when(appTokenService.getAccessToken()).thenThrow(new RuntimeException("Failed to get a Spotify app token. null"));
 
         // when / then
         RuntimeException thrown = assertThrows(RuntimeException.class, () ->
                 spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID)
         );
-        assertEquals("No tokens found for user: " + SPOTIFY_USER_ID, thrown.getMessage());
+        assertEquals("Failed to get a Spotify app token. null", thrown.getMessage());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verifyNoInteractions(mockSpotifyApiRestClient);
     }
 
@@ -202,8 +202,7 @@ class SpotifyAlbumApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -211,17 +210,17 @@ class SpotifyAlbumApiServiceImplTest {
 
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
-        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
-        when(localResponseSpec.body(Map.class)).thenReturn(null);
+        when(localResponseSpec.body(SpotifyAlbum.class)).thenReturn(null);
 
         // when
         SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
 
         // then
         assertNull(album);
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
 
@@ -231,8 +230,7 @@ class SpotifyAlbumApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -240,7 +238,7 @@ class SpotifyAlbumApiServiceImplTest {
 
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
-        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         Map<String, Object> apiResponse = new HashMap<>();
@@ -252,7 +250,7 @@ class SpotifyAlbumApiServiceImplTest {
         apiResponse.put("artists", Collections.emptyList());
         apiResponse.put("total_tracks", 0);
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(SpotifyAlbum.class)).thenReturn(objectMapper.convertValue(apiResponse, SpotifyAlbum.class));
 
         // when
         SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
@@ -262,7 +260,7 @@ class SpotifyAlbumApiServiceImplTest {
         assertEquals("Album No Tracks", album.getName());
         assertNotNull(album.getTrack());
         assertEquals(0, album.getTrack().length);
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
 
@@ -272,8 +270,7 @@ class SpotifyAlbumApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -281,14 +278,14 @@ class SpotifyAlbumApiServiceImplTest {
 
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
-        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         Map<String, Object> apiResponse = createSpotifyAlbumApiResponse(
                 TEST_ALBUM_ID, "Album Empty Tracks", 0, Collections.emptyList()
         );
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(SpotifyAlbum.class)).thenReturn(objectMapper.convertValue(apiResponse, SpotifyAlbum.class));
 
         // when
         SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
@@ -298,7 +295,7 @@ class SpotifyAlbumApiServiceImplTest {
         assertEquals("Album Empty Tracks", album.getName());
         assertNotNull(album.getTrack());
         assertEquals(0, album.getTrack().length);
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
 
@@ -308,8 +305,7 @@ class SpotifyAlbumApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -317,17 +313,173 @@ class SpotifyAlbumApiServiceImplTest {
 
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
-        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
-        doThrow(new RuntimeException("API album error")).when(localResponseSpec).body(Map.class);
+        doThrow(new RuntimeException("API album error")).when(localResponseSpec).body(SpotifyAlbum.class);
 
         // when
         SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
 
         // then
         assertNull(album);
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
+        verify(mockSpotifyApiRestClient, times(1)).get();
+    }
+
+    @Test
+    void givenSpotifyRateLimited_whenGetAlbumInfo_thenPropagateInsteadOfReturningNull() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec localResponseSpec = mock(RestClient.ResponseSpec.class);
+
+        when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
+        when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
+
+        SpotifyRateLimitedException rateLimited = new SpotifyRateLimitedException(Duration.ofSeconds(2), RequestPriority.HIGH);
+        doThrow(rateLimited).when(localResponseSpec).body(SpotifyAlbum.class);
+
+        // when
+        SpotifyRateLimitedException thrown = assertThrows(SpotifyRateLimitedException.class,
+                () -> spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID));
+
+        // then
+        assertSame(rateLimited, thrown);
+        verify(mockSpotifyApiRestClient, times(1)).get();
+    }
+
+    @Test
+    void givenAlbumAlreadyFetchedByAnotherUser_whenGetAlbumInfo_thenServeFromCatalogCache() {
+        // given
+        Principal firstUser = mock(Principal.class);
+        when(firstUser.getName()).thenReturn(SPOTIFY_USER_ID);
+        Principal secondUser = mock(Principal.class);
+        when(secondUser.getName()).thenReturn("anotherUser");
+
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec localResponseSpec = mock(RestClient.ResponseSpec.class);
+
+        when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
+        when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
+
+        Map<String, Object> apiResponse = createSpotifyAlbumApiResponse(TEST_ALBUM_ID, "Cached Album", 0, Collections.emptyList());
+        when(localResponseSpec.body(SpotifyAlbum.class)).thenReturn(objectMapper.convertValue(apiResponse, SpotifyAlbum.class));
+
+        // when
+        SpotifyAlbum first = spotifyAlbumApiService.getAlbumInfo(firstUser, TEST_ALBUM_ID);
+        SpotifyAlbum second = spotifyAlbumApiService.getAlbumInfo(secondUser, TEST_ALBUM_ID);
+
+        // then
+        assertEquals("Cached Album", first.getName());
+        assertSame(first, second);
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
+
+    @Test
+    void givenMalformedAlbumId_whenGetAlbumInfo_thenReturnNullWithoutCallingSpotify() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+
+        // when
+        SpotifyAlbum album = spotifyAlbumApiService.getAlbumInfo(principal, "../../me");
+
+        // then
+        assertNull(album);
+        verifyNoInteractions(appTokenService, mockSpotifyApiRestClient);
+    }
+
+    @Test
+    void givenSpotifyReportsAlbumNotFound_whenGetAlbumInfoAgain_thenRejectLocallyWithoutCallingSpotify() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec localResponseSpec = mock(RestClient.ResponseSpec.class);
+
+        when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
+        when(localRequestHeadersUriSpec.uri(API_URI + "/albums/" + TEST_ALBUM_ID)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
+        when(localResponseSpec.body(SpotifyAlbum.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        SpotifyAlbum first = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
+
+        // when
+        SpotifyAlbum second = spotifyAlbumApiService.getAlbumInfo(principal, TEST_ALBUM_ID);
+
+        // then
+        assertNull(first);
+        assertNull(second);
+        assertTrue(missingIdCache.isKnownMissing(SpotifyMissingIdCache.IdType.ALBUM, TEST_ALBUM_ID));
+        verify(mockSpotifyApiRestClient, times(1)).get();
+    }
+
+    @Test
+    void givenSeveralAlbumIds_whenGetAlbums_thenFetchThemInOneMultiGetInRequestOrder() {
+        // given
+        String secondAlbumId = "1DFixLWuPkv3KT3TnV35m3";
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec localResponseSpec = mock(RestClient.ResponseSpec.class);
+
+        when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
+        when(localRequestHeadersUriSpec.uri(API_URI + "/albums?ids=" + TEST_ALBUM_ID + "," + secondAlbumId))
+                .thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.LOW))
+                .thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
+
+        Map<String, Object> apiResponse = Map.of("albums", List.of(
+                createSpotifyAlbumApiResponse(TEST_ALBUM_ID, "First Album", 0, Collections.emptyList()),
+                createSpotifyAlbumApiResponse(secondAlbumId, "Second Album", 0, null)));
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(objectMapper.convertValue(apiResponse,
+                objectMapper.getTypeFactory().constructParametricType(SpotifyMultiGet.class, SpotifyAlbum.class)));
+
+        // when
+        List<SpotifyAlbum> albums = spotifyAlbumApiService.getAlbums(principal, List.of(TEST_ALBUM_ID, secondAlbumId));
+        SpotifyAlbum cached = spotifyAlbumApiService.getAlbumInfo(principal, secondAlbumId);
+
+        // then
+        assertEquals(List.of("First Album", "Second Album"), albums.stream().map(SpotifyAlbum::getName).toList());
+        assertNotNull(albums.get(1).getTrack());
+        assertSame(albums.get(1), cached);
+        verify(mockSpotifyApiRestClient, times(1)).get();
+    }
+
+    @Test
+    void givenOnlyMalformedAlbumIds_whenGetAlbums_thenReturnEmptyListWithoutCallingSpotify() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+
+        // when
+        List<SpotifyAlbum> albums = spotifyAlbumApiService.getAlbums(principal, List.of("../../me", "short"));
+
+        // then
+        assertTrue(albums.isEmpty());
+        verifyNoInteractions(appTokenService, mockSpotifyApiRestClient);
+    }
 }
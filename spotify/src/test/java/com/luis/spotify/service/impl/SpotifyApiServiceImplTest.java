@@ -1,11 +1,14 @@
 package com.luis.spotify.service.impl;
 
+import com.luis.spotify.cache.UserSpotifyTokenCache;
 import com.luis.spotify.dto.SpotifyUserProfile;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
@@ -14,11 +17,18 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClient;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -49,6 +59,7 @@ public class SpotifyApiServiceImplTest {
     private RestClient.ResponseSpec responseSpec;
 
     private SpotifyApiServiceImpl spotifyApiService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     private static final String CLIENT_ID = "testClientId";
     private static final String CLIENT_SECRET = "testClientSecret";
@@ -63,7 +74,9 @@ public class SpotifyApiServiceImplTest {
     @BeforeEach
     void setUp() {
         when(restClientBuilder.build()).thenReturn(mockSpotifyApiRestClient, mockSpotifyAuthRestClient);
-        spotifyApiService = new SpotifyApiServiceImpl(restClientBuilder, tokenRepository);
+        spotifyApiService = new SpotifyApiServiceImpl(restClientBuilder,
+                new UserSpotifyTokenCache(tokenRepository, 100, Duration.ofHours(1)),
+                new InMemoryTokenRefreshCoordinator(), meterRegistry);
 
         ReflectionTestUtils.setField(spotifyApiService, "clientId", CLIENT_ID);
         ReflectionTestUtils.setField(spotifyApiService, "clientSecret", CLIENT_SECRET);
@@ -107,6 +120,28 @@ public class SpotifyApiServiceImplTest {
         verify(responseSpec).body(SpotifyUserProfile.class);
     }
 
+    @Test
+    void givenCachedUserWithNonExpiredSpotifyToken_whenGetAndRefreshUserTokenTwice_thenRepositoryReadOnce() {
+        // given
+        UserSpotifyTokens userTokens = new UserSpotifyTokens();
+        userTokens.setSpotifyUserId(SPOTIFY_USER_ID);
+        userTokens.setAccessToken(INITIAL_ACCESS_TOKEN);
+        userTokens.setAccessTokenExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS));
+        userTokens.setRefreshToken(INITIAL_REFRESH_TOKEN);
+
+        when(tokenRepository.findById(SPOTIFY_USER_ID)).thenReturn(Optional.of(userTokens));
+
+        // when
+        UserSpotifyTokens first = spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID);
+        UserSpotifyTokens second = spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID);
+
+        // then
+        assertEquals(INITIAL_ACCESS_TOKEN, first.getAccessToken());
+        assertSame(first, second);
+        verify(tokenRepository, times(1)).findById(SPOTIFY_USER_ID);
+        verify(tokenRepository, never()).save(any(UserSpotifyTokens.class));
+    }
+
     @Test
     void givenUserWithExpiredSpotifyToken_whenGetUserInfo_thenRefreshTokenAndReturnUserProfile() {
         // given
@@ -151,12 +186,99 @@ public class SpotifyApiServiceImplTest {
 
         verify(tokenRepository).findById(SPOTIFY_USER_ID);
         verify(mockSpotifyAuthRestClient).post();
-        verify(tokenRepository).save(userTokens);
-        assertEquals(NEW_ACCESS_TOKEN, userTokens.getAccessToken());
-        assertEquals(NEW_REFRESH_TOKEN, userTokens.getRefreshToken());
-        assertTrue(userTokens.getAccessTokenExpiresAt().isAfter(Instant.now()));
+        ArgumentCaptor<UserSpotifyTokens> saved = ArgumentCaptor.forClass(UserSpotifyTokens.class);
+        verify(tokenRepository).save(saved.capture());
+        assertEquals(SPOTIFY_USER_ID, saved.getValue().getSpotifyUserId());
+        assertEquals(NEW_ACCESS_TOKEN, saved.getValue().getAccessToken());
+        assertEquals(NEW_REFRESH_TOKEN, saved.getValue().getRefreshToken());
+        assertTrue(saved.getValue().getAccessTokenExpiresAt().isAfter(Instant.now()));
+        assertEquals(INITIAL_ACCESS_TOKEN, userTokens.getAccessToken());
         verify(mockSpotifyApiRestClient).get();
         verify(requestHeadersSpec).header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN);
+        assertEquals(1, meterRegistry.counter("spotify.token.refreshes", "outcome", "success").count());
+    }
+
+    @Test
+    void givenExpiredSpotifyTokenAndConcurrentCallers_whenGetAndRefreshUserToken_thenRefreshOnce() throws Exception {
+        // given
+        UserSpotifyTokens userTokens = new UserSpotifyTokens();
+        userTokens.setSpotifyUserId(SPOTIFY_USER_ID);
+        userTokens.setAccessToken(INITIAL_ACCESS_TOKEN);
+        userTokens.setAccessTokenExpiresAt(Instant.now().minus(1, ChronoUnit.HOURS));
+        userTokens.setRefreshToken(INITIAL_REFRESH_TOKEN);
+
+        when(tokenRepository.findById(SPOTIFY_USER_ID)).thenReturn(Optional.of(userTokens));
+
+        when(mockSpotifyAuthRestClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(TOKEN_URI)).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq(HttpHeaders.AUTHORIZATION), anyString())).thenReturn(requestBodySpec);
+        when(requestBodySpec.contentType(MediaType.APPLICATION_FORM_URLENCODED)).thenReturn(requestBodySpec);
+        when(requestBodySpec.body(any(String.class))).thenReturn(requestBodySpec);
+        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
+
+        Map<String, Object> refreshTokenResponse = new HashMap<>();
+        refreshTokenResponse.put("access_token", NEW_ACCESS_TOKEN);
+        refreshTokenResponse.put("expires_in", 3600);
+        when(responseSpec.body(Map.class)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return refreshTokenResponse;
+        });
+
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        Callable<UserSpotifyTokens> call = () -> spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID);
+
+        // when
+        List<Future<UserSpotifyTokens>> results;
+        try {
+            results = pool.invokeAll(Collections.nCopies(callers, call));
+        } finally {
+            pool.shutdown();
+        }
+
+        // then
+        for (Future<UserSpotifyTokens> result : results) {
+            assertEquals(NEW_ACCESS_TOKEN, result.get().getAccessToken());
+        }
+        verify(mockSpotifyAuthRestClient, times(1)).post();
+        verify(tokenRepository, times(1)).save(any(UserSpotifyTokens.class));
+    }
+
+    @Test
+    void givenExpiredSpotifyTokenAndSaveFails_whenGetAndRefreshUserToken_thenKeepCachedTokensUntouched() {
+        // given
+        UserSpotifyTokens userTokens = new UserSpotifyTokens();
+        userTokens.setSpotifyUserId(SPOTIFY_USER_ID);
+        userTokens.setAccessToken(INITIAL_ACCESS_TOKEN);
+        Instant expiredAt = Instant.now().minus(1, ChronoUnit.HOURS);
+        userTokens.setAccessTokenExpiresAt(expiredAt);
+        userTokens.setRefreshToken(INITIAL_REFRESH_TOKEN);
+
+        when(tokenRepository.findById(SPOTIFY_USER_ID)).thenReturn(Optional.of(userTokens));
+
+        when(mockSpotifyAuthRestClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(TOKEN_URI)).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(eq(HttpHeaders.AUTHORIZATION), anyString())).thenReturn(requestBodySpec);
+        when(requestBodySpec.contentType(MediaType.APPLICATION_FORM_URLENCODED)).thenReturn(requestBodySpec);
+        when(requestBodySpec.body(any(String.class))).thenReturn(requestBodySpec);
+        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
+
+        Map<String, Object> refreshTokenResponse = new HashMap<>();
+        refreshTokenResponse.put("access_token", NEW_ACCESS_TOKEN);
+        refreshTokenResponse.put("expires_in", 3600);
+        refreshTokenResponse.put("refresh_token", NEW_REFRESH_TOKEN);
+        when(responseSpec.body(Map.class)).thenReturn(refreshTokenResponse);
+        when(tokenRepository.save(any(UserSpotifyTokens.class))).thenThrow(new RuntimeException("Database down"));
+
+        // when
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID));
+
+        // then
+        assertEquals("Database down", thrown.getMessage());
+        assertEquals(INITIAL_ACCESS_TOKEN, userTokens.getAccessToken());
+        assertEquals(INITIAL_REFRESH_TOKEN, userTokens.getRefreshToken());
+        assertEquals(expiredAt, userTokens.getAccessTokenExpiresAt());
     }
 
     @Test
@@ -210,6 +332,7 @@ public class SpotifyApiServiceImplTest {
         verify(mockSpotifyAuthRestClient).post();
         verify(tokenRepository, never()).save(any(UserSpotifyTokens.class));
         verifyNoMoreInteractions(mockSpotifyApiRestClient);
+        assertEquals(1, meterRegistry.counter("spotify.token.refreshes", "outcome", "failure").count());
     }
 
     @Test
@@ -328,10 +451,11 @@ public class SpotifyApiServiceImplTest {
 
         verify(tokenRepository).findById(SPOTIFY_USER_ID);
         verify(mockSpotifyAuthRestClient).post();
-        verify(tokenRepository).save(userTokens);
-        assertEquals(NEW_ACCESS_TOKEN, userTokens.getAccessToken());
-        assertEquals(INITIAL_REFRESH_TOKEN, userTokens.getRefreshToken());
-        assertTrue(userTokens.getAccessTokenExpiresAt().isAfter(Instant.now()));
+        ArgumentCaptor<UserSpotifyTokens> saved = ArgumentCaptor.forClass(UserSpotifyTokens.class);
+        verify(tokenRepository).save(saved.capture());
+        assertEquals(NEW_ACCESS_TOKEN, saved.getValue().getAccessToken());
+        assertEquals(INITIAL_REFRESH_TOKEN, saved.getValue().getRefreshToken());
+        assertTrue(saved.getValue().getAccessTokenExpiresAt().isAfter(Instant.now()));
         verify(mockSpotifyApiRestClient).get();
         verify(requestHeadersSpec).header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN);
     }
@@ -0,0 +1,182 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.dto.SpotifyTokenResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyAppTokenServiceImplTest {
+
+    @Mock
+    private RestClient.Builder restClientBuilder;
+    @Mock
+    private RestClient mockSpotifyAuthRestClient;
+    @Mock
+    private RestClient.RequestBodyUriSpec requestBodyUriSpec;
+    @Mock
+    private RestClient.RequestBodySpec requestBodySpec;
+    @Mock
+    private RestClient.ResponseSpec responseSpec;
+
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final String CLIENT_ID = "testClientId";
+    private static final String CLIENT_SECRET = "testClientSecret";
+    private static final String TOKEN_URI = "https://accounts.spotify.com/api/token";
+    private static final String FIRST_APP_TOKEN = "firstAppToken";
+    private static final String SECOND_APP_TOKEN = "secondAppToken";
+
+    @BeforeEach
+    void setUp() {
+        when(restClientBuilder.build()).thenReturn(mockSpotifyAuthRestClient);
+    }
+
+    private SpotifyAppTokenServiceImpl newAppTokenService(Duration refreshAhead) {
+        return new SpotifyAppTokenServiceImpl(restClientBuilder, backgroundTasks::add, meterRegistry,
+                CLIENT_ID, CLIENT_SECRET, TOKEN_URI, refreshAhead);
+    }
+
+    private void givenTokenEndpointIsCalled() {
+        when(mockSpotifyAuthRestClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(TOKEN_URI)).thenReturn(requestBodySpec);
+        when(requestBodySpec.header(HttpHeaders.AUTHORIZATION,
+                "Basic " + HttpHeaders.encodeBasicAuth(CLIENT_ID, CLIENT_SECRET, null))).thenReturn(requestBodySpec);
+        when(requestBodySpec.contentType(MediaType.APPLICATION_FORM_URLENCODED)).thenReturn(requestBodySpec);
+        when(requestBodySpec.body("grant_type=client_credentials")).thenReturn(requestBodySpec);
+        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    private static SpotifyTokenResponse tokenResponse(String accessToken, int expiresIn) {
+        return new SpotifyTokenResponse(accessToken, "Bearer", expiresIn);
+    }
+
+    @Test
+    void givenNoAppToken_whenGetAccessTokenTwice_thenFetchItOnceWithClientCredentials() {
+        // given
+        SpotifyAppTokenServiceImpl appTokenService = newAppTokenService(Duration.ofMinutes(5));
+        givenTokenEndpointIsCalled();
+        when(responseSpec.body(SpotifyTokenResponse.class)).thenReturn(tokenResponse(FIRST_APP_TOKEN, 3600));
+
+        // when
+        String first = appTokenService.getAccessToken();
+        String second = appTokenService.getAccessToken();
+
+        // then
+        assertEquals(FIRST_APP_TOKEN, first);
+        assertEquals(FIRST_APP_TOKEN, second);
+        assertEquals(FIRST_APP_TOKEN, appTokenService.getAccessTokenIfFresh());
+        assertTrue(backgroundTasks.isEmpty());
+        verify(mockSpotifyAuthRestClient, times(1)).post();
+    }
+
+    @Test
+    void givenAppTokenDueForRenewal_whenGetAccessToken_thenReturnItAndRenewInBackground() {
+        // given
+        SpotifyAppTokenServiceImpl appTokenService = newAppTokenService(Duration.ofMinutes(5));
+        givenTokenEndpointIsCalled();
+        when(responseSpec.body(SpotifyTokenResponse.class))
+                .thenReturn(tokenResponse(FIRST_APP_TOKEN, 60), tokenResponse(SECOND_APP_TOKEN, 3600));
+        appTokenService.getAccessToken();
+
+        // when
+        String duringRenewal = appTokenService.getAccessToken();
+        String alsoDuringRenewal = appTokenService.getAccessToken();
+
+        // then
+        assertEquals(FIRST_APP_TOKEN, duringRenewal);
+        assertEquals(FIRST_APP_TOKEN, alsoDuringRenewal);
+        assertNull(appTokenService.getAccessTokenIfFresh());
+        assertEquals(1, backgroundTasks.size());
+
+        // and once the renewal has run, callers get the new token without another fetch
+        backgroundTasks.get(0).run();
+        assertEquals(SECOND_APP_TOKEN, appTokenService.getAccessToken());
+        assertEquals(SECOND_APP_TOKEN, appTokenService.getAccessTokenIfFresh());
+        verify(mockSpotifyAuthRestClient, times(2)).post();
+    }
+
+    @Test
+    void givenTokenEndpointReturnsError_whenGetAccessToken_thenThrowAndTryAgainOnNextCall() {
+        // given
+        SpotifyAppTokenServiceImpl appTokenService = newAppTokenService(Duration.ofMinutes(5));
+        givenTokenEndpointIsCalled();
+        SpotifyTokenResponse errorResponse = new SpotifyTokenResponse();
+        when(responseSpec.body(SpotifyTokenResponse.class)).thenReturn(errorResponse, tokenResponse(FIRST_APP_TOKEN, 3600));
+
+        // when
+        RuntimeException thrown = assertThrows(RuntimeException.class, appTokenService::getAccessToken);
+        String retried = appTokenService.getAccessToken();
+
+        // then
+        assertEquals("Failed to get a Spotify app token. " + errorResponse, thrown.getMessage());
+        assertEquals(FIRST_APP_TOKEN, retried);
+        verify(mockSpotifyAuthRestClient, times(2)).post();
+        assertEquals(1, meterRegistry.counter("spotify.app-token.refreshes", "outcome", "failure").count());
+        assertEquals(1, meterRegistry.counter("spotify.app-token.refreshes", "outcome", "success").count());
+    }
+
+    @Test
+    void givenTokenResponseWithoutExpiry_whenGetAccessToken_thenThrowWithoutExposingTheToken() {
+        // given
+        SpotifyAppTokenServiceImpl appTokenService = newAppTokenService(Duration.ofMinutes(5));
+        givenTokenEndpointIsCalled();
+        when(responseSpec.body(SpotifyTokenResponse.class))
+                .thenReturn(new SpotifyTokenResponse(FIRST_APP_TOKEN, "Bearer", null));
+
+        // when
+        RuntimeException thrown = assertThrows(RuntimeException.class, appTokenService::getAccessToken);
+
+        // then
+        assertFalse(thrown.getMessage().contains(FIRST_APP_TOKEN));
+        assertNull(appTokenService.getAccessTokenIfFresh());
+    }
+
+    @Test
+    void givenNoAppTokenAndConcurrentCallers_whenGetAccessToken_thenFetchOnce() throws Exception {
+        // given
+        SpotifyAppTokenServiceImpl appTokenService = newAppTokenService(Duration.ofMinutes(5));
+        givenTokenEndpointIsCalled();
+        when(responseSpec.body(SpotifyTokenResponse.class)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return tokenResponse(FIRST_APP_TOKEN, 3600);
+        });
+
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        Callable<String> call = appTokenService::getAccessToken;
+
+        // when
+        List<Future<String>> results;
+        try {
+            results = pool.invokeAll(Collections.nCopies(callers, call));
+        } finally {
+            pool.shutdown();
+        }
+
+        // then
+        for (Future<String> result : results) {
+            assertEquals(FIRST_APP_TOKEN, result.get());
+        }
+        verify(mockSpotifyAuthRestClient, times(1)).post();
+    }
+}
@@ -1,28 +1,50 @@
 package com.luis.spotify.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifyCatalogCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.cache.UserTopItemsCache;
 import com.luis.spotify.dto.SpotifyAlbum;
 import com.luis.spotify.dto.SpotifyArtist;
 import com.luis.spotify.dto.SpotifyArtistPage;
+import com.luis.spotify.dto.SpotifyArtistTopTracks;
+import com.luis.spotify.dto.SpotifyMultiGet;
+import com.luis.spotify.dto.SpotifyPage;
 import com.luis.spotify.dto.SpotifyTrack;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.service.SpotifyAppTokenService;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyCatalogBatchLoader;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +59,9 @@ class SpotifyArtistApiServiceImplTest {
     @Mock
     private SpotifyApiServiceImpl spotifyApiService;
 
+    @Mock
+    private SpotifyAppTokenService appTokenService;
+
     @Mock
     private RestClient mockSpotifyApiRestClient;
 
@@ -47,8 +72,9 @@ class SpotifyArtistApiServiceImplTest {
     @Mock
     private RestClient.ResponseSpec responseSpec;
 
-    @Spy
-    private ObjectMapper objectMapper;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SpotifyMissingIdCache missingIdCache =
+            new SpotifyMissingIdCache(new SimpleMeterRegistry(), 1000, Duration.ofHours(1), false, 0, 0.01);
 
     private SpotifyArtistApiServiceImpl spotifyArtistApiService;
 
@@ -56,7 +82,8 @@ class SpotifyArtistApiServiceImplTest {
     private static final String SPOTIFY_USER_ID = "testSpotifyUser";
     private static final String INITIAL_ACCESS_TOKEN = "initialAccessToken";
     private static final String NEW_ACCESS_TOKEN = "newAccessToken";
-    private static final String TEST_ARTIST_ID = "testArtistId123";
+    private static final String APP_ACCESS_TOKEN = "appAccessToken";
+    private static final String TEST_ARTIST_ID = "0TnOYISbd1XYRBk9myaseg";
 
     @BeforeEach
     void setUp() {
@@ -64,11 +91,32 @@ class SpotifyArtistApiServiceImplTest {
 
         spotifyArtistApiService = new SpotifyArtistApiServiceImpl(
                 restClientBuilder,
-                spotifyApiService
+                newBatchLoader(),
+                spotifyApiService,
+                appTokenService,
+                Runnable::run,
+                newCatalogCache(),
+                new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6)),
+                newTopItemsCache(),
+                missingIdCache
         );
 
         ReflectionTestUtils.setField(spotifyArtistApiService, "apiUri", API_URI);
-        ReflectionTestUtils.setField(spotifyArtistApiService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(spotifyArtistApiService, "artistPageTimeoutMs", 2000L);
+    }
+
+    private SpotifyCatalogBatchLoader newBatchLoader() {
+        return new SpotifyCatalogBatchLoader(restClientBuilder, missingIdCache, new SimpleMeterRegistry(),
+                API_URI, true, Duration.ofMillis(50), 50, 4);
+    }
+
+    private SpotifyCatalogCache newCatalogCache() {
+        Duration ttl = Duration.ofMinutes(5);
+        return new SpotifyCatalogCache(1000, ttl, ttl, ttl, ttl);
+    }
+
+    private UserTopItemsCache newTopItemsCache() {
+        return new UserTopItemsCache(1000, Duration.ofMinutes(10), Duration.ofHours(1), Runnable::run);
     }
 
     private UserSpotifyTokens createUserTokens(boolean expired) {
@@ -80,6 +128,11 @@ class SpotifyArtistApiServiceImplTest {
         return userTokens;
     }
 
+    private <T> SpotifyPage<T> toPage(Map<String, Object> apiResponse, Class<T> itemType) {
+        return objectMapper.convertValue(apiResponse,
+                objectMapper.getTypeFactory().constructParametricType(SpotifyPage.class, itemType));
+    }
+
     @Test
     void givenUserWithNonExpiredToken_whenGetTopArtists_thenReturnListOfArtists() {
         // given
@@ -96,6 +149,8 @@ class SpotifyArtistApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/artists?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         SpotifyArtist artist1 = new SpotifyArtist("id1", "Artist One", null, null, null);
@@ -103,7 +158,7 @@ class SpotifyArtistApiServiceImplTest {
         Map<String, Object> apiResponse = new HashMap<>();
         apiResponse.put("items", List.of(artist1, artist2));
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toPage(apiResponse, SpotifyArtist.class));
 
         // when
         List<SpotifyArtist> topArtists = spotifyArtistApiService.getTopArtists(principal);
@@ -139,13 +194,15 @@ class SpotifyArtistApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/artists?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         SpotifyArtist artist1 = new SpotifyArtist("id1", "Refreshed Artist", null, null, null);
         Map<String, Object> apiResponse = new HashMap<>();
         apiResponse.put("items", List.of(artist1));
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toPage(apiResponse, SpotifyArtist.class));
 
         // when
         List<SpotifyArtist> topArtists = spotifyArtistApiService.getTopArtists(principal);
@@ -194,9 +251,11 @@ class SpotifyArtistApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/artists?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
-        when(localResponseSpec.body(Map.class)).thenReturn(null);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(null);
 
         // when
         List<SpotifyArtist> topArtists = spotifyArtistApiService.getTopArtists(principal);
@@ -225,12 +284,14 @@ class SpotifyArtistApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/artists?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         Map<String, Object> apiResponse = new HashMap<>();
         apiResponse.put("items", new ArrayList<>());
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toPage(apiResponse, SpotifyArtist.class));
 
         // when
         List<SpotifyArtist> topArtists = spotifyArtistApiService.getTopArtists(principal);
@@ -249,8 +310,7 @@ class SpotifyArtistApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         SpotifyArtist mockArtistProfile = new SpotifyArtist(TEST_ARTIST_ID, "Artist Profile", null, null, null);
         SpotifyTrack mockTopTrack = new SpotifyTrack("track1", "Top Song", null, null, 123, null, 1);
@@ -274,26 +334,26 @@ class SpotifyArtistApiServiceImplTest {
                 .thenReturn(albumsUriSpec);
 
         when(profileUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID)).thenReturn(profileHeadersSpec);
-        when(profileHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(profileHeadersSpec);
+        when(profileHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(profileHeadersSpec);
         when(profileHeadersSpec.retrieve()).thenReturn(profileResponseSpec);
         Map<String, Object> artistProfileMap = new HashMap<>();
         artistProfileMap.put("id", mockArtistProfile.getId());
         artistProfileMap.put("name", mockArtistProfile.getName());
-        when(profileResponseSpec.body(Map.class)).thenReturn(artistProfileMap);
+        when(profileResponseSpec.body(SpotifyArtist.class)).thenReturn(objectMapper.convertValue(artistProfileMap, SpotifyArtist.class));
 
         Map<String, Object> topTracksResponse = new HashMap<>();
         topTracksResponse.put("tracks", List.of(objectMapper.convertValue(mockTopTrack, Map.class)));
         when(topTracksUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID + "/top-tracks")).thenReturn(topTracksHeadersSpec);
-        when(topTracksHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(topTracksHeadersSpec);
+        when(topTracksHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(topTracksHeadersSpec);
         when(topTracksHeadersSpec.retrieve()).thenReturn(topTracksResponseSpec);
-        when(topTracksResponseSpec.body(Map.class)).thenReturn(topTracksResponse);
+        when(topTracksResponseSpec.body(SpotifyArtistTopTracks.class)).thenReturn(objectMapper.convertValue(topTracksResponse, SpotifyArtistTopTracks.class));
 
         Map<String, Object> albumsResponse = new HashMap<>();
         albumsResponse.put("items", List.of(objectMapper.convertValue(mockAlbum, Map.class)));
         when(albumsUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID + "/albums?limit=8")).thenReturn(albumsHeadersSpec);
-        when(albumsHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(albumsHeadersSpec);
+        when(albumsHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(albumsHeadersSpec);
         when(albumsHeadersSpec.retrieve()).thenReturn(albumsResponseSpec);
-        when(albumsResponseSpec.body(Map.class)).thenReturn(albumsResponse);
+        when(albumsResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toPage(albumsResponse, SpotifyAlbum.class));
 
         // when
         SpotifyArtistPage artistPage = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
@@ -311,25 +371,25 @@ class SpotifyArtistApiServiceImplTest {
         assertEquals(1, artistPage.getAlbums().size());
         assertEquals("Album Title", artistPage.getAlbums().get(0).getName());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(3)).get();
     }
 
     @Test
-    void givenNoTokensFoundForUser_whenGetArtistPageInfo_thenThrowRuntimeException() {
+    void givenAppTokenUnavailable_whenGetArtistPageInfo_thenThrowRuntimeException() {
         // given
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenThrow(new RuntimeException("No tokens found for user: " + SPOTIFY_USER_ID));
+        when(appTokenService.getAccessToken()).thenThrow(new RuntimeException("Failed to get a Spotify app token. null"));
 
         // when / then
         RuntimeException thrown = assertThrows(RuntimeException.class, () ->
                 spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID)
         );
-        assertEquals("No tokens found for user: " + SPOTIFY_USER_ID, thrown.getMessage());
+        assertEquals("Failed to get a Spotify app token. null", thrown.getMessage());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verifyNoInteractions(mockSpotifyApiRestClient);
     }
 
@@ -339,8 +399,7 @@ class SpotifyArtistApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         SpotifyArtist mockArtistProfile = new SpotifyArtist(TEST_ARTIST_ID, "Partial Artist", null, null, null);
 
@@ -362,24 +421,24 @@ class SpotifyArtistApiServiceImplTest {
                 .thenReturn(albumsUriSpec);
 
         when(profileUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID)).thenReturn(profileHeadersSpec);
-        when(profileHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(profileHeadersSpec);
+        when(profileHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(profileHeadersSpec);
         when(profileHeadersSpec.retrieve()).thenReturn(profileResponseSpec);
         Map<String, Object> artistProfileMap = new HashMap<>();
         artistProfileMap.put("id", mockArtistProfile.getId());
         artistProfileMap.put("name", mockArtistProfile.getName());
-        when(profileResponseSpec.body(Map.class)).thenReturn(artistProfileMap);
+        when(profileResponseSpec.body(SpotifyArtist.class)).thenReturn(objectMapper.convertValue(artistProfileMap, SpotifyArtist.class));
 
         when(topTracksUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID + "/top-tracks")).thenReturn(topTracksHeadersSpec);
-        when(topTracksHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(topTracksHeadersSpec);
+        when(topTracksHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(topTracksHeadersSpec);
         when(topTracksHeadersSpec.retrieve()).thenReturn(topTracksResponseSpec);
-        when(topTracksResponseSpec.body(Map.class)).thenReturn(null);
+        when(topTracksResponseSpec.body(SpotifyArtistTopTracks.class)).thenReturn(null);
 
         Map<String, Object> emptyAlbumsResponse = new HashMap<>();
         emptyAlbumsResponse.put("other_field", "data");
         when(albumsUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID + "/albums?limit=8")).thenReturn(albumsHeadersSpec);
-        when(albumsHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(albumsHeadersSpec);
+        when(albumsHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(albumsHeadersSpec);
         when(albumsHeadersSpec.retrieve()).thenReturn(albumsResponseSpec);
-        when(albumsResponseSpec.body(Map.class)).thenReturn(emptyAlbumsResponse);
+        when(albumsResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toPage(emptyAlbumsResponse, SpotifyAlbum.class));
 
         // when
         SpotifyArtistPage artistPage = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
@@ -392,7 +451,7 @@ class SpotifyArtistApiServiceImplTest {
         assertTrue(artistPage.getTopTracks().isEmpty());
         assertTrue(artistPage.getAlbums().isEmpty());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(3)).get();
     }
 
@@ -401,8 +460,7 @@ class SpotifyArtistApiServiceImplTest {
         // given
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         RestClient.RequestHeadersUriSpec profileUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         RestClient.RequestHeadersSpec profileHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
@@ -422,22 +480,22 @@ class SpotifyArtistApiServiceImplTest {
                 .thenReturn(albumsUriSpec);
 
         when(profileUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID)).thenReturn(profileHeadersSpec);
-        when(profileHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(profileHeadersSpec);
+        when(profileHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(profileHeadersSpec);
         when(profileHeadersSpec.retrieve()).thenReturn(profileResponseSpec);
-        doThrow(new RuntimeException("API profile error")).when(profileResponseSpec).body(Map.class);
+        doThrow(new RuntimeException("API profile error")).when(profileResponseSpec).body(SpotifyArtist.class);
 
         Map<String, Object> topTracksSuccessResponse = Map.of("tracks", Collections.emptyList());
         when(topTracksUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID + "/top-tracks?market=US")).thenReturn(topTracksHeadersSpec);
-        when(topTracksHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(topTracksHeadersSpec);
+        when(topTracksHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(topTracksHeadersSpec);
         when(topTracksHeadersSpec.retrieve()).thenReturn(topTracksResponseSpec);
-        when(topTracksResponseSpec.body(Map.class)).thenReturn(topTracksSuccessResponse);
+        when(topTracksResponseSpec.body(SpotifyArtistTopTracks.class)).thenReturn(objectMapper.convertValue(topTracksSuccessResponse, SpotifyArtistTopTracks.class));
 
         Map<String, Object> albumsSuccessResponse = new HashMap<>();
         albumsSuccessResponse.put("items", Collections.emptyList());
         when(albumsUriSpec.uri(API_URI + "/artists/" + TEST_ARTIST_ID + "/albums?include_groups=album,single&limit=20")).thenReturn(albumsHeadersSpec);
-        when(albumsHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(albumsHeadersSpec);
+        when(albumsHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(albumsHeadersSpec);
         when(albumsHeadersSpec.retrieve()).thenReturn(albumsResponseSpec);
-        when(albumsResponseSpec.body(Map.class)).thenReturn(albumsSuccessResponse);
+        when(albumsResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toPage(albumsSuccessResponse, SpotifyAlbum.class));
 
         // when
         SpotifyArtistPage artistPage = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
@@ -448,7 +506,184 @@ class SpotifyArtistApiServiceImplTest {
         assertTrue(artistPage.getTopTracks().isEmpty());
         assertTrue(artistPage.getAlbums().isEmpty());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
+        verify(mockSpotifyApiRestClient, times(3)).get();
+    }
+
+    private void givenArtistCallAnswers(RestClient.RequestHeadersUriSpec uriSpec, String uri, Answer<Object> body) {
+        RestClient.RequestHeadersSpec headersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec responseSpec = mock(RestClient.ResponseSpec.class);
+        when(uriSpec.uri(uri)).thenReturn(headersSpec);
+        when(headersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(headersSpec);
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+        lenient().when(responseSpec.body(any(Class.class))).thenAnswer(body);
+        lenient().when(responseSpec.body(any(ParameterizedTypeReference.class))).thenAnswer(body);
+    }
+
+    @Test
+    void givenSlowUpstreamCalls_whenGetArtistPageInfo_thenAllThreeCallsAreInFlightAtOnce() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        spotifyArtistApiService = new SpotifyArtistApiServiceImpl(restClientBuilder, newBatchLoader(), spotifyApiService, appTokenService, executor, newCatalogCache(),
+                new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6)), newTopItemsCache(), missingIdCache);
+        ReflectionTestUtils.setField(spotifyArtistApiService, "apiUri", API_URI);
+        ReflectionTestUtils.setField(spotifyArtistApiService, "artistPageTimeoutMs", 10_000L);
+
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        // Each call waits until all three have started. Run one after another, the first would give up waiting.
+        CountDownLatch allStarted = new CountDownLatch(3);
+        List<Boolean> sawOthersInFlight = Collections.synchronizedList(new ArrayList<>());
+        RestClient.RequestHeadersUriSpec uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        when(mockSpotifyApiRestClient.get()).thenReturn(uriSpec);
+        givenArtistCallAnswers(uriSpec, API_URI + "/artists/" + TEST_ARTIST_ID, waitForOthers(allStarted, sawOthersInFlight,
+                new SpotifyArtist(TEST_ARTIST_ID, "Concurrent Artist", null, null, null)));
+        givenArtistCallAnswers(uriSpec, API_URI + "/artists/" + TEST_ARTIST_ID + "/top-tracks", waitForOthers(allStarted, sawOthersInFlight,
+                new SpotifyArtistTopTracks(List.of(new SpotifyTrack("track1", "Top Song", null, null, 123, null, 1)))));
+        givenArtistCallAnswers(uriSpec, API_URI + "/artists/" + TEST_ARTIST_ID + "/albums?limit=8", waitForOthers(allStarted, sawOthersInFlight,
+                new SpotifyPage<>(List.of(new SpotifyAlbum("album1", "Album Title", null, null, null, null, 5, null)), 1, null)));
+
+        // when
+        SpotifyArtistPage artistPage = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
+        executor.shutdownNow();
+
+        // then
+        assertEquals("Concurrent Artist", artistPage.getArtistProfile().getName());
+        assertEquals(1, artistPage.getTopTracks().size());
+        assertEquals(1, artistPage.getAlbums().size());
+        assertEquals(List.of(true, true, true), sawOthersInFlight);
+        verify(mockSpotifyApiRestClient, times(3)).get();
+    }
+
+    private static Answer<Object> waitForOthers(CountDownLatch allStarted, List<Boolean> sawOthersInFlight, Object body) {
+        return invocation -> {
+            allStarted.countDown();
+            sawOthersInFlight.add(allStarted.await(2, TimeUnit.SECONDS));
+            return body;
+        };
+    }
+
+    @Test
+    void givenOneCallExceedsDeadline_whenGetArtistPageInfo_thenReturnPartialArtistPageWhileThatCallStillRuns() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        spotifyArtistApiService = new SpotifyArtistApiServiceImpl(restClientBuilder, newBatchLoader(), spotifyApiService, appTokenService, executor, newCatalogCache(),
+                new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6)), newTopItemsCache(), missingIdCache);
+        ReflectionTestUtils.setField(spotifyArtistApiService, "apiUri", API_URI);
+        ReflectionTestUtils.setField(spotifyArtistApiService, "artistPageTimeoutMs", 200L);
+
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        // The top tracks call only answers once the test releases it, well after the page deadline.
+        CountDownLatch releaseTopTracks = new CountDownLatch(1);
+        CountDownLatch topTracksReturned = new CountDownLatch(1);
+        RestClient.RequestHeadersUriSpec uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        when(mockSpotifyApiRestClient.get()).thenReturn(uriSpec);
+        givenArtistCallAnswers(uriSpec, API_URI + "/artists/" + TEST_ARTIST_ID,
+                invocation -> new SpotifyArtist(TEST_ARTIST_ID, "Partial Artist", null, null, null));
+        givenArtistCallAnswers(uriSpec, API_URI + "/artists/" + TEST_ARTIST_ID + "/top-tracks", invocation -> {
+            releaseTopTracks.await(10, TimeUnit.SECONDS);
+            topTracksReturned.countDown();
+            return new SpotifyArtistTopTracks(List.of(new SpotifyTrack("track1", "Too Late", null, null, 123, null, 1)));
+        });
+        givenArtistCallAnswers(uriSpec, API_URI + "/artists/" + TEST_ARTIST_ID + "/albums?limit=8",
+                invocation -> new SpotifyPage<>(List.of(new SpotifyAlbum("album1", "Album Title", null, null, null, null, 5, null)), 1, null));
+
+        // when
+        SpotifyArtistPage artistPage = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
+
+        // then
+        assertEquals("Partial Artist", artistPage.getArtistProfile().getName());
+        assertTrue(artistPage.getTopTracks().isEmpty());
+        assertEquals(1, artistPage.getAlbums().size());
+
+        // and the deadline did not cancel the late call: it is still running and finishes once released
+        assertEquals(1, topTracksReturned.getCount());
+        releaseTopTracks.countDown();
+        assertTrue(topTracksReturned.await(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenMalformedArtistId_whenGetArtistPageInfo_thenReturnNullWithoutCallingSpotify() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+
+        // when
+        SpotifyArtistPage artistPage = spotifyArtistApiService.getArtistPageInfo(principal, "not-an-artist-id");
+
+        // then
+        assertNull(artistPage);
+        verifyNoInteractions(appTokenService, spotifyApiService, mockSpotifyApiRestClient);
+    }
+
+    @Test
+    void givenSpotifyReportsArtistNotFound_whenGetArtistPageInfoAgain_thenRejectLocallyWithoutCallingSpotify() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        RestClient.RequestHeadersUriSpec uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec headersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec responseSpec = mock(RestClient.ResponseSpec.class);
+        when(mockSpotifyApiRestClient.get()).thenReturn(uriSpec);
+        when(uriSpec.uri(anyString())).thenReturn(headersSpec);
+        when(headersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(headersSpec);
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+        HttpClientErrorException notFound = HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        when(responseSpec.body(any(Class.class))).thenThrow(notFound);
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenThrow(notFound);
+
+        SpotifyArtistPage first = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
+
+        // when
+        SpotifyArtistPage second = spotifyArtistApiService.getArtistPageInfo(principal, TEST_ARTIST_ID);
+
+        // then
+        assertNull(first);
+        assertNull(second);
         verify(mockSpotifyApiRestClient, times(3)).get();
+        verify(appTokenService, times(1)).getAccessToken();
+    }
+
+    @Test
+    void givenSeveralArtistIds_whenGetArtists_thenFetchMissesInOneMultiGetAndSkipUnknownIds() {
+        // given
+        String secondArtistId = "1dfeR4HaWDbWqFHLkxsg1d";
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        RestClient.RequestHeadersUriSpec uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec headersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec responseSpec = mock(RestClient.ResponseSpec.class);
+        when(mockSpotifyApiRestClient.get()).thenReturn(uriSpec);
+        when(uriSpec.uri(API_URI + "/artists?ids=" + TEST_ARTIST_ID + "," + secondArtistId)).thenReturn(headersSpec);
+        when(headersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN)).thenReturn(headersSpec);
+        when(headersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.LOW)).thenReturn(headersSpec);
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(new SpotifyMultiGet<>(List.of(
+                new SpotifyArtist(TEST_ARTIST_ID, "First Artist", null, null, null))));
+        when(uriSpec.uri(API_URI + "/artists/" + secondArtistId)).thenReturn(headersSpec);
+        when(responseSpec.body(SpotifyArtist.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // when
+        List<SpotifyArtist> artists = spotifyArtistApiService.getArtists(principal,
+                List.of(TEST_ARTIST_ID, "not-an-id", secondArtistId, TEST_ARTIST_ID));
+        List<SpotifyArtist> again = spotifyArtistApiService.getArtists(principal, List.of(TEST_ARTIST_ID, secondArtistId));
+
+        // then
+        assertEquals(1, artists.size());
+        assertEquals("First Artist", artists.get(0).getName());
+        assertEquals(artists, again);
+        assertTrue(missingIdCache.isKnownMissing(SpotifyMissingIdCache.IdType.ARTIST, secondArtistId));
+        verify(mockSpotifyApiRestClient, times(2)).get();
     }
-}
\ No newline at end of file
+}
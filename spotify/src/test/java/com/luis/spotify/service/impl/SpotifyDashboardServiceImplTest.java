@@ -0,0 +1,117 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
+import com.luis.spotify.dto.SpotifyTrack;
+import com.luis.spotify.dto.SpotifyUserProfile;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.SpotifyArtistApiService;
+import com.luis.spotify.service.SpotifyTrackApiService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyDashboardServiceImplTest {
+
+    private static final String SPOTIFY_USER_ID = "testSpotifyUser";
+
+    @Mock
+    private SpotifyApiService spotifyApiService;
+    @Mock
+    private SpotifyArtistApiService spotifyArtistApiService;
+    @Mock
+    private SpotifyTrackApiService spotifyTrackApiService;
+    @Mock
+    private Principal principal;
+
+    private ExecutorService executor;
+    private SpotifyDashboardServiceImpl dashboardService;
+    private UserSpotifyTokens userTokens;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+        dashboardService = new SpotifyDashboardServiceImpl(
+                spotifyApiService, spotifyArtistApiService, spotifyTrackApiService, executor);
+        ReflectionTestUtils.setField(dashboardService, "dashboardTimeoutMs", 500L);
+
+        userTokens = UserSpotifyTokens.builder()
+                .spotifyUserId(SPOTIFY_USER_ID)
+                .accessToken("accessToken")
+                .build();
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenAllSectionsSucceed_whenGetDashboard_thenResolveTokenOnceAndReturnAllSections() {
+        // given
+        SpotifyUserProfile profile = new SpotifyUserProfile();
+        profile.setDisplayName("Test User");
+        List<SpotifyArtist> artists = List.of(new SpotifyArtist());
+        List<SpotifyTrack> tracks = List.of(new SpotifyTrack());
+        when(spotifyApiService.getUserInfo(userTokens)).thenReturn(profile);
+        when(spotifyArtistApiService.getTopArtists(userTokens)).thenReturn(artists);
+        when(spotifyTrackApiService.getTopTracks(userTokens)).thenReturn(tracks);
+
+        // when
+        SpotifyDashboard dashboard = dashboardService.getDashboard(principal);
+
+        // then
+        assertEquals(Status.OK, dashboard.getProfile().getStatus());
+        assertEquals(profile, dashboard.getProfile().getData());
+        assertEquals(Status.OK, dashboard.getTopArtists().getStatus());
+        assertEquals(artists, dashboard.getTopArtists().getData());
+        assertEquals(Status.OK, dashboard.getTopTracks().getStatus());
+        assertEquals(tracks, dashboard.getTopTracks().getData());
+        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+    }
+
+    @Test
+    void givenOneSectionFailsAndOneIsSlow_whenGetDashboard_thenReturnPartialDashboardWithStatuses() {
+        // given
+        List<SpotifyArtist> artists = List.of(new SpotifyArtist());
+        when(spotifyApiService.getUserInfo(userTokens)).thenThrow(new RuntimeException("Connection refused: db-internal:5432"));
+        when(spotifyArtistApiService.getTopArtists(userTokens)).thenReturn(artists);
+        when(spotifyTrackApiService.getTopTracks(userTokens)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return List.of();
+        });
+
+        // when
+        long start = System.nanoTime();
+        SpotifyDashboard dashboard = dashboardService.getDashboard(principal);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertEquals(Status.ERROR, dashboard.getProfile().getStatus());
+        assertEquals("profile unavailable", dashboard.getProfile().getError());
+        assertEquals(500, dashboard.getProfile().getCode());
+        assertNull(dashboard.getProfile().getData());
+        assertEquals(Status.OK, dashboard.getTopArtists().getStatus());
+        assertEquals(artists, dashboard.getTopArtists().getData());
+        assertEquals(Status.TIMEOUT, dashboard.getTopTracks().getStatus());
+        assertEquals(504, dashboard.getTopTracks().getCode());
+        assertTrue(elapsedMs < 1500, "dashboard waited " + elapsedMs + " ms for the slow section");
+    }
+}
@@ -0,0 +1,243 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.cache.SpotifyCatalogCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.cache.SpotifyMissingIdCache.IdType;
+import com.luis.spotify.cache.SpotifySearchCache;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.cache.UserTopItemsCache;
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyDashboard;
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.service.SpotifyApiService;
+import com.luis.spotify.service.SpotifyAppTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyReactiveApiServiceImplTest {
+
+    @Mock
+    private UserSpotifyTokenCache tokenCache;
+
+    @Mock
+    private SpotifyApiService spotifyApiService;
+
+    @Mock
+    private SpotifyAppTokenService appTokenService;
+
+    private final SpotifyMissingIdCache missingIdCache =
+            new SpotifyMissingIdCache(new SimpleMeterRegistry(), 1000, Duration.ofHours(1), false, 0, 0.01);
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final Map<String, ClientResponse> responses = new ConcurrentHashMap<>();
+
+    private SpotifyReactiveApiServiceImpl spotifyReactiveApiService;
+
+    private static final String API_URI = "https://api.spotify.com/v1";
+    private static final String SPOTIFY_USER_ID = "testUser";
+    private static final String ACCESS_TOKEN = "accessToken";
+    private static final String APP_ACCESS_TOKEN = "appAccessToken";
+    private static final String TEST_ALBUM_ID = "4aawyAB9vmqN3uQ7FjRGTy";
+
+    private final Principal principal = () -> SPOTIFY_USER_ID;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    ClientResponse response = responses.get(request.url().getPath());
+                    return Mono.justOrEmpty(response)
+                            .switchIfEmpty(Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.NOT_FOUND).build()));
+                })
+                .build();
+        Duration ttl = Duration.ofMinutes(5);
+
+        spotifyReactiveApiService = new SpotifyReactiveApiServiceImpl(
+                webClient,
+                tokenCache,
+                spotifyApiService,
+                appTokenService,
+                new SpotifyCatalogCache(1000, ttl, ttl, ttl, ttl),
+                new SpotifySearchCache(100, ttl),
+                new UserTopItemsCache(1000, ttl, Duration.ofHours(1), Runnable::run),
+                new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6)),
+                missingIdCache
+        );
+
+        ReflectionTestUtils.setField(spotifyReactiveApiService, "apiUri", API_URI);
+        ReflectionTestUtils.setField(spotifyReactiveApiService, "artistPageTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(spotifyReactiveApiService, "dashboardTimeoutMs", 3000L);
+    }
+
+    private static UserSpotifyTokens createUserTokens(boolean expired) {
+        UserSpotifyTokens userTokens = new UserSpotifyTokens();
+        userTokens.setSpotifyUserId(SPOTIFY_USER_ID);
+        userTokens.setAccessToken(ACCESS_TOKEN);
+        userTokens.setAccessTokenExpiresAt(expired ? Instant.now().minus(1, ChronoUnit.HOURS) : Instant.now().plus(1, ChronoUnit.HOURS));
+        userTokens.setRefreshToken("someRefreshToken");
+        return userTokens;
+    }
+
+    private void respond(String path, HttpStatus status, String json) {
+        responses.put("/v1" + path, ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(json)
+                .build());
+    }
+
+    @Test
+    void givenFreshAppTokenAndAlbum_whenGetAlbumInfo_thenCallSpotifyWithAppToken() {
+        // given
+        when(appTokenService.getAccessTokenIfFresh()).thenReturn(APP_ACCESS_TOKEN);
+        respond("/albums/" + TEST_ALBUM_ID, HttpStatus.OK, "{\"id\":\"" + TEST_ALBUM_ID + "\",\"name\":\"Album\"}");
+
+        // when
+        SpotifyAlbum album = spotifyReactiveApiService.getAlbumInfo(principal, TEST_ALBUM_ID).block();
+
+        // then
+        assertNotNull(album);
+        assertEquals("Album", album.getName());
+        assertEquals(0, album.getTrack().length);
+        assertEquals(1, requests.size());
+        assertEquals("Bearer " + APP_ACCESS_TOKEN, requests.get(0).headers().getFirst(HttpHeaders.AUTHORIZATION));
+        verify(appTokenService, never()).getAccessToken();
+        verifyNoInteractions(tokenCache);
+    }
+
+    @Test
+    void givenAlbumUnknownToSpotify_whenGetAlbumInfo_thenReturnEmptyAndRejectItNextTime() {
+        // given
+        when(appTokenService.getAccessTokenIfFresh()).thenReturn(APP_ACCESS_TOKEN);
+
+        // when
+        SpotifyAlbum first = spotifyReactiveApiService.getAlbumInfo(principal, TEST_ALBUM_ID).block();
+        SpotifyAlbum second = spotifyReactiveApiService.getAlbumInfo(principal, TEST_ALBUM_ID).block();
+
+        // then
+        assertNull(first);
+        assertNull(second);
+        assertTrue(missingIdCache.isKnownMissing(IdType.ALBUM, TEST_ALBUM_ID));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void givenMalformedAlbumId_whenGetAlbumInfo_thenReturnEmptyWithoutCallingSpotify() {
+        // when
+        SpotifyAlbum album = spotifyReactiveApiService.getAlbumInfo(principal, "not-an-id").block();
+
+        // then
+        assertNull(album);
+        assertTrue(requests.isEmpty());
+        verifyNoInteractions(tokenCache, appTokenService);
+    }
+
+    @Test
+    void givenTokensNotCached_whenUserTokens_thenLoadThemOffTheEventLoop() {
+        // given
+        when(tokenCache.getIfPresent(SPOTIFY_USER_ID)).thenReturn(null);
+        when(tokenCache.get(SPOTIFY_USER_ID)).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("boundedElastic"));
+            return createUserTokens(false);
+        });
+
+        // when
+        UserSpotifyTokens tokens = spotifyReactiveApiService.userTokens(SPOTIFY_USER_ID).block();
+
+        // then
+        assertNotNull(tokens);
+        assertEquals(ACCESS_TOKEN, tokens.getAccessToken());
+    }
+
+    @Test
+    void givenAppTokenDueForRenewal_whenAppToken_thenGetItOffTheEventLoop() {
+        // given
+        when(appTokenService.getAccessTokenIfFresh()).thenReturn(null);
+        when(appTokenService.getAccessToken()).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("boundedElastic"));
+            return APP_ACCESS_TOKEN;
+        });
+
+        // when
+        String accessToken = spotifyReactiveApiService.appToken().block();
+
+        // then
+        assertEquals(APP_ACCESS_TOKEN, accessToken);
+    }
+
+    @Test
+    void givenExpiredTokens_whenUserTokens_thenRefreshThem() {
+        // given
+        UserSpotifyTokens refreshed = createUserTokens(false);
+        refreshed.setAccessToken("newAccessToken");
+        when(tokenCache.getIfPresent(SPOTIFY_USER_ID)).thenReturn(createUserTokens(true));
+        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(refreshed);
+
+        // when
+        UserSpotifyTokens tokens = spotifyReactiveApiService.userTokens(SPOTIFY_USER_ID).block();
+
+        // then
+        assertNotNull(tokens);
+        assertEquals("newAccessToken", tokens.getAccessToken());
+    }
+
+    @Test
+    void givenUnknownUser_whenUserTokens_thenFail() {
+        // given
+        when(tokenCache.getIfPresent(SPOTIFY_USER_ID)).thenReturn(null);
+        when(tokenCache.get(SPOTIFY_USER_ID)).thenReturn(null);
+
+        // when / then
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> spotifyReactiveApiService.userTokens(SPOTIFY_USER_ID).block());
+        assertEquals("No tokens found for user: " + SPOTIFY_USER_ID, thrown.getMessage());
+    }
+
+    @Test
+    void givenOneSectionFails_whenGetDashboard_thenReturnOtherSectionsAndMarkItFailed() {
+        // given
+        when(tokenCache.getIfPresent(SPOTIFY_USER_ID)).thenReturn(createUserTokens(false));
+        respond("/me", HttpStatus.OK, "{\"id\":\"" + SPOTIFY_USER_ID + "\",\"display_name\":\"Test\"}");
+        respond("/me/top/artists", HttpStatus.OK, "{\"items\":[{\"id\":\"0TnOYISbd1XYRBk9myaseg\",\"name\":\"ABBA\"}]}");
+        respond("/me/top/tracks", HttpStatus.INTERNAL_SERVER_ERROR, "{}");
+
+        // when
+        SpotifyDashboard dashboard = spotifyReactiveApiService.getDashboard(principal).block();
+
+        // then
+        assertNotNull(dashboard);
+        assertEquals(Status.OK, dashboard.getProfile().getStatus());
+        assertEquals("Test", dashboard.getProfile().getData().getDisplayName());
+        assertEquals(Status.OK, dashboard.getTopArtists().getStatus());
+        assertEquals("ABBA", dashboard.getTopArtists().getData().get(0).getName());
+        assertEquals(Status.ERROR, dashboard.getTopTracks().getStatus());
+        assertEquals("top tracks unavailable", dashboard.getTopTracks().getError());
+        assertEquals(502, dashboard.getTopTracks().getCode());
+    }
+}
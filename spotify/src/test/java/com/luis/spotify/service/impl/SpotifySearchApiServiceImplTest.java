@@ -1,23 +1,28 @@
 package com.luis.spotify.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.cache.SpotifySearchCache;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.dto.SpotifyDashboardSection.Status;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.service.SpotifyAppTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
 import com.luis.spotify.dto.*;
 
+import java.net.URI;
 import java.security.Principal;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,7 +39,7 @@ public class SpotifySearchApiServiceImplTest {
     private UserSpotifyTokenRepository tokenRepository;
 
     @Mock
-    private SpotifyApiServiceImpl spotifyApiService;
+    private SpotifyAppTokenService appTokenService;
 
     @Mock
     private RestClient mockSpotifyApiRestClient;
@@ -46,16 +51,14 @@ public class SpotifySearchApiServiceImplTest {
     @Mock
     private RestClient.ResponseSpec responseSpec;
 
-    @Spy
-    private ObjectMapper objectMapper;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     private SpotifySearchApiServiceImpl spotifySearchApiService;
+    private final SpotifySuggestionIndex suggestionIndex = new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6));
 
     private static final String API_URI = "https://api.spotify.com/v1";
     private static final String SPOTIFY_USER_ID = "testSpotifyUser";
-    private static final String INITIAL_ACCESS_TOKEN = "initialAccessToken";
-    private static final String INITIAL_REFRESH_TOKEN = "initialRefreshToken";
-    private static final String NEW_ACCESS_TOKEN = "newAccessToken";
+    private static final String APP_ACCESS_TOKEN = "appAccessToken";
     private static final String TEST_QUERY = "test song";
 
     @BeforeEach
@@ -65,28 +68,23 @@ public class SpotifySearchApiServiceImplTest {
         spotifySearchApiService = new SpotifySearchApiServiceImpl(
                 restClientBuilder,
                 tokenRepository,
-                spotifyApiService
+                appTokenService,
+                new SpotifySearchCache(100, Duration.ofMinutes(10)),
+                Runnable::run,
+                suggestionIndex
         );
 
         ReflectionTestUtils.setField(spotifySearchApiService, "apiUri", API_URI);
-        ReflectionTestUtils.setField(spotifySearchApiService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(spotifySearchApiService, "sectionTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(spotifySearchApiService, "maxSuggestLimit", 20);
 
 
         lenient().when(mockSpotifyApiRestClient.get()).thenReturn(requestHeadersUriSpec);
-        lenient().when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
+        lenient().when(requestHeadersUriSpec.uri(any(URI.class))).thenReturn(requestHeadersSpec);
         lenient().when(requestHeadersSpec.header(eq(HttpHeaders.AUTHORIZATION), anyString())).thenReturn(requestHeadersSpec);
         lenient().when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
     }
 
-    private UserSpotifyTokens createUserTokens(boolean expired) {
-        UserSpotifyTokens userTokens = new UserSpotifyTokens();
-        userTokens.setSpotifyUserId(SPOTIFY_USER_ID);
-        userTokens.setAccessToken(INITIAL_ACCESS_TOKEN);
-        userTokens.setAccessTokenExpiresAt(expired ? Instant.now().minus(1, ChronoUnit.HOURS) : Instant.now().plus(1, ChronoUnit.HOURS));
-        userTokens.setRefreshToken(INITIAL_REFRESH_TOKEN);
-        return userTokens;
-    }
-
     private Map<String, Object> createSpotifyApiResponse(
             List<SpotifyTrack> tracks,
             List<SpotifyAlbum> albums,
@@ -114,14 +112,17 @@ public class SpotifySearchApiServiceImplTest {
         return response;
     }
 
+    private SpotifySearchResponse toSearchResponse(Map<String, Object> apiResponse) {
+        return objectMapper.convertValue(apiResponse, SpotifySearchResponse.class);
+    }
+
     @Test
-    void givenUserWithNonExpiredToken_whenSearch_thenReturnSearchResultsWithoutTokenRefresh() {
+    void givenAppToken_whenSearch_thenReturnSearchResultsReadWithAppToken() {
         // given
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         SpotifyTrack track = new SpotifyTrack("id1", "Track Name", null, null, 12345, null, 1);
         SpotifyAlbum album = new SpotifyAlbum("idA", "Album Name", null, "2023-01-01", null, null, null,null);
@@ -135,7 +136,7 @@ public class SpotifySearchApiServiceImplTest {
                 Collections.singletonList(playlist)
         );
 
-        when(responseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(apiResponse));
 
         // when
         SpotifySearchResults results = spotifySearchApiService.search(principal, TEST_QUERY);
@@ -160,32 +161,25 @@ public class SpotifySearchApiServiceImplTest {
         assertEquals(5, results.getPlaylists().get(0).getTracks().getTotal());
 
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
-        verify(spotifyApiService, never()).refreshSpotifyAccessToken(any(UserSpotifyTokens.class));
-        verify(tokenRepository, never()).save(any(UserSpotifyTokens.class));
+        verify(appTokenService, times(1)).getAccessToken();
+        verifyNoInteractions(tokenRepository);
         verify(mockSpotifyApiRestClient, times(1)).get();
-        verify(requestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN);
+        verify(requestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN);
     }
 
     @Test
-    void givenUserWithExpiredToken_whenSearch_thenRefreshTokenAndReturnSearchResults() {
+    void givenUserWithExpiredToken_whenSearch_thenSearchWithAppTokenWithoutTouchingUserTokens() {
         // given
-            Principal principal = mock(Principal.class);
-            when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
-
-            UserSpotifyTokens refreshedUserTokens = new UserSpotifyTokens();
-            refreshedUserTokens.setSpotifyUserId(SPOTIFY_USER_ID);
-            refreshedUserTokens.setAccessToken(NEW_ACCESS_TOKEN);
-            refreshedUserTokens.setAccessTokenExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS));
-            refreshedUserTokens.setRefreshToken(INITIAL_REFRESH_TOKEN);
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-            when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(refreshedUserTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
-            Map<String, Object> apiResponse = createSpotifyApiResponse(
+        Map<String, Object> apiResponse = createSpotifyApiResponse(
                 Collections.singletonList(new SpotifyTrack("id2", "Refreshed Track", null, null, 123, null, 1)),
                 Collections.emptyList(), Collections.emptyList(), Collections.emptyList()
         );
-        when(responseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(apiResponse));
 
         // when
         SpotifySearchResults results = spotifySearchApiService.search(principal, TEST_QUERY);
@@ -195,28 +189,29 @@ public class SpotifySearchApiServiceImplTest {
         assertFalse(results.getTracks().isEmpty());
         assertEquals("Refreshed Track", results.getTracks().get(0).getName());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
-        verify(requestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN);
+        verify(requestHeadersSpec, times(1)).header(HttpHeaders.AUTHORIZATION, "Bearer " + APP_ACCESS_TOKEN);
+        verifyNoInteractions(tokenRepository);
     }
 
     @Test
-    void givenNoTokensFoundForUser_whenSearch_thenThrowRuntimeException() {
+    void givenAppTokenUnavailable_whenSearch_thenThrowRuntimeException() {
         // given
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenThrow(
-                new RuntimeException("No tokens found for user: " + SPOTIFY_USER_ID)
+        when(appTokenService.getAccessToken()).thenThrow(
+                new RuntimeException("Failed to get a Spotify app token. null")
         );
 
         // when / then
         RuntimeException thrown = assertThrows(RuntimeException.class, () ->
                 spotifySearchApiService.search(principal, TEST_QUERY)
         );
-        assertEquals("No tokens found for user: " + SPOTIFY_USER_ID, thrown.getMessage());
+        assertEquals("Failed to get a Spotify app token. null", thrown.getMessage());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verifyNoInteractions(mockSpotifyApiRestClient);
     }
 
@@ -226,10 +221,9 @@ public class SpotifySearchApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
-        when(responseSpec.body(Map.class)).thenReturn(null);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(null);
 
         // when
         SpotifySearchResults results = spotifySearchApiService.search(principal, TEST_QUERY);
@@ -241,7 +235,7 @@ public class SpotifySearchApiServiceImplTest {
         assertTrue(results.getArtists().isEmpty());
         assertTrue(results.getPlaylists().isEmpty());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
 
@@ -251,10 +245,9 @@ public class SpotifySearchApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
-        when(responseSpec.body(Map.class)).thenReturn(new HashMap<>());
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(new HashMap<>()));
 
         // when
         SpotifySearchResults results = spotifySearchApiService.search(principal, TEST_QUERY);
@@ -266,7 +259,7 @@ public class SpotifySearchApiServiceImplTest {
         assertTrue(results.getArtists().isEmpty());
         assertTrue(results.getPlaylists().isEmpty());
 
-        verify(spotifyApiService, times(1)).getAndRefreshUserToken(SPOTIFY_USER_ID);
+        verify(appTokenService, times(1)).getAccessToken();
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
 
@@ -276,8 +269,7 @@ public class SpotifySearchApiServiceImplTest {
         Principal principal = mock(Principal.class);
         when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
 
-        UserSpotifyTokens userTokens = createUserTokens(false);
-        when(spotifyApiService.getAndRefreshUserToken(SPOTIFY_USER_ID)).thenReturn(userTokens);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
 
         Map<String, Object> apiResponse = new HashMap<>();
         Map<String, Object> tracksMap = new HashMap<>();
@@ -288,7 +280,7 @@ public class SpotifySearchApiServiceImplTest {
         artistsMap.put("items", Collections.singletonList(new SpotifyArtist("a1", "Artist B", null, null, null)));
         apiResponse.put("artists", artistsMap);
 
-        when(responseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(apiResponse));
 
         // when
         SpotifySearchResults results = spotifySearchApiService.search(principal, TEST_QUERY);
@@ -302,4 +294,176 @@ public class SpotifySearchApiServiceImplTest {
         assertEquals("Artist B", results.getArtists().get(0).getName());
         assertEquals(0, results.getPlaylists().size()); 
     }
+
+    @Test
+    void givenSpotifyApiResponseWithInvalidItems_whenSearch_thenSkipInvalidItemsAndKeepTheRest() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        Map<String, Object> brokenTrack = new HashMap<>();
+        brokenTrack.put("id", "broken");
+        brokenTrack.put("duration_ms", "not a number");
+
+        Map<String, Object> apiResponse = new HashMap<>();
+        apiResponse.put("tracks", Map.of("items", Arrays.asList(
+                Map.of("id", "t1", "name", "Good Track"),
+                brokenTrack,
+                null,
+                Map.of("id", "t2", "name", "Another Good Track")
+        )));
+        apiResponse.put("playlists", Map.of("items", Arrays.asList(null, Map.of("id", "p1", "name", "Playlist"))));
+
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(apiResponse));
+
+        // when
+        SpotifySearchResults results = spotifySearchApiService.search(principal, TEST_QUERY);
+
+        // then
+        assertEquals(2, results.getTracks().size());
+        assertEquals("Good Track", results.getTracks().get(0).getName());
+        assertEquals("Another Good Track", results.getTracks().get(1).getName());
+        assertEquals(1, results.getPlaylists().size());
+        assertTrue(results.getAlbums().isEmpty());
+        assertTrue(results.getArtists().isEmpty());
+    }
+
+    @Test
+    void givenQueryVariantsOfSameSearch_whenSearch_thenCallSpotifyOnceWithNormalizedEncodedQuery() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        SpotifyArtist artist = new SpotifyArtist("idAr", "Taylor Swift", null, null, null);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(createSpotifyApiResponse(
+                Collections.emptyList(), Collections.emptyList(), Collections.singletonList(artist), Collections.emptyList())));
+
+        // when
+        SpotifySearchResults first = spotifySearchApiService.search(principal, "Taylor  Swift ");
+        SpotifySearchResults second = spotifySearchApiService.search(principal, "TAYLOR SWIFT");
+        SpotifySearchResults third = spotifySearchApiService.search(principal, "\uFF34aylor swift");
+
+        // then
+        assertEquals("Taylor Swift", first.getArtists().get(0).getName());
+        assertSame(first, second);
+        assertSame(first, third);
+        verify(mockSpotifyApiRestClient, times(1)).get();
+        verify(requestHeadersUriSpec).uri(URI.create(API_URI + "/search?q=Taylor%20Swift&type=album,track,playlist,artist&limit=8"));
+    }
+
+    @Test
+    void givenQueryWithReservedCharacters_whenSearch_thenEncodeThemIntoTheQueryParameter() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(new SpotifySearchResponse());
+
+        // when
+        spotifySearchApiService.search(principal, "rock&roll #1+");
+
+        // then
+        verify(requestHeadersUriSpec).uri(URI.create(API_URI + "/search?q=rock%26roll%20%231%2B&type=album,track,playlist,artist&limit=8"));
+    }
+
+    @Test
+    void givenQueryWithOperators_whenSearch_thenKeepTheirCaseAndDoNotShareResultsWithPlainWords() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(new SpotifySearchResponse());
+
+        // when
+        spotifySearchApiService.search(principal, "Rock  OR Metal NOT Pop");
+        spotifySearchApiService.search(principal, "rock or metal not pop");
+
+        // then
+        verify(mockSpotifyApiRestClient, times(2)).get();
+        verify(requestHeadersUriSpec).uri(URI.create(API_URI + "/search?q=Rock%20OR%20Metal%20NOT%20Pop&type=album,track,playlist,artist&limit=8"));
+        verify(requestHeadersUriSpec).uri(URI.create(API_URI + "/search?q=rock%20or%20metal%20not%20pop&type=album,track,playlist,artist&limit=8"));
+    }
+
+    @Test
+    void givenQuery_whenSearchSections_thenQueryEachTypeSeparatelyAndReturnSectionsInPageOrder() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+
+        SpotifyTrack track = new SpotifyTrack("id1", "Track Name", null, null, 12345, null, 1);
+        SpotifyArtist artist = new SpotifyArtist("idAr", "Artist Name", null, null, null);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(createSpotifyApiResponse(
+                Collections.singletonList(track), Collections.emptyList(), Collections.singletonList(artist), Collections.emptyList())));
+
+        // when
+        List<SpotifySearchSection> sections = spotifySearchApiService.searchSections(principal, TEST_QUERY).stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        // then
+        assertEquals(List.of("tracks", "artists", "albums", "playlists"),
+                sections.stream().map(SpotifySearchSection::getType).toList());
+        assertTrue(sections.stream().allMatch(section -> section.getStatus() == Status.OK));
+        assertEquals(List.of(track), sections.get(0).getItems());
+        assertEquals(List.of(artist), sections.get(1).getItems());
+        assertTrue(sections.get(2).getItems().isEmpty());
+
+        verify(appTokenService, times(1)).getAccessToken();
+        for (String type : List.of("track", "artist", "album", "playlist")) {
+            verify(requestHeadersUriSpec).uri(URI.create(API_URI + "/search?q=test%20song&type=" + type + "&limit=8"));
+        }
+    }
+
+    @Test
+    void givenOneTypeFails_whenSearchSections_thenOnlyThatSectionIsMarkedAsError() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(new SpotifySearchResponse());
+        when(requestHeadersUriSpec.uri(URI.create(API_URI + "/search?q=test%20song&type=album&limit=8")))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+                        null, "upstream host sp-search-7 failed".getBytes(), null));
+
+        // when
+        List<SpotifySearchSection> sections = spotifySearchApiService.searchSections(principal, TEST_QUERY).stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        // then
+        SpotifySearchSection albums = sections.get(2);
+        assertEquals("albums", albums.getType());
+        assertEquals(Status.ERROR, albums.getStatus());
+        assertEquals("albums unavailable", albums.getError());
+        assertEquals(502, albums.getCode());
+        assertTrue(albums.getItems().isEmpty());
+        assertEquals(3, sections.stream().filter(section -> section.getStatus() == Status.OK).count());
+    }
+
+    @Test
+    void givenEntitiesSeenInEarlierSearch_whenSuggest_thenAnswerFromIndexWithoutCallingSpotify() {
+        // given
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn(SPOTIFY_USER_ID);
+        when(appTokenService.getAccessToken()).thenReturn(APP_ACCESS_TOKEN);
+        SpotifyArtist artist = new SpotifyArtist("idAr", "Taylor Swift", null, null, null);
+        when(responseSpec.body(SpotifySearchResponse.class)).thenReturn(toSearchResponse(createSpotifyApiResponse(
+                Collections.emptyList(), Collections.emptyList(), Collections.singletonList(artist), Collections.emptyList())));
+        spotifySearchApiService.search(principal, "taylor");
+        suggestionIndex.rebuild();
+        clearInvocations(mockSpotifyApiRestClient);
+
+        // when
+        List<SpotifySuggestion> suggestions = spotifySearchApiService.suggest("Tay", 8);
+
+        // then
+        assertEquals(1, suggestions.size());
+        assertEquals("artist", suggestions.get(0).getType());
+        assertEquals("idAr", suggestions.get(0).getId());
+        verifyNoInteractions(mockSpotifyApiRestClient);
+    }
 }
@@ -1,25 +1,32 @@
 package com.luis.spotify.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luis.spotify.cache.SpotifySuggestionIndex;
+import com.luis.spotify.cache.UserTopItemsCache;
+import com.luis.spotify.dto.SpotifyPage;
 import com.luis.spotify.dto.SpotifyTrack;
 import com.luis.spotify.model.UserSpotifyTokens;
 import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.upstream.RequestPriority;
+import com.luis.spotify.upstream.SpotifyRateLimitInterceptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClient;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,8 +44,7 @@ class SpotifyTrackApiServiceImplTest {
     @Mock
     private RestClient mockSpotifyApiRestClient;
 
-    @Spy
-    private ObjectMapper objectMapper;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     private SpotifyTrackApiServiceImpl spotifyTrackApiService;
 
@@ -54,11 +60,12 @@ class SpotifyTrackApiServiceImplTest {
         spotifyTrackApiService = new SpotifyTrackApiServiceImpl(
                 restClientBuilder,
                 tokenRepository,
-                spotifyApiService
+                spotifyApiService,
+                new SpotifySuggestionIndex(1000, 20, Duration.ofHours(6)),
+                new UserTopItemsCache(1000, Duration.ofMinutes(10), Duration.ofHours(1), Runnable::run)
         );
 
         ReflectionTestUtils.setField(spotifyTrackApiService, "apiUri", API_URI);
-        ReflectionTestUtils.setField(spotifyTrackApiService, "objectMapper", objectMapper);
     }
 
     private UserSpotifyTokens createUserTokens(boolean expired) {
@@ -70,6 +77,11 @@ class SpotifyTrackApiServiceImplTest {
         return userTokens;
     }
 
+    private SpotifyPage<SpotifyTrack> toTrackPage(Map<String, Object> apiResponse) {
+        return objectMapper.convertValue(apiResponse,
+                objectMapper.getTypeFactory().constructParametricType(SpotifyPage.class, SpotifyTrack.class));
+    }
+
     @Test
     void givenUserWithNonExpiredToken_whenGetTopTracks_thenReturnListOfTracks() {
         // given
@@ -86,6 +98,8 @@ class SpotifyTrackApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/tracks?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         SpotifyTrack track1 = new SpotifyTrack("id1", "Track One", null, null, 12345, null, 1);
@@ -93,7 +107,7 @@ class SpotifyTrackApiServiceImplTest {
         Map<String, Object> apiResponse = new HashMap<>();
         apiResponse.put("items", List.of(track1, track2));
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toTrackPage(apiResponse));
 
         // when
         List<SpotifyTrack> topTracks = spotifyTrackApiService.getTopTracks(principal);
@@ -127,13 +141,15 @@ class SpotifyTrackApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/tracks?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + NEW_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         SpotifyTrack track1 = new SpotifyTrack("id3", "Refreshed Track", null, null, 34567, null, 3);
         Map<String, Object> apiResponse = new HashMap<>();
         apiResponse.put("items", List.of(track1));
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toTrackPage(apiResponse));
 
         // when
         List<SpotifyTrack> topTracks = spotifyTrackApiService.getTopTracks(principal);
@@ -182,9 +198,11 @@ class SpotifyTrackApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/tracks?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
-        when(localResponseSpec.body(Map.class)).thenReturn(null);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(null);
 
         // when
         List<SpotifyTrack> topTracks = spotifyTrackApiService.getTopTracks(principal);
@@ -213,12 +231,14 @@ class SpotifyTrackApiServiceImplTest {
         when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
         when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/tracks?limit=10")).thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
         when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
 
         Map<String, Object> apiResponse = new HashMap<>();
         apiResponse.put("items", new ArrayList<>());
 
-        when(localResponseSpec.body(Map.class)).thenReturn(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toTrackPage(apiResponse));
 
         // when
         List<SpotifyTrack> topTracks = spotifyTrackApiService.getTopTracks(principal);
@@ -231,4 +251,66 @@ class SpotifyTrackApiServiceImplTest {
         verify(mockSpotifyApiRestClient, times(1)).get();
     }
     
+
+    @Test
+    void givenSpotifyApiReturnsPageWithoutItemsForTopTracks_whenGetTopTracks_thenReturnEmptyListWithoutCachingIt() {
+        // given
+        UserSpotifyTokens userTokens = createUserTokens(false);
+
+        RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec localResponseSpec = mock(RestClient.ResponseSpec.class);
+
+        when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
+        when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/tracks?limit=10")).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
+
+        Map<String, Object> apiResponse = new HashMap<>();
+        apiResponse.put("total", 0);
+        SpotifyPage<SpotifyTrack> pageWithoutItems = toTrackPage(apiResponse);
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(pageWithoutItems);
+
+        // when
+        List<SpotifyTrack> first = spotifyTrackApiService.getTopTracks(userTokens);
+        List<SpotifyTrack> second = spotifyTrackApiService.getTopTracks(userTokens);
+
+        // then
+        assertNull(pageWithoutItems.getItems());
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        verify(mockSpotifyApiRestClient, times(2)).get();
+    }
+
+    @Test
+    void givenTopTracksLoadedRecently_whenGetTopTracksAgain_thenServeFromCacheWithoutCallingSpotify() {
+        // given
+        UserSpotifyTokens userTokens = createUserTokens(false);
+
+        RestClient.RequestHeadersUriSpec localRequestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
+        RestClient.RequestHeadersSpec localRequestHeadersSpec = mock(RestClient.RequestHeadersSpec.class);
+        RestClient.ResponseSpec localResponseSpec = mock(RestClient.ResponseSpec.class);
+
+        when(mockSpotifyApiRestClient.get()).thenReturn(localRequestHeadersUriSpec);
+        when(localRequestHeadersUriSpec.uri(API_URI + "/me/top/tracks?limit=10")).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + INITIAL_ACCESS_TOKEN)).thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.HIGH))
+                .thenReturn(localRequestHeadersSpec);
+        when(localRequestHeadersSpec.retrieve()).thenReturn(localResponseSpec);
+
+        Map<String, Object> apiResponse = new HashMap<>();
+        apiResponse.put("items", List.of(new SpotifyTrack("id1", "Track One", null, null, 12345, null, 1)));
+        when(localResponseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(toTrackPage(apiResponse));
+
+        List<SpotifyTrack> first = spotifyTrackApiService.getTopTracks(userTokens);
+
+        // when
+        List<SpotifyTrack> second = spotifyTrackApiService.getTopTracks(userTokens);
+
+        // then
+        assertSame(first, second);
+        verify(mockSpotifyApiRestClient, times(1)).get();
+    }
 }
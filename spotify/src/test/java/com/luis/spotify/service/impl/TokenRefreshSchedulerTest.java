@@ -0,0 +1,139 @@
+package com.luis.spotify.service.impl;
+
+import com.luis.spotify.cache.UserSpotifyTokenCache;
+import com.luis.spotify.model.UserSpotifyTokens;
+import com.luis.spotify.repository.UserSpotifyTokenRepository;
+import com.luis.spotify.service.SpotifyApiService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRefreshSchedulerTest {
+
+    private static final String SPOTIFY_USER_ID = "testSpotifyUser";
+
+    @Mock
+    private SpotifyApiService spotifyApiService;
+
+    @Mock
+    private UserSpotifyTokenRepository tokenRepository;
+
+    private UserSpotifyTokenCache tokenCache;
+    private TokenRefreshScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new UserSpotifyTokenCache(tokenRepository, 100, Duration.ofHours(1));
+        scheduler = new TokenRefreshScheduler(spotifyApiService, tokenCache, Runnable::run,
+                true, Duration.ofMinutes(5), Duration.ZERO, 2);
+    }
+
+    private static UserSpotifyTokens tokensExpiringIn(Duration duration) {
+        return UserSpotifyTokens.builder()
+                .spotifyUserId(SPOTIFY_USER_ID)
+                .accessToken("accessToken")
+                .refreshToken("refreshToken")
+                .accessTokenExpiresAt(Instant.now().plus(duration))
+                .build();
+    }
+
+    @Test
+    void givenActiveUserWithTokenInsideLeadTime_whenRefreshDueTokens_thenRefreshProactively() {
+        // given
+        tokenCache.put(tokensExpiringIn(Duration.ofMinutes(1)));
+
+        // when
+        scheduler.refreshDueTokens();
+
+        // then
+        verify(spotifyApiService).refreshUserTokenIfExpiringBefore(eq(SPOTIFY_USER_ID), any(Instant.class));
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    void givenActiveUserWithFreshToken_whenRefreshDueTokens_thenNothingRefreshedYet() {
+        // given
+        tokenCache.put(tokensExpiringIn(Duration.of(1, ChronoUnit.HOURS)));
+
+        // when
+        scheduler.refreshDueTokens();
+
+        // then
+        verify(spotifyApiService, never()).refreshUserTokenIfExpiringBefore(anyString(), any(Instant.class));
+        assertEquals(1, scheduler.pendingCount());
+    }
+
+    @Test
+    void givenUserEvictedAsIdle_whenRefreshDueTokens_thenSkipRefresh() {
+        // given
+        tokenCache.put(tokensExpiringIn(Duration.ofMinutes(1)));
+        tokenCache.invalidate(SPOTIFY_USER_ID);
+
+        // when
+        scheduler.refreshDueTokens();
+
+        // then
+        verify(spotifyApiService, never()).refreshUserTokenIfExpiringBefore(anyString(), any(Instant.class));
+    }
+
+    @Test
+    void givenUserRescheduledAfterRefresh_whenRefreshDueTokens_thenOnlyLatestScheduleCounts() {
+        // given
+        tokenCache.put(tokensExpiringIn(Duration.ofMinutes(1)));
+        tokenCache.put(tokensExpiringIn(Duration.ofHours(1)));
+
+        // when
+        scheduler.refreshDueTokens();
+
+        // then
+        verify(spotifyApiService, never()).refreshUserTokenIfExpiringBefore(anyString(), any(Instant.class));
+        assertEquals(1, scheduler.pendingCount());
+    }
+
+    @Test
+    void givenUserIdleLongerThanTimeout_whenRefreshDueTokens_thenStopRefreshingThem() {
+        // given
+        AtomicLong nanos = new AtomicLong();
+        List<Runnable> refreshes = new ArrayList<>();
+        tokenCache = new UserSpotifyTokenCache(tokenRepository, 100, Duration.ofHours(1), nanos::get);
+        scheduler = new TokenRefreshScheduler(spotifyApiService, tokenCache, refreshes::add,
+                true, Duration.ofMinutes(5), Duration.ZERO, 2);
+        // Each refresh saves tokens that are again inside the lead time, so the user is due on every poll.
+        when(spotifyApiService.refreshUserTokenIfExpiringBefore(eq(SPOTIFY_USER_ID), any(Instant.class)))
+                .thenAnswer(invocation -> tokenCache.save(tokensExpiringIn(Duration.ofMinutes(1))));
+        tokenCache.put(tokensExpiringIn(Duration.ofMinutes(1)));
+
+        // when
+        nanos.addAndGet(Duration.ofMinutes(40).toNanos());
+        scheduler.refreshDueTokens();
+        refreshes.remove(0).run();
+        nanos.addAndGet(Duration.ofMinutes(40).toNanos());
+        scheduler.refreshDueTokens();
+        refreshes.remove(0).run();
+
+        // then
+        verify(spotifyApiService, times(1)).refreshUserTokenIfExpiringBefore(eq(SPOTIFY_USER_ID), any(Instant.class));
+        assertNull(tokenCache.getIfPresentQuietly(SPOTIFY_USER_ID));
+        assertEquals(0, scheduler.pendingCount());
+    }
+}
@@ -0,0 +1,251 @@
+package com.luis.spotify.upstream;
+
+import com.luis.spotify.cache.SpotifyMissingIdCache;
+import com.luis.spotify.dto.SpotifyAlbum;
+import com.luis.spotify.dto.SpotifyArtist;
+import com.luis.spotify.dto.SpotifyMultiGet;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotifyCatalogBatchLoaderTest {
+
+    private static final String API_URI = "https://api.spotify.com/v1";
+    private static final String ACCESS_TOKEN = "accessToken";
+    private static final String OTHER_ACCESS_TOKEN = "otherAccessToken";
+    private static final String FIRST_ID = "0TnOYISbd1XYRBk9myaseg";
+    private static final String SECOND_ID = "1dfeR4HaWDbWqFHLkxsg1d";
+    private static final String UNKNOWN_ID = "4aawyAB9vmqN3uQ7FjRGTy";
+
+    @Mock
+    private RestClient.Builder restClientBuilder;
+    @Mock
+    private RestClient restClient;
+    @Mock
+    private RestClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    @Mock
+    private RestClient.RequestHeadersSpec requestHeadersSpec;
+    @Mock
+    private RestClient.ResponseSpec responseSpec;
+
+    private final SpotifyMissingIdCache missingIdCache =
+            new SpotifyMissingIdCache(new SimpleMeterRegistry(), 1000, Duration.ofHours(1), false, 0, 0.01);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(restClientBuilder.build()).thenReturn(restClient);
+        lenient().when(restClient.get()).thenReturn(requestHeadersUriSpec);
+        lenient().when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
+        lenient().when(requestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + ACCESS_TOKEN))
+                .thenReturn(requestHeadersSpec);
+        lenient().when(requestHeadersSpec.attribute(anyString(), any())).thenReturn(requestHeadersSpec);
+        lenient().when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    private SpotifyCatalogBatchLoader newBatchLoader(boolean enabled, Duration maxWait, int maxIds) {
+        return new SpotifyCatalogBatchLoader(restClientBuilder, missingIdCache, meterRegistry,
+                API_URI, enabled, maxWait, maxIds, 4);
+    }
+
+    private static SpotifyArtist artist(String id) {
+        return new SpotifyArtist(id, "Artist " + id, null, null, null);
+    }
+
+    private static SpotifyMultiGet<SpotifyArtist> artists(SpotifyArtist... artists) {
+        return new SpotifyMultiGet<>(List.of(artists));
+    }
+
+    @Test
+    void givenConcurrentLookupsWithinWindow_whenLoad_thenSendOneMultiGetAndDistributeResults() throws Exception {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMillis(50), 50);
+        when(responseSpec.body(any(ParameterizedTypeReference.class)))
+                .thenReturn(artists(artist(SECOND_ID), artist(FIRST_ID)));
+        when(responseSpec.body(SpotifyArtist.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> sameAsFirst = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> unknown = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, UNKNOWN_ID, ACCESS_TOKEN);
+
+        // then
+        assertEquals(FIRST_ID, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(SECOND_ID, second.get(5, TimeUnit.SECONDS).getId());
+        assertSame(first.get(), sameAsFirst.get());
+        assertNull(unknown.get(5, TimeUnit.SECONDS));
+        assertTrue(missingIdCache.isKnownMissing(SpotifyMissingIdCache.IdType.ARTIST, UNKNOWN_ID));
+        verify(requestHeadersUriSpec, times(1))
+                .uri(API_URI + "/artists?ids=" + FIRST_ID + "," + SECOND_ID + "," + UNKNOWN_ID);
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + UNKNOWN_ID);
+        verify(requestHeadersUriSpec, never()).uri(API_URI + "/artists/" + FIRST_ID);
+        assertEquals(3, meterRegistry.summary("spotify.api.batch.size").totalAmount());
+        verify(requestHeadersSpec).attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.LOW);
+    }
+
+    @Test
+    void givenBatchReachesMaxIds_whenLoad_thenSendWithoutWaitingForWindow() throws Exception {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMinutes(1), 2);
+        when(responseSpec.body(any(ParameterizedTypeReference.class)))
+                .thenReturn(artists(artist(FIRST_ID), artist(SECOND_ID)));
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, ACCESS_TOKEN);
+
+        // then
+        assertEquals(FIRST_ID, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(SECOND_ID, second.get(5, TimeUnit.SECONDS).getId());
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists?ids=" + FIRST_ID + "," + SECOND_ID);
+    }
+
+    @Test
+    void givenSingleLookupInWindow_whenLoad_thenUseSingleEntityEndpoint() throws Exception {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMillis(1), 50);
+        when(responseSpec.body(SpotifyAlbum.class))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // when
+        SpotifyAlbum album = batchLoader.load(SpotifyCatalogBatchLoader.ALBUMS, UNKNOWN_ID, ACCESS_TOKEN)
+                .get(5, TimeUnit.SECONDS);
+
+        // then
+        assertNull(album);
+        assertTrue(missingIdCache.isKnownMissing(SpotifyMissingIdCache.IdType.ALBUM, UNKNOWN_ID));
+        verify(requestHeadersUriSpec).uri(API_URI + "/albums/" + UNKNOWN_ID);
+        verify(requestHeadersSpec, never()).attribute(anyString(), any());
+    }
+
+    @Test
+    void givenMalformedEntityInMultiGet_whenLoad_thenFailOnlyTheLookupsForThatId() throws Exception {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMinutes(1), 2);
+        String json = "{\"artists\": [{\"id\": \"" + FIRST_ID + "\", \"name\": \"First\"},"
+                + " {\"id\": \"" + SECOND_ID + "\", \"followers\": \"lots\"}]}";
+        SpotifyMultiGet<SpotifyArtist> response =
+                new ObjectMapper().readValue(json, new TypeReference<SpotifyMultiGet<SpotifyArtist>>() {});
+        RuntimeException malformed = new RuntimeException("Error while extracting response");
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenReturn(response);
+        when(responseSpec.body(SpotifyArtist.class)).thenThrow(malformed);
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, ACCESS_TOKEN);
+
+        // then
+        assertEquals("First", first.get(5, TimeUnit.SECONDS).getName());
+        CompletionException failure = assertThrows(CompletionException.class, second::join);
+        assertSame(malformed, failure.getCause());
+        assertFalse(missingIdCache.isKnownMissing(SpotifyMissingIdCache.IdType.ARTIST, SECOND_ID));
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + SECOND_ID);
+        verify(requestHeadersUriSpec, never()).uri(API_URI + "/artists/" + FIRST_ID);
+    }
+
+    @Test
+    void givenMultiGetFails_whenLoad_thenFailEveryCallerInBatch() {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMinutes(1), 2);
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenThrow(new RuntimeException("Upstream down"));
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, ACCESS_TOKEN);
+
+        // then
+        CompletionException failure = assertThrows(CompletionException.class, first::join);
+        assertEquals("Upstream down", failure.getCause().getMessage());
+        assertThrows(CompletionException.class, second::join);
+        assertFalse(missingIdCache.isKnownMissing(SpotifyMissingIdCache.IdType.ARTIST, FIRST_ID));
+    }
+
+    @Test
+    void givenMultiGetRejectedWithClientError_whenLoad_thenRetryIdsOneByOneAndFailOnlyTheBadOne() throws Exception {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMinutes(1), 2);
+        HttpClientErrorException badRequest =
+                HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "invalid id", null, null, null);
+        when(responseSpec.body(any(ParameterizedTypeReference.class))).thenThrow(badRequest);
+        when(responseSpec.body(SpotifyArtist.class)).thenReturn(artist(FIRST_ID)).thenThrow(badRequest);
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, ACCESS_TOKEN);
+
+        // then
+        assertEquals(FIRST_ID, first.get(5, TimeUnit.SECONDS).getId());
+        CompletionException failure = assertThrows(CompletionException.class, second::join);
+        assertSame(badRequest, failure.getCause());
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists?ids=" + FIRST_ID + "," + SECOND_ID);
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + FIRST_ID);
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + SECOND_ID);
+    }
+
+    @Test
+    void givenLookupsWithDifferentTokens_whenLoad_thenBatchAndSendThemSeparately() throws Exception {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(true, Duration.ofMillis(20), 50);
+        when(requestHeadersSpec.header(HttpHeaders.AUTHORIZATION, "Bearer " + OTHER_ACCESS_TOKEN))
+                .thenReturn(requestHeadersSpec);
+        when(responseSpec.body(SpotifyArtist.class)).thenReturn(artist(FIRST_ID));
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second =
+                batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, OTHER_ACCESS_TOKEN);
+
+        // then
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + FIRST_ID);
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + SECOND_ID);
+        verify(requestHeadersSpec).header(HttpHeaders.AUTHORIZATION, "Bearer " + ACCESS_TOKEN);
+        verify(requestHeadersSpec).header(HttpHeaders.AUTHORIZATION, "Bearer " + OTHER_ACCESS_TOKEN);
+        verify(requestHeadersUriSpec, never()).uri(startsWith(API_URI + "/artists?ids="));
+    }
+
+    @Test
+    void givenBatchingDisabled_whenLoad_thenFetchEachIdOnCallerThread() {
+        // given
+        SpotifyCatalogBatchLoader batchLoader = newBatchLoader(false, Duration.ofMillis(50), 50);
+        when(responseSpec.body(SpotifyArtist.class)).thenReturn(artist(FIRST_ID), artist(SECOND_ID));
+
+        // when
+        CompletableFuture<SpotifyArtist> first = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, FIRST_ID, ACCESS_TOKEN);
+        CompletableFuture<SpotifyArtist> second = batchLoader.load(SpotifyCatalogBatchLoader.ARTISTS, SECOND_ID, ACCESS_TOKEN);
+
+        // then
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(FIRST_ID, first.join().getId());
+        assertEquals(SECOND_ID, second.join().getId());
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + FIRST_ID);
+        verify(requestHeadersUriSpec).uri(API_URI + "/artists/" + SECOND_ID);
+    }
+}
@@ -0,0 +1,204 @@
+package com.luis.spotify.upstream;
+
+import com.luis.spotify.metrics.SpotifyApiMetricsInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class SpotifyRateLimitInterceptorTest {
+
+    private static final String API_URI = "https://api.spotify.com/v1";
+    private static final String ALBUM_URI = API_URI + "/albums/4aawyAB9vmqN3uQ7FjRGTy";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpotifyRateLimiter rateLimiter;
+    private MockRestServiceServer server;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new SpotifyRateLimiter(1000, 10, 2,
+                Duration.ofSeconds(2), Duration.ofMillis(500), Duration.ZERO, meterRegistry);
+        RestClient.Builder builder = RestClient.builder()
+                .requestInterceptor(new SpotifyRateLimitInterceptor(rateLimiter, API_URI, 1, Duration.ofSeconds(3)));
+        server = MockRestServiceServer.bindTo(builder).build();
+        restClient = builder.build();
+    }
+
+    @Test
+    void givenTooManyRequestsWithShortRetryAfter_whenCall_thenRetryAndReturnBody() {
+        // given
+        server.expect(requestTo(ALBUM_URI)).andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "0"));
+        server.expect(requestTo(ALBUM_URI)).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"id\":\"4aawyAB9vmqN3uQ7FjRGTy\"}", MediaType.APPLICATION_JSON));
+
+        // when
+        String body = restClient.get().uri(ALBUM_URI).retrieve().body(String.class);
+
+        // then
+        assertEquals("{\"id\":\"4aawyAB9vmqN3uQ7FjRGTy\"}", body);
+        assertEquals(1, meterRegistry.counter("spotify.ratelimit.throttled").count());
+        server.verify();
+    }
+
+    @Test
+    void givenLowPriorityCall_whenTooManyRequests_thenDoNotRetry() {
+        // given
+        server.expect(requestTo(ALBUM_URI))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "0"));
+
+        // when / then
+        assertThrows(HttpClientErrorException.TooManyRequests.class, () -> restClient.get()
+                .uri(ALBUM_URI)
+                .attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.LOW)
+                .retrieve()
+                .body(String.class));
+        server.verify();
+    }
+
+    @Test
+    void givenRetryAfterLongerThanNormalMaxWait_whenTooManyRequests_thenReturn429InsteadOfRetrying() {
+        // given
+        server.expect(requestTo(ALBUM_URI))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1"));
+
+        // when / then
+        assertThrows(HttpClientErrorException.TooManyRequests.class,
+                () -> restClient.get().uri(ALBUM_URI).retrieve().body(String.class));
+        assertEquals(0, meterRegistry.counter("spotify.ratelimit.shed", "priority", "NORMAL").count());
+        server.verify();
+    }
+
+    @Test
+    void givenLongRetryAfter_whenNextCall_thenShedWithoutCallingSpotify() {
+        // given
+        server.expect(requestTo(ALBUM_URI))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30"));
+        assertThrows(HttpClientErrorException.TooManyRequests.class,
+                () -> restClient.get().uri(ALBUM_URI).retrieve().body(String.class));
+
+        // when / then
+        SpotifyRateLimitedException shed = assertThrows(SpotifyRateLimitedException.class,
+                () -> restClient.get().uri(ALBUM_URI).retrieve().body(String.class));
+        assertTrue(shed.getRetryAfter().toSeconds() > 20);
+        assertEquals(RequestPriority.NORMAL, shed.getPriority());
+        server.verify();
+    }
+
+    @Test
+    void givenExhaustedBudget_whenAcquire_thenShedNormalButServeHighFromReserve() {
+        // given
+        SpotifyRateLimiter slowLimiter = new SpotifyRateLimiter(0.01, 4, 2,
+                Duration.ZERO, Duration.ZERO, Duration.ZERO, meterRegistry);
+        slowLimiter.acquire(RequestPriority.NORMAL);
+        slowLimiter.acquire(RequestPriority.NORMAL);
+
+        // when / then
+        assertThrows(SpotifyRateLimitedException.class, () -> slowLimiter.acquire(RequestPriority.NORMAL));
+        assertDoesNotThrow(() -> slowLimiter.acquire(RequestPriority.HIGH));
+        assertDoesNotThrow(() -> slowLimiter.acquire(RequestPriority.HIGH));
+        assertThrows(SpotifyRateLimitedException.class, () -> slowLimiter.acquire(RequestPriority.HIGH));
+        assertEquals(2, meterRegistry.counter("spotify.ratelimit.shed", "priority", "NORMAL").count()
+                + meterRegistry.counter("spotify.ratelimit.shed", "priority", "HIGH").count());
+    }
+
+    @Test
+    void givenAccountsOnTheApiHost_whenTokenCall_thenBypassExhaustedBudget() {
+        // given
+        SpotifyRateLimiter slowLimiter = new SpotifyRateLimiter(0.01, 1, 0,
+                Duration.ZERO, Duration.ZERO, Duration.ZERO, meterRegistry);
+        slowLimiter.acquire(RequestPriority.NORMAL);
+        RestClient.Builder builder = RestClient.builder().requestInterceptor(new SpotifyRateLimitInterceptor(
+                slowLimiter, "http://127.0.0.1:8090/v1", 1, Duration.ofSeconds(3)));
+        MockRestServiceServer sharedHostServer = MockRestServiceServer.bindTo(builder).build();
+        sharedHostServer.expect(requestTo("http://127.0.0.1:8090/api/token"))
+                .andRespond(withSuccess("{\"access_token\":\"token\"}", MediaType.APPLICATION_JSON));
+
+        // when
+        String body = builder.build().post().uri("http://127.0.0.1:8090/api/token").retrieve().body(String.class);
+
+        // then
+        assertEquals("{\"access_token\":\"token\"}", body);
+        assertThrows(SpotifyRateLimitedException.class, () -> builder.build().get()
+                .uri("http://127.0.0.1:8090/v1/albums/4aawyAB9vmqN3uQ7FjRGTy").retrieve().body(String.class));
+        sharedHostServer.verify();
+    }
+
+    @Test
+    void givenRetryAfterHeaderForms_whenRetryAfterOf_thenParse() {
+        HttpHeaders seconds = new HttpHeaders();
+        seconds.set(HttpHeaders.RETRY_AFTER, "7");
+        assertEquals(Duration.ofSeconds(7), SpotifyRateLimitInterceptor.retryAfterOf(seconds));
+
+        assertEquals(Duration.ofSeconds(1), SpotifyRateLimitInterceptor.retryAfterOf(new HttpHeaders()));
+
+        HttpHeaders garbage = new HttpHeaders();
+        garbage.set(HttpHeaders.RETRY_AFTER, "soon");
+        assertEquals(Duration.ofSeconds(1), SpotifyRateLimitInterceptor.retryAfterOf(garbage));
+    }
+
+    @Test
+    void givenTooManyRequestsOnWebClient_whenCall_thenRetryAsNextAttempt() {
+        // given
+        List<Object> attempts = new ArrayList<>();
+        WebClient webClient = WebClient.builder()
+                .filter(new SpotifyRateLimitInterceptor(rateLimiter, API_URI, 1, Duration.ofSeconds(3)))
+                .exchangeFunction(request -> {
+                    attempts.add(request.attribute(SpotifyApiMetricsInterceptor.RETRY_ATTRIBUTE).orElse(0));
+                    return Mono.just(attempts.size() == 1
+                            ? ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS)
+                                    .header(HttpHeaders.RETRY_AFTER, "0").build()
+                            : ClientResponse.create(HttpStatus.OK).body("{}").build());
+                })
+                .build();
+
+        // when
+        String body = webClient.get().uri(ALBUM_URI).retrieve().bodyToMono(String.class).block();
+
+        // then
+        assertEquals("{}", body);
+        assertEquals(List.of(0, 1), attempts);
+        assertEquals(1, meterRegistry.counter("spotify.ratelimit.throttled").count());
+    }
+
+    @Test
+    void givenLowPriorityWebClientCall_whenTooManyRequests_thenDoNotRetry() {
+        // given
+        WebClient webClient = WebClient.builder()
+                .filter(new SpotifyRateLimitInterceptor(rateLimiter, API_URI, 1, Duration.ofSeconds(3)))
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "0").build()))
+                .build();
+
+        // when / then
+        assertThrows(WebClientResponseException.TooManyRequests.class, () -> webClient.get()
+                .uri(ALBUM_URI)
+                .attribute(SpotifyRateLimitInterceptor.PRIORITY_ATTRIBUTE, RequestPriority.LOW)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block());
+    }
+}
@@ -0,0 +1,276 @@
+package com.luis.spotify.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifyRequestCoalescerTest {
+
+    private static final String API_URI = "https://api.spotify.com/v1";
+    private static final String ALBUM_URI = API_URI + "/albums/4aawyAB9vmqN3uQ7FjRGTy";
+    private static final String ALBUM_JSON = "{\"id\":\"4aawyAB9vmqN3uQ7FjRGTy\",\"name\":\"Album\"}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpotifyRequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new SpotifyRequestCoalescer(meterRegistry, API_URI, true, Duration.ofSeconds(5));
+    }
+
+    private String keyOf(String method, String uri, String authorization) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(authorization);
+        return coalescer.keyOf(HttpMethod.valueOf(method), URI.create(uri), headers);
+    }
+
+    @Test
+    void givenEquivalentCatalogRequests_whenKeyOf_thenNormalizeParameterOrderAndMarket() {
+        assertEquals(keyOf("GET", API_URI + "/artists/abc/albums?limit=10&market=us&offset=0", "appToken"),
+                keyOf("GET", API_URI + "//artists/abc/albums/?offset=0&market=US&limit=10", "appToken"));
+        assertNotEquals(keyOf("GET", API_URI + "/albums?ids=a,b", "userA"),
+                keyOf("GET", API_URI + "/albums?ids=b,a", "userA"));
+        assertNotEquals(keyOf("GET", ALBUM_URI + "?market=US", "userA"),
+                keyOf("GET", ALBUM_URI + "?market=SE", "userA"));
+    }
+
+    @Test
+    void givenUserSpecificOrForeignRequests_whenKeyOf_thenDoNotCoalesceAcrossTokens() {
+        assertNull(keyOf("GET", API_URI + "/me/top/tracks?limit=10", "userA"));
+        assertNull(keyOf("POST", ALBUM_URI, "userA"));
+        assertNull(keyOf("GET", "https://accounts.spotify.com/api/token", "userA"));
+        assertNotEquals(keyOf("GET", ALBUM_URI + "?market=from_token", "userA"),
+                keyOf("GET", ALBUM_URI + "?market=from_token", "userB"));
+        assertNotEquals(keyOf("GET", ALBUM_URI, "userA"), keyOf("GET", ALBUM_URI, "userB"));
+        assertNull(new SpotifyRequestCoalescer(meterRegistry, API_URI, false, Duration.ofSeconds(5))
+                .keyOf(HttpMethod.GET, URI.create(ALBUM_URI), new HttpHeaders()));
+    }
+
+    @Test
+    void givenIdenticalConcurrentRequests_whenIntercept_thenShareOneUpstreamCall() throws Exception {
+        // given
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            upstreamCalls.incrementAndGet();
+            await(release);
+            MockClientHttpResponse response =
+                    new MockClientHttpResponse(ALBUM_JSON.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response;
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+
+        // when
+        try {
+            List<Future<String>> results = List.of(
+                    callers.submit(() -> callAlbum(execution)),
+                    callers.submit(() -> callAlbum(execution)),
+                    callers.submit(() -> callAlbum(execution)));
+            waitUntil(() -> meterRegistry.counter("spotify.api.coalesced").count() == 2);
+            release.countDown();
+
+            // then
+            for (Future<String> result : results) {
+                assertEquals(ALBUM_JSON, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, upstreamCalls.get());
+
+        // and the next request, no longer concurrent, goes upstream again
+        release.countDown();
+        assertEquals(ALBUM_JSON, callAlbum(execution));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void givenUpstreamCallFails_whenIntercept_thenEveryWaitingRequestFails() throws Exception {
+        // given
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            sent.countDown();
+            await(release);
+            throw new IOException("connection reset");
+        };
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> callAlbumUnchecked(execution));
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> callAlbumUnchecked(execution));
+        waitUntil(() -> meterRegistry.counter("spotify.api.coalesced").count() == 1);
+
+        // when
+        release.countDown();
+
+        // then
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, leaderFailure.getCause().getCause());
+        assertInstanceOf(IOException.class, followerFailure.getCause().getCause());
+    }
+
+    @Test
+    void givenUpstreamCallThrowsError_whenIntercept_thenWaitingRequestFailsInsteadOfHanging() throws Exception {
+        // given
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            sent.countDown();
+            await(release);
+            throw new StackOverflowError();
+        };
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> callAlbumUnchecked(execution));
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> callAlbumUnchecked(execution));
+        waitUntil(() -> meterRegistry.counter("spotify.api.coalesced").count() == 1);
+
+        // when
+        release.countDown();
+
+        // then
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, leaderFailure.getCause());
+        assertInstanceOf(StackOverflowError.class, followerFailure.getCause().getCause().getCause());
+    }
+
+    @Test
+    void givenUpstreamCallOutlastsReadTimeout_whenIntercept_thenWaitingRequestTimesOut() throws Exception {
+        // given
+        coalescer = new SpotifyRequestCoalescer(meterRegistry, API_URI, true, Duration.ofMillis(50));
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            sent.countDown();
+            await(release);
+            return new MockClientHttpResponse(ALBUM_JSON.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        };
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> callAlbumUnchecked(execution));
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+
+        // when
+        IOException followerFailure = assertThrows(IOException.class, () -> callAlbum(execution));
+
+        // then
+        assertInstanceOf(SocketTimeoutException.class, followerFailure);
+        release.countDown();
+        assertEquals(ALBUM_JSON, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void givenIdenticalConcurrentWebClientRequests_whenExchange_thenShareOneUpstreamCall() {
+        // given
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(200)).map(ignored -> ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(ALBUM_JSON)
+                            .build());
+                })
+                .filter(coalescer)
+                .build();
+        Mono<String> album = webClient.get().uri(ALBUM_URI).retrieve().bodyToMono(String.class);
+
+        // when
+        List<String> bodies = Mono.zip(album, album, album)
+                .map(results -> List.of(results.getT1(), results.getT2(), results.getT3()))
+                .block(Duration.ofSeconds(5));
+
+        // then
+        assertEquals(List.of(ALBUM_JSON, ALBUM_JSON, ALBUM_JSON), bodies);
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(2, meterRegistry.counter("spotify.api.coalesced").count());
+    }
+
+    @Test
+    void givenFirstWebClientCallerCancels_whenExchange_thenOthersStillGetTheResponse() {
+        // given
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(200)).map(ignored -> ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(ALBUM_JSON)
+                            .build());
+                })
+                .filter(coalescer)
+                .build();
+        Mono<String> album = webClient.get().uri(ALBUM_URI).retrieve().bodyToMono(String.class);
+
+        // when
+        album.subscribe().dispose();
+        String body = album.block(Duration.ofSeconds(5));
+
+        // then
+        assertEquals(ALBUM_JSON, body);
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    private String callAlbum(ClientHttpRequestExecution execution) throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create(ALBUM_URI));
+        try (ClientHttpResponse response = coalescer.intercept(request, new byte[0], execution)) {
+            return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String callAlbumUnchecked(ClientHttpRequestExecution execution) {
+        try {
+            return callAlbum(execution);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IOException("test timed out");
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("condition not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.luis.spotify.upstream;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class SpotifyResilienceInterceptorTest {
+
+    private static final String API_URI = "https://api.spotify.com/v1";
+    private static final String TOKEN_URI = "https://accounts.spotify.com/api/token";
+    private static final String SEARCH_URI = API_URI + "/search?q=abba&type=artist";
+    private static final String ALBUM_URI = API_URI + "/albums/4aawyAB9vmqN3uQ7FjRGTy";
+
+    private final Map<EndpointFamily, Bulkhead> bulkheads = new EnumMap<>(EndpointFamily.class);
+    private final Map<EndpointFamily, CircuitBreaker> circuitBreakers = new EnumMap<>(EndpointFamily.class);
+    private SpotifyResilienceInterceptor interceptor;
+    private MockRestServiceServer server;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build();
+        for (EndpointFamily family : EndpointFamily.values()) {
+            bulkheads.put(family, Bulkhead.of(family.tag(),
+                    BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build()));
+            circuitBreakers.put(family, CircuitBreaker.of(family.tag(), circuitBreakerConfig));
+        }
+        interceptor = new SpotifyResilienceInterceptor(bulkheads, circuitBreakers, API_URI, TOKEN_URI);
+
+        RestClient.Builder builder = RestClient.builder().requestInterceptor(interceptor);
+        server = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        restClient = builder.build();
+    }
+
+    @Test
+    void givenSpotifyUris_whenFamilyOf_thenClassifyByEndpoint() {
+        assertEquals(EndpointFamily.SEARCH, interceptor.familyOf(URI.create(SEARCH_URI)));
+        assertEquals(EndpointFamily.USER_TOP, interceptor.familyOf(URI.create(API_URI + "/me/top/tracks?limit=10")));
+        assertEquals(EndpointFamily.USER_TOP, interceptor.familyOf(URI.create(API_URI + "/me")));
+        assertEquals(EndpointFamily.CATALOG, interceptor.familyOf(URI.create(ALBUM_URI)));
+        assertEquals(EndpointFamily.CATALOG, interceptor.familyOf(URI.create(API_URI + "/artists/abc/top-tracks")));
+        assertEquals(EndpointFamily.AUTH, interceptor.familyOf(URI.create(TOKEN_URI)));
+    }
+
+    @Test
+    void givenAccountsAndApiOnOneHost_whenFamilyOf_thenClassifyByPath() {
+        // given
+        SpotifyResilienceInterceptor sharedHost = new SpotifyResilienceInterceptor(bulkheads, circuitBreakers,
+                "http://127.0.0.1:8090/v1", "http://127.0.0.1:8090/api/token");
+
+        // when / then
+        assertEquals(EndpointFamily.AUTH, sharedHost.familyOf(URI.create("http://127.0.0.1:8090/api/token")));
+        assertEquals(EndpointFamily.USER_TOP, sharedHost.familyOf(URI.create("http://127.0.0.1:8090/v1/me")));
+        assertEquals(EndpointFamily.CATALOG,
+                sharedHost.familyOf(URI.create("http://127.0.0.1:8090/v1/albums/4aawyAB9vmqN3uQ7FjRGTy")));
+    }
+
+    @Test
+    void givenSearchKeepsFailing_whenCall_thenOpenSearchBreakerOnlyAndFailFast() {
+        // given
+        server.expect(ExpectedCount.times(4), requestTo(SEARCH_URI))
+                .andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        server.expect(requestTo(ALBUM_URI))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class,
+                    () -> restClient.get().uri(SEARCH_URI).retrieve().body(String.class));
+        }
+
+        // when / then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.get(EndpointFamily.SEARCH).getState());
+        assertThrows(CallNotPermittedException.class,
+                () -> restClient.get().uri(SEARCH_URI).retrieve().body(String.class));
+        assertEquals("{}", restClient.get().uri(ALBUM_URI).retrieve().body(String.class));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.get(EndpointFamily.CATALOG).getState());
+        server.verify();
+    }
+
+    @Test
+    void givenClientErrors_whenCall_thenBreakerStaysClosed() {
+        // given
+        server.expect(ExpectedCount.times(4), requestTo(ALBUM_URI))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class,
+                    () -> restClient.get().uri(ALBUM_URI).retrieve().body(String.class));
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.get(EndpointFamily.CATALOG).getState());
+        server.verify();
+    }
+
+    @Test
+    void givenSearchBulkheadFull_whenCall_thenRejectWithoutCallingSpotify() {
+        // given
+        assertTrue(bulkheads.get(EndpointFamily.SEARCH).tryAcquirePermission());
+
+        // when / then
+        assertThrows(BulkheadFullException.class,
+                () -> restClient.get().uri(SEARCH_URI).retrieve().body(String.class));
+        server.verify();
+    }
+
+    @Test
+    void givenWebClientCallsFailing_whenCall_thenOpenBreakerAndReleaseBulkhead() {
+        // given
+        WebClient webClient = WebClient.builder()
+                .filter(interceptor)
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build()))
+                .build();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class,
+                    () -> webClient.get().uri(SEARCH_URI).retrieve().bodyToMono(String.class).block());
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.get(EndpointFamily.SEARCH).getState());
+        assertEquals(1, bulkheads.get(EndpointFamily.SEARCH).getMetrics().getAvailableConcurrentCalls());
+        assertThrows(CallNotPermittedException.class,
+                () -> webClient.get().uri(SEARCH_URI).retrieve().bodyToMono(String.class).block());
+    }
+
+    @Test
+    void givenCatalogBulkheadFull_whenWebClientCall_thenRejectWithoutCallingSpotify() {
+        // given
+        assertTrue(bulkheads.get(EndpointFamily.CATALOG).tryAcquirePermission());
+        WebClient webClient = WebClient.builder()
+                .filter(interceptor)
+                .exchangeFunction(request -> Mono.error(new AssertionError("Spotify must not be called")))
+                .build();
+
+        // when / then
+        assertThrows(BulkheadFullException.class,
+                () -> webClient.get().uri(ALBUM_URI).retrieve().bodyToMono(String.class).block());
+    }
+
+    @Test
+    void givenCallsWaitingOnRateLimiter_whenCallThroughLimiter_thenWaitsDoNotCountAsSlowCalls() {
+        // given
+        CircuitBreaker breaker = CircuitBreaker.of("catalog", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .slowCallDurationThreshold(Duration.ofMillis(100))
+                .slowCallRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        circuitBreakers.put(EndpointFamily.CATALOG, breaker);
+        // One permit every 200 ms, and every first attempt answered with a 429, so each call waits twice.
+        SpotifyRateLimiter rateLimiter = new SpotifyRateLimiter(5, 1, 0,
+                Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ZERO, new SimpleMeterRegistry());
+        RestClient.Builder builder = RestClient.builder()
+                .requestInterceptor(new SpotifyRateLimitInterceptor(rateLimiter, API_URI, 1, Duration.ofSeconds(3)))
+                .requestInterceptor(interceptor);
+        MockRestServiceServer limitedServer = MockRestServiceServer.bindTo(builder).build();
+        RestClient limitedClient = builder.build();
+        for (int i = 0; i < 4; i++) {
+            limitedServer.expect(requestTo(ALBUM_URI))
+                    .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "0"));
+            limitedServer.expect(requestTo(ALBUM_URI))
+                    .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        }
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertEquals("{}", limitedClient.get().uri(ALBUM_URI).retrieve().body(String.class));
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getMetrics().getNumberOfSlowCalls());
+        limitedServer.verify();
+    }
+}